@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client;
+
+import java.util.List;
+
+/**
+ * Page of a jobs listing.
+ *
+ * @param <T> the type of the jobs
+ */
+public class JobsPage<T> {
+    private final List<T> jobs;
+    private final String nextPageToken;
+
+    public JobsPage(List<T> jobs, String nextPageToken) {
+        this.jobs = jobs;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Return the jobs of the page.
+     *
+     * @return the jobs of the page.
+     */
+    public List<T> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Return the token of the next page.
+     *
+     * @return the token of the next page, <code>null</code> if the page is the last one or the listing is not in the
+     *         default order.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+}
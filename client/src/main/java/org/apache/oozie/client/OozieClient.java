@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import org.apache.oozie.BuildInfo;
 import org.apache.oozie.cli.ValidationUtil;
+import org.apache.oozie.client.rest.JsonJobsReader;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonToBean;
 import org.apache.oozie.client.rest.RestConstants;
@@ -52,6 +53,7 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -1601,25 +1603,32 @@ public class OozieClient {
         return new CoordActionInfo(actionId).call();
     }
 
-    private class JobsStatus extends ClientCallable<List<WorkflowJob>> {
+    private abstract class JobsPageStatus<T> extends ClientCallable<JobsPage<T>> {
+        private final Object jobsKey;
+        private final Object pageTokenKey;
 
-        JobsStatus(String filter, int start, int len) {
+        JobsPageStatus(String jobType, Object jobsKey, Object pageTokenKey, String filter, int start, String pageToken,
+                int len) {
             super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
-                    RestConstants.JOBTYPE_PARAM, "wf", RestConstants.OFFSET_PARAM, Integer.toString(start),
-                    RestConstants.LEN_PARAM, Integer.toString(len)));
+                    RestConstants.JOBTYPE_PARAM, jobType,
+                    RestConstants.OFFSET_PARAM, (pageToken == null) ? Integer.toString(start) : null,
+                    RestConstants.PAGE_TOKEN_PARAM, pageToken, RestConstants.LEN_PARAM, Integer.toString(len)));
+            this.jobsKey = jobsKey;
+            this.pageTokenKey = pageTokenKey;
         }
 
+        protected abstract T createJob(JSONObject json);
+
         @Override
-        protected List<WorkflowJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
+        protected JobsPage<T> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray workflows = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
-                if (workflows == null) {
-                    workflows = new JSONArray();
+                JsonJobsReader reader = new JsonJobsReader(new InputStreamReader(conn.getInputStream()), jobsKey);
+                List<T> jobs = new ArrayList<T>();
+                for (JSONObject job = reader.read(); job != null; job = reader.read()) {
+                    jobs.add(createJob(job));
                 }
-                return JsonToBean.createWorkflowJobList(workflows);
+                return new JobsPage<T>(jobs, (String) reader.get(pageTokenKey));
             }
             else {
                 handleError(conn);
@@ -1628,57 +1637,39 @@ public class OozieClient {
         }
     }
 
-    private class CoordJobsStatus extends ClientCallable<List<CoordinatorJob>> {
+    private class JobsStatus extends JobsPageStatus<WorkflowJob> {
 
-        CoordJobsStatus(String filter, int start, int len) {
-            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
-                    RestConstants.JOBTYPE_PARAM, "coord", RestConstants.OFFSET_PARAM, Integer.toString(start),
-                    RestConstants.LEN_PARAM, Integer.toString(len)));
+        JobsStatus(String filter, int start, String pageToken, int len) {
+            super("wf", JsonTags.WORKFLOWS_JOBS, JsonTags.WORKFLOWS_NEXT_PAGE_TOKEN, filter, start, pageToken, len);
         }
 
         @Override
-        protected List<CoordinatorJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
-            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
-            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray jobs = (JSONArray) json.get(JsonTags.COORDINATOR_JOBS);
-                if (jobs == null) {
-                    jobs = new JSONArray();
-                }
-                return JsonToBean.createCoordinatorJobList(jobs);
-            }
-            else {
-                handleError(conn);
-            }
-            return null;
+        protected WorkflowJob createJob(JSONObject json) {
+            return JsonToBean.createWorkflowJob(json);
         }
     }
 
-    private class BundleJobsStatus extends ClientCallable<List<BundleJob>> {
+    private class CoordJobsStatus extends JobsPageStatus<CoordinatorJob> {
 
-        BundleJobsStatus(String filter, int start, int len) {
-            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
-                    RestConstants.JOBTYPE_PARAM, "bundle", RestConstants.OFFSET_PARAM, Integer.toString(start),
-                    RestConstants.LEN_PARAM, Integer.toString(len)));
+        CoordJobsStatus(String filter, int start, String pageToken, int len) {
+            super("coord", JsonTags.COORDINATOR_JOBS, JsonTags.COORD_JOB_NEXT_PAGE_TOKEN, filter, start, pageToken, len);
         }
 
         @Override
-        protected List<BundleJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
-            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
-            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray jobs = (JSONArray) json.get(JsonTags.BUNDLE_JOBS);
-                if (jobs == null) {
-                    jobs = new JSONArray();
-                }
-                return JsonToBean.createBundleJobList(jobs);
-            }
-            else {
-                handleError(conn);
-            }
-            return null;
+        protected CoordinatorJob createJob(JSONObject json) {
+            return JsonToBean.createCoordinatorJob(json);
+        }
+    }
+
+    private class BundleJobsStatus extends JobsPageStatus<BundleJob> {
+
+        BundleJobsStatus(String filter, int start, String pageToken, int len) {
+            super("bundle", JsonTags.BUNDLE_JOBS, JsonTags.BUNDLE_JOB_NEXT_PAGE_TOKEN, filter, start, pageToken, len);
+        }
+
+        @Override
+        protected BundleJob createJob(JSONObject json) {
+            return JsonToBean.createBundleJob(json);
         }
     }
 
@@ -1867,7 +1858,23 @@ public class OozieClient {
      * @throws OozieClientException thrown if the jobs info could not be retrieved.
      */
     public List<WorkflowJob> getJobsInfo(String filter, int start, int len) throws OozieClientException {
-        return new JobsStatus(filter, start, len).call();
+        return new JobsStatus(filter, start, null, len).call().getJobs();
+    }
+
+    /**
+     * Return a page of the workflow jobs that match the filter.
+     * <p>
+     * The jobs are listed in the default order, latest created first. The token of the next page is returned when the
+     * page is full, the pages are not shifted by the jobs created meanwhile.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param pageToken token of the page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @return the page with the workflow jobs info, without node details.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<WorkflowJob> getJobsPage(String filter, String pageToken, int len) throws OozieClientException {
+        return new JobsStatus(filter, 1, pageToken, len).call();
     }
 
     /**
@@ -2422,7 +2429,22 @@ public class OozieClient {
      * @throws OozieClientException thrown if the jobs info could not be retrieved.
      */
     public List<CoordinatorJob> getCoordJobsInfo(String filter, int start, int len) throws OozieClientException {
-        return new CoordJobsStatus(filter, start, len).call();
+        return new CoordJobsStatus(filter, start, null, len).call().getJobs();
+    }
+
+    /**
+     * Return a page of the coordinator jobs that match the filter.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param pageToken token of the page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @return the page with the coordinator jobs info
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     * @see #getJobsPage(String, String, int)
+     */
+    public JobsPage<CoordinatorJob> getCoordJobsPage(String filter, String pageToken, int len)
+            throws OozieClientException {
+        return new CoordJobsStatus(filter, 1, pageToken, len).call();
     }
 
     /**
@@ -2435,7 +2457,21 @@ public class OozieClient {
      * @throws OozieClientException thrown if the jobs info could not be retrieved.
      */
     public List<BundleJob> getBundleJobsInfo(String filter, int start, int len) throws OozieClientException {
-        return new BundleJobsStatus(filter, start, len).call();
+        return new BundleJobsStatus(filter, start, null, len).call().getJobs();
+    }
+
+    /**
+     * Return a page of the bundle jobs that match the filter.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param pageToken token of the page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @return the page with the bundle jobs info
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     * @see #getJobsPage(String, String, int)
+     */
+    public JobsPage<BundleJob> getBundleJobsPage(String filter, String pageToken, int len) throws OozieClientException {
+        return new BundleJobsStatus(filter, 1, pageToken, len).call();
     }
 
     public List<BulkResponse> getBulkInfo(String filter, int start, int len) throws OozieClientException {
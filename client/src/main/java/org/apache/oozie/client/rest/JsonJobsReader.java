@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.rest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Reader of a JSON jobs listing that parses the jobs one at a time as they are read.
+ * <p>
+ * The JSON object of a job is returned as soon as it is parsed and the jobs array is never built, so a caller that
+ * converts every job as it is read doesn't hold the JSON of the whole listing. The other values of the listing, like the
+ * total or the next page token, are available once all the jobs are read.
+ */
+public class JsonJobsReader {
+    private final Reader reader;
+    private final String jobsKey;
+    private final JSONParser parser = new JSONParser();
+    private final Handler handler = new Handler();
+    private boolean started;
+
+    /**
+     * Create a reader of a jobs listing.
+     *
+     * @param reader the reader of the JSON listing
+     * @param jobsKey the key of the jobs array in the listing
+     */
+    public JsonJobsReader(Reader reader, Object jobsKey) {
+        this.reader = reader;
+        this.jobsKey = String.valueOf(jobsKey);
+    }
+
+    /**
+     * Read the next job of the listing.
+     *
+     * @return the JSON object of the job, <code>null</code> if all the jobs have been read
+     * @throws IOException thrown if the listing could not be read or is not valid JSON
+     */
+    public JSONObject read() throws IOException {
+        handler.job = null;
+        if (!handler.done) {
+            try {
+                parser.parse(reader, handler, started);
+                started = true;
+            }
+            catch (ParseException ex) {
+                throw new IOException("Invalid jobs listing: " + ex, ex);
+            }
+        }
+        return handler.job;
+    }
+
+    /**
+     * Return a value of the listing other than the jobs, reading the jobs that were not read yet.
+     *
+     * @param key the key of the value
+     * @return the value, <code>null</code> if the listing doesn't have it
+     * @throws IOException thrown if the listing could not be read or is not valid JSON
+     */
+    public Object get(Object key) throws IOException {
+        JSONObject job = read();
+        while (job != null) {
+            job = read();
+        }
+        return (handler.root instanceof JSONObject) ? ((JSONObject) handler.root).get(key) : null;
+    }
+
+    /**
+     * Builds the JSON values of the listing except the jobs array, and pauses the parser at the end of every job.
+     */
+    private class Handler implements ContentHandler {
+        private final Deque<Object> containers = new ArrayDeque<Object>();
+        private final Deque<String> keys = new ArrayDeque<String>();
+        private JSONArray jobs;
+        private JSONObject job;
+        private Object root;
+        private boolean done;
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+            done = true;
+        }
+
+        @Override
+        public boolean startObject() {
+            containers.push(new JSONObject());
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            return add(containers.pop());
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            keys.push(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            keys.pop();
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            JSONArray array = new JSONArray();
+            if (containers.size() == 1 && jobsKey.equals(keys.peek())) {
+                jobs = array;
+            }
+            containers.push(array);
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            return add(containers.pop());
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            return add(value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean add(Object value) {
+            Object parent = containers.peek();
+            if (parent == null) {
+                root = value;
+            }
+            else if (parent == jobs) {
+                if (value instanceof JSONObject) {
+                    job = (JSONObject) value;
+                    return false;
+                }
+            }
+            else if (parent instanceof JSONObject) {
+                ((JSONObject) parent).put(keys.peek(), value);
+            }
+            else {
+                ((JSONArray) parent).add(value);
+            }
+            return true;
+        }
+    }
+}
@@ -66,6 +66,7 @@ public interface JsonTags {
     String WORKFLOWS_TOTAL = "total";
     String WORKFLOWS_OFFSET = "offset";
     String WORKFLOWS_LEN = "len";
+    String WORKFLOWS_NEXT_PAGE_TOKEN = "nextPageToken";
 
     String WORKFLOW_ACTION_ID = "id";
     String WORKFLOW_ACTION_NAME = "name";
@@ -228,11 +229,13 @@ public interface JsonTags {
     Object COORD_JOB_TOTAL = "total";
     Object COORD_JOB_OFFSET = "offset";
     Object COORD_JOB_LEN = "len";
+    Object COORD_JOB_NEXT_PAGE_TOKEN = "nextPageToken";
 
     Object BUNDLE_JOBS = "bundlejobs";
     Object BUNDLE_JOB_TOTAL = "total";
     Object BUNDLE_JOB_OFFSET = "offset";
     Object BUNDLE_JOB_LEN = "len";
+    Object BUNDLE_JOB_NEXT_PAGE_TOKEN = "nextPageToken";
 
     String BULK_RESPONSE_BUNDLE = "bulkbundle";
     String BULK_RESPONSE_COORDINATOR = "bulkcoord";
@@ -49,6 +49,8 @@ public interface RestConstants {
 
     String LEN_PARAM = "len";
 
+    String PAGE_TOKEN_PARAM = "pagetoken";
+
     String ORDER_PARAM = "order";
 
     String ACTION_NAME_PARAM = "action-name";
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.rest;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class TestJsonJobsReader {
+
+    @Test
+    public void testReadJobs() throws Exception {
+        String listing = "{\"total\":12,\"workflows\":[{\"id\":\"a\",\"actions\":[{\"id\":\"x\"}]},{\"id\":\"b\","
+                + "\"conf\":{\"k\":[1,2]}}],\"len\":2,\"nextPageToken\":\"t\"}";
+        JsonJobsReader reader = new JsonJobsReader(new StringReader(listing), JsonTags.WORKFLOWS_JOBS);
+
+        JSONObject job = reader.read();
+        assertEquals("a", job.get("id"));
+        assertEquals("x", ((JSONObject) ((JSONArray) job.get("actions")).get(0)).get("id"));
+        job = reader.read();
+        assertEquals("b", job.get("id"));
+        assertEquals(2L, ((JSONArray) ((JSONObject) job.get("conf")).get("k")).get(1));
+        assertNull(reader.read());
+        assertNull(reader.read());
+
+        assertEquals(12L, reader.get(JsonTags.WORKFLOWS_TOTAL));
+        assertEquals(2L, reader.get(JsonTags.WORKFLOWS_LEN));
+        assertEquals("t", reader.get(JsonTags.WORKFLOWS_NEXT_PAGE_TOKEN));
+    }
+
+    @Test
+    public void testGetSkipsUnreadJobs() throws Exception {
+        String listing = "{\"coordinatorjobs\":[{\"coordJobId\":\"a\"},{\"coordJobId\":\"b\"}],\"total\":2}";
+        JsonJobsReader reader = new JsonJobsReader(new StringReader(listing), JsonTags.COORDINATOR_JOBS);
+
+        assertEquals(2L, reader.get(JsonTags.COORD_JOB_TOTAL));
+        assertNull(reader.get(JsonTags.COORD_JOB_NEXT_PAGE_TOKEN));
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testInvalidListing() throws Exception {
+        JsonJobsReader reader = new JsonJobsReader(new StringReader("{\"workflows\":[{\"id\":}]}"),
+                JsonTags.WORKFLOWS_JOBS);
+        try {
+            reader.read();
+            fail("the listing is not valid JSON");
+        }
+        catch (IOException ex) {
+            // expected
+        }
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.oozie;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+
 import org.apache.oozie.compression.CodecFactory;
 import org.apache.oozie.compression.CompressionCodec;
 
@@ -31,6 +33,7 @@ public class BinaryBlob {
 
     private byte[] rawBlob;
     private byte[] bytes;
+    private Callable<byte[]> loader;
 
     /**
      * Construct a binaryblob
@@ -48,6 +51,15 @@ public class BinaryBlob {
         }
     }
 
+    /**
+     * Construct a lazy binaryblob, the compressed byte array is fetched by the loader on first access
+     *
+     * @param loader the loader returning the compressed byte array
+     */
+    public BinaryBlob(Callable<byte[]> loader) {
+        this.loader = loader;
+    }
+
     /**
      * Set bytes
      *
@@ -56,6 +68,7 @@ public class BinaryBlob {
     public void setBytes(byte[] byteArray) {
         this.bytes = byteArray;
         this.rawBlob = null;
+        this.loader = null;
     }
 
     /**
@@ -67,6 +80,7 @@ public class BinaryBlob {
         if (bytes != null) {
             return bytes;
         }
+        load();
         if (rawBlob == null) {
             return null;
         }
@@ -95,6 +109,7 @@ public class BinaryBlob {
      * @return raw blob
      */
     public byte[] getRawBlob() {
+        load();
         if (rawBlob != null) {
             return rawBlob;
         }
@@ -116,4 +131,25 @@ public class BinaryBlob {
         return rawBlob;
     }
 
+    /**
+     * Returns true if the blob is still waiting to be fetched by its loader
+     *
+     * @return true if the blob has not been fetched yet
+     */
+    public boolean isLazy() {
+        return loader != null;
+    }
+
+    private void load() {
+        if (loader != null) {
+            try {
+                rawBlob = loader.call();
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+            loader = null;
+        }
+    }
+
 }
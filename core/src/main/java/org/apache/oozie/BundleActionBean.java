@@ -69,6 +69,12 @@ import org.json.simple.JSONObject;
                 + " w.coordId, w.coordName from BundleActionBean w where w.pending > 0 AND w.lastModifiedTimestamp "
                 + "<= :lastModifiedTime"),
 
+        @NamedQuery(name = "GET_BUNDLE_WAITING_ACTIONS_PAGE", query = "select w.bundleActionId, w.bundleId, w.statusStr,"
+                + " w.coordId, w.coordName, w.lastModifiedTimestamp from BundleActionBean w where w.pending > 0 AND "
+                + "w.lastModifiedTimestamp <= :lastModifiedTime AND (w.lastModifiedTimestamp > :fromTime OR "
+                + "(w.lastModifiedTimestamp = :fromTime AND w.bundleActionId > :fromId)) order by w.lastModifiedTimestamp, "
+                + "w.bundleActionId"),
+
         @NamedQuery(name = "GET_BUNDLE_ACTION", query = "select OBJECT(w) from BundleActionBean w where w.bundleActionId "
                 + "= :bundleActionId"),
 
@@ -59,6 +59,7 @@ import org.apache.oozie.service.XLogStreamingService;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.JobsFilterUtils;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XLogStreamer;
@@ -318,6 +319,26 @@ public class BundleEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Get the bundle jobs that follow a position of the default order
+     *
+     * @param filter the filter string
+     * @param after position of the last job already returned
+     * @param len total length to get
+     * @return bundle job info, the total number of matching jobs is not counted
+     * @throws BundleEngineException thrown if failed to get bundle job info
+     */
+    public BundleJobInfo getBundleJobs(String filter, JobsKeyset after, int len) throws BundleEngineException {
+        Map<String, List<String>> filterList = parseFilter(filter);
+
+        try {
+            return new BundleJobsXCommand(filterList, after, len).call();
+        }
+        catch (CommandException ex) {
+            throw new BundleEngineException(ex);
+        }
+    }
+
     /**
      * Parse filter string to a map with key = filter name and values = filter values
      *
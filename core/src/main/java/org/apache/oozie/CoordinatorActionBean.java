@@ -196,6 +196,10 @@ import org.json.simple.JSONObject;
         @NamedQuery(name = "GET_COORD_ACTIONS_STATUS_UNIGNORED", query = "select a.statusStr, a.pending "
                 + "from CoordinatorActionBean a where a.jobId = :jobId AND a.statusStr <> 'IGNORED'"),
 
+        // Query to retrieve the number of Coordinator actions of each status
+        @NamedQuery(name = "GET_COORD_ACTIONS_STATUS_COUNT_UNIGNORED", query = "select a.statusStr, count(a) "
+                + "from CoordinatorActionBean a where a.jobId = :jobId AND a.statusStr <> 'IGNORED' group by a.statusStr"),
+
         // Query to retrieve status of Coordinator actions
         @NamedQuery(name = "GET_COORD_ACTION_STATUS", query = "select a.statusStr from CoordinatorActionBean a where a.id = :id"),
 
@@ -221,6 +225,20 @@ import org.json.simple.JSONObject;
         @NamedQuery(name = "GET_COORD_ACTIONS_FOR_RECOVERY_OLDER_THAN", query = "select a.id, a.jobId, a.statusStr, a.externalId,"
                 + " a.pending from CoordinatorActionBean a where a.pending > 0 AND (a.statusStr = 'SUSPENDED' OR a.statusStr "
                 + "= 'KILLED' OR a.statusStr = 'RUNNING') AND a.lastModifiedTimestamp <= :lastModifiedTime"),
+
+        @NamedQuery(name = "GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_PAGE", query = "select a.id, a.jobId, a.statusStr,"
+                + " a.externalId, a.pushMissingDependencies, a.lastModifiedTimestamp from CoordinatorActionBean a where "
+                + "(a.statusStr = 'WAITING' OR a.statusStr = 'SUBMITTED' OR a.statusStr = 'READY') AND "
+                + "a.lastModifiedTimestamp <= :lastModifiedTime AND (a.lastModifiedTimestamp > :fromTime OR "
+                + "(a.lastModifiedTimestamp = :fromTime AND a.id > :fromId)) and a.nominalTimestamp <= :currentTime and "
+                + "a.jobId in ( select w.id from CoordinatorJobBean w where w.statusStr = 'RUNNING' or w.statusStr = "
+                + "'RUNNINGWITHERROR') order by a.lastModifiedTimestamp, a.id"),
+
+        @NamedQuery(name = "GET_COORD_ACTIONS_FOR_RECOVERY_PAGE", query = "select a.id, a.jobId, a.statusStr, a.externalId,"
+                + " a.pending, a.lastModifiedTimestamp from CoordinatorActionBean a where a.pending > 0 AND (a.statusStr = "
+                + "'SUSPENDED' OR a.statusStr = 'KILLED' OR a.statusStr = 'RUNNING') AND a.lastModifiedTimestamp <= "
+                + ":lastModifiedTime AND (a.lastModifiedTimestamp > :fromTime OR (a.lastModifiedTimestamp = :fromTime AND "
+                + "a.id > :fromId)) order by a.lastModifiedTimestamp, a.id"),
         // Select query used by rerun, requires almost all columns so select * is used
         @NamedQuery(name = "GET_TERMINATED_ACTIONS_FOR_DATES", query = "select OBJECT(a) from CoordinatorActionBean a "
                 + "where a.jobId = :jobId AND (a.statusStr = 'TIMEDOUT' OR a.statusStr = 'SUCCEEDED' OR a.statusStr = 'KILLED' "
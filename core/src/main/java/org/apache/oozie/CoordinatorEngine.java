@@ -74,6 +74,7 @@ import org.apache.oozie.service.XLogStreamingService;
 import org.apache.oozie.util.CoordActionsInDateRange;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.JobUtils;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.Pair;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
@@ -606,6 +607,25 @@ public class CoordinatorEngine extends BaseEngine {
         }
     }
 
+    /**
+     * @param filter he filter to parse. Elements must be semicolon-separated name=value pairs.
+     *               Supported names are in{@link CoordinatorEngine#FILTER_NAMES}.
+     * @param after position of the last job already returned
+     * @param len maximum number of results
+     * @return CoordinatorJobInfo, the total number of matching jobs is not counted
+     * @throws CoordinatorEngineException if the job info could no be retrieved
+     */
+    public CoordinatorJobInfo getCoordJobs(String filter, JobsKeyset after, int len) throws CoordinatorEngineException {
+        Map<String, List<String>> filterList = parseJobsFilter(filter);
+
+        try {
+            return new CoordJobsXCommand(filterList, after, len).call();
+        }
+        catch (CommandException ex) {
+            throw new CoordinatorEngineException(ex);
+        }
+    }
+
     // Parses the filter string (e.g status=RUNNING;status=WAITING) and returns a list of status values
     public Map<Pair<String, FILTER_COMPARATORS>, List<Object>> parseJobFilter(String filter) throws
         CoordinatorEngineException {
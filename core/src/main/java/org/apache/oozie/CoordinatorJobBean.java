@@ -147,7 +147,7 @@ import org.json.simple.JSONObject;
         @NamedQuery(name = "GET_COORD_JOBS_COLUMNS", query = "select w.id, w.appName, w.statusStr, w.user, w.group, "
                 + "w.startTimestamp, w.endTimestamp, w.appPath, w.concurrency, w.frequency, w.lastActionTimestamp, "
                 + "w.nextMaterializedTimestamp, w.createdTimestamp, w.timeUnitStr, w.timeZone, w.timeOut, w.bundleId "
-                + "from CoordinatorJobBean w order by w.createdTimestamp desc"),
+                + "from CoordinatorJobBean w order by w.createdTimestamp desc, w.id desc"),
 
         //TODO need to remove.
         @NamedQuery(name = "GET_COORD_JOBS_OLDER_THAN", query = "select OBJECT(w) from CoordinatorJobBean w "
@@ -60,10 +60,12 @@ import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
 import org.apache.oozie.service.CallableQueueService;
+import org.apache.oozie.service.CallbackService;
 import org.apache.oozie.service.DagXLogInfoService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogService;
 import org.apache.oozie.service.XLogStreamingService;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XConfiguration;
@@ -328,6 +330,9 @@ public class DagEngine extends BaseEngine {
         XLog.Info.get().clearParameter(XLogService.USER);
         XCallable<Void> command = null;
 
+        if (Services.get().get(CallbackService.class).ingest(actionId, externalStatus)) {
+            return;
+        }
 		command = new CompletedActionXCommand(actionId, externalStatus,
 				actionData, HIGH_PRIORITY);
         if (!Services.get().get(CallableQueueService.class).queue(command)) {
@@ -482,6 +487,25 @@ public class DagEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return the info about the jobs that follow a position of the default order.
+     *
+     * @param filter job filter. Refer to the {@link org.apache.oozie.client.OozieClient} for the filter syntax.
+     * @param after position of the last job already returned.
+     * @param len number of jobs to return.
+     * @return job info for the matching jobs, the total number of matching jobs is not counted.
+     * @throws DagEngineException thrown if the jobs info could not be obtained.
+     */
+    public WorkflowsInfo getJobs(String filter, JobsKeyset after, int len) throws DagEngineException {
+        Map<String, List<String>> filterList = parseFilter(filter);
+        try {
+            return new JobsXCommand(filterList, after, len).call();
+        }
+        catch (CommandException dce) {
+            throw new DagEngineException(dce);
+        }
+    }
+
     /**
      * Return the workflow Job ID for an external ID. <p> This is reverse lookup for recovery purposes.
      *
@@ -18,8 +18,17 @@
 
 package org.apache.oozie;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.oozie.client.rest.JsonBean;
 import org.apache.oozie.client.rest.JsonTags;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+import org.json.simple.JSONValue;
 
 public final class OozieJsonFactory {
 
@@ -52,4 +61,194 @@ public final class OozieJsonFactory {
         json.put(JsonTags.BUNDLE_JOB_LEN, jobs.getLen());
         return json;
     }
-}
\ No newline at end of file
+
+    /**
+     * Loader of the jobs of a listing that are written after the jobs loaded before the listing is written.
+     */
+    public interface JobsLoader {
+
+        /**
+         * Load the jobs that follow the jobs already written.
+         *
+         * @param last the last job written
+         * @param written the number of jobs written
+         * @param count the maximum number of jobs to load
+         * @return the jobs, fewer than <code>count</code> if the listing has no more jobs
+         * @throws IOException thrown if the jobs could not be loaded
+         */
+        List<? extends JsonBean> load(JsonBean last, int written, int count) throws IOException;
+
+        /**
+         * Return the token of the page that follows a job, <code>null</code> if the listing can't be continued after
+         * it.
+         *
+         * @param last the last job of the page
+         * @return the token of the next page
+         */
+        String getPageToken(JsonBean last);
+    }
+
+    /**
+     * Return a JSON representation of a list of workflow jobs that is written incrementally.
+     * <p>
+     * It writes the same JSON as {@link #getWFJSONObject(WorkflowsInfo, String)}, but the JSON object of every job is
+     * created while it is written instead of building all of them before anything is written.
+     *
+     * @param jobs the workflow jobs
+     * @param timeZoneId the time zone to use for dates
+     * @return the streaming JSON representation of the jobs
+     */
+    public static JSONStreamAware getWFJSONStream(WorkflowsInfo jobs, String timeZoneId) {
+        return getWFJSONStream(jobs, jobs.getLen(), null, timeZoneId);
+    }
+
+    /**
+     * Return a JSON representation of a list of workflow jobs that loads the jobs in chunks while it is written.
+     * <p>
+     * The given jobs are written first, then the following jobs are loaded with the loader in chunks of the same size
+     * until <code>len</code> jobs are written or a chunk is incomplete, so only one chunk of jobs is held at a time.
+     * When <code>len</code> jobs are written the token of the next page is written too, if the loader has one.
+     *
+     * @param jobs the first chunk of workflow jobs
+     * @param len the number of jobs of the listing
+     * @param loader the loader of the following chunks, <code>null</code> if there are none
+     * @param timeZoneId the time zone to use for dates
+     * @return the streaming JSON representation of the jobs
+     */
+    public static JSONStreamAware getWFJSONStream(WorkflowsInfo jobs, int len, JobsLoader loader, String timeZoneId) {
+        JobsJSONStream json = new JobsJSONStream(JsonTags.WORKFLOWS_JOBS, jobs.getWorkflows(), jobs.getLen(), len,
+                loader, JsonTags.WORKFLOWS_NEXT_PAGE_TOKEN, timeZoneId);
+        json.put(JsonTags.WORKFLOWS_TOTAL, jobs.getTotal());
+        json.put(JsonTags.WORKFLOWS_OFFSET, jobs.getStart());
+        json.put(JsonTags.WORKFLOWS_LEN, len);
+        return json;
+    }
+
+    /**
+     * Return a JSON representation of a list of coordinator jobs that is written incrementally.
+     *
+     * @param jobs the coordinator jobs
+     * @param timeZoneId the time zone to use for dates
+     * @return the streaming JSON representation of the jobs
+     * @see #getWFJSONStream(WorkflowsInfo, String)
+     */
+    public static JSONStreamAware getCoordJSONStream(CoordinatorJobInfo jobs, String timeZoneId) {
+        return getCoordJSONStream(jobs, jobs.getLen(), null, timeZoneId);
+    }
+
+    /**
+     * Return a JSON representation of a list of coordinator jobs that loads the jobs in chunks while it is written.
+     *
+     * @param jobs the first chunk of coordinator jobs
+     * @param len the number of jobs of the listing
+     * @param loader the loader of the following chunks, <code>null</code> if there are none
+     * @param timeZoneId the time zone to use for dates
+     * @return the streaming JSON representation of the jobs
+     * @see #getWFJSONStream(WorkflowsInfo, int, JobsLoader, String)
+     */
+    public static JSONStreamAware getCoordJSONStream(CoordinatorJobInfo jobs, int len, JobsLoader loader,
+            String timeZoneId) {
+        JobsJSONStream json = new JobsJSONStream(JsonTags.COORDINATOR_JOBS, jobs.getCoordJobs(), jobs.getLen(), len,
+                loader, JsonTags.COORD_JOB_NEXT_PAGE_TOKEN, timeZoneId);
+        json.put(JsonTags.COORD_JOB_TOTAL, jobs.getTotal());
+        json.put(JsonTags.COORD_JOB_OFFSET, jobs.getStart());
+        json.put(JsonTags.COORD_JOB_LEN, len);
+        return json;
+    }
+
+    /**
+     * Return a JSON representation of a list of bundle jobs that is written incrementally.
+     *
+     * @param jobs the bundle jobs
+     * @param timeZoneId the time zone to use for dates
+     * @return the streaming JSON representation of the jobs
+     * @see #getWFJSONStream(WorkflowsInfo, String)
+     */
+    public static JSONStreamAware getBundleJSONStream(BundleJobInfo jobs, String timeZoneId) {
+        return getBundleJSONStream(jobs, jobs.getLen(), null, timeZoneId);
+    }
+
+    /**
+     * Return a JSON representation of a list of bundle jobs that loads the jobs in chunks while it is written.
+     *
+     * @param jobs the first chunk of bundle jobs
+     * @param len the number of jobs of the listing
+     * @param loader the loader of the following chunks, <code>null</code> if there are none
+     * @param timeZoneId the time zone to use for dates
+     * @return the streaming JSON representation of the jobs
+     * @see #getWFJSONStream(WorkflowsInfo, int, JobsLoader, String)
+     */
+    public static JSONStreamAware getBundleJSONStream(BundleJobInfo jobs, int len, JobsLoader loader, String timeZoneId) {
+        JobsJSONStream json = new JobsJSONStream(JsonTags.BUNDLE_JOBS, jobs.getBundleJobs(), jobs.getLen(), len,
+                loader, JsonTags.BUNDLE_JOB_NEXT_PAGE_TOKEN, timeZoneId);
+        json.put(JsonTags.BUNDLE_JOB_TOTAL, jobs.getTotal());
+        json.put(JsonTags.BUNDLE_JOB_OFFSET, jobs.getStart());
+        json.put(JsonTags.BUNDLE_JOB_LEN, len);
+        return json;
+    }
+
+    private static class JobsJSONStream implements JSONStreamAware {
+        private final Object jobsKey;
+        private final List<? extends JsonBean> jobs;
+        private final int chunkSize;
+        private final int len;
+        private final JobsLoader loader;
+        private final Object pageTokenKey;
+        private final String timeZoneId;
+        private final Map<Object, Object> values = new LinkedHashMap<Object, Object>();
+
+        JobsJSONStream(Object jobsKey, List<? extends JsonBean> jobs, int chunkSize, int len, JobsLoader loader,
+                Object pageTokenKey, String timeZoneId) {
+            this.jobsKey = jobsKey;
+            this.jobs = jobs;
+            this.chunkSize = chunkSize;
+            this.len = len;
+            this.loader = loader;
+            this.pageTokenKey = pageTokenKey;
+            this.timeZoneId = timeZoneId;
+        }
+
+        void put(Object key, Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public void writeJSONString(Writer out) throws IOException {
+            out.write('{');
+            out.write(JSONValue.toJSONString(String.valueOf(jobsKey)));
+            out.write(":[");
+            int written = 0;
+            JsonBean last = null;
+            List<? extends JsonBean> chunk = jobs;
+            int count = chunkSize;
+            while (chunk != null) {
+                for (JsonBean job : chunk) {
+                    if (written > 0) {
+                        out.write(',');
+                    }
+                    job.toJSONObject(timeZoneId).writeJSONString(out);
+                    last = job;
+                    written++;
+                }
+                boolean complete = chunk.size() >= count;
+                count = Math.min(chunkSize, len - written);
+                chunk = (loader != null && complete && count > 0) ? loader.load(last, written, count) : null;
+            }
+            out.write(']');
+            for (Map.Entry<Object, Object> entry : values.entrySet()) {
+                out.write(',');
+                out.write(JSONValue.toJSONString(String.valueOf(entry.getKey())));
+                out.write(':');
+                JSONValue.writeJSONString(entry.getValue(), out);
+            }
+            String pageToken = (loader != null && last != null && written >= len) ? loader.getPageToken(last) : null;
+            if (pageToken != null) {
+                out.write(',');
+                out.write(JSONValue.toJSONString(String.valueOf(pageTokenKey)));
+                out.write(':');
+                JSONValue.writeJSONString(pageToken, out);
+            }
+            out.write('}');
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.Callable;
 
 import org.apache.oozie.compression.CodecFactory;
 import org.apache.oozie.compression.CompressionCodec;
@@ -33,6 +34,7 @@ public class StringBlob {
 
     private byte[] rawBlob;
     private String string;
+    private Callable<byte[]> loader;
 
     /**
      * Construct string blob from compressed byte array
@@ -43,6 +45,15 @@ public class StringBlob {
         this.rawBlob = byteArray;
     }
 
+    /**
+     * Construct a lazy string blob, the compressed byte array is fetched by the loader on first access
+     *
+     * @param loader the loader returning the compressed byte array
+     */
+    public StringBlob(Callable<byte[]> loader) {
+        this.loader = loader;
+    }
+
     /**
      * Construct StringBlob with uncompressed string
      *
@@ -61,6 +72,7 @@ public class StringBlob {
     public void setString(String str) {
         this.string = str;
         this.rawBlob = null;
+        this.loader = null;
     }
 
     /**
@@ -72,6 +84,7 @@ public class StringBlob {
         if (string != null) {
             return string;
         }
+        load();
         if (rawBlob == null) {
             return null;
         }
@@ -100,6 +113,7 @@ public class StringBlob {
      * @return raw blob
      */
     public byte[] getRawBlob() {
+        load();
         if (rawBlob != null) {
             return rawBlob;
         }
@@ -121,4 +135,25 @@ public class StringBlob {
         return rawBlob;
     }
 
+    /**
+     * Returns true if the blob is still waiting to be fetched by its loader
+     *
+     * @return true if the blob has not been fetched yet
+     */
+    public boolean isLazy() {
+        return loader != null;
+    }
+
+    private void load() {
+        if (loader != null) {
+            try {
+                rawBlob = loader.call();
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+            loader = null;
+        }
+    }
+
 }
@@ -115,9 +115,11 @@ import org.json.simple.JSONObject;
             + " a.transition, a.errorCode, a.errorMessage from WorkflowActionBean a where a.id = :id"),
 
     @NamedQuery(name = "GET_ACTION_SIGNAL", query = "select a.id, a.wfId, a.name, a.statusStr, a.pending, a.pendingAgeTimestamp,"
-            + " a.type, a.logToken, a.transition, a.errorCode, a.errorMessage, a.executionPath, a.signalValue, a.slaXml,"
+            + " a.type, a.logToken, a.transition, a.errorCode, a.errorMessage, a.executionPath, a.signalValue,"
             + " a.externalId from WorkflowActionBean a where a.id = :id"),
 
+    @NamedQuery(name = "GET_ACTION_SLA_XML", query = "select a.slaXml from WorkflowActionBean a where a.id = :id"),
+
     @NamedQuery(name = "GET_ACTION_CHECK", query = "select a.id, a.wfId, a.name, a.statusStr, a.pending, a.pendingAgeTimestamp,"
             + " a.type, a.logToken, a.transition, a.retries, a.userRetryCount, a.userRetryMax, a.userRetryInterval, a.trackerUri,"
             + " a.startTimestamp, a.endTimestamp, a.lastCheckTimestamp, a.errorCode, a.errorMessage, a.externalId,"
@@ -131,6 +133,9 @@ import org.json.simple.JSONObject;
     @NamedQuery(name = "GET_ACTION_COMPLETED", query = "select a.id, a.wfId, a.statusStr, a.type, a.logToken "
             + "from WorkflowActionBean a where a.id = :id"),
 
+    @NamedQuery(name = "GET_ACTIONS_COMPLETED", query = "select a.id, a.wfId, a.statusStr, a.type, a.logToken "
+            + "from WorkflowActionBean a where a.id IN (:ids)"),
+
     @NamedQuery(name = "GET_ACTION_FOR_UPDATE", query = "select OBJECT(a) from WorkflowActionBean a where a.id = :id"),
 
     @NamedQuery(name = "GET_ACTION_FOR_SLA", query = "select a.id, a.statusStr, a.startTimestamp, a.endTimestamp "
@@ -146,9 +151,17 @@ import org.json.simple.JSONObject;
             + " WorkflowActionBean a where a.pending = 1 AND a.pendingAgeTimestamp < :pendingAge AND a.statusStr <> 'RUNNING' "
             + "AND a.createdTimeTS >= :createdTime"),
 
+    @NamedQuery(name = "GET_PENDING_ACTIONS_PAGE", query = "select a.id, a.wfId, a.statusStr, a.type, a.pendingAgeTimestamp"
+            + " from WorkflowActionBean a where a.pending = 1 AND a.pendingAgeTimestamp < :pendingAge AND (a.pendingAgeTimestamp"
+            + " > :fromTime OR (a.pendingAgeTimestamp = :fromTime AND a.id > :fromId)) AND a.statusStr <> 'RUNNING' "
+            + "AND a.createdTimeTS >= :createdTime order by a.pendingAgeTimestamp, a.id"),
+
     @NamedQuery(name = "GET_RUNNING_ACTIONS", query = "select a.id from WorkflowActionBean a where a.pending = 1 AND a.statusStr"
             + " = 'RUNNING' AND a.lastCheckTimestamp < :lastCheckTime"),
 
+    @NamedQuery(name = "GET_RUNNING_ACTIONS_EXTERNAL_IDS", query = "select a.id, a.trackerUri, a.externalId from "
+            + "WorkflowActionBean a where a.pending = 1 AND a.statusStr = 'RUNNING' AND a.lastCheckTimestamp < :lastCheckTime"),
+
     @NamedQuery(name = "GET_RETRY_MANUAL_ACTIONS", query = "select OBJECT(a) from WorkflowActionBean a where a.wfId = :wfId "
             + "AND (a.statusStr = 'START_RETRY' OR a.statusStr = 'START_MANUAL' OR a.statusStr = 'END_RETRY' OR a.statusStr "
             + "= 'END_MANUAL')"),
@@ -123,6 +123,7 @@ public class JavaActionExecutor extends ActionExecutor {
     public static final String FAILED = "FAILED";
     public static final String FAILED_KILLED = "FAILED/KILLED";
     public static final String HADOOP_YARN_RM = "yarn.resourcemanager.address";
+    public static final String LAUNCHER_APPLICATION_TYPE = "Oozie Launcher";
     public static final String HADOOP_NAME_NODE = "fs.default.name";
     public static final String OOZIE_COMMON_LIBDIR = "oozie";
 
@@ -1126,7 +1127,7 @@ public class JavaActionExecutor extends ActionExecutor {
         setQueue(launcherJobConf, appContext);
         appContext.setApplicationId(appId);
         setApplicationName(actionContext, actionName, appContext);
-        appContext.setApplicationType("Oozie Launcher");
+        appContext.setApplicationType(LAUNCHER_APPLICATION_TYPE);
         setMaxAttempts(launcherJobConf, appContext);
 
         ContainerLaunchContext amContainer = Records.newRecord(ContainerLaunchContext.class);
@@ -1136,7 +1137,7 @@ public class JavaActionExecutor extends ActionExecutor {
         final String user = actionContext.getWorkflow().getUser();
         // Set the resources to localize
         Map<String, LocalResource> localResources = new HashMap<String, LocalResource>();
-        ClientDistributedCacheManager.determineTimestampsAndCacheVisibilities(launcherJobConf);
+        determineTimestampsAndCacheVisibilities(launcherJobConf);
         MRApps.setupDistributedCache(launcherJobConf, localResources);
         // Add the Launcher and Action configs as Resources
         HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
@@ -1178,6 +1179,19 @@ public class JavaActionExecutor extends ActionExecutor {
         return appContext;
     }
 
+    /**
+     * Sets the timestamps, sizes and visibilities of the distributed cache files. The statuses of the sharelib files
+     * are taken from the {@link ShareLibService}, so only the files outside of the sharelib are looked up.
+     */
+    private void determineTimestampsAndCacheVisibilities(Configuration launcherJobConf) throws IOException {
+        ShareLibService shareLibService = Services.get().get(ShareLibService.class);
+        // ShareLibService is null for test cases
+        Map<URI, FileStatus> statCache = shareLibService != null ? shareLibService.newFileStatusCache()
+                : new HashMap<URI, FileStatus>();
+        ClientDistributedCacheManager.determineTimestamps(launcherJobConf, statCache);
+        ClientDistributedCacheManager.determineCacheVisibilities(launcherJobConf, statCache);
+    }
+
     private void setMaxAttempts(Configuration launcherJobConf, ApplicationSubmissionContext appContext) {
         int launcherMaxAttempts;
         final int defaultLauncherMaxAttempts = ConfigurationService.getInt(DEFAULT_LAUNCHER_MAX_ATTEMPS);
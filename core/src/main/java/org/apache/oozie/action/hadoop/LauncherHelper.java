@@ -18,7 +18,10 @@
 
 package org.apache.oozie.action.hadoop;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -28,12 +31,15 @@ import java.security.NoSuchAlgorithmException;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.SequenceFile;
@@ -43,6 +49,7 @@ import org.apache.hadoop.mapred.RunningJob;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.Services;
@@ -55,6 +62,20 @@ public class LauncherHelper {
 
     public static final String OOZIE_ACTION_YARN_TAG = "oozie.action.yarn.tag";
 
+    public static final String CONF_ACTION_DATA_CACHE_SIZE = "oozie.action.launcher.action.data.cache.size";
+
+    /**
+     * Action data read from a combo file, keyed by the file path. The launcher writes the file once when it finishes,
+     * so an entry stays valid for as long as the file's modification time and length are unchanged.
+     */
+    private static final Map<String, CachedActionData> ACTION_DATA_CACHE =
+            new LinkedHashMap<String, CachedActionData>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedActionData> eldest) {
+                    return size() > getActionDataCacheSize();
+                }
+            };
+
     public static String getRecoveryId(Configuration launcherConf, Path actionDir, String recoveryId)
             throws HadoopAccessorException, IOException {
         String jobId = null;
@@ -228,8 +249,19 @@ public class LauncherHelper {
     }
 
     /**
-     * Utility function to load the contents of action data sequence file into
-     * memory object
+     * Get the compact file path storing all action data
+     * @param actionDir
+     * @return Path returns compact file path storing all action data
+     */
+    public static Path getActionDataCompactFilePath(Path actionDir) {
+        return new Path(actionDir, LauncherAMUtils.ACTION_DATA_COMPACT_FILE);
+    }
+
+    /**
+     * Utility function to load the contents of action data file into
+     * memory object. The compact file written by the launcher is read first, then the sequence file and the
+     * per-data files written by older launchers. Data read from either combo file is cached, see
+     * {@link #CONF_ACTION_DATA_CACHE_SIZE}.
      *
      * @param fs Action Filesystem
      * @param actionDir Path
@@ -246,57 +278,55 @@ public class LauncherHelper {
         return ugi.doAs(new PrivilegedExceptionAction<Map<String, String>>() {
             @Override
             public Map<String, String> run() throws IOException {
-                Map<String, String> ret = new HashMap<String, String>();
-                Path seqFilePath = getActionDataSequenceFilePath(actionDir);
-                if (fs.exists(seqFilePath)) {
-                    SequenceFile.Reader seqFile = new SequenceFile.Reader(fs, seqFilePath, conf);
-                    Text key = new Text(), value = new Text();
-                    while (seqFile.next(key, value)) {
-                        ret.put(key.toString(), value.toString());
-                    }
-                    seqFile.close();
+                FileStatus compactFileStatus = getFileStatus(fs, getActionDataCompactFilePath(actionDir));
+                if (compactFileStatus != null) {
+                    return readActionData(fs, compactFileStatus, conf);
+                }
+                FileStatus seqFileStatus = getFileStatus(fs, getActionDataSequenceFilePath(actionDir));
+                if (seqFileStatus != null) {
+                    return readActionData(fs, seqFileStatus, conf);
                 }
-                else { // maintain backward-compatibility. to be deprecated
-                    org.apache.hadoop.fs.FileStatus[] files = fs.listStatus(actionDir);
-                    InputStream is;
-                    BufferedReader reader = null;
-                    Properties props;
-                    if (files != null && files.length > 0) {
-                        for (int x = 0; x < files.length; x++) {
-                            Path file = files[x].getPath();
-                            if (file.equals(new Path(actionDir, "externalChildIds.properties"))) {
-                                is = fs.open(file);
-                                reader = new BufferedReader(new InputStreamReader(is));
-                                ret.put(LauncherAMUtils.ACTION_DATA_EXTERNAL_CHILD_IDS,
-                                        IOUtils.getReaderAsString(reader, -1));
-                            }
-                            else if (file.equals(new Path(actionDir, "newId.properties"))) {
-                                is = fs.open(file);
-                                reader = new BufferedReader(new InputStreamReader(is));
-                                props = PropertiesUtils.readProperties(reader, -1);
-                                ret.put(LauncherAMUtils.ACTION_DATA_NEW_ID, props.getProperty("id"));
-                            }
-                            else if (file.equals(new Path(actionDir, LauncherAMUtils.ACTION_DATA_OUTPUT_PROPS))) {
-                                int maxOutputData = conf.getInt(LauncherAMUtils.CONF_OOZIE_ACTION_MAX_OUTPUT_DATA,
-                                        2 * 1024);
-                                is = fs.open(file);
-                                reader = new BufferedReader(new InputStreamReader(is));
-                                ret.put(LauncherAMUtils.ACTION_DATA_OUTPUT_PROPS, PropertiesUtils
-                                        .propertiesToString(PropertiesUtils.readProperties(reader, maxOutputData)));
-                            }
-                            else if (file.equals(new Path(actionDir, LauncherAMUtils.ACTION_DATA_STATS))) {
-                                int statsMaxOutputData = conf.getInt(LauncherAMUtils.CONF_OOZIE_EXTERNAL_STATS_MAX_SIZE,
-                                        Integer.MAX_VALUE);
-                                is = fs.open(file);
-                                reader = new BufferedReader(new InputStreamReader(is));
-                                ret.put(LauncherAMUtils.ACTION_DATA_STATS, PropertiesUtils
-                                        .propertiesToString(PropertiesUtils.readProperties(reader, statsMaxOutputData)));
-                            }
-                            else if (file.equals(new Path(actionDir, LauncherAMUtils.ACTION_DATA_ERROR_PROPS))) {
-                                is = fs.open(file);
-                                reader = new BufferedReader(new InputStreamReader(is));
-                                ret.put(LauncherAMUtils.ACTION_DATA_ERROR_PROPS, IOUtils.getReaderAsString(reader, -1));
-                            }
+                Map<String, String> ret = new HashMap<String, String>();
+                // maintain backward-compatibility. to be deprecated
+                FileStatus[] files = fs.listStatus(actionDir);
+                InputStream is;
+                BufferedReader reader = null;
+                Properties props;
+                if (files != null && files.length > 0) {
+                    for (int x = 0; x < files.length; x++) {
+                        Path file = files[x].getPath();
+                        if (file.equals(new Path(actionDir, "externalChildIds.properties"))) {
+                            is = fs.open(file);
+                            reader = new BufferedReader(new InputStreamReader(is));
+                            ret.put(LauncherAMUtils.ACTION_DATA_EXTERNAL_CHILD_IDS,
+                                    IOUtils.getReaderAsString(reader, -1));
+                        }
+                        else if (file.equals(new Path(actionDir, "newId.properties"))) {
+                            is = fs.open(file);
+                            reader = new BufferedReader(new InputStreamReader(is));
+                            props = PropertiesUtils.readProperties(reader, -1);
+                            ret.put(LauncherAMUtils.ACTION_DATA_NEW_ID, props.getProperty("id"));
+                        }
+                        else if (file.equals(new Path(actionDir, LauncherAMUtils.ACTION_DATA_OUTPUT_PROPS))) {
+                            int maxOutputData = conf.getInt(LauncherAMUtils.CONF_OOZIE_ACTION_MAX_OUTPUT_DATA,
+                                    2 * 1024);
+                            is = fs.open(file);
+                            reader = new BufferedReader(new InputStreamReader(is));
+                            ret.put(LauncherAMUtils.ACTION_DATA_OUTPUT_PROPS, PropertiesUtils
+                                    .propertiesToString(PropertiesUtils.readProperties(reader, maxOutputData)));
+                        }
+                        else if (file.equals(new Path(actionDir, LauncherAMUtils.ACTION_DATA_STATS))) {
+                            int statsMaxOutputData = conf.getInt(LauncherAMUtils.CONF_OOZIE_EXTERNAL_STATS_MAX_SIZE,
+                                    Integer.MAX_VALUE);
+                            is = fs.open(file);
+                            reader = new BufferedReader(new InputStreamReader(is));
+                            ret.put(LauncherAMUtils.ACTION_DATA_STATS, PropertiesUtils
+                                    .propertiesToString(PropertiesUtils.readProperties(reader, statsMaxOutputData)));
+                        }
+                        else if (file.equals(new Path(actionDir, LauncherAMUtils.ACTION_DATA_ERROR_PROPS))) {
+                            is = fs.open(file);
+                            reader = new BufferedReader(new InputStreamReader(is));
+                            ret.put(LauncherAMUtils.ACTION_DATA_ERROR_PROPS, IOUtils.getReaderAsString(reader, -1));
                         }
                     }
                 }
@@ -305,6 +335,73 @@ public class LauncherHelper {
         });
     }
 
+    private static FileStatus getFileStatus(FileSystem fs, Path path) throws IOException {
+        try {
+            return fs.getFileStatus(path);
+        }
+        catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> readActionData(FileSystem fs, FileStatus status, Configuration conf)
+            throws IOException {
+        String cacheKey = status.getPath().toString();
+        synchronized (ACTION_DATA_CACHE) {
+            CachedActionData cached = ACTION_DATA_CACHE.get(cacheKey);
+            if (cached != null && cached.matches(status)) {
+                return cached.actionData;
+            }
+        }
+        Map<String, String> actionData = new HashMap<String, String>();
+        if (status.getPath().getName().equals(LauncherAMUtils.ACTION_DATA_COMPACT_FILE)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(fs.open(status.getPath())))) {
+                actionData.putAll(ActionDataFormat.read(in));
+            }
+        }
+        else {
+            try (SequenceFile.Reader seqFile = new SequenceFile.Reader(fs, status.getPath(), conf)) {
+                Text key = new Text(), value = new Text();
+                while (seqFile.next(key, value)) {
+                    actionData.put(key.toString(), value.toString());
+                }
+            }
+        }
+        actionData = Collections.unmodifiableMap(actionData);
+        if (getActionDataCacheSize() > 0) {
+            synchronized (ACTION_DATA_CACHE) {
+                ACTION_DATA_CACHE.put(cacheKey, new CachedActionData(status, actionData));
+            }
+        }
+        return actionData;
+    }
+
+    private static int getActionDataCacheSize() {
+        return ConfigurationService.getInt(CONF_ACTION_DATA_CACHE_SIZE);
+    }
+
+    static void clearActionDataCache() {
+        synchronized (ACTION_DATA_CACHE) {
+            ACTION_DATA_CACHE.clear();
+        }
+    }
+
+    private static class CachedActionData {
+        private final long modificationTime;
+        private final long length;
+        private final Map<String, String> actionData;
+
+        CachedActionData(FileStatus status, Map<String, String> actionData) {
+            this.modificationTime = status.getModificationTime();
+            this.length = status.getLen();
+            this.actionData = actionData;
+        }
+
+        boolean matches(FileStatus status) {
+            return status.getModificationTime() == modificationTime && status.getLen() == length;
+        }
+    }
+
     public static String getActionYarnTag(Configuration conf, String parentId, WorkflowAction wfAction) {
         String tag;
         if ( conf != null && conf.get(OOZIE_ACTION_YARN_TAG) != null) {
@@ -30,6 +30,7 @@ import org.apache.oozie.command.XCommand;
 import org.apache.oozie.executor.jpa.BundleJobInfoGetJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsKeyset;
 
 /**
  * The command to get a job info for a list of bundle jobs by given filters.
@@ -38,6 +39,7 @@ public class BundleJobsXCommand extends XCommand<BundleJobInfo> {
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsKeyset after;
 
     /**
      * The constructor for BundleJobsXCommand
@@ -53,6 +55,18 @@ public class BundleJobsXCommand extends XCommand<BundleJobInfo> {
         this.len = length;
     }
 
+    /**
+     * The constructor for the bundle jobs that follow the last one already listed
+     *
+     * @param filter the filter string
+     * @param after the jobs that follow this position in the default order are returned
+     * @param length total length to get
+     */
+    public BundleJobsXCommand(Map<String, List<String>> filter, JobsKeyset after, int length) {
+        this(filter, 1, length);
+        this.after = after;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.command.XCommand#isLockRequired()
      */
@@ -92,7 +106,9 @@ public class BundleJobsXCommand extends XCommand<BundleJobInfo> {
             JPAService jpaService = Services.get().get(JPAService.class);
             BundleJobInfo bundleInfo = null;
             if (jpaService != null) {
-                bundleInfo = jpaService.execute(new BundleJobInfoGetJPAExecutor(filter, start, len));
+                bundleInfo = jpaService.execute((after == null)
+                        ? new BundleJobInfoGetJPAExecutor(filter, start, len)
+                        : new BundleJobInfoGetJPAExecutor(filter, after, len));
             }
             else {
                 LOG.error(ErrorCode.E0610);
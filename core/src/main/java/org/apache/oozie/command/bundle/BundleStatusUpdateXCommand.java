@@ -35,6 +35,7 @@ import org.apache.oozie.executor.jpa.BundleActionQueryExecutor.BundleActionQuery
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StatusTransitService;
 
 /**
  * The command to update Bundle status
@@ -93,6 +94,7 @@ public class BundleStatusUpdateXCommand extends StatusUpdateXCommand {
             bundleaction.setCoordId(coordjob.getId());
             BundleActionQueryExecutor.getInstance().executeUpdate(
                     BundleActionQuery.UPDATE_BUNDLE_ACTION_STATUS_PENDING_MODTIME_COORDID, bundleaction);
+            StatusTransitService.markBundleJob(bundleaction.getBundleId());
             if (bundleaction.getCoordId() != null) {
                 LOG.info(
                         "Updated bundle action [{0}] from prev status [{1}] to current coord status [{2}], " +
@@ -32,6 +32,7 @@ import org.apache.oozie.XException;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.InstrumentUtils;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
@@ -140,8 +141,12 @@ public class CoordActionCheckXCommand extends CoordinatorXCommand<Void> {
 
             BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(insertList, updateList, null);
             CoordinatorAction.Status endStatus = coordAction.getStatus();
-            if (endStatus != initialStatus && EventHandlerService.isEnabled()) {
-                generateEvent(coordAction, coordJob.getUser(), coordJob.getAppName(), workflowJob.getStartTime());
+            if (endStatus != initialStatus) {
+                StatusTransitService.markCoordJob(coordAction.getJobId());
+                if (EventHandlerService.isEnabled()) {
+                    generateEvent(coordAction, coordJob.getUser(), coordJob.getAppName(),
+                            workflowJob.getStartTime());
+                }
             }
         }
         catch (XException ex) {
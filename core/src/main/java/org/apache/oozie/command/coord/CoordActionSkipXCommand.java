@@ -32,6 +32,7 @@ import org.apache.oozie.executor.jpa.CoordActionQueryExecutor.CoordActionQuery;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 
@@ -67,6 +68,7 @@ public class CoordActionSkipXCommand extends CoordinatorXCommand<Void> {
                 actionBean.setLastModifiedTime(new Date());
                 CoordActionQueryExecutor.getInstance().executeUpdate(
                         CoordActionQuery.UPDATE_COORD_ACTION_STATUS_PENDING_TIME, actionBean);
+                StatusTransitService.markCoordJob(actionBean.getJobId());
                 if (EventHandlerService.isEnabled()) {
                     generateEvent(actionBean, user, appName, null);
                 }
@@ -34,6 +34,7 @@ import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
@@ -234,6 +235,7 @@ public class CoordActionStartXCommand extends CoordinatorXCommand<Void> {
                     try {
                         executor.executeBatchInsertUpdateDelete(insertList, updateList, null);
                         queue(new CoordActionNotificationXCommand(coordAction), 100);
+                        StatusTransitService.markCoordJob(coordAction.getJobId());
                         if (EventHandlerService.isEnabled()) {
                             generateEvent(coordAction, user, appName, wfJob.getStartTime());
                         }
@@ -292,6 +294,7 @@ public class CoordActionStartXCommand extends CoordinatorXCommand<Void> {
                     try {
                         // call JPAExecutor to do the bulk writes
                         BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(insertList, updateList, null);
+                        StatusTransitService.markCoordJob(coordAction.getJobId());
                         if (EventHandlerService.isEnabled()) {
                             generateEvent(coordAction, user, appName, null);
                         }
@@ -31,6 +31,7 @@ import org.apache.oozie.XException;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.db.SLADbOperations;
 import org.apache.oozie.client.CoordinatorAction;
@@ -148,6 +149,9 @@ public class CoordActionUpdateXCommand extends CoordinatorXCommand<Void> {
             }
 
             BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(insertList, updateList, null);
+            if (coordAction.getStatus() != formerCoordinatorStatus) {
+                StatusTransitService.markCoordJob(coordAction.getJobId());
+            }
             if (EventHandlerService.isEnabled()) {
                 generateEvent(coordAction, coordJob.getUser(), coordJob.getAppName(), workflow.getStartTime());
             }
@@ -29,6 +29,7 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.executor.jpa.CoordJobInfoGetJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsKeyset;
 
 /**
  * The command to get a job info for a list of coordinator jobs by given filters.
@@ -37,6 +38,7 @@ public class CoordJobsXCommand extends CoordinatorXCommand<CoordinatorJobInfo> {
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsKeyset after;
 
     public CoordJobsXCommand(Map<String, List<String>> filter, int start, int length) {
         super("coord.job.info", "coord.job.info", 1);
@@ -45,6 +47,18 @@ public class CoordJobsXCommand extends CoordinatorXCommand<CoordinatorJobInfo> {
         this.len = length;
     }
 
+    /**
+     * The constructor for the coordinator jobs that follow the last one already listed
+     *
+     * @param filter the filter string
+     * @param after the jobs that follow this position in the default order are returned
+     * @param length total length to get
+     */
+    public CoordJobsXCommand(Map<String, List<String>> filter, JobsKeyset after, int length) {
+        this(filter, 1, length);
+        this.after = after;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.command.XCommand#isLockRequired()
      */
@@ -84,7 +98,9 @@ public class CoordJobsXCommand extends CoordinatorXCommand<CoordinatorJobInfo> {
             JPAService jpaService = Services.get().get(JPAService.class);
             CoordinatorJobInfo coordInfo = null;
             if (jpaService != null) {
-                coordInfo = jpaService.execute(new CoordJobInfoGetJPAExecutor(filter, start, len));
+                coordInfo = jpaService.execute((after == null)
+                        ? new CoordJobInfoGetJPAExecutor(filter, start, len)
+                        : new CoordJobInfoGetJPAExecutor(filter, after, len));
             }
             else {
                 LOG.error(ErrorCode.E0610);
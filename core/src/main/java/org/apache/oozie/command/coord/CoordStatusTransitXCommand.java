@@ -20,10 +20,8 @@ package org.apache.oozie.command.coord;
 
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.CoordinatorAction;
@@ -35,9 +33,11 @@ import org.apache.oozie.command.StatusTransitXCommand;
 import org.apache.oozie.command.bundle.BundleStatusUpdateXCommand;
 import org.apache.oozie.executor.jpa.CoordActionQueryExecutor;
 import org.apache.oozie.executor.jpa.CoordActionQueryExecutor.CoordActionQuery;
+import org.apache.oozie.executor.jpa.CoordJobGetActionsStatusCountJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobQueryExecutor;
 import org.apache.oozie.executor.jpa.CoordJobQueryExecutor.CoordJobQuery;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.SchemaService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.StatusTransitService;
@@ -74,8 +74,9 @@ public class CoordStatusTransitXCommand extends StatusTransitXCommand {
     protected void loadState() throws CommandException {
         try {
             coordJob = CoordJobQueryExecutor.getInstance().get(CoordJobQuery.GET_COORD_JOB, jobId);
-            List<CoordinatorActionBean> coordActionStatusList = CoordActionQueryExecutor.getInstance().getList(
-                    CoordActionQuery.GET_COORD_ACTIONS_STATUS_UNIGNORED, jobId);
+            // the actions are counted per status by the database, not loaded one by one
+            coordActionStatus.putAll(Services.get().get(JPAService.class).execute(
+                    new CoordJobGetActionsStatusCountJPAExecutor(jobId)));
 
             long count = (Long) CoordActionQueryExecutor.getInstance().getSingleValue(
                     CoordActionQuery.GET_COORD_ACTIONS_PENDING_COUNT, jobId);
@@ -83,17 +84,10 @@ public class CoordStatusTransitXCommand extends StatusTransitXCommand {
                 isPending = true;
             }
 
-            for (CoordinatorAction coordAction : coordActionStatusList) {
-                int counter = 0;
-                if (coordActionStatus.containsKey(coordAction.getStatus())) {
-                    counter = getStatusCount(coordAction.getStatus()) + 1;
-                }
-                else {
-                    ++counter;
-                }
-                coordActionStatus.put(coordAction.getStatus(), counter);
+            coordActionCount = 0;
+            for (int statusCount : coordActionStatus.values()) {
+                coordActionCount += statusCount;
             }
-            coordActionCount = coordActionStatusList.size();
         }
         catch (JPAExecutorException jpae) {
             throw new CommandException(ErrorCode.E1025, jpae);
@@ -232,6 +232,7 @@ public class CoordSubmitXCommand extends SubmitTransitionXCommand {
             Element eJob = basicResolveAndIncludeDS(appXml, conf, coordJob);
 
             validateCoordinatorJob();
+            ELEvaluator.precompile(eJob);
 
             // checking if the coordinator application data input/output events
             // specify multiple data instance values in erroneous manner
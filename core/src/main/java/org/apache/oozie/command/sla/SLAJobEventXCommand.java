@@ -19,6 +19,7 @@
 package org.apache.oozie.command.sla;
 
 import java.util.Date;
+import java.util.List;
 
 import org.apache.oozie.XException;
 import org.apache.oozie.client.OozieClient;
@@ -27,6 +28,7 @@ import org.apache.oozie.client.event.SLAEvent.SLAStatus;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.XCommand;
+import org.apache.oozie.executor.jpa.BatchQueryExecutor.UpdateEntry;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.SLASummaryQueryExecutor;
 import org.apache.oozie.executor.jpa.SLASummaryQueryExecutor.SLASummaryQuery;
@@ -43,6 +45,8 @@ public abstract class SLAJobEventXCommand extends XCommand<Void> {
     final static String SLA_LOCK_PREFIX = "sla_";
     private boolean isEnded = false;
     private boolean isEndMiss = false;
+    @SuppressWarnings("rawtypes")
+    private List<UpdateEntry> updateList;
 
     public SLAJobEventXCommand(SLACalcStatus slaCalc, long lockTimeOut) {
         super("SLA.job.event", "SLA.job.event", 1);
@@ -69,6 +73,18 @@ public abstract class SLAJobEventXCommand extends XCommand<Void> {
         return lockTimeOut;
     }
 
+    /**
+     * Collect the SLA summary update into a list instead of writing it to DB. The caller is responsible for
+     * executing the collected updates while it still holds the SLA lock of the job, so that they can't overwrite a
+     * newer update.
+     *
+     * @param updateList the list the update is added to
+     */
+    @SuppressWarnings("rawtypes")
+    public void setUpdateList(List<UpdateEntry> updateList) {
+        this.updateList = updateList;
+    }
+
     @Override
     protected void verifyPrecondition() throws CommandException, PreconditionException {
     }
@@ -161,8 +177,14 @@ public abstract class SLAJobEventXCommand extends XCommand<Void> {
         slaSummaryBean.setJobStatus(slaCalc.getJobStatus());
         slaSummaryBean.setLastModifiedTime(new Date());
 
-        SLASummaryQueryExecutor.getInstance().executeUpdate(SLASummaryQuery.UPDATE_SLA_SUMMARY_FOR_STATUS_ACTUAL_TIMES,
-                slaSummaryBean);
+        if (updateList != null) {
+            updateList.add(new UpdateEntry<SLASummaryQuery>(SLASummaryQuery.UPDATE_SLA_SUMMARY_FOR_STATUS_ACTUAL_TIMES,
+                    slaSummaryBean));
+        }
+        else {
+            SLASummaryQueryExecutor.getInstance().executeUpdate(
+                    SLASummaryQuery.UPDATE_SLA_SUMMARY_FOR_STATUS_ACTUAL_TIMES, slaSummaryBean);
+        }
 
         LOG.debug(" Stored SLA SummaryBean Job [{0}] eventProc = [{1}], status = [{2}]", slaCalc.getId(),
                 slaCalc.getEventProcessed(), slaCalc.getJobStatus());
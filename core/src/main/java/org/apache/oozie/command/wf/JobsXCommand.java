@@ -29,11 +29,13 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.executor.jpa.WorkflowsJobGetJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsKeyset;
 
 public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
     private final Map<String, List<String>> filter;
     private final int start;
     private final int len;
+    private final JobsKeyset after;
     private WorkflowsInfo workflows;
 
     /**
@@ -49,6 +51,22 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
         this.filter = filter;
         this.start = start;
         this.len = length;
+        this.after = null;
+    }
+
+    /**
+     * Constructor taking the filter information and the position of the last workflow already listed
+     *
+     * @param filter Can be name, status, user, group and combination of these
+     * @param after the workflows that follow this position in the default order are returned
+     * @param length number of workflows to be returned
+     */
+    public JobsXCommand(Map<String, List<String>> filter, JobsKeyset after, int length) {
+        super("job.info", "job.info", 1, true);
+        this.filter = filter;
+        this.start = 1;
+        this.len = length;
+        this.after = after;
     }
 
     /* (non-Javadoc)
@@ -59,7 +77,9 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
         try {
             JPAService jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.workflows = jpaService.execute(new WorkflowsJobGetJPAExecutor(this.filter, this.start, this.len));
+                this.workflows = jpaService.execute((after == null)
+                        ? new WorkflowsJobGetJPAExecutor(this.filter, this.start, this.len)
+                        : new WorkflowsJobGetJPAExecutor(this.filter, this.after, this.len));
             }
             else {
                 throw new CommandException(ErrorCode.E0610);
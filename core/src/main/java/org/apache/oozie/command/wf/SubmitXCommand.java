@@ -51,6 +51,8 @@ import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.workflow.WorkflowInstance;
 import org.apache.oozie.workflow.WorkflowLib;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.NodeDef;
 import org.apache.oozie.util.ELEvaluator;
 import org.apache.oozie.util.InstrumentUtils;
 import org.apache.oozie.util.PropertiesUtils;
@@ -165,6 +167,7 @@ public class SubmitXCommand extends WorkflowXCommand<String> {
             }
 
             WorkflowApp app = wps.parseDef(conf, defaultConf);
+            precompileNodes(app);
             XConfiguration protoActionConf = wps.createProtoActionConf(conf, true);
             WorkflowLib workflowLib = Services.get().get(WorkflowStoreService.class).getWorkflowLibWithNoDB();
 
@@ -302,6 +305,19 @@ public class SubmitXCommand extends WorkflowXCommand<String> {
         return resolveDefaultConf;
     }
 
+    /**
+     * Parse the EL expressions of the node definitions, they are evaluated when the nodes are executed.
+     *
+     * @param app workflow application.
+     */
+    private void precompileNodes(WorkflowApp app) {
+        if (app instanceof LiteWorkflowApp) {
+            for (NodeDef nodeDef : ((LiteWorkflowApp) app).getNodeDefs()) {
+                ELEvaluator.precompile(nodeDef.getConf());
+            }
+        }
+    }
+
     private void removeSlaElements(Element eWfJob) {
         Element sla = XmlUtils.getSLAElement(eWfJob);
         if (sla != null) {
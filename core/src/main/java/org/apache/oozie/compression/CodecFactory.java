@@ -65,10 +65,18 @@ public class CodecFactory {
         for (String comp : outputCompressionCodecs) {
             parseCompressionConfig(comp);
         }
+        // the built-in codecs are always registered, to read the data written before the output codec was changed
+        registerIfAbsent(GzipCompressionCodec.CODEC_NAME, new GzipCompressionCodec());
+        registerIfAbsent(SnappyCompressionCodec.CODEC_NAME, new SnappyCompressionCodec());
+        registerIfAbsent(DeflateCompressionCodec.CODEC_NAME, new DeflateCompressionCodec());
+        if (isEnabled && outputCompressionStr.equals(SnappyCompressionCodec.CODEC_NAME)
+                && REGISTERED.get(outputCompressionStr) instanceof SnappyCompressionCodec
+                && !SnappyCompressionCodec.isAvailable()) {
+            LOG.warn("Snappy native library could not be loaded, using [{0}] as output compression codec instead",
+                    GzipCompressionCodec.CODEC_NAME);
+            outputCompressionStr = GzipCompressionCodec.CODEC_NAME;
+        }
         if (isEnabled) {
-            if (REGISTERED.get(GzipCompressionCodec.CODEC_NAME) == null) {
-                REGISTERED.put(GzipCompressionCodec.CODEC_NAME, new GzipCompressionCodec());
-            }
             outputCompressionCodec = REGISTERED.get(outputCompressionStr);
             if (outputCompressionCodec == null) {
                 throw new RuntimeException("No codec class found for codec " + outputCompressionStr);
@@ -106,6 +114,12 @@ public class CodecFactory {
         }
     }
 
+    private static void registerIfAbsent(String key, CompressionCodec codec) {
+        if (REGISTERED.get(key) == null) {
+            REGISTERED.put(key, codec);
+        }
+    }
+
     private static CompressionCodec getCodec(String key) {
         CompressionCodec codec = REGISTERED.get(key);
         if (codec != null) {
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import org.apache.commons.io.IOUtils;
+import org.xerial.snappy.Snappy;
+
+/**
+ * Class to compress and decompress data using Snappy codec
+ * <p>
+ * Snappy compresses less than Gzip, but is several times faster to compress and decompress. It needs the snappy-java
+ * native library, when it cannot be loaded on the platform compressing and decompressing fail with an IOException.
+ */
+public class SnappyCompressionCodec implements CompressionCodec {
+
+    public static final String CODEC_NAME = "snappy";
+
+    // loaded on first use, the Snappy class loads the native library when initialized
+    private static final class NativeLibrary {
+        private static final Throwable LOAD_ERROR = load();
+
+        private static Throwable load() {
+            try {
+                Snappy.compress(new byte[] {0});
+                return null;
+            }
+            catch (Throwable ex) {
+                // UnsatisfiedLinkError, NoClassDefFoundError or SnappyError depending on the failure
+                return ex;
+            }
+        }
+    }
+
+    /**
+     * Check whether the snappy native library could be loaded
+     *
+     * @return true if the codec can be used
+     */
+    public static boolean isAvailable() {
+        return NativeLibrary.LOAD_ERROR == null;
+    }
+
+    private static void checkAvailable() throws IOException {
+        if (!isAvailable()) {
+            throw new IOException("Snappy native library could not be loaded, " + CODEC_NAME
+                    + " compressed data cannot be processed on this platform", NativeLibrary.LOAD_ERROR);
+        }
+    }
+
+    public byte[] compressBytes(byte[] header, byte[] data) throws IOException {
+        checkAvailable();
+        byte[] compressed = Snappy.compress(data);
+        ByteArrayOutputStream byteOutput = new ByteArrayOutputStream(header.length + compressed.length);
+        byteOutput.write(header);
+        byteOutput.write(compressed);
+        return byteOutput.toByteArray();
+    }
+
+    public byte[] compressString(byte[] header, String data) throws IOException {
+        return compressBytes(header, data.getBytes(CodecFactory.UTF_8_ENCODING));
+    }
+
+    public String decompressToString(DataInputStream dais) throws IOException {
+        return new String(decompressToBytes(dais), CodecFactory.UTF_8_ENCODING);
+    }
+
+    public byte[] decompressToBytes(DataInputStream dais) throws IOException {
+        checkAvailable();
+        byte[] decompress = Snappy.uncompress(IOUtils.toByteArray(dais));
+        dais.close();
+        return decompress;
+    }
+
+}
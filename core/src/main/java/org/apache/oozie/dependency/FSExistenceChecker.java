@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.NamedThreadFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Checks the existence of FileSystem paths, coalescing the checks of all the callers.
+ * <p>
+ * The checks of paths in the same directory made within a short window, by the same user, are answered by a single
+ * NameNode call: <code>exists()</code> if there is a single path, <code>listStatus()</code> on the directory
+ * otherwise. The same path checked by several callers in the window is checked once. A collector thread closes every
+ * batch at the end of its window, the callers only wait for the result of their batch.
+ * <p>
+ * Paths found missing can be remembered for a short time, the checks within that time do not call the NameNode.
+ * <p>
+ * The number of NameNode calls are counted per NameNode in the <code>fs-dependency</code> instrumentation group.
+ */
+public class FSExistenceChecker {
+
+    public static final String INSTRUMENTATION_GROUP = "fs-dependency";
+    public static final String COALESCED = "coalesced";
+    public static final String MISSING_CACHE_HITS = "missing.cache.hits";
+
+    private final long window;
+    private final Cache<String, Boolean> missing;
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<String, Batch>();
+    private final ScheduledExecutorService collector;
+
+    /**
+     * Create a checker.
+     *
+     * @param window time in milliseconds the checks in the same directory are collected before calling the NameNode,
+     * if <code>0</code> every check calls the NameNode.
+     * @param missingTtl time in milliseconds missing paths are remembered, if <code>0</code> they are not.
+     * @param missingSize maximum number of missing paths remembered.
+     */
+    public FSExistenceChecker(long window, long missingTtl, int missingSize) {
+        this.window = window;
+        if (window > 0) {
+            final ThreadFactory threadFactory = new NamedThreadFactory("FSExistenceChecker");
+            collector = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = threadFactory.newThread(r);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        else {
+            collector = null;
+        }
+        if (missingTtl > 0 && missingSize > 0) {
+            missing = CacheBuilder.newBuilder().expireAfterWrite(missingTtl, TimeUnit.MILLISECONDS)
+                    .maximumSize(missingSize).build();
+        }
+        else {
+            missing = null;
+        }
+    }
+
+    /**
+     * Check if a path exists.
+     *
+     * @param fs FileSystem of the path, for the user.
+     * @param user user the FileSystem was created for.
+     * @param path path to check.
+     * @return if the path exists.
+     * @throws IOException thrown if the path could not be checked.
+     */
+    public boolean exists(FileSystem fs, String user, Path path) throws IOException {
+        String key = user + "@" + path;
+        if (missing != null && missing.getIfPresent(key) != null) {
+            incrCounter(MISSING_CACHE_HITS);
+            return false;
+        }
+        boolean exists;
+        if (window > 0 && path.getParent() != null) {
+            exists = batchExists(fs, user, path);
+        }
+        else {
+            incrCounter(getNameNode(fs) + ".exists");
+            exists = fs.exists(path);
+        }
+        if (!exists && missing != null) {
+            missing.put(key, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    /**
+     * Forget the missing paths.
+     */
+    public void clear() {
+        if (missing != null) {
+            missing.invalidateAll();
+        }
+    }
+
+    /**
+     * Stop the collector thread, the batches still open are closed by their first caller.
+     */
+    public void destroy() {
+        if (collector != null) {
+            collector.shutdownNow();
+        }
+        for (Batch batch : batches.values()) {
+            batch.close();
+        }
+    }
+
+    private boolean batchExists(FileSystem fs, String user, Path path) throws IOException {
+        String key = user + "@" + path.getParent();
+        while (true) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                batch = new Batch(path);
+                if (batches.putIfAbsent(key, batch) == null) {
+                    collect(key, batch);
+                    return batch.run(key, fs, path);
+                }
+            }
+            else if (batch.add(path)) {
+                incrCounter(COALESCED);
+                return batch.await(path);
+            }
+            // the batch was closed by its leader, a new one is created
+        }
+    }
+
+    /**
+     * Schedule the closing of a batch at the end of its window, or close it now if the checker is destroyed.
+     */
+    private void collect(final String key, final Batch batch) {
+        try {
+            collector.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    batches.remove(key, batch);
+                    batch.close();
+                }
+            }, window, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ex) {
+            batches.remove(key, batch);
+            batch.close();
+        }
+    }
+
+    private String getNameNode(FileSystem fs) {
+        String nameNode = fs.getUri().getAuthority();
+        return (nameNode != null) ? nameNode : fs.getUri().getScheme();
+    }
+
+    private void incrCounter(String name) {
+        InstrumentationService service = (Services.get() != null) ? Services.get().get(InstrumentationService.class)
+                : null;
+        if (service != null) {
+            service.get().incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    /**
+     * Paths of a directory checked by a single NameNode call. The collector thread closes the batch at the end of the
+     * window, the thread creating the batch then makes the call and the other threads wait for the result.
+     */
+    private class Batch {
+        private final Set<Path> paths = new HashSet<Path>();
+        private final CountDownLatch collected = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private boolean closed;
+        private Set<String> existing;
+        private IOException error;
+
+        Batch(Path path) {
+            paths.add(path);
+        }
+
+        synchronized boolean add(Path path) {
+            if (closed) {
+                return false;
+            }
+            paths.add(path);
+            return true;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            collected.countDown();
+        }
+
+        boolean run(String key, FileSystem fs, Path path) throws IOException {
+            try {
+                collected.await();
+            }
+            catch (InterruptedException ex) {
+                // the other callers of the batch still get their result
+                Thread.currentThread().interrupt();
+                batches.remove(key, this);
+                close();
+            }
+            Set<Path> checked;
+            synchronized (this) {
+                checked = paths;
+            }
+            try {
+                if (checked.size() == 1) {
+                    incrCounter(getNameNode(fs) + ".exists");
+                    existing = fs.exists(path) ? Collections.singleton(path.getName())
+                            : Collections.<String>emptySet();
+                }
+                else {
+                    incrCounter(getNameNode(fs) + ".listStatus");
+                    existing = new HashSet<String>();
+                    try {
+                        for (FileStatus status : fs.listStatus(path.getParent())) {
+                            // listing a file returns the file itself
+                            if (status.getPath().depth() == path.depth()) {
+                                existing.add(status.getPath().getName());
+                            }
+                        }
+                    }
+                    catch (FileNotFoundException ex) {
+                        // the directory does not exist, nor its children
+                    }
+                }
+            }
+            catch (IOException ex) {
+                error = ex;
+            }
+            finally {
+                done.countDown();
+            }
+            return getResult(path);
+        }
+
+        boolean await(Path path) throws IOException {
+            try {
+                done.await();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while checking " + path, ex);
+            }
+            return getResult(path);
+        }
+
+        private boolean getResult(Path path) throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            return existing.contains(path.getName());
+        }
+    }
+}
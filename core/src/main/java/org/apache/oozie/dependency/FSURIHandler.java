@@ -27,6 +27,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.action.hadoop.FSLauncherURIHandler;
 import org.apache.oozie.action.hadoop.LauncherURIHandler;
 import org.apache.oozie.service.HadoopAccessorException;
@@ -35,15 +36,24 @@ import org.apache.oozie.service.Services;
 
 public class FSURIHandler implements URIHandler {
 
+    public static final String CONF_PREFIX = "oozie.service.URIHandlerService.fs.";
+    public static final String CONF_EXISTS_BATCH_WINDOW = CONF_PREFIX + "exists.batch.window";
+    public static final String CONF_MISSING_CACHE_TTL = CONF_PREFIX + "missing.cache.ttl";
+    public static final String CONF_MISSING_CACHE_SIZE = CONF_PREFIX + "missing.cache.size";
+
     private HadoopAccessorService service;
     private Set<String> supportedSchemes;
     private List<Class<?>> classesToShip;
+    private FSExistenceChecker existenceChecker;
 
     @Override
     public void init(Configuration conf) {
         service = Services.get().get(HadoopAccessorService.class);
         supportedSchemes = service.getSupportedSchemes();
         classesToShip = new FSLauncherURIHandler().getClassesForLauncher();
+        existenceChecker = new FSExistenceChecker(ConfigurationService.getLong(conf, CONF_EXISTS_BATCH_WINDOW),
+                ConfigurationService.getLong(conf, CONF_MISSING_CACHE_TTL),
+                ConfigurationService.getInt(conf, CONF_MISSING_CACHE_SIZE));
     }
 
     @Override
@@ -87,7 +97,7 @@ public class FSURIHandler implements URIHandler {
     public boolean exists(URI uri, Context context) throws URIHandlerException {
         try {
             FileSystem fs = ((FSContext) context).getFileSystem();
-            return fs.exists(getNormalizedPath(uri));
+            return exists(fs, context.getUser(), getNormalizedPath(uri));
         }
         catch (IOException e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
@@ -98,7 +108,7 @@ public class FSURIHandler implements URIHandler {
     public boolean exists(URI uri, Configuration conf, String user) throws URIHandlerException {
         try {
             FileSystem fs = getFileSystem(uri, conf, user);
-            return fs.exists(getNormalizedPath(uri));
+            return exists(fs, user, getNormalizedPath(uri));
         }
         catch (HadoopAccessorException e) {
             if (ErrorCode.E0902.equals(e.getErrorCode()) && e.getMessage() != null
@@ -137,7 +147,10 @@ public class FSURIHandler implements URIHandler {
 
     @Override
     public void destroy() {
-
+        if (existenceChecker != null) {
+            existenceChecker.clear();
+            existenceChecker.destroy();
+        }
     }
 
     @Override
@@ -171,6 +184,14 @@ public class FSURIHandler implements URIHandler {
         }
     }
 
+    private boolean exists(FileSystem fs, String user, Path path) throws IOException {
+        // the Har FileSystem reports a missing archive index as an error
+        if ("har".equals(path.toUri().getScheme())) {
+            return fs.exists(path);
+        }
+        return existenceChecker.exists(fs, user, path);
+    }
+
     private Path getNormalizedPath(URI uri) {
         // Normalizes uri path replacing // with / in the path which users specify by mistake
         return new Path(uri.getScheme(), uri.getAuthority(), uri.getPath());
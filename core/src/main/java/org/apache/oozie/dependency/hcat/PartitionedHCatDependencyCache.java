@@ -0,0 +1,608 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency.hcat;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.service.ConfigurationService;
+import org.apache.oozie.service.HCatAccessorService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.HCatURI;
+import org.apache.oozie.util.XLog;
+
+/**
+ * HCatDependencyCache indexing waiting actions per interned table and partition key pattern.
+ * <p>
+ * Tables are looked up by server, db and table name in nested maps, so no key string is built on the partition event
+ * path. Each table holds its partition key patterns (the sorted partition keys of the dependencies) and, per pattern,
+ * a hash table of partition value tuples. The hash of a tuple is computed from the partition map of the event, so
+ * matching an event against a pattern only allocates when actions are found.
+ */
+public class PartitionedHCatDependencyCache implements HCatDependencyCache {
+
+    private static XLog LOG = XLog.getLog(PartitionedHCatDependencyCache.class);
+
+    private boolean useCanonicalHostName = false;
+
+    /**
+     * Map of server - db - table - partition index of the table.
+     */
+    private ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, TableIndex>>> tables;
+
+    /**
+     * Map of server names to their canonical names.
+     */
+    private ConcurrentMap<String, String> hostNames;
+
+    /**
+     * Map of actionIDs and collection of available URIs
+     */
+    private ConcurrentMap<String, Collection<String>> availableDeps;
+
+    /**
+     * Map of actionIDs and number of missing dependencies per table for reverse-lookup in purging
+     */
+    private ConcurrentMap<String, Map<TableIndex, Integer>> actionTables;
+
+    @Override
+    public void init(Configuration conf) {
+        tables = new ConcurrentHashMap<String, ConcurrentMap<String, ConcurrentMap<String, TableIndex>>>();
+        hostNames = new ConcurrentHashMap<String, String>();
+        availableDeps = new ConcurrentHashMap<String, Collection<String>>();
+        actionTables = new ConcurrentHashMap<String, Map<TableIndex, Integer>>();
+        useCanonicalHostName = ConfigurationService.getBoolean(SimpleHCatDependencyCache.USE_CANONICAL_HOSTNAME);
+    }
+
+    @Override
+    public void addMissingDependency(HCatURI hcatURI, String actionID) {
+        Map<String, String> partitions = hcatURI.getPartitionMap();
+        String[] partKeys = partitions.keySet().toArray(new String[partitions.size()]);
+        Arrays.sort(partKeys);
+        String[] partVals = new String[partKeys.length];
+        for (int i = 0; i < partKeys.length; i++) {
+            partVals[i] = partitions.get(partKeys[i]);
+        }
+        WaitingAction waitingAction = new WaitingAction(actionID, hcatURI.toURIString());
+        while (true) {
+            TableIndex table = getOrCreateTable(hcatURI.getServer(), hcatURI.getDb(), hcatURI.getTable());
+            synchronized (table) {
+                if (table.removed) {
+                    // table was removed concurrently, add to the new entry
+                    continue;
+                }
+                PartitionIndex pattern = table.getPattern(partKeys);
+                if (pattern == null) {
+                    pattern = new PartitionIndex(partKeys);
+                    table.patterns.add(pattern);
+                }
+                pattern.getOrAdd(partVals).actions.add(waitingAction);
+            }
+            Map<TableIndex, Integer> tableCounts = actionTables.get(actionID);
+            if (tableCounts == null) {
+                tableCounts = new HashMap<TableIndex, Integer>();
+                Map<TableIndex, Integer> existing = actionTables.putIfAbsent(actionID, tableCounts);
+                if (existing != null) {
+                    tableCounts = existing;
+                }
+            }
+            synchronized (tableCounts) {
+                Integer count = tableCounts.get(table);
+                tableCounts.put(table, count == null ? 1 : count + 1);
+            }
+            return;
+        }
+    }
+
+    @Override
+    public boolean removeMissingDependency(HCatURI hcatURI, String actionID) {
+        TableIndex table = getTable(hcatURI.getServer(), hcatURI.getDb(), hcatURI.getTable());
+        if (table == null) {
+            LOG.warn("Remove missing dependency - Missing table entry - uri={0}, actionID={1}",
+                    hcatURI.toURIString(), actionID);
+            return false;
+        }
+        Map<TableIndex, Integer> tableCounts = actionTables.get(actionID);
+        if (tableCounts != null) {
+            synchronized (tableCounts) {
+                Integer count = tableCounts.get(table);
+                if (count != null && count > 1) {
+                    tableCounts.put(table, count - 1);
+                }
+                else {
+                    tableCounts.remove(table);
+                }
+                if (tableCounts.isEmpty()) {
+                    actionTables.remove(actionID);
+                }
+            }
+        }
+        Map<String, String> partitions = hcatURI.getPartitionMap();
+        synchronized (table) {
+            PartitionIndex pattern = table.getPattern(partitions);
+            if (pattern == null) {
+                LOG.warn("Remove missing dependency - Missing partition pattern - uri={0}, actionID={1}",
+                        hcatURI.toURIString(), actionID);
+                return false;
+            }
+            PartitionIndex.Node node = pattern.get(partitions);
+            if (node == null) {
+                LOG.warn("Remove missing dependency - Missing partition value - uri={0}, actionID={1}",
+                        hcatURI.toURIString(), actionID);
+                return false;
+            }
+            boolean removed = node.actions.remove(new WaitingAction(actionID, hcatURI.toURIString()));
+            if (!removed) {
+                LOG.warn("Remove missing dependency - Missing action ID - uri={0}, actionID={1}",
+                        hcatURI.toURIString(), actionID);
+            }
+            if (node.actions.isEmpty()) {
+                pattern.remove(node);
+                if (pattern.isEmpty()) {
+                    table.patterns.remove(pattern);
+                }
+                if (table.patterns.isEmpty()) {
+                    removeTable(table);
+                    // Close JMS session. Stop listening on topic
+                    HCatAccessorService hcatService = Services.get().get(HCatAccessorService.class);
+                    hcatService.unregisterFromNotification(hcatURI);
+                }
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public Collection<String> getWaitingActions(HCatURI hcatURI) {
+        TableIndex table = getTable(hcatURI.getServer(), hcatURI.getDb(), hcatURI.getTable());
+        if (table == null) {
+            return null;
+        }
+        Map<String, String> partitions = hcatURI.getPartitionMap();
+        List<WaitingAction> waitingActions;
+        synchronized (table) {
+            PartitionIndex pattern = table.getPattern(partitions);
+            if (pattern == null) {
+                return null;
+            }
+            PartitionIndex.Node node = pattern.get(partitions);
+            if (node == null) {
+                return null;
+            }
+            waitingActions = new ArrayList<WaitingAction>(node.actions);
+        }
+        Collection<String> actionIDs = new ArrayList<String>();
+        URI uri = hcatURI.getURI();
+        String uriString = null;
+        try {
+            uriString = new URI(uri.getScheme(), canonicalizeHostname(uri.getAuthority()), uri.getPath(),
+                    uri.getQuery(), uri.getFragment()).toString();
+        }
+        catch (URISyntaxException e) {
+            uriString = hcatURI.toURIString();
+        }
+        for (WaitingAction action : waitingActions) {
+            if (action.getDependencyURI().equals(uriString)) {
+                actionIDs.add(action.getActionID());
+            }
+        }
+        return actionIDs;
+    }
+
+    @Override
+    public Collection<String> markDependencyAvailable(String server, String db, String table,
+            Map<String, String> partitions) {
+        TableIndex tableIndex = getTable(server, db, table);
+        if (tableIndex == null) {
+            LOG.warn("Got partition available notification for " + server + "/" + db + "/" + table
+                    + ". Unexpected and should not be listening to topic. Unregistering topic");
+            HCatAccessorService hcatService = Services.get().get(HCatAccessorService.class);
+            hcatService.unregisterFromNotification(server, db, table);
+            return null;
+        }
+        Collection<String> actionsWithAvailDep = null;
+        synchronized (tableIndex) {
+            List<PartitionIndex> patterns = tableIndex.patterns;
+            for (int i = patterns.size() - 1; i >= 0; i--) {
+                PartitionIndex pattern = patterns.get(i);
+                PartitionIndex.Node node = pattern.get(partitions);
+                if (node == null) {
+                    continue;
+                }
+                if (actionsWithAvailDep == null) {
+                    actionsWithAvailDep = new HashSet<String>();
+                }
+                for (WaitingAction wAction : node.actions) {
+                    String actionID = wAction.getActionID();
+                    actionsWithAvailDep.add(actionID);
+                    Collection<String> depURIs = availableDeps.get(actionID);
+                    if (depURIs == null) {
+                        depURIs = new ArrayList<String>();
+                        Collection<String> existing = availableDeps.putIfAbsent(actionID, depURIs);
+                        if (existing != null) {
+                            depURIs = existing;
+                        }
+                    }
+                    synchronized (depURIs) {
+                        depURIs.add(wAction.getDependencyURI());
+                        availableDeps.put(actionID, depURIs);
+                    }
+                }
+                pattern.remove(node);
+                if (pattern.isEmpty()) {
+                    patterns.remove(i);
+                }
+            }
+            if (patterns.isEmpty()) {
+                removeTable(tableIndex);
+                // Close JMS session. Stop listening on topic
+                HCatAccessorService hcatService = Services.get().get(HCatAccessorService.class);
+                hcatService.unregisterFromNotification(server, db, table);
+            }
+        }
+        if (actionsWithAvailDep == null) {
+            return Collections.emptySet();
+        }
+        return actionsWithAvailDep;
+    }
+
+    @Override
+    public Collection<String> getAvailableDependencyURIs(String actionID) {
+        Collection<String> available = availableDeps.get(actionID);
+        if (available != null) {
+            // Return a copy
+            available = new ArrayList<String>(available);
+        }
+        return available;
+    }
+
+    @Override
+    public boolean removeAvailableDependencyURIs(String actionID, Collection<String> dependencyURIs) {
+        if (!availableDeps.containsKey(actionID)) {
+            return false;
+        }
+        else {
+            Collection<String> availList = availableDeps.get(actionID);
+            if (!availList.removeAll(dependencyURIs)) {
+                return false;
+            }
+            synchronized (availList) {
+                if (availList.isEmpty()) {
+                    availableDeps.remove(actionID);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        tables.clear();
+        hostNames.clear();
+        availableDeps.clear();
+        actionTables.clear();
+    }
+
+    @Override
+    public void removeNonWaitingCoordActions(Set<String> coordActions) {
+        HCatAccessorService hcatService = Services.get().get(HCatAccessorService.class);
+        for (String coordActionId : coordActions) {
+            LOG.info("Removing non waiting coord action {0} from partition dependency map", coordActionId);
+            Map<TableIndex, Integer> tableCounts = actionTables.remove(coordActionId);
+            if (tableCounts == null) {
+                continue;
+            }
+            List<TableIndex> actionTableList;
+            synchronized (tableCounts) {
+                actionTableList = new ArrayList<TableIndex>(tableCounts.keySet());
+            }
+            for (TableIndex table : actionTableList) {
+                synchronized (table) {
+                    if (table.removed) {
+                        continue;
+                    }
+                    Iterator<PartitionIndex> patternItr = table.patterns.iterator();
+                    while (patternItr.hasNext()) {
+                        PartitionIndex pattern = patternItr.next();
+                        pattern.removeAction(coordActionId);
+                        if (pattern.isEmpty()) {
+                            patternItr.remove();
+                        }
+                    }
+                    if (table.patterns.isEmpty()) {
+                        removeTable(table);
+                        // Close JMS session. Stop listening on topic
+                        hcatService.unregisterFromNotification(table.server, table.db, table.table);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeCoordActionWithDependenciesAvailable(String coordAction) {
+        actionTables.remove(coordAction);
+    }
+
+    public String canonicalizeHostname(String name) {
+        return SimpleHCatDependencyCache.canonicalizeHostname(name, useCanonicalHostName);
+    }
+
+    private String getHostName(String server) {
+        String hostName = hostNames.get(server);
+        if (hostName == null) {
+            hostName = canonicalizeHostname(server);
+            hostNames.put(server, hostName);
+        }
+        return hostName;
+    }
+
+    private TableIndex getTable(String server, String db, String table) {
+        ConcurrentMap<String, ConcurrentMap<String, TableIndex>> dbs = tables.get(getHostName(server));
+        if (dbs == null) {
+            return null;
+        }
+        ConcurrentMap<String, TableIndex> dbTables = dbs.get(db);
+        if (dbTables == null) {
+            return null;
+        }
+        return dbTables.get(table);
+    }
+
+    private TableIndex getOrCreateTable(String server, String db, String table) {
+        String hostName = getHostName(server);
+        ConcurrentMap<String, ConcurrentMap<String, TableIndex>> dbs = tables.get(hostName);
+        if (dbs == null) {
+            dbs = new ConcurrentHashMap<String, ConcurrentMap<String, TableIndex>>();
+            ConcurrentMap<String, ConcurrentMap<String, TableIndex>> existing = tables.putIfAbsent(hostName, dbs);
+            if (existing != null) {
+                dbs = existing;
+            }
+        }
+        ConcurrentMap<String, TableIndex> dbTables = dbs.get(db);
+        if (dbTables == null) {
+            dbTables = new ConcurrentHashMap<String, TableIndex>();
+            ConcurrentMap<String, TableIndex> existing = dbs.putIfAbsent(db, dbTables);
+            if (existing != null) {
+                dbTables = existing;
+            }
+        }
+        TableIndex tableIndex = dbTables.get(table);
+        if (tableIndex == null) {
+            tableIndex = new TableIndex(hostName, db, table);
+            TableIndex existing = dbTables.putIfAbsent(table, tableIndex);
+            if (existing != null) {
+                tableIndex = existing;
+            }
+        }
+        return tableIndex;
+    }
+
+    /**
+     * Remove an empty table, the caller holds the lock of the table.
+     */
+    private void removeTable(TableIndex table) {
+        table.removed = true;
+        ConcurrentMap<String, ConcurrentMap<String, TableIndex>> dbs = tables.get(table.server);
+        if (dbs != null) {
+            ConcurrentMap<String, TableIndex> dbTables = dbs.get(table.db);
+            if (dbTables != null) {
+                dbTables.remove(table.table, table);
+            }
+        }
+    }
+
+    /**
+     * Partition index of a table. All access is guarded by the lock of the table.
+     */
+    private static final class TableIndex {
+        private final String server;
+        private final String db;
+        private final String table;
+        private final List<PartitionIndex> patterns = new ArrayList<PartitionIndex>(2);
+        private boolean removed;
+
+        private TableIndex(String server, String db, String table) {
+            this.server = server;
+            this.db = db;
+            this.table = table;
+        }
+
+        private PartitionIndex getPattern(String[] partKeys) {
+            for (int i = 0; i < patterns.size(); i++) {
+                if (Arrays.equals(patterns.get(i).partKeys, partKeys)) {
+                    return patterns.get(i);
+                }
+            }
+            return null;
+        }
+
+        private PartitionIndex getPattern(Map<String, String> partitions) {
+            for (int i = 0; i < patterns.size(); i++) {
+                PartitionIndex pattern = patterns.get(i);
+                if (pattern.partKeys.length == partitions.size() && pattern.hasKeys(partitions)) {
+                    return pattern;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "TableIndex [" + server + "/" + db + "/" + table + "]";
+        }
+    }
+
+    /**
+     * Hash table of the partition value tuples of a partition key pattern.
+     */
+    static final class PartitionIndex {
+
+        static final class Node {
+            private final String[] partVals;
+            private final int hash;
+            private final Set<WaitingAction> actions = new HashSet<WaitingAction>(2);
+            private Node next;
+
+            private Node(String[] partVals, int hash) {
+                this.partVals = partVals;
+                this.hash = hash;
+            }
+        }
+
+        private final String[] partKeys;
+        private Node[] buckets = new Node[8];
+        private int size;
+
+        PartitionIndex(String[] partKeys) {
+            this.partKeys = partKeys;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean hasKeys(Map<String, String> partitions) {
+            for (String partKey : partKeys) {
+                if (!partitions.containsKey(partKey)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Get the node matching the values of the partition keys of the pattern in the given partitions.
+         */
+        Node get(Map<String, String> partitions) {
+            int hash = 1;
+            for (String partKey : partKeys) {
+                String partVal = partitions.get(partKey);
+                if (partVal == null) {
+                    return null;
+                }
+                hash = 31 * hash + partVal.hashCode();
+            }
+            for (Node node = buckets[hash & (buckets.length - 1)]; node != null; node = node.next) {
+                if (node.hash == hash && matches(node, partitions)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        Node getOrAdd(String[] partVals) {
+            int hash = Arrays.hashCode(partVals);
+            for (Node node = buckets[hash & (buckets.length - 1)]; node != null; node = node.next) {
+                if (node.hash == hash && Arrays.equals(node.partVals, partVals)) {
+                    return node;
+                }
+            }
+            if (size >= buckets.length * 3 / 4) {
+                resize();
+            }
+            Node node = new Node(partVals, hash);
+            int bucket = hash & (buckets.length - 1);
+            node.next = buckets[bucket];
+            buckets[bucket] = node;
+            size++;
+            return node;
+        }
+
+        void remove(Node removed) {
+            int bucket = removed.hash & (buckets.length - 1);
+            Node prev = null;
+            for (Node node = buckets[bucket]; node != null; prev = node, node = node.next) {
+                if (node == removed) {
+                    if (prev == null) {
+                        buckets[bucket] = node.next;
+                    }
+                    else {
+                        prev.next = node.next;
+                    }
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        void removeAction(String actionID) {
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                Node prev = null;
+                for (Node node = buckets[bucket]; node != null; node = node.next) {
+                    Iterator<WaitingAction> actionItr = node.actions.iterator();
+                    while (actionItr.hasNext()) {
+                        if (actionItr.next().getActionID().equals(actionID)) {
+                            actionItr.remove();
+                        }
+                    }
+                    if (node.actions.isEmpty()) {
+                        if (prev == null) {
+                            buckets[bucket] = node.next;
+                        }
+                        else {
+                            prev.next = node.next;
+                        }
+                        size--;
+                    }
+                    else {
+                        prev = node;
+                    }
+                }
+            }
+        }
+
+        private boolean matches(Node node, Map<String, String> partitions) {
+            for (int i = 0; i < partKeys.length; i++) {
+                if (!node.partVals[i].equals(partitions.get(partKeys[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void resize() {
+            Node[] newBuckets = new Node[buckets.length * 2];
+            for (Node head : buckets) {
+                Node node = head;
+                while (node != null) {
+                    Node next = node.next;
+                    int bucket = node.hash & (newBuckets.length - 1);
+                    node.next = newBuckets[bucket];
+                    newBuckets[bucket] = node;
+                    node = next;
+                }
+            }
+            buckets = newBuckets;
+        }
+    }
+}
@@ -75,6 +75,12 @@ public interface EventQueue {
      */
     int size();
 
+    /**
+     * Acknowledge that a polled event has been delivered to the listeners, so that it is not delivered again
+     * @param e the polled event
+     */
+    void acknowledge(Event e);
+
     /**
      * Read topmost event from queue but do not pop from it
      * @return event
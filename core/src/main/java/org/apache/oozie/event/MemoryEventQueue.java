@@ -103,6 +103,11 @@ public class MemoryEventQueue implements EventQueue {
         return null;
     }
 
+    @Override
+    public void acknowledge(Event e) {
+        // events are not kept once polled
+    }
+
     @Override
     public boolean isEmpty() {
         return size() == 0;
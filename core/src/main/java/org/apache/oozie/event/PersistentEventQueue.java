@@ -0,0 +1,525 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.client.event.Event;
+import org.apache.oozie.client.event.Event.MessageType;
+import org.apache.oozie.service.ConfigurationService;
+import org.apache.oozie.service.EventHandlerService;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.SchedulerService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * An implementation of the EventQueue backed by an append-only log of memory-mapped segment files in a local
+ * directory, so that events not yet delivered survive a restart or a crash of the server.
+ * <p>
+ * Every serializable event is appended to the active segment as a record of
+ * <code>[length][crc32][message type][serialized event]</code>. A polled event stays in flight until it is
+ * acknowledged once delivered to the listeners, the position after the last record acknowledged in log order is kept
+ * as the consumer offset. Segment and offset files are forced to disk every <code>fsync.batch.size</code> operations
+ * or <code>fsync.interval.ms</code> milliseconds, whichever comes first. Segments entirely behind the consumer offset
+ * are deleted. On initialization the records after the consumer offset are replayed, a torn or corrupted record ends
+ * the replay of its segment. Events are delivered at least once: the events in flight, or acknowledged after an
+ * event still in flight, are delivered again after a restart.
+ * <p>
+ * Events which are not serializable, like the SLA events, are kept in memory only, as with the
+ * {@link MemoryEventQueue}.
+ */
+public class PersistentEventQueue implements EventQueue, Closeable {
+
+    public static final String CONF_PREFIX = EventHandlerService.CONF_PREFIX + "persistent.queue.";
+    public static final String CONF_DIR = CONF_PREFIX + "dir";
+    public static final String CONF_SEGMENT_SIZE = CONF_PREFIX + "segment.size";
+    public static final String CONF_FSYNC_BATCH_SIZE = CONF_PREFIX + "fsync.batch.size";
+    public static final String CONF_FSYNC_INTERVAL = CONF_PREFIX + "fsync.interval.ms";
+
+    static final String OFFSET_FILE = "consumer.offset";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("events-(\\d{20})\\.log");
+    // record length, crc32 and message type
+    private static final int HEADER_SIZE = 9;
+
+    private static XLog LOG;
+
+    private File dir;
+    private int segmentSize;
+    private int fsyncBatchSize;
+    private long fsyncInterval;
+    private int maxSize;
+    private int batchSize;
+
+    private final ArrayDeque<QueueElement> queue = new ArrayDeque<QueueElement>();
+    // logged events polled and not yet acknowledged, in log order
+    private final ArrayDeque<QueueElement> inFlight = new ArrayDeque<QueueElement>();
+    private final Map<Event, QueueElement> inFlightEvents = new IdentityHashMap<Event, QueueElement>();
+    private final List<Segment> segments = new ArrayList<Segment>();
+    private Segment active;
+    private FileChannel offsetChannel;
+    private MappedByteBuffer offsetBuffer;
+    private long consumerOffset;
+    private int unsynced;
+    private long lastSync;
+    private long recoveryTime;
+    private int recoveredEvents;
+    private volatile boolean closed;
+
+    private static class QueueElement extends EventQueueElement {
+        private static final long serialVersionUID = 1L;
+        // offset of the record in the log, -1 if the event is kept in memory only
+        private final long offset;
+        private final int length;
+        private boolean acknowledged;
+
+        private QueueElement(Event e, long offset, int length) {
+            super(e);
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static class Segment {
+        private final File file;
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(File file, long baseOffset, int size) throws IOException {
+            this.file = file;
+            this.baseOffset = baseOffset;
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            if (raf.length() < size) {
+                raf.setLength(size);
+            }
+            channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+        }
+
+        private long getEndOffset() {
+            return baseOffset + position;
+        }
+
+        private void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    @Override
+    public void init(Configuration conf) {
+        LOG = XLog.getLog(getClass());
+        dir = new File(ConfigurationService.get(conf, CONF_DIR));
+        segmentSize = ConfigurationService.getInt(conf, CONF_SEGMENT_SIZE);
+        fsyncBatchSize = ConfigurationService.getInt(conf, CONF_FSYNC_BATCH_SIZE);
+        fsyncInterval = ConfigurationService.getLong(conf, CONF_FSYNC_INTERVAL);
+        maxSize = ConfigurationService.getInt(conf, EventHandlerService.CONF_QUEUE_SIZE);
+        batchSize = ConfigurationService.getInt(conf, EventHandlerService.CONF_BATCH_SIZE);
+        try {
+            recover();
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException("Could not open the event log in [" + dir + "]: " + ex.getMessage(), ex);
+        }
+        lastSync = System.currentTimeMillis();
+        if (Services.get() != null && Services.get().get(SchedulerService.class) != null && fsyncInterval > 0) {
+            Services.get().get(SchedulerService.class).schedule(new Runnable() {
+                @Override
+                public void run() {
+                    syncIfDue();
+                }
+            }, fsyncInterval, fsyncInterval, SchedulerService.Unit.MILLISEC);
+        }
+        LOG.info("Persistent Event Queue initialized in [{0}] with Max size = [{1}], Batch drain size = [{2}],"
+                + " recovered [{3}] events in [{4}] ms", dir, maxSize, batchSize, recoveredEvents, recoveryTime);
+    }
+
+    private synchronized void recover() throws IOException {
+        long start = System.currentTimeMillis();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory " + dir);
+        }
+        RandomAccessFile offsetFile = new RandomAccessFile(new File(dir, OFFSET_FILE), "rw");
+        if (offsetFile.length() < 8) {
+            offsetFile.setLength(8);
+        }
+        offsetChannel = offsetFile.getChannel();
+        offsetBuffer = offsetChannel.map(FileChannel.MapMode.READ_WRITE, 0, 8);
+        consumerOffset = offsetBuffer.getLong(0);
+
+        File[] files = dir.listFiles();
+        Arrays.sort(files);
+        for (File file : files) {
+            Matcher matcher = SEGMENT_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                Segment segment = new Segment(file, Long.parseLong(matcher.group(1)), 0);
+                replay(segment);
+                segments.add(segment);
+            }
+        }
+        if (segments.isEmpty()) {
+            active = newSegment(consumerOffset);
+        }
+        else {
+            active = segments.get(segments.size() - 1);
+            if (active.getEndOffset() < consumerOffset) {
+                active = newSegment(consumerOffset);
+            }
+        }
+        compact();
+        recoveredEvents = queue.size();
+        recoveryTime = System.currentTimeMillis() - start;
+        Instrumentation instr = getInstrumentation();
+        if (instr != null) {
+            instr.incr(EventHandlerService.INSTRUMENTATION_GROUP, "persistent.queue.recovered", recoveredEvents);
+            instr.incr(EventHandlerService.INSTRUMENTATION_GROUP, "persistent.queue.recovery.ms", recoveryTime);
+        }
+    }
+
+    private void replay(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.position(position + HEADER_SIZE);
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                LOG.warn("Corrupted event record at offset [{0}] of [{1}], skipping the rest of the segment", position,
+                        segment.file);
+                break;
+            }
+            long offset = segment.baseOffset + position;
+            if (offset >= consumerOffset) {
+                try {
+                    Event event = deserialize(payload, buffer.get(position + 8));
+                    queue.add(new QueueElement(event, offset, HEADER_SIZE + length));
+                }
+                catch (Exception ex) {
+                    LOG.warn("Could not read event record at offset [{0}] of [{1}], skipped: {2}", position,
+                            segment.file, ex.getMessage());
+                }
+            }
+            position += HEADER_SIZE + length;
+        }
+        if (position + 4 <= buffer.capacity()) {
+            // marks the end of the log in case a torn record follows
+            buffer.putInt(position, 0);
+        }
+        segment.position = position;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public void add(Event e) {
+        if (size() > maxSize) {
+            LOG.warn("Queue size [{0}] reached max limit. Element [{1}] not added", size(), e);
+            return;
+        }
+        byte[] payload = null;
+        if (e instanceof Serializable) {
+            try {
+                payload = serialize(e);
+            }
+            catch (IOException ex) {
+                LOG.warn("Unable to serialize event [{0}], it is kept in memory only: {1}", e, ex.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (payload == null || closed) {
+                queue.add(new QueueElement(e, -1, 0));
+                return;
+            }
+            try {
+                queue.add(append(e, payload));
+            }
+            catch (IOException ex) {
+                LOG.warn("Unable to append event [{0}] to the log, it is kept in memory only: {1}", e, ex.getMessage());
+                queue.add(new QueueElement(e, -1, 0));
+            }
+            unsynced++;
+            syncIfDue();
+        }
+    }
+
+    private QueueElement append(Event e, byte[] payload) throws IOException {
+        int length = HEADER_SIZE + payload.length;
+        if (length > segmentSize) {
+            throw new IOException("event of " + length + " bytes exceeds the segment size");
+        }
+        if (active.position + length > active.buffer.capacity()) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.position;
+        buffer.position(position + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put((byte) (e.getMsgType() == null ? 0 : e.getMsgType().ordinal()));
+        buffer.put(payload);
+        if (buffer.remaining() >= 4) {
+            buffer.putInt(0);
+        }
+        // the length is written last, a record is only visible once complete
+        buffer.putInt(position, payload.length);
+        active.position += length;
+        return new QueueElement(e, active.baseOffset + position, length);
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        active = newSegment(active.getEndOffset());
+        compact();
+    }
+
+    private Segment newSegment(long baseOffset) throws IOException {
+        Segment segment = new Segment(new File(dir, String.format("events-%020d.log", baseOffset)), baseOffset,
+                segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Deletes the segments whose records have all been consumed.
+     */
+    private void compact() {
+        Iterator<Segment> it = segments.iterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            if (segment != active && segment.getEndOffset() <= consumerOffset) {
+                try {
+                    segment.close();
+                }
+                catch (IOException ex) {
+                    LOG.warn("Could not close segment [{0}]: {1}", segment.file, ex.getMessage());
+                }
+                if (!segment.file.delete()) {
+                    LOG.warn("Could not delete consumed segment [{0}]", segment.file);
+                }
+                it.remove();
+                Instrumentation instr = getInstrumentation();
+                if (instr != null) {
+                    instr.incr(EventHandlerService.INSTRUMENTATION_GROUP, "persistent.queue.compacted.segments", 1);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Event> pollBatch() {
+        // batch drain
+        List<Event> eventBatch = new ArrayList<Event>();
+        for (int i = 0; i < batchSize; i++) {
+            Event polled = poll();
+            if (polled == null) {
+                LOG.trace("Current queue size [{0}] less than polling batch size [{1}]", queue.size(), batchSize);
+                break;
+            }
+            eventBatch.add(polled);
+        }
+        return eventBatch;
+    }
+
+    @Override
+    public synchronized Event poll() {
+        QueueElement polled = queue.poll();
+        if (polled == null) {
+            return null;
+        }
+        if (polled.offset >= 0 && !closed) {
+            inFlight.add(polled);
+            inFlightEvents.put(polled.event, polled);
+        }
+        return polled.event;
+    }
+
+    /**
+     * Acknowledge the delivery of a polled event. The consumer offset moves past the events acknowledged so far in log
+     * order.
+     *
+     * @param e the polled event
+     */
+    @Override
+    public synchronized void acknowledge(Event e) {
+        QueueElement element = inFlightEvents.remove(e);
+        if (element == null || closed) {
+            return;
+        }
+        element.acknowledged = true;
+        boolean moved = false;
+        while (!inFlight.isEmpty() && inFlight.peek().acknowledged) {
+            QueueElement delivered = inFlight.poll();
+            consumerOffset = delivered.offset + delivered.length;
+            moved = true;
+        }
+        if (moved) {
+            offsetBuffer.putLong(0, consumerOffset);
+            unsynced++;
+            syncIfDue();
+        }
+    }
+
+    /**
+     * Get the number of polled events not yet acknowledged.
+     *
+     * @return number of events in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized Event peek() {
+        QueueElement peeked = queue.peek();
+        return peeked == null ? null : peeked.event;
+    }
+
+    @Override
+    public synchronized void clear() {
+        queue.clear();
+        inFlight.clear();
+        inFlightEvents.clear();
+        if (!closed) {
+            consumerOffset = active.getEndOffset();
+            offsetBuffer.putLong(0, consumerOffset);
+            sync();
+        }
+    }
+
+    /**
+     * Get the time the last initialization took to replay the log.
+     *
+     * @return recovery time in milliseconds
+     */
+    public long getRecoveryTime() {
+        return recoveryTime;
+    }
+
+    /**
+     * Get the number of events replayed from the log during the last initialization.
+     *
+     * @return number of recovered events
+     */
+    public int getRecoveredEvents() {
+        return recoveredEvents;
+    }
+
+    private synchronized void syncIfDue() {
+        if (!closed && unsynced > 0
+                && (unsynced >= fsyncBatchSize || System.currentTimeMillis() - lastSync >= fsyncInterval)) {
+            sync();
+        }
+    }
+
+    private void sync() {
+        active.buffer.force();
+        offsetBuffer.force();
+        unsynced = 0;
+        lastSync = System.currentTimeMillis();
+        compact();
+    }
+
+    /**
+     * Forces the log to disk and releases the segment files, events still in the queue are replayed on the next
+     * initialization.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        sync();
+        closed = true;
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        offsetChannel.close();
+    }
+
+    private static byte[] serialize(Event e) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(512);
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(e);
+        oos.close();
+        return baos.toByteArray();
+    }
+
+    private static Event deserialize(byte[] payload, byte msgType) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload));
+        try {
+            Event event = (Event) ois.readObject();
+            // Event is not serializable itself, its message type is restored from the record header
+            event.setMsgType(MessageType.values()[msgType]);
+            return event;
+        }
+        finally {
+            ois.close();
+        }
+    }
+
+    private static Instrumentation getInstrumentation() {
+        Services services = Services.get();
+        InstrumentationService instrService = services == null ? null : services.get(InstrumentationService.class);
+        return instrService == null ? null : instrService.get();
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.oozie.BundleActionBean;
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.executor.jpa.BatchQueryExecutor.UpdateEntry;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.sla.SLARegistrationBean;
+import org.apache.oozie.sla.SLASummaryBean;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Groups the batch updates submitted by concurrent threads within a short window and commits them in a single
+ * transaction.
+ * <p>
+ * The first thread submitting a batch leads the group: it waits for the window to elapse, or for the maximum number
+ * of batches to be reached, and commits all the batches submitted meanwhile. Updates of the same bean with the same
+ * query are coalesced, only the last one is executed. Every submitting thread waits for the commit of its group, so
+ * a command still holds its job lock when its changes become durable. If the group commit fails, the batches are
+ * committed one by one, each thread getting the error of its own batch.
+ */
+class BatchGroupCommitter {
+
+    private static final XLog LOG = XLog.getLog(BatchGroupCommitter.class);
+
+    private static final String INSTRUMENTATION_GROUP = "jpa";
+
+    @SuppressWarnings("rawtypes")
+    private static class Batch {
+        private final Collection<JsonBean> insertList;
+        private final Collection<UpdateEntry> updateList;
+        private final Collection<JsonBean> deleteList;
+        private final CountDownLatch committed = new CountDownLatch(1);
+        private JPAExecutorException error;
+
+        private Batch(Collection<JsonBean> insertList, Collection<UpdateEntry> updateList,
+                Collection<JsonBean> deleteList) {
+            this.insertList = insertList;
+            this.updateList = updateList;
+            this.deleteList = deleteList;
+        }
+    }
+
+    private final BatchQueryExecutor executor;
+    private final List<Batch> pending = new ArrayList<Batch>();
+    private boolean leading;
+
+    BatchGroupCommitter(BatchQueryExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Commit a batch with the batches submitted by other threads within the window.
+     *
+     * @param insertList beans to insert
+     * @param updateList update queries with their beans
+     * @param deleteList beans to delete
+     * @param window the window in milliseconds
+     * @param maxBatches maximum number of batches per commit
+     * @throws JPAExecutorException if the batch could not be committed
+     */
+    @SuppressWarnings("rawtypes")
+    void commit(Collection<JsonBean> insertList, Collection<UpdateEntry> updateList, Collection<JsonBean> deleteList,
+            long window, int maxBatches) throws JPAExecutorException {
+        Batch batch = new Batch(insertList, updateList, deleteList);
+        boolean leader;
+        synchronized (this) {
+            pending.add(batch);
+            leader = !leading;
+            if (leader) {
+                leading = true;
+            }
+            else if (pending.size() >= maxBatches) {
+                notifyAll();
+            }
+        }
+        if (leader) {
+            commitGroup(collectGroup(window, maxBatches));
+        }
+        else {
+            awaitCommit(batch);
+        }
+        if (batch.error != null) {
+            throw batch.error;
+        }
+    }
+
+    private synchronized List<Batch> collectGroup(long window, int maxBatches) {
+        long deadline = System.currentTimeMillis() + window;
+        long wait = window;
+        try {
+            while (pending.size() < maxBatches && wait > 0) {
+                wait(wait);
+                wait = deadline - System.currentTimeMillis();
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<Batch> group = new ArrayList<Batch>(pending);
+        pending.clear();
+        leading = false;
+        return group;
+    }
+
+    private void awaitCommit(Batch batch) {
+        // the batch must be committed before the caller releases its locks, interruptions are deferred
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (batch.committed.await(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            }
+            catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void commitGroup(List<Batch> group) {
+        try {
+            if (group.size() == 1) {
+                commitBatch(group.get(0));
+                return;
+            }
+            List<JsonBean> insertList = new ArrayList<JsonBean>();
+            List<JsonBean> deleteList = new ArrayList<JsonBean>();
+            Map<Object, UpdateEntry> updates = new LinkedHashMap<Object, UpdateEntry>();
+            int updateCount = 0;
+            for (Batch batch : group) {
+                if (batch.insertList != null) {
+                    insertList.addAll(batch.insertList);
+                }
+                if (batch.updateList != null) {
+                    for (UpdateEntry entry : batch.updateList) {
+                        Object key = getKey(entry);
+                        // the last update is kept, at the position of the last update
+                        updates.remove(key);
+                        updates.put(key, entry);
+                        updateCount++;
+                    }
+                }
+                if (batch.deleteList != null) {
+                    deleteList.addAll(batch.deleteList);
+                }
+            }
+            try {
+                executor.executeBatch(insertList, new ArrayList<UpdateEntry>(updates.values()), deleteList);
+                incr("batch.group.commits", 1);
+                incr("batch.coalesced.updates", updateCount - updates.size());
+            }
+            catch (JPAExecutorException ex) {
+                LOG.warn("Group commit of [{0}] batches failed, committing them one by one, {1}", group.size(),
+                        ex.getMessage(), ex);
+                for (Batch batch : group) {
+                    commitBatch(batch);
+                }
+            }
+        }
+        finally {
+            for (Batch batch : group) {
+                batch.committed.countDown();
+            }
+        }
+    }
+
+    private void commitBatch(Batch batch) {
+        try {
+            executor.executeBatch(batch.insertList, batch.updateList, batch.deleteList);
+        }
+        catch (JPAExecutorException ex) {
+            batch.error = ex;
+        }
+        catch (RuntimeException ex) {
+            batch.error = new JPAExecutorException(ErrorCode.E0603, ex.getMessage(), ex);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Object getKey(UpdateEntry entry) {
+        JsonBean bean = entry.getBean();
+        String id;
+        if (bean instanceof WorkflowJobBean) {
+            id = ((WorkflowJobBean) bean).getId();
+        }
+        else if (bean instanceof WorkflowActionBean) {
+            id = ((WorkflowActionBean) bean).getId();
+        }
+        else if (bean instanceof CoordinatorJobBean) {
+            id = ((CoordinatorJobBean) bean).getId();
+        }
+        else if (bean instanceof CoordinatorActionBean) {
+            id = ((CoordinatorActionBean) bean).getId();
+        }
+        else if (bean instanceof BundleJobBean) {
+            id = ((BundleJobBean) bean).getId();
+        }
+        else if (bean instanceof BundleActionBean) {
+            id = ((BundleActionBean) bean).getBundleActionId();
+        }
+        else if (bean instanceof SLARegistrationBean) {
+            id = ((SLARegistrationBean) bean).getId();
+        }
+        else if (bean instanceof SLASummaryBean) {
+            id = ((SLASummaryBean) bean).getId();
+        }
+        else {
+            return entry;
+        }
+        if (id == null) {
+            return entry;
+        }
+        return entry.getQueryName().getDeclaringClass().getName() + "#" + entry.getQueryName().name() + "#" + id;
+    }
+
+    private static void incr(String name, long count) {
+        if (count > 0 && Services.get() != null) {
+            InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+            if (instrumentationService != null) {
+                instrumentationService.get().incr(INSTRUMENTATION_GROUP, name, count);
+            }
+        }
+    }
+}
@@ -55,6 +55,8 @@ public class BatchQueryExecutor {
 
     private static BatchQueryExecutor instance = new BatchQueryExecutor();
 
+    private final BatchGroupCommitter groupCommitter = new BatchGroupCommitter(this);
+
     public static class UpdateEntry<E extends Enum<E>> {
         E namedQuery;
         JsonBean bean;
@@ -80,9 +82,33 @@ public class BatchQueryExecutor {
         return BatchQueryExecutor.instance;
     }
 
+    /**
+     * Execute inserts, updates and deletes in one transaction.
+     * <p>
+     * When {@link JPAService#CONF_GROUP_COMMIT_WINDOW} is set, the batch may be committed together with the batches
+     * of other threads, the call returns once the transaction holding it is committed.
+     *
+     * @param insertList beans to insert
+     * @param updateList update queries with their beans
+     * @param deleteList beans to delete
+     * @throws JPAExecutorException if the transaction failed
+     */
     @SuppressWarnings("rawtypes")
     public void executeBatchInsertUpdateDelete(Collection<JsonBean> insertList, Collection<UpdateEntry> updateList,
             Collection<JsonBean> deleteList) throws JPAExecutorException {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService.getGroupCommitWindow() > 0) {
+            groupCommitter.commit(insertList, updateList, deleteList, jpaService.getGroupCommitWindow(),
+                    jpaService.getGroupCommitMaxBatches());
+        }
+        else {
+            executeBatch(insertList, updateList, deleteList);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    void executeBatch(Collection<JsonBean> insertList, Collection<UpdateEntry> updateList,
+            Collection<JsonBean> deleteList) throws JPAExecutorException {
         List<QueryEntry> queryList = new ArrayList<QueryEntry>();
         JPAService jpaService = Services.get().get(JPAService.class);
         EntityManager em = jpaService.getEntityManager();
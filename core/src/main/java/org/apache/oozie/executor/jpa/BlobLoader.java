@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.executor.jpa;
+
+import java.util.concurrent.Callable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.BinaryBlob;
+import org.apache.oozie.StringBlob;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.Instrumentation;
+
+/**
+ * Loader fetching a single BLOB column the first time a lazy {@link StringBlob} or {@link BinaryBlob} is accessed.
+ * <p>
+ * Query executors use it for the BLOB columns that their callers seldom read, the column is then left out of the
+ * select query and only transferred, and decompressed, if it is used. The compressed bytes fetched are counted per
+ * named query in the <code>jpa</code> instrumentation group as <code>&lt;query&gt;.blob.bytes</code>.
+ */
+public class BlobLoader implements Callable<byte[]> {
+
+    public static final String INSTRUMENTATION_GROUP = "jpa";
+
+    private final String namedQuery;
+    private final String id;
+
+    /**
+     * Create a loader for a named query selecting a single BLOB column by <code>id</code>.
+     *
+     * @param namedQuery the named query
+     * @param id the id of the bean
+     */
+    public BlobLoader(String namedQuery, String id) {
+        this.namedQuery = namedQuery;
+        this.id = id;
+    }
+
+    /**
+     * Create a lazy string blob fetched by a named query.
+     *
+     * @param namedQuery the named query
+     * @param id the id of the bean
+     * @return the lazy string blob
+     */
+    public static StringBlob lazyStringBlob(String namedQuery, String id) {
+        return new StringBlob(new BlobLoader(namedQuery, id));
+    }
+
+    /**
+     * Create a lazy binary blob fetched by a named query.
+     *
+     * @param namedQuery the named query
+     * @param id the id of the bean
+     * @return the lazy binary blob
+     */
+    public static BinaryBlob lazyBinaryBlob(String namedQuery, String id) {
+        return new BinaryBlob(new BlobLoader(namedQuery, id));
+    }
+
+    @Override
+    public byte[] call() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        EntityManager em = jpaService.getEntityManager();
+        Query query = em.createNamedQuery(namedQuery);
+        query.setParameter("id", id);
+        Object ret = jpaService.executeGet(namedQuery, query, em);
+        byte[] rawBlob = null;
+        if (ret instanceof StringBlob) {
+            rawBlob = ((StringBlob) ret).getRawBlob();
+        }
+        else if (ret instanceof BinaryBlob) {
+            rawBlob = ((BinaryBlob) ret).getRawBlob();
+        }
+        incrFetchedBytes(namedQuery, rawBlob == null ? 0 : rawBlob.length);
+        return rawBlob;
+    }
+
+    /**
+     * Count the compressed BLOB bytes returned by a select query.
+     * <p>
+     * The result can be a bean or a row of columns, lazy blobs are not counted as they are counted when fetched.
+     *
+     * @param namedQuery the named query
+     * @param ret the query result
+     */
+    public static void instrumentFetchedBytes(String namedQuery, Object ret) {
+        long bytes = 0;
+        if (ret instanceof Object[]) {
+            for (Object column : (Object[]) ret) {
+                bytes += getRawLength(column);
+            }
+        }
+        else if (ret instanceof WorkflowJobBean) {
+            WorkflowJobBean bean = (WorkflowJobBean) ret;
+            bytes = getRawLength(bean.getConfBlob()) + getRawLength(bean.getProtoActionConfBlob())
+                    + getRawLength(bean.getSlaXmlBlob()) + getRawLength(bean.getWfInstanceBlob());
+        }
+        else if (ret instanceof WorkflowActionBean) {
+            WorkflowActionBean bean = (WorkflowActionBean) ret;
+            bytes = getRawLength(bean.getConfBlob()) + getRawLength(bean.getDataBlob())
+                    + getRawLength(bean.getSlaXmlBlob()) + getRawLength(bean.getStatsBlob())
+                    + getRawLength(bean.getExternalChildIDsBlob());
+        }
+        else {
+            bytes = getRawLength(ret);
+        }
+        incrFetchedBytes(namedQuery, bytes);
+    }
+
+    private static long getRawLength(Object column) {
+        byte[] rawBlob = null;
+        if (column instanceof StringBlob && !((StringBlob) column).isLazy()) {
+            rawBlob = ((StringBlob) column).getRawBlob();
+        }
+        else if (column instanceof BinaryBlob && !((BinaryBlob) column).isLazy()) {
+            rawBlob = ((BinaryBlob) column).getRawBlob();
+        }
+        return rawBlob == null ? 0 : rawBlob.length;
+    }
+
+    private static void incrFetchedBytes(String namedQuery, long bytes) {
+        if (bytes > 0 && Services.get() != null) {
+            InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+            if (instrumentationService != null) {
+                Instrumentation instr = instrumentationService.get();
+                instr.incr(INSTRUMENTATION_GROUP, namedQuery + ".blob.bytes", bytes);
+            }
+        }
+    }
+}
@@ -43,6 +43,7 @@ public class BundleActionQueryExecutor extends
         GET_BUNDLE_ACTION,
         GET_BUNDLE_ACTIONS_STATUS_UNIGNORED_FOR_BUNDLE,
         GET_BUNDLE_WAITING_ACTIONS_OLDER_THAN,
+        GET_BUNDLE_WAITING_ACTIONS_PAGE,
         GET_BUNDLE_UNIGNORED_ACTION_STATUS_PENDING_FOR_BUNDLE
     };
 
@@ -101,6 +102,12 @@ public class BundleActionQueryExecutor extends
                 Timestamp ts = new Timestamp(System.currentTimeMillis() - (Long)parameters[0] * 1000);
                 query.setParameter("lastModifiedTime", ts);
                 break;
+            case GET_BUNDLE_WAITING_ACTIONS_PAGE:
+                query.setParameter("lastModifiedTime", parameters[0]);
+                query.setParameter("fromTime", parameters[1]);
+                query.setParameter("fromId", parameters[2]);
+                query.setMaxResults((Integer) parameters[3]);
+                break;
             case GET_BUNDLE_UNIGNORED_ACTION_STATUS_PENDING_FOR_BUNDLE:
                 query.setParameter("bundleId", parameters[0]);
                 break;
@@ -147,6 +154,16 @@ public class BundleActionQueryExecutor extends
                 bean.setCoordId((String) arr[3]);
                 bean.setCoordName((String) arr[4]);
                 break;
+            case GET_BUNDLE_WAITING_ACTIONS_PAGE:
+                bean = new BundleActionBean();
+                arr = (Object[]) ret;
+                bean.setBundleActionId((String) arr[0]);
+                bean.setBundleId((String) arr[1]);
+                bean.setStatusStr((String) arr[2]);
+                bean.setCoordId((String) arr[3]);
+                bean.setCoordName((String) arr[4]);
+                bean.setLastModifiedTimestamp((Timestamp) arr[5]);
+                break;
             case GET_BUNDLE_UNIGNORED_ACTION_STATUS_PENDING_FOR_BUNDLE:
                 bean = new BundleActionBean();
                 arr = (Object[]) ret;
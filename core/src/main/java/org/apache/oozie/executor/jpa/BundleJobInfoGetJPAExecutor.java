@@ -32,6 +32,7 @@ import org.apache.oozie.StringBlob;
 import org.apache.oozie.client.Job;
 import org.apache.oozie.client.BundleJob.Timeunit;
 import org.apache.oozie.store.StoreStatusFilter;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.openjpa.persistence.OpenJPAQuery;
@@ -45,10 +46,11 @@ import org.apache.openjpa.persistence.jdbc.ResultSetType;
  */
 public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
 
-    public static final String DEFAULT_ORDER_BY = " order by w.createdTimestamp desc ";
+    public static final String DEFAULT_ORDER_BY = StoreStatusFilter.DEFAULT_ORDER_BY;
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsKeyset after;
 
     /**
      * The constructor for BundleJobInfoGetJPAExecutor
@@ -64,6 +66,20 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
         this.len = len;
     }
 
+    /**
+     * Get the bundle jobs that follow a position of the default order.
+     * <p>
+     * The total number of matching bundle jobs is not counted, it is -1 in the returned info.
+     *
+     * @param filter the filter string
+     * @param after position after which the jobs are returned
+     * @param len total length to get
+     */
+    public BundleJobInfoGetJPAExecutor(Map<String, List<String>> filter, JobsKeyset after, int len) {
+        this(filter, 1, len);
+        this.after = ParamChecker.notNull(after, "after");
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
      */
@@ -92,7 +108,7 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
 
         Query q = null;
         Query qTotal = null;
-        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
+        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY) && after == null) {
             q = em.createNamedQuery("GET_BUNDLE_JOBS_COLUMNS");
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
@@ -101,17 +117,22 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
         else {
             sb = sb.toString().trim().length() == 0 ? sb.append(StoreStatusFilter.bundleSeletStr) : sb;
             String sbTotal = sb.toString();
+            StoreStatusFilter.filterAfter(after, orderBy, sb);
             sb.append(orderBy);
             q = em.createQuery(sb.toString());
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
-            qTotal = em.createQuery(sbTotal.replace(StoreStatusFilter.bundleSeletStr,
-                                                                          StoreStatusFilter.bundleCountStr));
+            StoreStatusFilter.setAfterParameters(after, q);
+            if (after == null) {
+                qTotal = em.createQuery(sbTotal.replace(StoreStatusFilter.bundleSeletStr, StoreStatusFilter.bundleCountStr));
+            }
         }
 
         for (int i = 0; i < orArray.size(); i++) {
             q.setParameter(colArray.get(i), valArray.get(i));
-            qTotal.setParameter(colArray.get(i), valArray.get(i));
+            if (qTotal != null) {
+                qTotal.setParameter(colArray.get(i), valArray.get(i));
+            }
         }
 
         OpenJPAQuery kq = OpenJPAPersistence.cast(q);
@@ -129,7 +150,7 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
             bundleBeansList.add(bean);
         }
 
-        realLen = ((Long) qTotal.getSingleResult()).intValue();
+        realLen = (qTotal != null) ? ((Long) qTotal.getSingleResult()).intValue() : -1;
 
         return new BundleJobInfo(bundleBeansList, start, len, realLen);
     }
@@ -62,6 +62,8 @@ public class CoordActionQueryExecutor extends
         GET_ACTIVE_ACTIONS_FOR_DATES,
         GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_OLDER_THAN,
         GET_COORD_ACTIONS_FOR_RECOVERY_OLDER_THAN,
+        GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_PAGE,
+        GET_COORD_ACTIONS_FOR_RECOVERY_PAGE,
         GET_COORD_ACTION_FOR_SLA,
         GET_COORD_ACTION_FOR_INPUTCHECK
     };
@@ -214,6 +216,19 @@ public class CoordActionQueryExecutor extends
                 query.setParameter("lastModifiedTime", new Timestamp(((Date) parameters[0]).getTime()));
                 query.setParameter("currentTime", new Timestamp(new Date().getTime()));
                 break;
+            case GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_PAGE:
+                query.setParameter("lastModifiedTime", parameters[0]);
+                query.setParameter("fromTime", parameters[1]);
+                query.setParameter("fromId", parameters[2]);
+                query.setMaxResults((Integer) parameters[3]);
+                query.setParameter("currentTime", new Timestamp(new Date().getTime()));
+                break;
+            case GET_COORD_ACTIONS_FOR_RECOVERY_PAGE:
+                query.setParameter("lastModifiedTime", parameters[0]);
+                query.setParameter("fromTime", parameters[1]);
+                query.setParameter("fromId", parameters[2]);
+                query.setMaxResults((Integer) parameters[3]);
+                break;
 
             default:
                 throw new JPAExecutorException(ErrorCode.E0603, "QueryExecutor cannot set parameters for "
@@ -336,6 +351,26 @@ public class CoordActionQueryExecutor extends
                 bean.setExternalId((String) arr[3]);
                 bean.setPushMissingDependenciesBlob((StringBlob) arr[4]);
                 break;
+            case GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_PAGE:
+                arr = (Object[]) ret;
+                bean = new CoordinatorActionBean();
+                bean.setId((String) arr[0]);
+                bean.setJobId((String) arr[1]);
+                bean.setStatusStr((String) arr[2]);
+                bean.setExternalId((String) arr[3]);
+                bean.setPushMissingDependenciesBlob((StringBlob) arr[4]);
+                bean.setLastModifiedTime(DateUtils.toDate((Timestamp) arr[5]));
+                break;
+            case GET_COORD_ACTIONS_FOR_RECOVERY_PAGE:
+                arr = (Object[]) ret;
+                bean = new CoordinatorActionBean();
+                bean.setId((String) arr[0]);
+                bean.setJobId((String) arr[1]);
+                bean.setStatusStr((String) arr[2]);
+                bean.setExternalId((String) arr[3]);
+                bean.setPending((Integer) arr[4]);
+                bean.setLastModifiedTime(DateUtils.toDate((Timestamp) arr[5]));
+                break;
             case GET_COORD_ACTION_FOR_SLA:
                 arr = (Object[]) ret;
                 bean = new CoordinatorActionBean();
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.executor.jpa;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Get the number of Coordinator actions of each status for a given Coordinator job, IGNORED actions are not counted.
+ * <p>
+ * The actions are counted by the database, without loading a row per action.
+ */
+public class CoordJobGetActionsStatusCountJPAExecutor implements
+        JPAExecutor<Map<CoordinatorAction.Status, Integer>> {
+
+    private String coordJobId = null;
+
+    public CoordJobGetActionsStatusCountJPAExecutor(String coordJobId) {
+        ParamChecker.notNull(coordJobId, "coordJobId");
+        this.coordJobId = coordJobId;
+    }
+
+    @Override
+    public String getName() {
+        return "CoordJobGetActionsStatusCountJPAExecutor";
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<CoordinatorAction.Status, Integer> execute(EntityManager em) throws JPAExecutorException {
+        try {
+            Query q = em.createNamedQuery("GET_COORD_ACTIONS_STATUS_COUNT_UNIGNORED");
+            q.setParameter("jobId", coordJobId);
+            List<Object[]> counts = q.getResultList();
+            Map<CoordinatorAction.Status, Integer> statusCount = new HashMap<CoordinatorAction.Status, Integer>();
+            for (Object[] count : counts) {
+                statusCount.put(CoordinatorAction.Status.valueOf((String) count[0]), ((Number) count[1]).intValue());
+            }
+            return statusCount;
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e.getMessage(), e);
+        }
+    }
+}
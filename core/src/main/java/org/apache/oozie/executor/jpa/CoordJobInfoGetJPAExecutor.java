@@ -31,6 +31,7 @@ import org.apache.oozie.CoordinatorJobInfo;
 import org.apache.oozie.client.Job.Status;
 import org.apache.oozie.client.CoordinatorJob.Timeunit;
 import org.apache.oozie.store.StoreStatusFilter;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.openjpa.persistence.OpenJPAQuery;
@@ -44,10 +45,11 @@ import org.apache.openjpa.persistence.jdbc.ResultSetType;
  */
 public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInfo> {
 
-    public static final String DEFAULT_ORDER_BY = " order by w.createdTimestamp desc ";
+    public static final String DEFAULT_ORDER_BY = StoreStatusFilter.DEFAULT_ORDER_BY;
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsKeyset after;
 
     public CoordJobInfoGetJPAExecutor(Map<String, List<String>> filter, int start, int len) {
         ParamChecker.notNull(filter, "filter");
@@ -56,6 +58,20 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
         this.len = len;
     }
 
+    /**
+     * Get the coordinator jobs that follow a position of the default order.
+     * <p>
+     * The total number of matching coordinator jobs is not counted, it is -1 in the returned info.
+     *
+     * @param filter the filter string
+     * @param after position after which the jobs are returned
+     * @param len total length to get
+     */
+    public CoordJobInfoGetJPAExecutor(Map<String, List<String>> filter, JobsKeyset after, int len) {
+        this(filter, 1, len);
+        this.after = ParamChecker.notNull(after, "after");
+    }
+
     @Override
     public String getName() {
         return "CoordJobInfoGetJPAExecutor";
@@ -78,7 +94,7 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
 
         Query q = null;
         Query qTotal = null;
-        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
+        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY) && after == null) {
             q = em.createNamedQuery("GET_COORD_JOBS_COLUMNS");
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
@@ -87,17 +103,22 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
         else {
             sb = sb.toString().trim().length() == 0 ? sb.append(StoreStatusFilter.coordSeletStr) : sb;
             String sbTotal = sb.toString();
+            StoreStatusFilter.filterAfter(after, orderBy, sb);
             sb.append(orderBy);
             q = em.createQuery(sb.toString());
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
-            qTotal = em.createQuery(sbTotal.replace(StoreStatusFilter.coordSeletStr,
-                                                                          StoreStatusFilter.coordCountStr));
+            StoreStatusFilter.setAfterParameters(after, q);
+            if (after == null) {
+                qTotal = em.createQuery(sbTotal.replace(StoreStatusFilter.coordSeletStr, StoreStatusFilter.coordCountStr));
+            }
         }
 
         for (int i = 0; i < orArray.size(); i++) {
             q.setParameter(colArray.get(i), valArray.get(i));
-            qTotal.setParameter(colArray.get(i), valArray.get(i));
+            if (qTotal != null) {
+                qTotal.setParameter(colArray.get(i), valArray.get(i));
+            }
         }
 
         OpenJPAQuery kq = OpenJPAPersistence.cast(q);
@@ -115,7 +136,7 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
             coordBeansList.add(ww);
         }
 
-        realLen = ((Long) qTotal.getSingleResult()).intValue();
+        realLen = (qTotal != null) ? ((Long) qTotal.getSingleResult()).intValue() : -1;
 
         return new CoordinatorJobInfo(coordBeansList, start, len, realLen);
     }
@@ -55,12 +55,19 @@ public class WorkflowActionQueryExecutor extends
         GET_ACTION_CHECK,
         GET_ACTION_END,
         GET_ACTION_COMPLETED,
+        GET_ACTIONS_COMPLETED,
         GET_RUNNING_ACTIONS,
         GET_PENDING_ACTIONS,
+        GET_PENDING_ACTIONS_PAGE,
         GET_ACTIONS_FOR_WORKFLOW_RERUN,
         GET_ACTION_FOR_SLA
     };
 
+    /**
+     * Named query fetching the SLA XML of the workflow actions loaded without it.
+     */
+    static final String GET_ACTION_SLA_XML = "GET_ACTION_SLA_XML";
+
     private static WorkflowActionQueryExecutor instance = new WorkflowActionQueryExecutor();
 
     private WorkflowActionQueryExecutor() {
@@ -206,6 +213,9 @@ public class WorkflowActionQueryExecutor extends
             case GET_ACTION_FOR_SLA:
                 query.setParameter("id", parameters[0]);
                 break;
+            case GET_ACTIONS_COMPLETED:
+                query.setParameter("ids", parameters[0]);
+                break;
             case GET_RUNNING_ACTIONS:
                 Timestamp ts = new Timestamp(System.currentTimeMillis() - (Integer) parameters[0] * 1000);
                 query.setParameter("lastCheckTime", ts);
@@ -217,6 +227,13 @@ public class WorkflowActionQueryExecutor extends
                 query.setParameter("pendingAge", pts);
                 query.setParameter("createdTime", createdTimeInterval);
                 break;
+            case GET_PENDING_ACTIONS_PAGE:
+                query.setParameter("pendingAge", parameters[0]);
+                query.setParameter("createdTime", parameters[1]);
+                query.setParameter("fromTime", parameters[2]);
+                query.setParameter("fromId", parameters[3]);
+                query.setMaxResults((Integer) parameters[4]);
+                break;
             case GET_ACTIONS_FOR_WORKFLOW_RERUN:
                 query.setParameter("wfId", parameters[0]);
                 break;
@@ -278,8 +295,8 @@ public class WorkflowActionQueryExecutor extends
                 bean.setErrorInfo((String) arr[9], (String) arr[10]);
                 bean.setExecutionPath((String) arr[11]);
                 bean.setSignalValue((String) arr[12]);
-                bean.setSlaXmlBlob((StringBlob) arr[13]);
-                bean.setExternalId((String) arr[14]);
+                bean.setExternalId((String) arr[13]);
+                bean.setSlaXmlBlob(BlobLoader.lazyStringBlob(GET_ACTION_SLA_XML, bean.getId()));
                 break;
             case GET_ACTION_CHECK:
                 bean = new WorkflowActionBean();
@@ -335,6 +352,7 @@ public class WorkflowActionQueryExecutor extends
                 bean.setStatsBlob((StringBlob) arr[23]);
                 break;
             case GET_ACTION_COMPLETED:
+            case GET_ACTIONS_COMPLETED:
                 bean = new WorkflowActionBean();
                 arr = (Object[]) ret;
                 bean.setId((String) arr[0]);
@@ -348,6 +366,7 @@ public class WorkflowActionQueryExecutor extends
                 bean.setId((String)ret);
                 break;
             case GET_PENDING_ACTIONS:
+            case GET_PENDING_ACTIONS_PAGE:
                 bean = new WorkflowActionBean();
                 arr = (Object[]) ret;
                 bean.setId((String) arr[0]);
@@ -400,6 +419,7 @@ public class WorkflowActionQueryExecutor extends
         if (ret == null) {
             return null;
         }
+        BlobLoader.instrumentFetchedBytes(namedQuery.name(), ret);
         WorkflowActionBean bean = constructBean(namedQuery, ret);
         return bean;
     }
@@ -414,6 +434,7 @@ public class WorkflowActionQueryExecutor extends
         List<WorkflowActionBean> beanList = new ArrayList<WorkflowActionBean>();
         if (retList != null) {
             for (Object ret : retList) {
+                BlobLoader.instrumentFetchedBytes(namedQuery.name(), ret);
                 beanList.add(constructBean(namedQuery, ret));
             }
         }
@@ -63,6 +63,11 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
         GET_WORKFLOW_FOR_SLA
     };
 
+    /**
+     * Named query fetching the proto action configuration of the workflow jobs loaded without it.
+     */
+    static final String GET_WORKFLOW_PROTO_ACTION_CONF = "GET_WORKFLOW_PROTO_ACTION_CONF";
+
     private static WorkflowJobQueryExecutor instance = new WorkflowJobQueryExecutor();
 
     private WorkflowJobQueryExecutor() {
@@ -295,7 +300,7 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
                 bean.setLogToken((String) arr[9]);
                 bean.setWfInstanceBlob((BinaryBlob) (arr[10]));
                 bean.setSlaXmlBlob((StringBlob) arr[11]);
-                bean.setProtoActionConfBlob((StringBlob) arr[12]);
+                bean.setProtoActionConfBlob(BlobLoader.lazyStringBlob(GET_WORKFLOW_PROTO_ACTION_CONF, bean.getId()));
                 break;
             case GET_WORKFLOW_RESUME:
                 bean = new WorkflowJobBean();
@@ -311,7 +316,7 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
                 bean.setEndTime(DateUtils.toDate((Timestamp) arr[8]));
                 bean.setLogToken((String) arr[9]);
                 bean.setWfInstanceBlob((BinaryBlob) (arr[10]));
-                bean.setProtoActionConfBlob((StringBlob) arr[11]);
+                bean.setProtoActionConfBlob(BlobLoader.lazyStringBlob(GET_WORKFLOW_PROTO_ACTION_CONF, bean.getId()));
                 break;
             case GET_WORKFLOW_STATUS:
                 bean = new WorkflowJobBean();
@@ -366,6 +371,7 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
         if (ret == null) {
             return null;
         }
+        BlobLoader.instrumentFetchedBytes(namedQuery.name(), ret);
         WorkflowJobBean bean = constructBean(namedQuery, ret, parameters);
         return bean;
     }
@@ -379,6 +385,7 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
         List<WorkflowJobBean> beanList = new ArrayList<WorkflowJobBean>();
         if (retList != null) {
             for (Object ret : retList) {
+                BlobLoader.instrumentFetchedBytes(namedQuery.name(), ret);
                 beanList.add(constructBean(namedQuery, ret, parameters));
             }
         }
@@ -34,6 +34,8 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowJob.Status;
 import org.apache.oozie.store.StoreStatusFilter;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsKeyset;
+import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.openjpa.persistence.OpenJPAQuery;
@@ -47,11 +49,12 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
     private static final String seletStr = "Select w.id, w.appName, w.statusStr, w.run, w.user, w.group, w.createdTimestamp, "
             + "w.startTimestamp, w.lastModifiedTimestamp, w.endTimestamp, w.externalId, w.parentId from WorkflowJobBean w";
     private static final String countStr = "Select count(w) from WorkflowJobBean w";
-    public static final String DEFAULT_ORDER_BY = " order by w.createdTimestamp desc ";
+    public static final String DEFAULT_ORDER_BY = StoreStatusFilter.DEFAULT_ORDER_BY;
 
     private final Map<String, List<String>> filter;
     private final int start;
     private final int len;
+    private final JobsKeyset after;
 
     /**
      * This JPA Executor gets the workflows info for the range.
@@ -64,6 +67,23 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
         this.filter = filter;
         this.start = start;
         this.len = len;
+        this.after = null;
+    }
+
+    /**
+     * This JPA Executor gets the workflows info that follow a position of the default order.
+     * <p>
+     * The total number of matching workflows is not counted, it is -1 in the returned info.
+     *
+     * @param filter
+     * @param after position after which the workflows are returned
+     * @param len
+     */
+    public WorkflowsJobGetJPAExecutor(Map<String, List<String>> filter, JobsKeyset after, int len) {
+        this.filter = filter;
+        this.start = 1;
+        this.len = len;
+        this.after = ParamChecker.notNull(after, "after");
     }
 
     /* (non-Javadoc)
@@ -289,7 +309,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
 
         Query q = null;
         Query qTotal = null;
-        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
+        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY) && after == null) {
             q = em.createNamedQuery("GET_WORKFLOWS_COLUMNS");
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
@@ -298,15 +318,19 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
         else {
             sb = sb.toString().trim().length() == 0 ? sb.append(seletStr) : sb;
             String sbTotal = sb.toString();
+            StoreStatusFilter.filterAfter(after, orderBy, sb);
             sb.append(orderBy);
             q = em.createQuery(sb.toString());
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
-            qTotal = em.createQuery(sbTotal.replace(seletStr, countStr));
+            StoreStatusFilter.setAfterParameters(after, q);
+            qTotal = (after == null) ? em.createQuery(sbTotal.replace(seletStr, countStr)) : null;
 
             for (int i = 0; i < orArray.size(); i++) {
                 q.setParameter(colArray.get(i), valArray.get(i));
-                qTotal.setParameter(colArray.get(i), valArray.get(i));
+                if (qTotal != null) {
+                    qTotal.setParameter(colArray.get(i), valArray.get(i));
+                }
             }
         }
 
@@ -325,7 +349,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
             wfBeansList.add(ww);
         }
 
-        realLen = ((Long) qTotal.getSingleResult()).intValue();
+        realLen = (qTotal != null) ? ((Long) qTotal.getSingleResult()).intValue() : -1;
 
         return new WorkflowsInfo(wfBeansList, start, len, realLen);
     }
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.oozie.service.MemoryLocksService.Type;
+
+/**
+ * In memory resource locking that provides READ/WRITE lock capabilities over a fixed-size table of lock stripes.
+ * <p>
+ * Resources are mapped to a stripe by the hash of their name and share the READ/WRITE lock of their stripe. The locks
+ * are created once, so acquiring a lock never allocates nor synchronizes on a shared monitor, and the memory used does
+ * not depend on the number of resources.
+ * <p>
+ * Resources mapped to the same stripe are not independent:
+ * <ul>
+ * <li>a WRITE lock on a resource blocks the locks of all the other resources of its stripe, the more stripes the less
+ * likely it happens. These acquisitions are counted as contended.</li>
+ * <li>a thread that holds locks on several resources, like a workflow job and its parent coordinator action, may wait
+ * for a stripe held by a thread waiting for one of its own stripes. Callers waiting with a timeout get no lock instead
+ * of a deadlock, waiting with no timeout while holding another lock should be avoided.</li>
+ * <li>a READ lock cannot be upgraded, a thread that holds a READ lock on a stripe would wait forever for a WRITE lock
+ * on another resource of the same stripe. The WRITE lock is not obtained in that case, whatever the wait.</li>
+ * </ul>
+ * Like {@link MemoryLocks} the locks are reentrant, per stripe instead of per resource.
+ */
+public class StripedMemoryLocks extends MemoryLocks {
+
+    private final ReentrantReadWriteLock[] stripes;
+    private final AtomicLongArray contended;
+    private final int mask;
+
+    /**
+     * Create striped memory locks.
+     *
+     * @param stripes number of stripes, it is rounded up to the next power of 2.
+     * @param fair if the stripe locks use a fair ordering policy.
+     */
+    public StripedMemoryLocks(int stripes, boolean fair) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be 1 or more");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock(fair);
+        }
+        this.contended = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Return the number of stripes.
+     *
+     * @return the number of stripes.
+     */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Return the stripe a resource is mapped to.
+     *
+     * @param resource resource name.
+     * @return the index of the stripe.
+     */
+    public int getStripe(String resource) {
+        int h = resource.hashCode();
+        // spread the higher bits, job IDs often differ only in their last characters
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    /**
+     * Return the lock shared by the resources of a stripe.
+     *
+     * @param resource resource name.
+     * @return the lock of the stripe of the resource.
+     */
+    public ReentrantReadWriteLock getStripeLock(String resource) {
+        return stripes[getStripe(resource)];
+    }
+
+    /**
+     * Return the number of contended acquisitions of every stripe.
+     *
+     * @return the number of contended acquisitions, indexed by stripe.
+     */
+    public long[] getContention() {
+        long[] counts = new long[contended.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = contended.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Return the number of locked stripes.
+     *
+     * @return the number of locked stripes.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (ReentrantReadWriteLock stripe : stripes) {
+            if (stripe.isWriteLocked() || stripe.getReadLockCount() > 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Obtain a lock for a source.
+     *
+     * @param resource resource name.
+     * @param type lock type.
+     * @param wait time out in milliseconds to wait for the lock, -1 means no timeout and 0 no wait.
+     * @return the lock token for the resource, or <code>null</code> if the lock could not be obtained.
+     * @throws InterruptedException thrown if the thread was interrupted while waiting.
+     */
+    @Override
+    public MemoryLockToken getLock(final String resource, Type type, long wait) throws InterruptedException {
+        int index = getStripe(resource);
+        ReentrantReadWriteLock lockEntry = stripes[index];
+        Lock lock;
+        if (type.equals(Type.READ)) {
+            lock = lockEntry.readLock();
+        }
+        else {
+            if (lockEntry.getReadHoldCount() > 0 && !lockEntry.isWriteLockedByCurrentThread()) {
+                // the stripe is READ locked by this thread, the WRITE lock would never be granted
+                contended.incrementAndGet(index);
+                return null;
+            }
+            lock = lockEntry.writeLock();
+        }
+
+        // a timed tryLock honors the fairness policy, unlike tryLock()
+        if (!lock.tryLock(0, TimeUnit.MILLISECONDS)) {
+            contended.incrementAndGet(index);
+            if (wait == -1) {
+                lock.lock();
+            }
+            else if (wait == 0 || !lock.tryLock(wait, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        }
+        return new MemoryLockToken(lockEntry, type);
+    }
+}
@@ -19,7 +19,9 @@
 package org.apache.oozie.service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
@@ -30,6 +32,8 @@ import org.apache.oozie.executor.jpa.CoordActionsRunningGetJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
+import org.apache.oozie.executor.jpa.WorkflowActionsRunningExternalIdsGetJPAExecutor;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 
@@ -56,9 +60,18 @@ public class ActionCheckerService implements Service {
      */
     public static final String CONF_CALLABLE_BATCH_SIZE = CONF_PREFIX + "callable.batch.size";
 
+    /**
+     * Whether the launchers of the running workflow actions are polled from the ResourceManagers in batch, before
+     * queueing the checks of the actions whose launcher ended.
+     */
+    public static final String CONF_YARN_STATUS_POLL = CONF_PREFIX + "yarn.status.poll";
+
     protected static final String INSTRUMENTATION_GROUP = "actionchecker";
     protected static final String INSTR_CHECK_ACTIONS_COUNTER = "checks_wf_actions";
     protected static final String INSTR_CHECK_COORD_ACTIONS_COUNTER = "checks_coord_actions";
+    protected static final String INSTR_SKIPPED_ACTIONS_COUNTER = "checks_wf_actions_skipped";
+
+    private YarnApplicationStatusPoller statusPoller;
 
 
     /**
@@ -67,11 +80,17 @@ public class ActionCheckerService implements Service {
      */
     static class ActionCheckRunnable implements Runnable {
         private int actionCheckDelay;
+        private final YarnApplicationStatusPoller statusPoller;
         private List<XCallable<Void>> callables;
         private StringBuilder msg = null;
 
         public ActionCheckRunnable(int actionCheckDelay) {
+            this(actionCheckDelay, null);
+        }
+
+        ActionCheckRunnable(int actionCheckDelay, YarnApplicationStatusPoller statusPoller) {
             this.actionCheckDelay = actionCheckDelay;
+            this.statusPoller = statusPoller;
         }
 
         public void run() {
@@ -109,20 +128,30 @@ public class ActionCheckerService implements Service {
                 throw new CommandException(ErrorCode.E0610);
             }
 
-            List<WorkflowActionBean> actions;
+            List<String> actionIds;
+            List<Object[]> externalIds = null;
             try {
-                actions = WorkflowActionQueryExecutor.getInstance().getList(WorkflowActionQuery.GET_RUNNING_ACTIONS,
-                        actionCheckDelay);
+                if (statusPoller != null) {
+                    externalIds = jpaService.execute(new WorkflowActionsRunningExternalIdsGetJPAExecutor(
+                            actionCheckDelay));
+                    actionIds = new ArrayList<String>(externalIds.size());
+                    for (Object[] externalId : externalIds) {
+                        actionIds.add((String) externalId[0]);
+                    }
+                }
+                else {
+                    actionIds = toIds(WorkflowActionQueryExecutor.getInstance().getList(
+                            WorkflowActionQuery.GET_RUNNING_ACTIONS, actionCheckDelay));
+                }
             }
             catch (JPAExecutorException je) {
                 throw new CommandException(je);
             }
 
-            if (actions == null || actions.isEmpty()) {
+            if (actionIds.isEmpty()) {
                 return;
             }
 
-            List<String> actionIds = toIds(actions);
             try {
                 actionIds = Services.get().get(JobsConcurrencyService.class).getJobIdsForThisServer(actionIds);
             }
@@ -130,6 +159,10 @@ public class ActionCheckerService implements Service {
                 throw new CommandException(ErrorCode.E1700, ex.getMessage(), ex);
             }
 
+            if (statusPoller != null) {
+                actionIds = skipLiveActions(actionIds, externalIds);
+            }
+
             msg.append(" WF_ACTIONS : ").append(actionIds.size());
 
             for (String actionId : actionIds) {
@@ -205,7 +238,40 @@ public class ActionCheckerService implements Service {
             }
         }
 
+        /**
+         * Remove the actions whose launcher is still live from the actions to check.
+         *
+         * @param actionIds ids of the actions this server checks
+         * @param externalIds running actions as <code>[action id, tracker uri, external id]</code> arrays
+         * @return ids of the actions to check
+         */
+        private List<String> skipLiveActions(List<String> actionIds, List<Object[]> externalIds) {
+            Set<String> ownedIds = new HashSet<String>(actionIds);
+            List<Object[]> owned = new ArrayList<Object[]>(actionIds.size());
+            for (Object[] externalId : externalIds) {
+                if (ownedIds.contains(externalId[0])) {
+                    owned.add(externalId);
+                }
+            }
+            Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+            Set<String> liveIds = statusPoller.getLiveActions(owned, instr);
+            if (liveIds.isEmpty()) {
+                return actionIds;
+            }
+            instr.incr(INSTRUMENTATION_GROUP, INSTR_SKIPPED_ACTIONS_COUNTER, liveIds.size());
+            List<String> ids = new ArrayList<String>(actionIds.size() - liveIds.size());
+            for (String actionId : actionIds) {
+                if (!liveIds.contains(actionId)) {
+                    ids.add(actionId);
+                }
+            }
+            return ids;
+        }
+
         private List<String> toIds(List<WorkflowActionBean> actions) {
+            if (actions == null) {
+                return new ArrayList<String>();
+            }
             List<String> ids = new ArrayList<String>(actions.size());
             for (WorkflowActionBean action : actions) {
                 ids.add(action.getId());
@@ -221,8 +287,11 @@ public class ActionCheckerService implements Service {
      */
     @Override
     public void init(Services services) {
+        if (ConfigurationService.getBoolean(services.getConf(), CONF_YARN_STATUS_POLL)) {
+            statusPoller = new YarnApplicationStatusPoller();
+        }
         Runnable actionCheckRunnable = new ActionCheckRunnable(ConfigurationService.getInt
-                (services.getConf(), CONF_ACTION_CHECK_DELAY));
+                (services.getConf(), CONF_ACTION_CHECK_DELAY), statusPoller);
         services.get(SchedulerService.class).schedule(actionCheckRunnable, 10,
                 ConfigurationService.getInt(services.getConf(), CONF_ACTION_CHECK_INTERVAL),
                 SchedulerService.Unit.SEC);
@@ -233,6 +302,10 @@ public class ActionCheckerService implements Service {
      */
     @Override
     public void destroy() {
+        if (statusPoller != null) {
+            statusPoller.destroy();
+            statusPoller = null;
+        }
     }
 
     /**
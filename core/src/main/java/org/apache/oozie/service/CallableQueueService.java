@@ -21,7 +21,6 @@ package org.apache.oozie.service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -32,7 +31,10 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -45,6 +47,9 @@ import org.apache.oozie.util.NamedThreadFactory;
 import org.apache.oozie.util.PollablePriorityDelayQueue;
 import org.apache.oozie.util.PriorityDelayQueue;
 import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
+import org.apache.oozie.util.ShardedPriorityDelayQueue;
+import org.apache.oozie.util.TimingWheel;
+import org.apache.oozie.util.VirtualThreadFactory;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 
@@ -66,10 +71,22 @@ import com.google.common.collect.ImmutableSet;
  * <p>
  * {@link #CONF_QUEUE_SIZE} size of the immediate execution queue. Defaulf value is 10000.
  * <p>
+ * {@link #CONF_QUEUE_SHARDS} number of shards the immediate execution queue is split into to reduce lock contention.
+ * Default value is 1 (no sharding).
+ * <p>
+ * {@link #CONF_DELAYED_TIMING_WHEEL} if true, callables queued with a delay of at least one tick are held in a timing wheel
+ * and are moved to the immediate execution queue only when they become due. Default value is false.
+ * <p>
+ * {@link #CONF_DELAYED_TIMING_WHEEL_TICK} tick duration, in milliseconds, of the timing wheel. Default value is 100.
+ * <p>
  * {@link #CONF_THREADS} number of threads in the thread-pool used for asynchronous command execution. When this number
  * of threads is reached, commands remain the queue until threads become available. Sets up a priority queue for the
  * execution of Commands via a ThreadPool. Sets up a Delayed Queue to handle actions which will be ready for execution
  * sometime in the future.
+ * <p>
+ * {@link #CONF_VIRTUAL_THREADS} if true and the JVM supports them, a single thread takes the callables from the queue and
+ * starts a virtual thread for each of them, at most {@link #CONF_VIRTUAL_THREADS_COUNT} running at the same time, instead
+ * of executing them on {@link #CONF_THREADS} platform threads. Default value is false.
  */
 public class CallableQueueService implements Service, Instrumentable {
     private static final String INSTRUMENTATION_GROUP = "callablequeue";
@@ -79,6 +96,7 @@ public class CallableQueueService implements Service, Instrumentable {
     private static final String INSTR_QUEUED_COUNTER = "queued";
     private static final String INSTR_QUEUE_SIZE_SAMPLER = "queue.size";
     private static final String INSTR_THREADS_ACTIVE_SAMPLER = "threads.active";
+    private static final String INSTR_DELAYED_SIZE_SAMPLER = "delayed.size";
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "CallableQueueService.";
 
@@ -88,12 +106,18 @@ public class CallableQueueService implements Service, Instrumentable {
     public static final String CONF_CALLABLE_NEXT_ELIGIBLE = CONF_PREFIX + "callable.next.eligible";
     public static final String CONF_CALLABLE_INTERRUPT_TYPES = CONF_PREFIX + "InterruptTypes";
     public static final String CONF_CALLABLE_INTERRUPT_MAP_MAX_SIZE = CONF_PREFIX + "InterruptMapMaxSize";
+    public static final String CONF_QUEUE_SHARDS = CONF_PREFIX + "queue.shards";
+    public static final String CONF_DELAYED_TIMING_WHEEL = CONF_PREFIX + "delayed.timing.wheel";
+    public static final String CONF_DELAYED_TIMING_WHEEL_TICK = CONF_PREFIX + "delayed.timing.wheel.tick";
+    public static final String CONF_DELAYED_TIMING_WHEEL_SIZE = CONF_PREFIX + "delayed.timing.wheel.size";
+    public static final String CONF_VIRTUAL_THREADS = CONF_PREFIX + "virtual.threads";
+    public static final String CONF_VIRTUAL_THREADS_COUNT = CONF_PREFIX + "virtual.threads.count";
 
     public static final int CONCURRENCY_DELAY = 500;
 
     public static final int SAFE_MODE_DELAY = 60000;
 
-    private final Map<String, AtomicInteger> activeCallables = new HashMap<String, AtomicInteger>();
+    private final ConcurrentHashMap<String, Semaphore> activeCallables = new ConcurrentHashMap<String, Semaphore>();
 
     private final Map<String, Date> uniqueCallables = new ConcurrentHashMap<String, Date>();
 
@@ -105,44 +129,33 @@ public class CallableQueueService implements Service, Instrumentable {
 
     private int maxCallableConcurrency;
 
-    private boolean callableBegin(XCallable<?> callable) {
-        synchronized (activeCallables) {
-            AtomicInteger counter = activeCallables.get(callable.getType());
-            if (counter == null) {
-                counter = new AtomicInteger(1);
-                activeCallables.put(callable.getType(), counter);
-                return true;
-            }
-            else {
-                int i = counter.incrementAndGet();
-                return i <= maxCallableConcurrency;
+    private Semaphore getCallablePermits(XCallable<?> callable) {
+        Semaphore permits = activeCallables.get(callable.getType());
+        if (permits == null) {
+            Semaphore newPermits = new Semaphore(maxCallableConcurrency);
+            permits = activeCallables.putIfAbsent(callable.getType(), newPermits);
+            if (permits == null) {
+                permits = newPermits;
             }
         }
+        return permits;
+    }
+
+    private boolean callableBegin(XCallable<?> callable) {
+        return getCallablePermits(callable).tryAcquire();
     }
 
     private void callableEnd(XCallable<?> callable) {
-        synchronized (activeCallables) {
-            AtomicInteger counter = activeCallables.get(callable.getType());
-            if (counter == null) {
-                throw new IllegalStateException("It should not happen");
-            }
-            else {
-                counter.decrementAndGet();
-            }
+        Semaphore permits = activeCallables.get(callable.getType());
+        if (permits == null) {
+            throw new IllegalStateException("It should not happen");
         }
+        permits.release();
     }
 
     private boolean callableReachMaxConcurrency(XCallable<?> callable) {
-        synchronized (activeCallables) {
-            AtomicInteger counter = activeCallables.get(callable.getType());
-            if (counter == null) {
-                return true;
-            }
-            else {
-                int i = counter.get();
-                return i < maxCallableConcurrency;
-            }
-        }
+        Semaphore permits = activeCallables.get(callable.getType());
+        return permits == null || permits.availablePermits() > 0;
     }
 
     // Callables are wrapped with the this wrapper for execution, for logging
@@ -159,7 +172,47 @@ public class CallableQueueService implements Service, Instrumentable {
         }
 
         public void run() {
+            admitted.decrementAndGet();
+            if (virtualThreadFactory == null) {
+                runCallable();
+                return;
+            }
+            // the queue consumer only hands the callable off, waiting for a free virtual thread permit so the
+            // callables keep leaving the queue in priority order
+            try {
+                virtualThreadPermits.acquire();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                removeFromUniqueCallables();
+                log.warn("Interrupted, not executing callable [{0}]", getElement().getKey());
+                return;
+            }
+            try {
+                virtualThreadFactory.newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            runCallable();
+                        }
+                        finally {
+                            virtualThreadPermits.release();
+                        }
+                    }
+                }).start();
+            }
+            catch (Throwable t) {
+                virtualThreadPermits.release();
+                removeFromUniqueCallables();
+                incrCounter(INSTR_FAILED_COUNTER, 1);
+                log.warn("Could not start a virtual thread for callable [{0}], {1}", getElement().getKey(),
+                        t.getMessage(), t);
+            }
+        }
+
+        private void runCallable() {
             XCallable<?> callable = null;
+            boolean began = false;
             try {
                 removeFromUniqueCallables();
                 if (Services.get().getSystemMode() == SYSTEM_MODE.SAFEMODE) {
@@ -170,7 +223,8 @@ public class CallableQueueService implements Service, Instrumentable {
                     return;
                 }
                 callable = getElement();
-                if (callableBegin(callable)) {
+                began = callableBegin(callable);
+                if (began) {
                     cron.stop();
                     addInQueueCron(cron);
                     XLog log = XLog.getLog(getClass());
@@ -201,7 +255,7 @@ public class CallableQueueService implements Service, Instrumentable {
                         t.getMessage(), t);
             }
             finally {
-                if (callable != null) {
+                if (began) {
                     callableEnd(callable);
                 }
             }
@@ -418,8 +472,14 @@ public class CallableQueueService implements Service, Instrumentable {
     private XLog log = XLog.getLog(getClass());
 
     private int queueSize;
+    // callables in the queue or in the timing wheel, places are reserved before the callables are handed off
+    private final AtomicInteger admitted = new AtomicInteger();
     private PriorityDelayQueue<CallableWrapper> queue;
+    private TimingWheel<CallableWrapper> delayedCallables;
     private ThreadPoolExecutor executor;
+    private ThreadFactory virtualThreadFactory;
+    private int virtualThreads;
+    private Semaphore virtualThreadPermits;
     private Instrumentation instrumentation;
 
     /**
@@ -452,7 +512,7 @@ public class CallableQueueService implements Service, Instrumentable {
 
         queueSize = ConfigurationService.getInt(conf, CONF_QUEUE_SIZE);
         int threads = ConfigurationService.getInt(conf, CONF_THREADS);
-        boolean callableNextEligible = ConfigurationService.getBoolean(conf, CONF_CALLABLE_NEXT_ELIGIBLE);
+        final boolean callableNextEligible = ConfigurationService.getBoolean(conf, CONF_CALLABLE_NEXT_ELIGIBLE);
 
         interruptTypes = new HashSet<>();
         for (String type : ConfigurationService.getStrings(conf, CONF_CALLABLE_INTERRUPT_TYPES)) {
@@ -461,7 +521,25 @@ public class CallableQueueService implements Service, Instrumentable {
         }
         interruptTypes = ImmutableSet.copyOf(interruptTypes);
 
-        if (!callableNextEligible) {
+        int shards = ConfigurationService.getInt(conf, CONF_QUEUE_SHARDS);
+        if (shards > 1) {
+            // The sharded queue spreads the callables over independent sub-queues, each one with its own lock, so
+            // producers and consumers do not contend on a single lock. It honors 'eligibleToPoll' the same way
+            // the pollable queue does when CONF_CALLABLE_NEXT_ELIGIBLE is true.
+            queue = new ShardedPriorityDelayQueue<CallableWrapper>(shards, 3, 1000 * 30, TimeUnit.MILLISECONDS,
+                    queueSize) {
+                @Override
+                protected void debug(String msgTemplate, Object... msgArgs) {
+                    log.trace(msgTemplate, msgArgs);
+                }
+
+                @Override
+                protected boolean eligibleToPoll(QueueElement<?> element) {
+                    return !callableNextEligible || isEligibleToPoll(element);
+                }
+            };
+        }
+        else if (!callableNextEligible) {
             queue = new PriorityDelayQueue<CallableWrapper>(3, 1000 * 30, TimeUnit.MILLISECONDS, queueSize) {
                 @Override
                 protected void debug(String msgTemplate, Object... msgArgs) {
@@ -483,13 +561,7 @@ public class CallableQueueService implements Service, Instrumentable {
 
                 @Override
                 protected boolean eligibleToPoll(QueueElement<?> element) {
-                    if (element != null) {
-                        CallableWrapper wrapper = (CallableWrapper) element;
-                        if (element.getElement() != null) {
-                            return callableReachMaxConcurrency(wrapper.getElement());
-                        }
-                    }
-                    return false;
+                    return isEligibleToPoll(element);
                 }
 
             };
@@ -508,8 +580,26 @@ public class CallableQueueService implements Service, Instrumentable {
         // minimum size equals to the maximum size (thus threads are keep always
         // running) and we are warming up
         // all those threads (the for loop that runs dummy runnables).
+        ThreadFactory threadFactory = new NamedThreadFactory("CallableQueue");
+        if (ConfigurationService.getBoolean(conf, CONF_VIRTUAL_THREADS)) {
+            if (VirtualThreadFactory.isSupported()) {
+                // commands mostly block on the DB, HDFS and YARN, virtual threads allow many of them to wait
+                // concurrently without the cost of platform threads. A single pool thread consumes the queue and
+                // starts a virtual thread per callable, bound by the virtual thread permits. Concurrency per callable
+                // type is still bound by the callable permits.
+                virtualThreads = ConfigurationService.getInt(conf, CONF_VIRTUAL_THREADS_COUNT);
+                virtualThreadPermits = new Semaphore(virtualThreads);
+                virtualThreadFactory = VirtualThreadFactory.newFactory("CallableQueue");
+                threads = 1;
+                log.info("Executing callables on up to [{0}] virtual threads", virtualThreads);
+            }
+            else {
+                log.warn("Virtual threads are not supported by Java [{0}], executing callables on [{1}] threads",
+                        System.getProperty("java.version"), threads);
+            }
+        }
         executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, (BlockingQueue) queue,
-                new NamedThreadFactory("CallableQueue")) {
+                threadFactory) {
             protected void beforeExecute(Thread t, Runnable r) {
                 super.beforeExecute(t,r);
                 XLog.Info.get().clear();
@@ -533,6 +623,61 @@ public class CallableQueueService implements Service, Instrumentable {
         }
 
         maxCallableConcurrency = ConfigurationService.getInt(conf, CONF_CALLABLE_CONCURRENCY);
+
+        if (ConfigurationService.getBoolean(conf, CONF_DELAYED_TIMING_WHEEL)) {
+            SchedulerService scheduler = services.get(SchedulerService.class);
+            if (scheduler != null) {
+                int tick = ConfigurationService.getInt(conf, CONF_DELAYED_TIMING_WHEEL_TICK);
+                int wheelSize = ConfigurationService.getInt(conf, CONF_DELAYED_TIMING_WHEEL_SIZE);
+                delayedCallables = new TimingWheel<CallableWrapper>(tick, TimeUnit.MILLISECONDS, wheelSize);
+                scheduler.schedule(new DelayedCallablesRunnable(), tick, tick, SchedulerService.Unit.MILLISEC);
+                log.info("Delayed callables held in a timing wheel, tick [{0}]ms, wheel size [{1}]", tick, wheelSize);
+            }
+            else {
+                log.warn("SchedulerService not available, delayed callables are kept in the callable queue");
+            }
+        }
+    }
+
+    /**
+     * Moves the delayed callables that became due from the timing wheel to the immediate execution queue.
+     */
+    class DelayedCallablesRunnable implements Runnable {
+        @Override
+        @SuppressWarnings("rawtypes")
+        public void run() {
+            List<CallableWrapper> due = delayedCallables.advance(System.currentTimeMillis());
+            for (CallableWrapper wrapper : due) {
+                if (executor.isShutdown()) {
+                    admitted.decrementAndGet();
+                    wrapper.removeFromUniqueCallables();
+                    continue;
+                }
+                try {
+                    executor.execute(wrapper);
+                }
+                catch (Throwable ex) {
+                    admitted.decrementAndGet();
+                    wrapper.removeFromUniqueCallables();
+                    log.warn("Could not queue delayed callable [{0}], {1}", wrapper.getElement().getKey(),
+                            ex.getMessage(), ex);
+                }
+            }
+            if (!due.isEmpty()) {
+                log.trace("Moved [{0}] delayed callables to the queue", due.size());
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private boolean isEligibleToPoll(QueueElement<?> element) {
+        if (element != null) {
+            CallableWrapper wrapper = (CallableWrapper) element;
+            if (element.getElement() != null) {
+                return callableReachMaxConcurrency(wrapper.getElement());
+            }
+        }
+        return false;
     }
 
     /**
@@ -544,6 +689,9 @@ public class CallableQueueService implements Service, Instrumentable {
             long limit = System.currentTimeMillis() + 30 * 1000;// 30 seconds
             executor.shutdown();
             queue.clear();
+            if (delayedCallables != null) {
+                delayedCallables.clear();
+            }
             while (!executor.awaitTermination(1000, TimeUnit.MILLISECONDS)) {
                 log.info("Waiting for executor to shutdown");
                 if (System.currentTimeMillis() > limit) {
@@ -551,6 +699,12 @@ public class CallableQueueService implements Service, Instrumentable {
                     break;
                 }
             }
+            if (virtualThreadPermits != null) {
+                long wait = Math.max(0, limit - System.currentTimeMillis());
+                if (!virtualThreadPermits.tryAcquire(virtualThreads, wait, TimeUnit.MILLISECONDS)) {
+                    log.warn("Gave up, continuing without waiting for virtual threads to complete");
+                }
+            }
         }
         catch (InterruptedException ex) {
             log.warn(ex);
@@ -570,29 +724,67 @@ public class CallableQueueService implements Service, Instrumentable {
     /**
      * @return int size of queue
      */
-    public synchronized int queueSize() {
-        return queue.size();
+    public int queueSize() {
+        return (delayedCallables == null) ? queue.size() : queue.size() + delayedCallables.size();
+    }
+
+    /**
+     * Reserve a place for a callable in the queue, the size check and the reservation are a single atomic step so
+     * concurrent producers cannot go over the queue size.
+     *
+     * @param ignoreQueueSize if the place is reserved even if the queue is full.
+     * @return <code>true</code> if a place was reserved, <code>false</code> if the queue is full.
+     */
+    private boolean admit(boolean ignoreQueueSize) {
+        while (true) {
+            int current = admitted.get();
+            if (!ignoreQueueSize && current >= queueSize) {
+                return false;
+            }
+            if (admitted.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
     }
 
-    private synchronized boolean queue(CallableWrapper wrapper, boolean ignoreQueueSize) {
-        if (!ignoreQueueSize && queue.size() >= queueSize) {
+    private boolean queue(CallableWrapper wrapper, boolean ignoreQueueSize) {
+        if (executor.isShutdown()) {
+            log.warn("Executor shutting down, ignoring queueing of [{0}]", wrapper.getElement().getKey());
+            return true;
+        }
+        if (!admit(ignoreQueueSize)) {
             log.warn("queue full, ignoring queuing for [{0}]", wrapper.getElement().getKey());
             return false;
         }
-        if (!executor.isShutdown()) {
-            if (wrapper.filterDuplicates()) {
+        boolean unique;
+        // only the uniqueness check and registration must be atomic, the hand-off to the queue is thread-safe
+        synchronized (uniqueCallables) {
+            unique = wrapper.filterDuplicates();
+            if (unique) {
                 wrapper.addToUniqueCallables();
-                try {
-                    executor.execute(wrapper);
-                }
-                catch (Throwable ree) {
-                    wrapper.removeFromUniqueCallables();
-                    throw new RuntimeException(ree);
-                }
             }
         }
-        else {
-            log.warn("Executor shutting down, ignoring queueing of [{0}]", wrapper.getElement().getKey());
+        if (!unique) {
+            admitted.decrementAndGet();
+            return true;
+        }
+        try {
+            // delayed callables are held by the timing wheel until they are due, if it is enabled
+            long due = System.currentTimeMillis() + wrapper.getDelay(TimeUnit.MILLISECONDS);
+            if (delayedCallables == null || !delayedCallables.add(wrapper, due)) {
+                executor.execute(wrapper);
+            }
+        }
+        catch (RejectedExecutionException ree) {
+            admitted.decrementAndGet();
+            wrapper.removeFromUniqueCallables();
+            log.warn("queue full, ignoring queuing for [{0}]", wrapper.getElement().getKey());
+            return false;
+        }
+        catch (Throwable ex) {
+            admitted.decrementAndGet();
+            wrapper.removeFromUniqueCallables();
+            throw new RuntimeException(ex);
         }
         return true;
     }
@@ -631,13 +823,13 @@ public class CallableQueueService implements Service, Instrumentable {
      * @return <code>true</code> if the callable was queued, <code>false</code>
      *         if the queue is full and the callable was not queued.
      */
-    public synchronized boolean queue(XCallable<?> callable, long delay) {
+    public boolean queue(XCallable<?> callable, long delay) {
         if (callable == null) {
             return true;
         }
         boolean queued = false;
         if (Services.get().getSystemMode() == SYSTEM_MODE.SAFEMODE) {
-            log.warn("[queue] System is in SAFEMODE. Hence no callable is queued. current queue size " + queue.size());
+            log.warn("[queue] System is in SAFEMODE. Hence no callable is queued. current queue size " + queueSize());
         }
         else {
             checkInterruptTypes(callable);
@@ -664,7 +856,7 @@ public class CallableQueueService implements Service, Instrumentable {
      * @return <code>true</code> if the callables were queued, <code>false</code> if the queue is full and the callables
      *         were not queued.
      */
-    public synchronized boolean queueSerial(List<? extends XCallable<?>> callables, long delay) {
+    public boolean queueSerial(List<? extends XCallable<?>> callables, long delay) {
         boolean queued;
         if (callables == null || callables.size() == 0) {
             queued = true;
@@ -697,9 +889,18 @@ public class CallableQueueService implements Service, Instrumentable {
         instr.addSampler(INSTRUMENTATION_GROUP, INSTR_THREADS_ACTIVE_SAMPLER, 60, 1,
                 new Instrumentation.Variable<Long>() {
                     public Long getValue() {
-                        return (long) executor.getActiveCount();
+                        return (long) (virtualThreadPermits == null ? executor.getActiveCount()
+                                : virtualThreads - virtualThreadPermits.availablePermits());
                     }
                 });
+        if (delayedCallables != null) {
+            instr.addSampler(INSTRUMENTATION_GROUP, INSTR_DELAYED_SIZE_SAMPLER, 60, 1,
+                    new Instrumentation.Variable<Long>() {
+                        public Long getValue() {
+                            return (long) delayedCallables.size();
+                        }
+                    });
+        }
     }
 
     /**
@@ -773,6 +974,14 @@ public class CallableQueueService implements Service, Instrumentable {
             }
             list.add(qe.toString());
         }
+        if (delayedCallables != null) {
+            for (CallableWrapper wrapper : delayedCallables.elements()) {
+                if (wrapper.toString() == null) {
+                    continue;
+                }
+                list.add(wrapper.toString());
+            }
+        }
         return list;
     }
 
@@ -18,17 +18,37 @@
 
 package org.apache.oozie.service;
 
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.action.ActionExecutor;
+import org.apache.oozie.command.wf.ActionCheckXCommand;
+import org.apache.oozie.command.wf.CompletedActionXCommand;
+import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
 import org.apache.oozie.service.Service;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.XCallable;
+import org.apache.oozie.util.XLog;
 import org.apache.hadoop.conf.Configuration;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Service that generates and parses callback URLs.
+ * <p>
+ * If {@link #CONF_BATCH_INTERVAL} is set, callbacks are also ingested in batch: they are buffered, deduplicated by
+ * action ID, resolved with a single database read per batch and the resulting commands are queued serially in groups.
  */
 public class CallbackService implements Service {
 
@@ -38,8 +58,51 @@ public class CallbackService implements Service {
 
     public static final String CONF_EARLY_REQUEUE_MAX_RETRIES = CONF_PREFIX + "early.requeue.max.retries";
 
+    /**
+     * Interval in milliseconds at which buffered callbacks are processed, 0 processes every callback on its own.
+     */
+    public static final String CONF_BATCH_INTERVAL = CONF_PREFIX + "batch.interval";
+
+    /**
+     * Maximum number of callbacks resolved by a single database read.
+     */
+    public static final String CONF_BATCH_SIZE = CONF_PREFIX + "batch.size";
+
+    /**
+     * Maximum number of buffered callbacks, further callbacks are processed on their own.
+     */
+    public static final String CONF_BUFFER_SIZE = CONF_PREFIX + "buffer.size";
+
+    public static final String INSTRUMENTATION_GROUP = "callback";
+    static final String INSTR_INGESTED_COUNTER = "ingested";
+    static final String INSTR_DEDUPLICATED_COUNTER = "deduplicated";
+    static final String INSTR_REJECTED_COUNTER = "rejected";
+    static final String INSTR_BATCHES_COUNTER = "batches";
+    static final String INSTR_QUEUE_LATENCY = "queue.latency";
+
+    // same as the priority of the callbacks processed by the DagEngine
+    private static final int CALLBACK_PRIORITY = 2;
+
+    private static final XLog LOG = XLog.getLog(CallbackService.class);
+
     private Configuration oozieConf;
     private int earlyRequeueMaxRetries;
+    private volatile boolean batching;
+    private int batchSize;
+    private int bufferSize;
+    private final Map<String, PendingCallback> pendingCallbacks = new LinkedHashMap<String, PendingCallback>();
+
+    private static class PendingCallback {
+        private final String actionId;
+        private String externalStatus;
+        private final Instrumentation.Cron cron = new Instrumentation.Cron();
+
+        private PendingCallback(String actionId, String externalStatus) {
+            this.actionId = actionId;
+            this.externalStatus = externalStatus;
+            cron.start();
+        }
+    }
 
     /**
      * Initialize the service.
@@ -49,12 +112,32 @@ public class CallbackService implements Service {
     public void init(Services services) {
         oozieConf = services.getConf();
         earlyRequeueMaxRetries = ConfigurationService.getInt(CONF_EARLY_REQUEUE_MAX_RETRIES);
+        long batchInterval = ConfigurationService.getLong(oozieConf, CONF_BATCH_INTERVAL);
+        if (batchInterval > 0) {
+            batchSize = ConfigurationService.getInt(oozieConf, CONF_BATCH_SIZE);
+            bufferSize = ConfigurationService.getInt(oozieConf, CONF_BUFFER_SIZE);
+            services.get(SchedulerService.class).schedule(new Runnable() {
+                @Override
+                public void run() {
+                    processPendingCallbacks();
+                }
+            }, batchInterval, batchInterval, SchedulerService.Unit.MILLISEC);
+            batching = true;
+        }
     }
 
     /**
      * Destroy the service.
      */
     public void destroy() {
+        batching = false;
+        synchronized (pendingCallbacks) {
+            if (!pendingCallbacks.isEmpty()) {
+                LOG.info("Discarding [{0}] buffered callbacks, the actions are left to the action checker",
+                        pendingCallbacks.size());
+                pendingCallbacks.clear();
+            }
+        }
     }
 
     /**
@@ -139,4 +222,154 @@ public class CallbackService implements Service {
     public int getEarlyRequeueMaxRetries() {
         return earlyRequeueMaxRetries;
     }
+
+    /**
+     * Buffer a callback to be processed in batch. A callback for an action already buffered replaces its external
+     * status.
+     *
+     * @param actionId action ID of the callback.
+     * @param externalStatus action external status of the callback.
+     * @return <code>true</code> if the callback was buffered, <code>false</code> if batching is disabled or the buffer
+     * is full and the caller must process the callback itself.
+     */
+    public boolean ingest(String actionId, String externalStatus) {
+        if (!batching) {
+            return false;
+        }
+        boolean buffered = true;
+        String counter = INSTR_INGESTED_COUNTER;
+        synchronized (pendingCallbacks) {
+            PendingCallback pending = pendingCallbacks.get(actionId);
+            if (pending != null) {
+                pending.externalStatus = externalStatus;
+                counter = INSTR_DEDUPLICATED_COUNTER;
+            }
+            else if (pendingCallbacks.size() >= bufferSize) {
+                buffered = false;
+                counter = INSTR_REJECTED_COUNTER;
+            }
+            else {
+                pendingCallbacks.put(actionId, new PendingCallback(actionId, externalStatus));
+            }
+        }
+        incr(counter);
+        return buffered;
+    }
+
+    /**
+     * Process the buffered callbacks, in batches of {@link #CONF_BATCH_SIZE}.
+     */
+    void processPendingCallbacks() {
+        while (true) {
+            List<PendingCallback> batch = new ArrayList<PendingCallback>();
+            synchronized (pendingCallbacks) {
+                Iterator<PendingCallback> it = pendingCallbacks.values().iterator();
+                while (it.hasNext() && batch.size() < batchSize) {
+                    batch.add(it.next());
+                    it.remove();
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                processBatch(batch);
+            }
+            catch (RuntimeException ex) {
+                LOG.warn("Could not process [{0}] callbacks: {1}", batch.size(), ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Resolve the actions of the callbacks and queue the commands the callbacks would have run, as
+     * {@link CompletedActionXCommand} does: a check of the running actions whose external status is completed, and
+     * a {@link CompletedActionXCommand} for the actions still in PREP, to be requeued until they are running.
+     */
+    private void processBatch(List<PendingCallback> batch) {
+        incr(INSTR_BATCHES_COUNTER);
+        List<String> actionIds = new ArrayList<String>(batch.size());
+        for (PendingCallback pending : batch) {
+            actionIds.add(pending.actionId);
+        }
+        Map<String, WorkflowActionBean> actions = new HashMap<String, WorkflowActionBean>();
+        try {
+            for (WorkflowActionBean action : WorkflowActionQueryExecutor.getInstance().getList(
+                    WorkflowActionQuery.GET_ACTIONS_COMPLETED, actionIds)) {
+                actions.put(action.getId(), action);
+            }
+        }
+        catch (JPAExecutorException ex) {
+            LOG.warn("Could not load the actions of [{0}] callbacks, processing them one by one: {1}", batch.size(),
+                    ex.getMessage(), ex);
+            actions = null;
+        }
+
+        int callableBatchSize = ConfigurationService.getInt(ActionCheckerService.CONF_CALLABLE_BATCH_SIZE);
+        List<XCallable<Void>> callables = new ArrayList<XCallable<Void>>();
+        Instrumentation instr = getInstrumentation();
+        for (PendingCallback pending : batch) {
+            XCallable<Void> callable = actions == null
+                    ? new CompletedActionXCommand(pending.actionId, pending.externalStatus, null, CALLBACK_PRIORITY)
+                    : resolve(pending, actions.get(pending.actionId));
+            pending.cron.stop();
+            if (instr != null) {
+                instr.addCron(INSTRUMENTATION_GROUP, INSTR_QUEUE_LATENCY, pending.cron);
+            }
+            if (callable != null) {
+                callables.add(callable);
+                if (callables.size() >= callableBatchSize) {
+                    queueSerial(callables);
+                    callables = new ArrayList<XCallable<Void>>();
+                }
+            }
+        }
+        if (!callables.isEmpty()) {
+            queueSerial(callables);
+        }
+        LogUtils.clearLogPrefix();
+    }
+
+    private XCallable<Void> resolve(PendingCallback pending, WorkflowActionBean action) {
+        if (action == null) {
+            LogUtils.setLogInfo(pending.actionId);
+            LOG.warn("Callback for unknown action [{0}], ignoring", pending.actionId);
+            return null;
+        }
+        LogUtils.setLogInfo(action);
+        switch (action.getStatus()) {
+            case PREP:
+                return new CompletedActionXCommand(pending.actionId, pending.externalStatus, null, CALLBACK_PRIORITY);
+            case RUNNING:
+                ActionExecutor executor = Services.get().get(ActionService.class).getExecutor(action.getType());
+                if (executor == null) {
+                    return new CompletedActionXCommand(pending.actionId, pending.externalStatus, null,
+                            CALLBACK_PRIORITY);
+                }
+                // notifications of sub-workflows are sent on every status change, not only on completion
+                return executor.isCompleted(pending.externalStatus)
+                        ? new ActionCheckXCommand(pending.actionId, CALLBACK_PRIORITY, -1) : null;
+            default:
+                LOG.info("Callback for action [{0}] in status [{1}], ignoring", pending.actionId, action.getStatus());
+                return null;
+        }
+    }
+
+    private void queueSerial(List<XCallable<Void>> callables) {
+        if (!Services.get().get(CallableQueueService.class).queueSerial(callables)) {
+            LOG.warn(XLog.OPS, "queue is full or system is in SAFEMODE, ignoring [{0}] callbacks", callables.size());
+        }
+    }
+
+    private void incr(String counter) {
+        Instrumentation instr = getInstrumentation();
+        if (instr != null) {
+            instr.incr(INSTRUMENTATION_GROUP, counter, 1);
+        }
+    }
+
+    private static Instrumentation getInstrumentation() {
+        InstrumentationService instrService = Services.get().get(InstrumentationService.class);
+        return instrService == null ? null : instrService.get();
+    }
 }
@@ -52,6 +52,8 @@ public class ELService implements Service {
 
     public static final String CONF_GROUPS = CONF_PREFIX + "groups";
 
+    public static final String CONF_EXPRESSION_CACHE_SIZE = CONF_PREFIX + "expression.cache.size";
+
     private final XLog log = XLog.getLog(getClass());
 
     //<Group Name>, <List of constants>
@@ -135,6 +137,7 @@ public class ELService implements Service {
             tmpFunctions.addAll(extractFunctions(services.getConf(), CONF_EXT_FUNCTIONS + group));
             functions.put(group, tmpFunctions);
         }
+        ELEvaluator.setExpressionCacheSize(ConfigurationService.getInt(services.getConf(), CONF_EXPRESSION_CACHE_SIZE));
     }
 
     /**
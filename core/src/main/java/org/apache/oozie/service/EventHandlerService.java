@@ -19,6 +19,8 @@
 package org.apache.oozie.service;
 
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,6 +29,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.ErrorCode;
@@ -44,6 +50,7 @@ import org.apache.oozie.event.WorkflowActionEvent;
 import org.apache.oozie.event.WorkflowJobEvent;
 import org.apache.oozie.event.listener.JobEventListener;
 import org.apache.oozie.sla.listener.SLAEventListener;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.XLog;
 
@@ -62,6 +69,30 @@ public class EventHandlerService implements Service {
     public static final String CONF_BATCH_SIZE = CONF_PREFIX + "batch.size";
     public static final String CONF_WORKER_THREADS = CONF_PREFIX + "worker.threads";
     public static final String CONF_WORKER_INTERVAL = CONF_PREFIX + "worker.interval";
+    public static final String CONF_DISPATCH_SHARDS = CONF_PREFIX + "dispatch.shards";
+    public static final String CONF_DISPATCH_SHARD_CAPACITY = CONF_PREFIX + "dispatch.shard.capacity";
+    public static final String CONF_DISPATCH_DROP_POLICY = CONF_PREFIX + "dispatch.drop.policy";
+    public static final String CONF_DISPATCH_BLOCK_TIMEOUT = CONF_PREFIX + "dispatch.block.timeout.ms";
+
+    public static final String INSTRUMENTATION_GROUP = "events";
+
+    /**
+     * What to do with an event when the shard queue of a listener is full.
+     */
+    public enum DropPolicy {
+        /**
+         * Block the thread queueing the event up to the block timeout, then drop the event.
+         */
+        BLOCK,
+        /**
+         * Drop the event being queued.
+         */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest event of the shard queue.
+         */
+        DROP_OLDEST
+    }
 
     private static EventQueue eventQueue;
     private XLog LOG;
@@ -69,6 +100,8 @@ public class EventHandlerService implements Service {
     private Set<String> apptypes;
     private static boolean eventsEnabled = false;
     private int numWorkers;
+    private List<ListenerDispatcher> dispatchers;
+    private volatile Thread queueDrainer;
 
     @Override
     public void init(Services services) throws ServiceException {
@@ -83,13 +116,24 @@ public class EventHandlerService implements Service {
             initApptypes(conf);
             // initialize event listeners
             initEventListeners(conf);
-            // initialize worker threads via Scheduler
-            initWorkerThreads(conf, services);
+            int shards = ConfigurationService.getInt(conf, CONF_DISPATCH_SHARDS);
+            if (shards > 0) {
+                // the event queue is drained by a dispatcher thread into the shards of the listeners, no worker is
+                // scheduled
+                initDispatchers(conf, services, shards);
+            }
+            else {
+                // initialize worker threads via Scheduler
+                initWorkerThreads(conf, services);
+            }
             eventsEnabled = true;
             LOG.info("EventHandlerService initialized. Event queue = [{0}], Event listeners configured = [{1}],"
                     + " Events configured for App-types = [{2}], Num Worker Threads = [{3}]", eventQueue.getClass()
                     .getName(), listenerMap.toString(), apptypes, numWorkers);
         }
+        catch (ServiceException ex) {
+            throw ex;
+        }
         catch (Exception ex) {
             throw new ServiceException(ErrorCode.E0100, ex.getMessage(), ex);
         }
@@ -169,9 +213,96 @@ public class EventHandlerService implements Service {
         }
     }
 
+    private void initDispatchers(Configuration conf, Services services, int shards) {
+        int capacity = ConfigurationService.getInt(conf, CONF_DISPATCH_SHARD_CAPACITY);
+        DropPolicy dropPolicy = DropPolicy.valueOf(ConfigurationService.get(conf, CONF_DISPATCH_DROP_POLICY).trim()
+                .toUpperCase());
+        long blockTimeout = ConfigurationService.getLong(conf, CONF_DISPATCH_BLOCK_TIMEOUT);
+        InstrumentationService instrumentationService = services.get(InstrumentationService.class);
+        Instrumentation instr = instrumentationService == null ? null : instrumentationService.get();
+        dispatchers = new ArrayList<ListenerDispatcher>();
+        for (Entry<MessageType, List<?>> entry : listenerMap.entrySet()) {
+            for (Object listener : entry.getValue()) {
+                dispatchers.add(new ListenerDispatcher(listener, entry.getKey(), shards, capacity, dropPolicy,
+                        blockTimeout, instr));
+            }
+        }
+        Thread drainer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drainQueue();
+            }
+        }, "EventDispatcher-queue");
+        drainer.setDaemon(true);
+        queueDrainer = drainer;
+        drainer.start();
+        LOG.info("Events dispatched to each listener by [{0}] shards of capacity [{1}], drop policy [{2}]", shards,
+                capacity, dropPolicy);
+    }
+
+    /**
+     * Moves the events of the event queue to the shards of their listeners until the service is destroyed, parking
+     * while the queue is empty. {@link #queueEvent(Event)} unparks it. An event is acknowledged to the event queue
+     * once all its listeners are done with it, delivered or dropped.
+     */
+    private void drainQueue() {
+        Thread self = Thread.currentThread();
+        while (queueDrainer == self) {
+            List<Event> events;
+            try {
+                events = eventQueue.pollBatch();
+            }
+            catch (Throwable error) {
+                LOG.warn("Could not poll the event queue: {0}", error.getMessage(), error);
+                events = null;
+            }
+            if (events == null || events.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                continue;
+            }
+            List<ListenerDispatcher> currentDispatchers = dispatchers;
+            if (currentDispatchers == null) {
+                break;
+            }
+            for (Event event : events) {
+                List<ListenerDispatcher> targets = new ArrayList<ListenerDispatcher>();
+                for (ListenerDispatcher dispatcher : currentDispatchers) {
+                    if (dispatcher.msgType == event.getMsgType()) {
+                        targets.add(dispatcher);
+                    }
+                }
+                if (targets.isEmpty()) {
+                    eventQueue.acknowledge(event);
+                    continue;
+                }
+                AtomicInteger pending = new AtomicInteger(targets.size());
+                for (ListenerDispatcher dispatcher : targets) {
+                    dispatcher.dispatch(event, pending);
+                }
+            }
+        }
+    }
+
     @Override
     public void destroy() {
         eventsEnabled = false;
+        Thread drainer = queueDrainer;
+        if (drainer != null) {
+            queueDrainer = null;
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (dispatchers != null) {
+            for (ListenerDispatcher dispatcher : dispatchers) {
+                dispatcher.stop();
+            }
+            dispatchers = null;
+        }
 
         for (Entry<MessageType, List<?>> entry : listenerMap.entrySet()) {
             List<?> listeners = entry.getValue();
@@ -185,6 +316,14 @@ public class EventHandlerService implements Service {
                 }
             }
         }
+        if (eventQueue instanceof Closeable) {
+            try {
+                ((Closeable) eventQueue).close();
+            }
+            catch (IOException ex) {
+                LOG.warn("Could not close the event queue: {0}", ex.getMessage(), ex);
+            }
+        }
     }
 
     @Override
@@ -216,6 +355,10 @@ public class EventHandlerService implements Service {
         LOG.debug("Queueing event : {0}", event);
         LOG.trace("Stack trace while queueing event : {0}", event, new Throwable());
         eventQueue.add(event);
+        Thread drainer = queueDrainer;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+        }
         LogUtils.clearLogPrefix();
     }
 
@@ -223,6 +366,236 @@ public class EventHandlerService implements Service {
         return eventQueue;
     }
 
+    private void invokeJobEventListener(JobEventListener jobListener, JobEvent event) {
+        switch (event.getAppType()) {
+            case WORKFLOW_JOB:
+                jobListener.onWorkflowJobEvent((WorkflowJobEvent)event);
+                break;
+            case WORKFLOW_ACTION:
+                jobListener.onWorkflowActionEvent((WorkflowActionEvent)event);
+                break;
+            case COORDINATOR_JOB:
+                jobListener.onCoordinatorJobEvent((CoordinatorJobEvent)event);
+                break;
+            case COORDINATOR_ACTION:
+                jobListener.onCoordinatorActionEvent((CoordinatorActionEvent)event);
+                break;
+            case BUNDLE_JOB:
+                jobListener.onBundleJobEvent((BundleJobEvent)event);
+                break;
+            default:
+                XLog.getLog(EventHandlerService.class).info("Undefined Job Event app-type - {0}",
+                        event.getAppType());
+        }
+    }
+
+    private void invokeSLAEventListener(SLAEventListener slaListener, SLAEvent event) {
+        switch (event.getEventStatus()) {
+            case START_MET:
+                slaListener.onStartMet(event);
+                break;
+            case START_MISS:
+                slaListener.onStartMiss(event);
+                break;
+            case END_MET:
+                slaListener.onEndMet(event);
+                break;
+            case END_MISS:
+                slaListener.onEndMiss(event);
+                break;
+            case DURATION_MET:
+                slaListener.onDurationMet(event);
+                break;
+            case DURATION_MISS:
+                slaListener.onDurationMiss(event);
+                break;
+            default:
+                XLog.getLog(EventHandlerService.class).info("Undefined SLA event type - {0}", event.getSLAStatus());
+        }
+    }
+
+    private void invokeListener(Object listener, MessageType msgType, Event event) {
+        if (msgType == MessageType.JOB) {
+            invokeJobEventListener((JobEventListener) listener, (JobEvent) event);
+        }
+        else if (msgType == MessageType.SLA) {
+            invokeSLAEventListener((SLAEventListener) listener, (SLAEvent) event);
+        }
+    }
+
+    /**
+     * Returns the hash of the job id of an event, so the events of actions go to the shard of their job.
+     */
+    private static int getShardHash(Event event) {
+        String id = null;
+        if (event instanceof JobEvent) {
+            id = ((JobEvent) event).getId();
+        }
+        else if (event instanceof SLAEvent) {
+            id = ((SLAEvent) event).getId();
+        }
+        int hash = 0;
+        if (id != null) {
+            for (int i = 0; i < id.length() && id.charAt(i) != '@'; i++) {
+                hash = 31 * hash + id.charAt(i);
+            }
+        }
+        return hash & Integer.MAX_VALUE;
+    }
+
+    private static class DispatchElement {
+        private final Event event;
+        // listeners the event is still to be delivered to, shared by the elements of the event
+        private final AtomicInteger pending;
+        private final Instrumentation.Cron cron = new Instrumentation.Cron();
+
+        private DispatchElement(Event event, AtomicInteger pending) {
+            this.event = event;
+            this.pending = pending;
+            cron.start();
+        }
+
+        private void done() {
+            if (pending.decrementAndGet() == 0) {
+                eventQueue.acknowledge(event);
+            }
+        }
+    }
+
+    /**
+     * Delivers the events of one listener, sharded by job id over bounded queues each drained by its own thread. Events
+     * of a job are delivered in order, and a slow listener only fills its own queues.
+     */
+    private class ListenerDispatcher {
+        private final Object listener;
+        private final MessageType msgType;
+        private final String name;
+        private final List<ArrayBlockingQueue<DispatchElement>> shards;
+        private final List<Thread> threads;
+        private final DropPolicy dropPolicy;
+        private final long blockTimeout;
+        private final Instrumentation instr;
+        private volatile boolean running = true;
+
+        private ListenerDispatcher(Object listener, MessageType msgType, int numShards, int capacity,
+                DropPolicy dropPolicy, long blockTimeout, Instrumentation instr) {
+            this.listener = listener;
+            this.msgType = msgType;
+            this.name = listener.getClass().getSimpleName();
+            this.dropPolicy = dropPolicy;
+            this.blockTimeout = blockTimeout;
+            this.instr = instr;
+            shards = new ArrayList<ArrayBlockingQueue<DispatchElement>>(numShards);
+            threads = new ArrayList<Thread>(numShards);
+            for (int i = 0; i < numShards; i++) {
+                final ArrayBlockingQueue<DispatchElement> shard = new ArrayBlockingQueue<DispatchElement>(capacity);
+                shards.add(shard);
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        drain(shard);
+                    }
+                }, "EventDispatcher-" + name + "-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            if (instr != null) {
+                instr.addSampler(INSTRUMENTATION_GROUP, name + ".queue.depth", 60, 1,
+                        new Instrumentation.Variable<Long>() {
+                            @Override
+                            public Long getValue() {
+                                return (long) getQueueDepth();
+                            }
+                        });
+            }
+        }
+
+        private int getQueueDepth() {
+            int depth = 0;
+            for (ArrayBlockingQueue<DispatchElement> shard : shards) {
+                depth += shard.size();
+            }
+            return depth;
+        }
+
+        private void dispatch(Event event, AtomicInteger pending) {
+            DispatchElement element = new DispatchElement(event, pending);
+            ArrayBlockingQueue<DispatchElement> shard = shards.get(getShardHash(event) % shards.size());
+            switch (dropPolicy) {
+                case BLOCK:
+                    try {
+                        if (!shard.offer(element, blockTimeout, TimeUnit.MILLISECONDS)) {
+                            drop(element);
+                        }
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        drop(element);
+                    }
+                    break;
+                case DROP_NEWEST:
+                    if (!shard.offer(element)) {
+                        drop(element);
+                    }
+                    break;
+                case DROP_OLDEST:
+                    while (!shard.offer(element)) {
+                        DispatchElement oldest = shard.poll();
+                        if (oldest != null) {
+                            drop(oldest);
+                        }
+                    }
+                    break;
+            }
+        }
+
+        private void drop(DispatchElement element) {
+            LOG.warn("Event queue of listener [{0}] is full, event [{1}] dropped", name, element.event);
+            if (instr != null) {
+                instr.incr(INSTRUMENTATION_GROUP, name + ".dropped", 1);
+            }
+            element.done();
+        }
+
+        private void drain(ArrayBlockingQueue<DispatchElement> shard) {
+            while (running) {
+                DispatchElement element;
+                try {
+                    element = shard.poll(1, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    break;
+                }
+                if (element == null) {
+                    continue;
+                }
+                try {
+                    invokeListener(listener, msgType, element.event);
+                }
+                catch (Throwable error) {
+                    XLog.getLog(EventHandlerService.class).debug("Throwable in EventDispatcher thread run : ", error);
+                    XLog.getLog(EventHandlerService.class).warn("Throwable in EventDispatcher thread run. "
+                            + "Error message: {0}", new PasswordMasker().maskPasswordsIfNecessary(error.getMessage()));
+                }
+                finally {
+                    element.done();
+                    element.cron.stop();
+                    if (instr != null) {
+                        instr.addCron(INSTRUMENTATION_GROUP, name + ".dispatch", element.cron);
+                    }
+                }
+            }
+        }
+
+        private void stop() {
+            running = false;
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+    }
+
     public class EventWorker implements Runnable {
 
         @Override
@@ -242,15 +615,7 @@ public class EventHandlerService implements Service {
                             Iterator<?> iter = listeners.iterator();
                             while (iter.hasNext()) {
                                 try {
-                                    if (msgType == MessageType.JOB) {
-                                        invokeJobEventListener((JobEventListener) iter.next(), (JobEvent) event);
-                                    }
-                                    else if (msgType == MessageType.SLA) {
-                                        invokeSLAEventListener((SLAEventListener) iter.next(), (SLAEvent) event);
-                                    }
-                                    else {
-                                        iter.next();
-                                    }
+                                    invokeListener(iter.next(), msgType, event);
                                 }
                                 catch (Throwable error) {
                                     XLog.getLog(EventHandlerService.class).debug("Throwable in EventWorker thread run : ",
@@ -261,6 +626,7 @@ public class EventHandlerService implements Service {
                                 }
                             }
                         }
+                        eventQueue.acknowledge(event);
                     }
                 }
             }
@@ -272,54 +638,6 @@ public class EventHandlerService implements Service {
                         new PasswordMasker().maskPasswordsIfNecessary(error.getMessage()));
             }
         }
-
-        private void invokeJobEventListener(JobEventListener jobListener, JobEvent event) {
-            switch (event.getAppType()) {
-                case WORKFLOW_JOB:
-                    jobListener.onWorkflowJobEvent((WorkflowJobEvent)event);
-                    break;
-                case WORKFLOW_ACTION:
-                    jobListener.onWorkflowActionEvent((WorkflowActionEvent)event);
-                    break;
-                case COORDINATOR_JOB:
-                    jobListener.onCoordinatorJobEvent((CoordinatorJobEvent)event);
-                    break;
-                case COORDINATOR_ACTION:
-                    jobListener.onCoordinatorActionEvent((CoordinatorActionEvent)event);
-                    break;
-                case BUNDLE_JOB:
-                    jobListener.onBundleJobEvent((BundleJobEvent)event);
-                    break;
-                default:
-                    XLog.getLog(EventHandlerService.class).info("Undefined Job Event app-type - {0}",
-                            event.getAppType());
-            }
-        }
-
-        private void invokeSLAEventListener(SLAEventListener slaListener, SLAEvent event) {
-            switch (event.getEventStatus()) {
-                case START_MET:
-                    slaListener.onStartMet(event);
-                    break;
-                case START_MISS:
-                    slaListener.onStartMiss(event);
-                    break;
-                case END_MET:
-                    slaListener.onEndMet(event);
-                    break;
-                case END_MISS:
-                    slaListener.onEndMiss(event);
-                    break;
-                case DURATION_MET:
-                    slaListener.onDurationMet(event);
-                    break;
-                case DURATION_MISS:
-                    slaListener.onDurationMiss(event);
-                    break;
-                default:
-                    XLog.getLog(EventHandlerService.class).info("Undefined SLA event type - {0}", event.getSLAStatus());
-            }
-        }
     }
 
 }
@@ -21,6 +21,7 @@ package org.apache.oozie.service;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.io.Text;
@@ -70,6 +71,9 @@ import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
@@ -79,6 +83,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -100,9 +105,17 @@ public class HadoopAccessorService implements Service {
     public static final String KERBEROS_AUTH_ENABLED = CONF_PREFIX + "kerberos.enabled";
     public static final String KERBEROS_KEYTAB = CONF_PREFIX + "keytab.file";
     public static final String KERBEROS_PRINCIPAL = CONF_PREFIX + "kerberos.principal";
+    public static final String YARN_CLIENT_CACHE_SIZE = CONF_PREFIX + "yarn.client.cache.size";
+    public static final String YARN_CLIENT_CACHE_IDLE_TIMEOUT = CONF_PREFIX + "yarn.client.cache.idle.timeout";
 
     private static final String OOZIE_HADOOP_ACCESSOR_SERVICE_CREATED = "oozie.HadoopAccessorService.created";
     private static final String DEFAULT_ACTIONNAME = "default";
+    /**
+     * Prefixes of the properties a YARN client depends on, only these take part in the YARN client cache key so the
+     * per-action properties of the launcher configurations (job and action ids, tags, action dir) don't defeat reuse.
+     */
+    private static final String[] YARN_CLIENT_PROPERTY_PREFIXES = {"yarn.resourcemanager.", "yarn.client.", "yarn.ipc.",
+            "yarn.http.", "yarn.timeline-service.", "hadoop.security.", "hadoop.rpc.", "ipc."};
     private static Configuration cachedConf;
 
     private Set<String> jobTrackerWhitelist = new HashSet<String>();
@@ -112,6 +125,7 @@ public class HadoopAccessorService implements Service {
     private Map<String, Map<String, XConfiguration>> actionConfigs = new HashMap<String, Map<String, XConfiguration>>();
 
     private UserGroupInformationService ugiService;
+    private YarnClientCache yarnClientCache;
 
     /**
      * Supported filesystem schemes for namespace federation
@@ -123,6 +137,18 @@ public class HadoopAccessorService implements Service {
     public void init(Services services) throws ServiceException {
         this.ugiService = services.get(UserGroupInformationService.class);
         init(services.getConf());
+        if (yarnClientCache != null && services.get(SchedulerService.class) != null) {
+            long idleTimeout = ConfigurationService.getLong(services.getConf(), YARN_CLIENT_CACHE_IDLE_TIMEOUT);
+            services.get(SchedulerService.class).schedule(new Runnable() {
+                @Override
+                public void run() {
+                    YarnClientCache cache = yarnClientCache;
+                    if (cache != null) {
+                        cache.evictIdle();
+                    }
+                }
+            }, idleTimeout, idleTimeout, SchedulerService.Unit.SEC);
+        }
     }
 
     //for testing purposes, see XFsTestCase
@@ -184,6 +210,13 @@ public class HadoopAccessorService implements Service {
         }
 
         setConfigForHadoopSecurityUtil(conf);
+
+        int yarnClientCacheSize = ConfigurationService.getInt(conf, YARN_CLIENT_CACHE_SIZE);
+        if (yarnClientCacheSize > 0) {
+            yarnClientCache = new YarnClientCache(yarnClientCacheSize,
+                    ConfigurationService.getLong(conf, YARN_CLIENT_CACHE_IDLE_TIMEOUT) * 1000);
+            LOG.info("YARN client cache enabled, size [{0}]", yarnClientCacheSize);
+        }
     }
 
     private void setConfigForHadoopSecurityUtil(Configuration conf) {
@@ -337,6 +370,10 @@ public class HadoopAccessorService implements Service {
     }
 
     public void destroy() {
+        if (yarnClientCache != null) {
+            yarnClientCache.destroy();
+            yarnClientCache = null;
+        }
     }
 
     public Class<? extends Service> getInterface() {
@@ -550,6 +587,9 @@ public class HadoopAccessorService implements Service {
 
     /**
      * Return a YarnClient created with the provided user and configuration. The caller is responsible for closing it when done.
+     * <p>
+     * If the YARN client cache is enabled, a started client of the same user, ResourceManager and ResourceManager, IPC and
+     * security settings is reused, closing it releases it back to the cache.
      *
      * @param user The username to impersonate
      * @param conf The conf
@@ -563,23 +603,69 @@ public class HadoopAccessorService implements Service {
         }
         String rm = conf.get(JavaActionExecutor.HADOOP_YARN_RM);
         validateJobTracker(rm);
+        final YarnClientCache cache = yarnClientCache;
+        final String key = cache == null ? null : user + "#" + rm + "#" + getDigest(conf);
+        if (cache != null) {
+            YarnClient yarnClient = cache.acquire(key);
+            if (yarnClient != null) {
+                return yarnClient;
+            }
+        }
         try {
             UserGroupInformation ugi = getUGI(user);
             YarnClient yarnClient = ugi.doAs(new PrivilegedExceptionAction<YarnClient>() {
                 @Override
                 public YarnClient run() throws Exception {
-                    YarnClient yarnClient = YarnClient.createYarnClient();
+                    YarnClient yarnClient = cache == null ? YarnClient.createYarnClient()
+                            : new YarnClientCache.CachedYarnClient(cache, key);
                     yarnClient.init(conf);
                     yarnClient.start();
                     return yarnClient;
                 }
             });
+            if (cache != null) {
+                yarnClient = cache.add((YarnClientCache.CachedYarnClient) yarnClient);
+            }
             return yarnClient;
         } catch (IOException | InterruptedException ex) {
             throw new HadoopAccessorException(ErrorCode.E0902, ex.getMessage(), ex);
         }
     }
 
+    /**
+     * Digest of the ResourceManager, IPC and security properties of a configuration, regardless of their order.
+     */
+    private static String getDigest(Configuration conf) {
+        TreeMap<String, String> properties = new TreeMap<String, String>();
+        for (Map.Entry<String, String> entry : conf) {
+            if (isYarnClientProperty(entry.getKey())) {
+                properties.put(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(entry.getValue()).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return Hex.encodeHexString(digest.digest());
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean isYarnClientProperty(String name) {
+        for (String prefix : YARN_CLIENT_PROPERTY_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Return a FileSystem created with the provided user for the specified URI.
      *
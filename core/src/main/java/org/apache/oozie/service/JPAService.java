@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -92,6 +93,8 @@ public class JPAService implements Service, Instrumentable {
     public static final String INITIAL_WAIT_TIME = CONF_PREFIX + "retry.initial-wait-time.ms";
     public static final String MAX_WAIT_TIME = CONF_PREFIX + "maximum-wait-time.ms";
     public static final String MAX_RETRY_COUNT = CONF_PREFIX + "retry.max-retries";
+    public static final String CONF_GROUP_COMMIT_WINDOW = CONF_PREFIX + "group.commit.window.ms";
+    public static final String CONF_GROUP_COMMIT_MAX_BATCHES = CONF_PREFIX + "group.commit.max.batches";
     public static final String SKIP_COMMIT_FAULT_INJECTION_CLASS = SkipCommitFaultInjection.class.getName();
 
     private EntityManagerFactory factory;
@@ -99,6 +102,10 @@ public class JPAService implements Service, Instrumentable {
 
     private static XLog LOG;
     private OperationRetryHandler retryHandler;
+    private int groupCommitWindow;
+    private int groupCommitMaxBatches;
+    private final AtomicLong batchCommits = new AtomicLong();
+    private final AtomicLong batchRows = new AtomicLong();
 
     /**
      * Return the public interface of the service.
@@ -113,6 +120,14 @@ public class JPAService implements Service, Instrumentable {
     public void instrument(final Instrumentation instr) {
         this.instr = instr;
 
+        instr.addVariable(INSTRUMENTATION_GROUP_JPA, "batch.rows.per.commit", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                final long commits = batchCommits.get();
+                return commits == 0 ? 0 : batchRows.get() / commits;
+            }
+        });
+
         final BasicDataSource dataSource = getBasicDataSource();
         if (dataSource != null) {
             instr.addSampler("jdbc", "connections.active", 60, 1, new Instrumentation.Variable<Long>() {
@@ -226,6 +241,12 @@ public class JPAService implements Service, Instrumentable {
         }
 
         initRetryHandler();
+        groupCommitWindow = ConfigurationService.getInt(conf, CONF_GROUP_COMMIT_WINDOW);
+        groupCommitMaxBatches = ConfigurationService.getInt(conf, CONF_GROUP_COMMIT_MAX_BATCHES);
+        if (groupCommitWindow > 0) {
+            LOG.info("Batch updates are group committed within a window of {0} ms, at most {1} batches per commit",
+                    groupCommitWindow, groupCommitMaxBatches);
+        }
 
         factory = Persistence.createEntityManagerFactory(persistentUnit, props);
 
@@ -260,6 +281,24 @@ public class JPAService implements Service, Instrumentable {
 
     }
 
+    /**
+     * Return the window in milliseconds during which concurrent batch updates are grouped in a single commit.
+     *
+     * @return the group commit window, 0 if group commit is disabled
+     */
+    public int getGroupCommitWindow() {
+        return groupCommitWindow;
+    }
+
+    /**
+     * Return the maximum number of batch updates grouped in a single commit.
+     *
+     * @return the maximum number of batches per commit
+     */
+    public int getGroupCommitMaxBatches() {
+        return groupCommitMaxBatches;
+    }
+
     private void initRetryHandler() {
         final long initialWaitTime = ConfigurationService.getInt(INITIAL_WAIT_TIME, (int) DEFAULT_INITIAL_WAIT_TIME);
         final long maxWaitTime = ConfigurationService.getInt(MAX_WAIT_TIME, (int) DEFAULT_MAX_WAIT_TIME);
@@ -533,6 +572,13 @@ public class JPAService implements Service, Instrumentable {
                     return null;
                 }
             });
+            final long rows = size(insertBeans) + size(updateQueryList) + size(deleteBeans);
+            batchCommits.incrementAndGet();
+            batchRows.addAndGet(rows);
+            if (instr != null) {
+                instr.incr(INSTRUMENTATION_GROUP_JPA, "batch.commits", 1);
+                instr.incr(INSTRUMENTATION_GROUP_JPA, "batch.rows", rows);
+            }
         }
         catch (final Exception e) {
             throw getTargetException(e);
@@ -542,6 +588,10 @@ public class JPAService implements Service, Instrumentable {
         }
     }
 
+    private static int size(final Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
     /**
      * Execute a SELECT query
      * @param namedQueryName the name of query to be executed
@@ -18,17 +18,106 @@
 
 package org.apache.oozie.service;
 
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.workflow.WorkflowLib;
+import org.apache.oozie.workflow.lite.LiteWorkflowLib;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Service that provides workflow application definition reading, parsing and creating proto configuration.
+ * <p>
+ * Workflow definitions read from the file system can be cached, an entry is used only while the modification time
+ * and length of the definition file are unchanged, so a definition updated from any Oozie server is read again.
+ * <p>
+ * The digests of the definitions that passed the schema validation are cached, a definition already validated is
+ * only parsed. Parsing is done for every job as it depends on the job configuration.
  */
-public class LiteWorkflowAppService extends WorkflowAppService {
+public class LiteWorkflowAppService extends WorkflowAppService implements Instrumentable {
+
+    public static final String CONF_DEFINITION_CACHE_SIZE = CONF_PREFIX + "definition.cache.size";
+    public static final String CONF_VALIDATION_CACHE_SIZE = CONF_PREFIX + "validation.cache.size";
+
+    public static final String INSTRUMENTATION_GROUP = "workflowapp";
+    public static final String DEFINITION_CACHE_HITS = "definition.cache.hits";
+    public static final String DEFINITION_CACHE_MISSES = "definition.cache.misses";
+    public static final String VALIDATION_CACHE_HITS = "validation.cache.hits";
+    public static final String VALIDATION_CACHE_MISSES = "validation.cache.misses";
+
+    private Cache<String, String> definitions;
+    private Cache<String, Boolean> validatedDefinitions;
+    private Instrumentation instrumentation;
+
+    /**
+     * Initialize the workflow application service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        super.init(services);
+        Configuration conf = services.getConf();
+        int definitionCacheSize = ConfigurationService.getInt(conf, CONF_DEFINITION_CACHE_SIZE);
+        if (definitionCacheSize > 0) {
+            definitions = CacheBuilder.newBuilder().maximumSize(definitionCacheSize).build();
+        }
+        int validationCacheSize = ConfigurationService.getInt(conf, CONF_VALIDATION_CACHE_SIZE);
+        if (validationCacheSize > 0) {
+            validatedDefinitions = CacheBuilder.newBuilder().maximumSize(validationCacheSize).build();
+        }
+    }
+
+    /**
+     * Destroy the workflow application service.
+     */
+    @Override
+    public void destroy() {
+        if (definitions != null) {
+            definitions.invalidateAll();
+        }
+        if (validatedDefinitions != null) {
+            validatedDefinitions.invalidateAll();
+        }
+        super.destroy();
+    }
+
+    /**
+     * Instruments the workflow application service.
+     *
+     * @param instr instance to instrument the workflow application service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "definition.cache.size", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return (definitions == null) ? 0 : definitions.size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "validation.cache.size", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return (validatedDefinitions == null) ? 0 : validatedDefinitions.size();
+            }
+        });
+    }
+
     /**
      * Parse workflow definition.
      *
@@ -54,7 +143,51 @@ public class LiteWorkflowAppService extends WorkflowAppService {
     public WorkflowApp parseDef(String workflowXml, Configuration jobConf, Configuration configDefault)
             throws WorkflowException {
         WorkflowLib workflowLib = Services.get().get(WorkflowStoreService.class).getWorkflowLibWithNoDB();
-        return workflowLib.parseDef(workflowXml, jobConf, configDefault);
+        if (validatedDefinitions == null || workflowXml == null || !(workflowLib instanceof LiteWorkflowLib)) {
+            return workflowLib.parseDef(workflowXml, jobConf, configDefault);
+        }
+        String digest = digest(workflowXml);
+        boolean validated = validatedDefinitions.getIfPresent(digest) != null;
+        incrCounter(validated ? VALIDATION_CACHE_HITS : VALIDATION_CACHE_MISSES);
+        WorkflowApp app = ((LiteWorkflowLib) workflowLib).parseDef(workflowXml, jobConf, configDefault, !validated);
+        validatedDefinitions.put(digest, Boolean.TRUE);
+        return app;
+    }
+
+    @Override
+    protected String readDefinition(String user, FileSystem fs, FileStatus fsStatus) throws IOException {
+        if (definitions == null) {
+            return super.readDefinition(user, fs, fsStatus);
+        }
+        // the user is part of the key as the file permissions are checked when reading it
+        String key = user + "@" + fsStatus.getPath() + "#" + fsStatus.getModificationTime() + "#" + fsStatus.getLen();
+        String definition = definitions.getIfPresent(key);
+        if (definition == null) {
+            incrCounter(DEFINITION_CACHE_MISSES);
+            definition = super.readDefinition(user, fs, fsStatus);
+            definitions.put(key, definition);
+        }
+        else {
+            incrCounter(DEFINITION_CACHE_HITS);
+        }
+        return definition;
+    }
+
+    private void incrCounter(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    private static String digest(String workflowXml) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return new BigInteger(1, md.digest(workflowXml.getBytes(StandardCharsets.UTF_8))).toString(16);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
     }
 
 }
@@ -68,6 +68,7 @@ public abstract class LiteWorkflowStoreService extends WorkflowStoreService {
     public static final String NODE_DEF_VERSION_1 = "_oozie_inst_v_1";
     public static final String NODE_DEF_VERSION_2 = "_oozie_inst_v_2";
     public static final String CONF_NODE_DEF_VERSION = CONF_PREFIX + "node.def.version";
+    public static final String CONF_COMPACT_INSTANCE_SERIALIZATION = CONF_PREFIX + "compact.instance.serialization";
 
     public static final String USER_ERROR_CODE_ALL = "ALL";
 
@@ -212,6 +213,15 @@ public abstract class LiteWorkflowStoreService extends WorkflowStoreService {
         return ret;
     }
 
+    /**
+     * Return if the workflow instances are written in the compact format, they are read in both formats.
+     *
+     * @return if the workflow instances are written in the compact format.
+     */
+    public static boolean isCompactInstanceSerialization() {
+        return Services.get() != null && ConfigurationService.getBoolean(CONF_COMPACT_INSTANCE_SERIALIZATION);
+    }
+
     /**
      * Delegation method used when failing actions. <p>
      *
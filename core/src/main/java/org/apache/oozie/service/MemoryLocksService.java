@@ -47,7 +47,17 @@ public class MemoryLocksService implements Service, Instrumentable {
      */
     @Override
     public void init(Services services) throws ServiceException {
-        locks = new MemoryLocks();
+        locks = createMemoryLocks(services);
+    }
+
+    /**
+     * Create the in-memory locks used by the service.
+     *
+     * @param services services instance.
+     * @return the in-memory locks.
+     */
+    protected MemoryLocks createMemoryLocks(Services services) {
+        return new MemoryLocks();
     }
 
     /**
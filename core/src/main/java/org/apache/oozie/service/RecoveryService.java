@@ -113,10 +113,26 @@ public class RecoveryService implements Service {
      */
     public static final String CONF_BUNDLE_OLDER_THAN = CONF_PREFIX_BUNDLE + "older.than";
 
+    /**
+     * Maximum number of actions read from the database at once.
+     */
+    public static final String CONF_PAGE_SIZE = RECOVERY_SERVICE_CONF_PREFIX + "page.size";
+
+    /**
+     * Number of runs between two scans of all the actions older than the configured age, the other runs only scan the
+     * actions that became older than the configured age since the previous run.
+     */
+    public static final String CONF_FULL_SCAN_INTERVAL = RECOVERY_SERVICE_CONF_PREFIX + "full.scan.interval";
+
     private static final String INSTRUMENTATION_GROUP = "recovery";
     private static final String INSTR_RECOVERED_ACTIONS_COUNTER = "actions";
     private static final String INSTR_RECOVERED_COORD_ACTIONS_COUNTER = "coord_actions";
     private static final String INSTR_RECOVERED_BUNDLE_ACTIONS_COUNTER = "bundle_actions";
+    private static final String INSTR_SCANNED_ACTIONS_COUNTER = "actions_scanned";
+    private static final String INSTR_SCANNED_COORD_ACTIONS_COUNTER = "coord_actions_scanned";
+    private static final String INSTR_SCANNED_BUNDLE_ACTIONS_COUNTER = "bundle_actions_scanned";
+
+    private static final Timestamp SCAN_START = new Timestamp(0);
 
     public static final long ONE_DAY_MILLISCONDS = 25 * 60 * 60 * 1000;
 
@@ -125,11 +141,26 @@ public class RecoveryService implements Service {
     /**
      * RecoveryRunnable is the Runnable which is scheduled to run with the configured interval, and takes care of the
      * queuing of commands.
+     * <p>
+     * Actions are read in pages ordered by their last modified time (the pending age for workflow actions) and ID,
+     * keeping only the columns needed for the recovery. The last modified time up to which every type of actions was
+     * scanned is kept, the runs between two full scans only read the actions modified after it. The actions that did
+     * not get recovered, or that became eligible for recovery by other conditions (the nominal time or the status of
+     * their coordinator job), are read again by the next full scan.
      */
     static class RecoveryRunnable implements Runnable {
         private final long olderThan;
         private final long coordOlderThan;
         private final long bundleOlderThan;
+        private final int pageSize;
+        private final int fullScanInterval;
+        private int runsSinceFullScan = 0;
+        private boolean fullScan;
+        private Timestamp wfWatermark = SCAN_START;
+        private Timestamp coordWatermark = SCAN_START;
+        private Timestamp bundleWatermark = SCAN_START;
+        private long pushMissingDepInterval;
+        private long pushMissingDepDelay;
         private long delay = 0;
         private List<XCallable<?>> callables;
         private List<XCallable<?>> delayedCallables;
@@ -140,6 +171,8 @@ public class RecoveryService implements Service {
             this.olderThan = olderThan;
             this.coordOlderThan = coordOlderThan;
             this.bundleOlderThan = bundleOlderThan;
+            this.pageSize = ConfigurationService.getInt(CONF_PAGE_SIZE);
+            this.fullScanInterval = Math.max(1, ConfigurationService.getInt(CONF_FULL_SCAN_INTERVAL));
         }
 
         public void run() {
@@ -147,6 +180,9 @@ public class RecoveryService implements Service {
             XLog log = XLog.getLog(getClass());
             msg = new StringBuilder();
             jpaService = Services.get().get(JPAService.class);
+            fullScan = (runsSinceFullScan == 0);
+            runsSinceFullScan = (runsSinceFullScan + 1) % fullScanInterval;
+            msg.append(fullScan ? "FULL SCAN" : "INCREMENTAL SCAN");
             runWFRecovery();
             runCoordActionRecovery();
             runBundleRecovery();
@@ -173,92 +209,146 @@ public class RecoveryService implements Service {
             }
         }
 
+        /**
+         * Return the time from which the actions are scanned.
+         *
+         * @param watermark last modified time up to which the actions were scanned by the previous run.
+         * @return the time from which the actions are scanned.
+         */
+        private Timestamp getScanStart(Timestamp watermark) {
+            return fullScan ? SCAN_START : watermark;
+        }
+
+        /**
+         * Return the IDs that should be processed by this server.
+         *
+         * @param ids IDs of the scanned actions, or of their jobs.
+         * @return the IDs that should be processed by this server.
+         */
+        private Set<String> getIdsForThisServer(List<String> ids) {
+            return new HashSet<String>(Services.get().get(JobsConcurrencyService.class).getJobIdsForThisServer(ids));
+        }
+
+        private void incrCounter(String name, long count) {
+            Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP, name, count);
+        }
+
         private void runBundleRecovery(){
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
-            List<BundleActionBean> bactions = null;
+            Timestamp lastModifiedTime = new Timestamp(System.currentTimeMillis() - bundleOlderThan * 1000);
+            Timestamp fromTime = getScanStart(bundleWatermark);
+            String fromId = "";
+            int scanned = 0;
+            int recovered = 0;
             try {
-                bactions = BundleActionQueryExecutor.getInstance().getList(
-                        BundleActionQuery.GET_BUNDLE_WAITING_ACTIONS_OLDER_THAN, bundleOlderThan);
+                List<BundleActionBean> bactions;
+                do {
+                    bactions = BundleActionQueryExecutor.getInstance().getList(
+                            BundleActionQuery.GET_BUNDLE_WAITING_ACTIONS_PAGE, lastModifiedTime, fromTime, fromId,
+                            pageSize);
+                    scanned += bactions.size();
+                    List<String> bundleIds = new ArrayList<String>();
+                    for (BundleActionBean baction : bactions) {
+                        bundleIds.add(baction.getBundleId());
+                    }
+                    Set<String> ownedIds = getIdsForThisServer(bundleIds);
+                    for (BundleActionBean baction : bactions) {
+                        if (ownedIds.contains(baction.getBundleId())) {
+                            recovered++;
+                            recoverBundleAction(baction);
+                        }
+                    }
+                    if (!bactions.isEmpty()) {
+                        BundleActionBean last = bactions.get(bactions.size() - 1);
+                        if (last.getLastModifiedTimestamp().equals(fromTime) && last.getBundleActionId().equals(fromId)) {
+                            break;
+                        }
+                        fromTime = last.getLastModifiedTimestamp();
+                        fromId = last.getBundleActionId();
+                    }
+                } while (bactions.size() == pageSize);
+                bundleWatermark = lastModifiedTime;
             }
             catch (JPAExecutorException ex) {
                 log.warn("Error reading bundle actions from database", ex);
-                return;
             }
-            msg.append(", BUNDLE_ACTIONS : ").append(bactions.size());
-            for (BundleActionBean baction : bactions) {
-                try {
-                    Services.get().get(InstrumentationService.class).get()
-                            .incr(INSTRUMENTATION_GROUP, INSTR_RECOVERED_BUNDLE_ACTIONS_COUNTER, 1);
-                    if (baction.getCoordId() == null && baction.getStatus() != Job.Status.PREP) {
-                        log.error("CoordId is null for Bundle action " + baction.getBundleActionId());
-                        continue;
-                    }
-                    if (Services.get().get(JobsConcurrencyService.class).isJobIdForThisServer(baction.getBundleId())) {
-                        if (baction.getStatus() == Job.Status.PREP && baction.getCoordId() == null) {
-
-                            CoordinatorJobBean coordJobs = CoordJobQueryExecutor.getInstance().getIfExist(
-                                    CoordJobQuery.GET_COORD_JOBS_FOR_BUNDLE_BY_APPNAME_ID, baction.getCoordName(),
-                                    baction.getBundleId());
-
-                            if (coordJobs == null) {
-                                log.debug("Coord [{0}] for bundle [{1}] is not yet submitted , submitting new one",
-                                        baction.getCoordName(), baction.getBundleId());
-
-                                BundleJobBean bundleJob = null;
-                                if (jpaService != null) {
-                                    bundleJob = BundleJobQueryExecutor.getInstance().get(
-                                            BundleJobQuery.GET_BUNDLE_JOB_ID_JOBXML_CONF, baction.getBundleId());
-                                }
-                                Element bAppXml = XmlUtils.parseXml(bundleJob.getJobXml());
-                                @SuppressWarnings("unchecked")
-                                List<Element> coordElems = bAppXml.getChildren("coordinator", bAppXml.getNamespace());
-                                for (Element coordElem : coordElems) {
-                                    Attribute name = coordElem.getAttribute("name");
-                                    String coordName = name.getValue();
-                                    Configuration coordConf = mergeConfig(coordElem, bundleJob);
-                                    try {
-                                        coordName = ELUtils.resolveAppName(coordName, coordConf);
-                                    }
-                                    catch (Exception e) {
-                                        log.error("Error evaluating coord name " + e.getMessage(), e);
-                                        continue;
-                                    }
-                                    if (coordName.equals(baction.getCoordName())) {
-                                        coordConf.set(OozieClient.BUNDLE_ID, baction.getBundleId());
-                                        queueCallable(new BundleCoordSubmitXCommand(coordConf, bundleJob.getId(),
-                                                coordName));
-                                    }
-                                }
+            finally {
+                msg.append(", BUNDLE_ACTIONS : ").append(scanned).append(" SCANNED, ").append(recovered)
+                        .append(" RECOVERED");
+                incrCounter(INSTR_SCANNED_BUNDLE_ACTIONS_COUNTER, scanned);
+            }
+        }
+
+        private void recoverBundleAction(BundleActionBean baction) {
+            XLog log = XLog.getLog(getClass());
+            try {
+                incrCounter(INSTR_RECOVERED_BUNDLE_ACTIONS_COUNTER, 1);
+                if (baction.getCoordId() == null && baction.getStatus() != Job.Status.PREP) {
+                    log.error("CoordId is null for Bundle action " + baction.getBundleActionId());
+                    return;
+                }
+                if (baction.getStatus() == Job.Status.PREP && baction.getCoordId() == null) {
+
+                    CoordinatorJobBean coordJobs = CoordJobQueryExecutor.getInstance().getIfExist(
+                            CoordJobQuery.GET_COORD_JOBS_FOR_BUNDLE_BY_APPNAME_ID, baction.getCoordName(),
+                            baction.getBundleId());
+
+                    if (coordJobs == null) {
+                        log.debug("Coord [{0}] for bundle [{1}] is not yet submitted , submitting new one",
+                                baction.getCoordName(), baction.getBundleId());
+
+                        BundleJobBean bundleJob = null;
+                        if (jpaService != null) {
+                            bundleJob = BundleJobQueryExecutor.getInstance().get(
+                                    BundleJobQuery.GET_BUNDLE_JOB_ID_JOBXML_CONF, baction.getBundleId());
+                        }
+                        Element bAppXml = XmlUtils.parseXml(bundleJob.getJobXml());
+                        @SuppressWarnings("unchecked")
+                        List<Element> coordElems = bAppXml.getChildren("coordinator", bAppXml.getNamespace());
+                        for (Element coordElem : coordElems) {
+                            Attribute name = coordElem.getAttribute("name");
+                            String coordName = name.getValue();
+                            Configuration coordConf = mergeConfig(coordElem, bundleJob);
+                            try {
+                                coordName = ELUtils.resolveAppName(coordName, coordConf);
                             }
-                            else {
-                                log.debug(
-                                        "Coord [{0}] for bundle [{1}] is submitted , but bundle action is not updated.",
-                                        baction.getCoordName(), baction.getBundleId());
-                                coordJobs = CoordJobQueryExecutor.getInstance().getIfExist(
-                                        CoordJobQuery.GET_COORD_JOB_SUSPEND_KILL, baction.getCoordName(),
-                                        coordJobs.getId());
-                                queueCallable(new BundleStatusUpdateXCommand(coordJobs, baction.getStatus()));
+                            catch (Exception e) {
+                                log.error("Error evaluating coord name " + e.getMessage(), e);
+                                continue;
+                            }
+                            if (coordName.equals(baction.getCoordName())) {
+                                coordConf.set(OozieClient.BUNDLE_ID, baction.getBundleId());
+                                queueCallable(new BundleCoordSubmitXCommand(coordConf, bundleJob.getId(),
+                                        coordName));
                             }
                         }
-                        else if (baction.getStatus() == Job.Status.KILLED) {
-                            queueCallable(new CoordKillXCommand(baction.getCoordId()));
-                        }
-                        else if (baction.getStatus() == Job.Status.SUSPENDED
-                                || baction.getStatus() == Job.Status.SUSPENDEDWITHERROR) {
-                            queueCallable(new CoordSuspendXCommand(baction.getCoordId()));
-                        }
-                        else if (baction.getStatus() == Job.Status.RUNNING
-                                || baction.getStatus() == Job.Status.RUNNINGWITHERROR) {
-                            queueCallable(new CoordResumeXCommand(baction.getCoordId()));
-                        }
+                    }
+                    else {
+                        log.debug(
+                                "Coord [{0}] for bundle [{1}] is submitted , but bundle action is not updated.",
+                                baction.getCoordName(), baction.getBundleId());
+                        coordJobs = CoordJobQueryExecutor.getInstance().getIfExist(
+                                CoordJobQuery.GET_COORD_JOB_SUSPEND_KILL, baction.getCoordName(),
+                                coordJobs.getId());
+                        queueCallable(new BundleStatusUpdateXCommand(coordJobs, baction.getStatus()));
                     }
                 }
-                catch (Exception ex) {
-                    log.error("Exception, {0}", ex.getMessage(), ex);
+                else if (baction.getStatus() == Job.Status.KILLED) {
+                    queueCallable(new CoordKillXCommand(baction.getCoordId()));
+                }
+                else if (baction.getStatus() == Job.Status.SUSPENDED
+                        || baction.getStatus() == Job.Status.SUSPENDEDWITHERROR) {
+                    queueCallable(new CoordSuspendXCommand(baction.getCoordId()));
+                }
+                else if (baction.getStatus() == Job.Status.RUNNING
+                        || baction.getStatus() == Job.Status.RUNNINGWITHERROR) {
+                    queueCallable(new CoordResumeXCommand(baction.getCoordId()));
                 }
             }
-
+            catch (Exception ex) {
+                log.error("Exception, {0}", ex.getMessage(), ex);
+            }
         }
 
         /**
@@ -268,80 +358,110 @@ public class RecoveryService implements Service {
             Set<String> readyJobs = new HashSet<String>();
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
-            long pushMissingDepInterval = ConfigurationService.getLong(CONF_PUSH_DEPENDENCY_INTERVAL);
-            long pushMissingDepDelay = pushMissingDepInterval;
+            pushMissingDepInterval = ConfigurationService.getLong(CONF_PUSH_DEPENDENCY_INTERVAL);
+            pushMissingDepDelay = pushMissingDepInterval;
             Timestamp ts = new Timestamp(System.currentTimeMillis() - this.coordOlderThan * 1000);
-
-            List<CoordinatorActionBean> cactions = new ArrayList<CoordinatorActionBean>();
+            int scanned = 0;
+            int recovered = 0;
             try {
-                cactions.addAll(CoordActionQueryExecutor.getInstance().getList(
-                        CoordActionQuery.GET_COORD_ACTIONS_FOR_RECOVERY_OLDER_THAN, ts));
-                cactions.addAll(CoordActionQueryExecutor.getInstance().getList(
-                        CoordActionQuery.GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_OLDER_THAN, ts));
-
-            }
-            catch (JPAExecutorException ex) {
-                log.warn("Error reading coord actions from database", ex);
-                return;
-            }
-            msg.append(", COORD_ACTIONS : " + cactions.size());
-            for (CoordinatorActionBean caction : cactions) {
-                try {
-                    if (Services.get().get(JobsConcurrencyService.class).isJobIdForThisServer(caction.getId())) {
-                        Services.get().get(InstrumentationService.class).get()
-                                .incr(INSTRUMENTATION_GROUP, INSTR_RECOVERED_COORD_ACTIONS_COUNTER, 1);
-                        if (caction.getStatus() == CoordinatorActionBean.Status.WAITING) {
-                            queueCallable(new CoordActionInputCheckXCommand(caction.getId(), caction.getJobId()));
-                            log.debug("Recover a coord action from [WAITING] and resubmit CoordActionInputCheckXCommand :[{0}]"
-                                    , caction.getId());
-                            if (caction.getPushMissingDependencies() != null
-                                    && caction.getPushMissingDependencies().length() != 0) {
-                                queueCallable(new CoordPushDependencyCheckXCommand(caction.getId(), true, true),
-                                        pushMissingDepDelay);
-                                pushMissingDepDelay = pushMissingDepDelay + pushMissingDepInterval;
-                                log.debug("Recover a coord action from [WAITING] and resubmit CoordPushDependencyCheckX :[{0}]"
-                                        , caction.getId());
-                            }
-                        }
-                        else if (caction.getStatus() == CoordinatorActionBean.Status.SUBMITTED) {
-                            CoordinatorJobBean coordJob = CoordJobQueryExecutor.getInstance().get(
-                                    CoordJobQuery.GET_COORD_JOB_USER_APPNAME, caction.getJobId());
-                            queueCallable(new CoordActionStartXCommand(caction.getId(), coordJob.getUser(),
-                                    coordJob.getAppName(), caction.getJobId()));
-                            log.debug("Recover a coord action from [SUBMITTED] and resubmit CoordActionStartCommand :[{0}]",
-                                    caction.getId());
-                        }
-                        else if (caction.getStatus() == CoordinatorActionBean.Status.SUSPENDED) {
-                            if (caction.getExternalId() != null && caction.getPending() > 1) {
-                                queueCallable(new SuspendXCommand(caction.getExternalId()));
-                                log.debug("Recover a coord action from [SUSPENDED] and resubmit SuspendXCommand :[{0}]"
-                                        , caction.getId());
-                            }
+                for (CoordActionQuery namedQuery : new CoordActionQuery[] {
+                        CoordActionQuery.GET_COORD_ACTIONS_FOR_RECOVERY_PAGE,
+                        CoordActionQuery.GET_COORD_ACTIONS_WAITING_READY_SUBMITTED_PAGE}) {
+                    Timestamp fromTime = getScanStart(coordWatermark);
+                    String fromId = "";
+                    List<CoordinatorActionBean> cactions;
+                    do {
+                        cactions = CoordActionQueryExecutor.getInstance().getList(namedQuery, ts, fromTime, fromId,
+                                pageSize);
+                        scanned += cactions.size();
+                        List<String> ids = new ArrayList<String>();
+                        for (CoordinatorActionBean caction : cactions) {
+                            ids.add(caction.getId());
                         }
-                        else if (caction.getStatus() == CoordinatorActionBean.Status.KILLED) {
-                            if (caction.getExternalId() != null) {
-                                queueCallable(new KillXCommand(caction.getExternalId()));
-                                log.debug("Recover a coord action from [KILLED] and resubmit KillXCommand :[{0}]"
-                                        , caction.getId());
+                        Set<String> ownedIds = getIdsForThisServer(ids);
+                        for (CoordinatorActionBean caction : cactions) {
+                            if (ownedIds.contains(caction.getId())) {
+                                recovered++;
+                                recoverCoordAction(caction, readyJobs);
                             }
                         }
-                        else if (caction.getStatus() == CoordinatorActionBean.Status.RUNNING) {
-                            if (caction.getExternalId() != null) {
-                                queueCallable(new ResumeXCommand(caction.getExternalId()));
-                                log.debug("Recover a coord action from [RUNNING] and resubmit ResumeXCommand :[{0}]"
-                                        , caction.getId());
+                        if (!cactions.isEmpty()) {
+                            CoordinatorActionBean last = cactions.get(cactions.size() - 1);
+                            if (last.getLastModifiedTimestamp().equals(fromTime) && last.getId().equals(fromId)) {
+                                break;
                             }
+                            fromTime = last.getLastModifiedTimestamp();
+                            fromId = last.getId();
                         }
-                        else if (caction.getStatus() == CoordinatorActionBean.Status.READY) {
-                            readyJobs.add(caction.getJobId());
-                        }
+                    } while (cactions.size() == pageSize);
+                }
+                coordWatermark = ts;
+            }
+            catch (JPAExecutorException ex) {
+                log.warn("Error reading coord actions from database", ex);
+                return;
+            }
+            finally {
+                msg.append(", COORD_ACTIONS : ").append(scanned).append(" SCANNED, ").append(recovered)
+                        .append(" RECOVERED");
+                incrCounter(INSTR_SCANNED_COORD_ACTIONS_COUNTER, scanned);
+            }
+            runCoordActionRecoveryForReady(readyJobs);
+        }
+
+        private void recoverCoordAction(CoordinatorActionBean caction, Set<String> readyJobs) {
+            XLog log = XLog.getLog(getClass());
+            try {
+                incrCounter(INSTR_RECOVERED_COORD_ACTIONS_COUNTER, 1);
+                if (caction.getStatus() == CoordinatorActionBean.Status.WAITING) {
+                    queueCallable(new CoordActionInputCheckXCommand(caction.getId(), caction.getJobId()));
+                    log.debug("Recover a coord action from [WAITING] and resubmit CoordActionInputCheckXCommand :[{0}]"
+                            , caction.getId());
+                    if (caction.getPushMissingDependencies() != null
+                            && caction.getPushMissingDependencies().length() != 0) {
+                        queueCallable(new CoordPushDependencyCheckXCommand(caction.getId(), true, true),
+                                pushMissingDepDelay);
+                        pushMissingDepDelay = pushMissingDepDelay + pushMissingDepInterval;
+                        log.debug("Recover a coord action from [WAITING] and resubmit CoordPushDependencyCheckX :[{0}]"
+                                , caction.getId());
                     }
                 }
-                catch (Exception ex) {
-                    log.error("Exception, {0}", ex.getMessage(), ex);
+                else if (caction.getStatus() == CoordinatorActionBean.Status.SUBMITTED) {
+                    CoordinatorJobBean coordJob = CoordJobQueryExecutor.getInstance().get(
+                            CoordJobQuery.GET_COORD_JOB_USER_APPNAME, caction.getJobId());
+                    queueCallable(new CoordActionStartXCommand(caction.getId(), coordJob.getUser(),
+                            coordJob.getAppName(), caction.getJobId()));
+                    log.debug("Recover a coord action from [SUBMITTED] and resubmit CoordActionStartCommand :[{0}]",
+                            caction.getId());
+                }
+                else if (caction.getStatus() == CoordinatorActionBean.Status.SUSPENDED) {
+                    if (caction.getExternalId() != null && caction.getPending() > 1) {
+                        queueCallable(new SuspendXCommand(caction.getExternalId()));
+                        log.debug("Recover a coord action from [SUSPENDED] and resubmit SuspendXCommand :[{0}]"
+                                , caction.getId());
+                    }
+                }
+                else if (caction.getStatus() == CoordinatorActionBean.Status.KILLED) {
+                    if (caction.getExternalId() != null) {
+                        queueCallable(new KillXCommand(caction.getExternalId()));
+                        log.debug("Recover a coord action from [KILLED] and resubmit KillXCommand :[{0}]"
+                                , caction.getId());
+                    }
+                }
+                else if (caction.getStatus() == CoordinatorActionBean.Status.RUNNING) {
+                    if (caction.getExternalId() != null) {
+                        queueCallable(new ResumeXCommand(caction.getExternalId()));
+                        log.debug("Recover a coord action from [RUNNING] and resubmit ResumeXCommand :[{0}]"
+                                , caction.getId());
+                    }
+                }
+                else if (caction.getStatus() == CoordinatorActionBean.Status.READY) {
+                    readyJobs.add(caction.getJobId());
                 }
             }
-            runCoordActionRecoveryForReady(readyJobs);
+            catch (Exception ex) {
+                log.error("Exception, {0}", ex.getMessage(), ex);
+            }
         }
 
         /**
@@ -375,68 +495,96 @@ public class RecoveryService implements Service {
             long createdTimeInterval = new Date().getTime() - ConfigurationService.getLong(CONF_WF_ACTIONS_CREATED_TIME_INTERVAL)
                     * ONE_DAY_MILLISCONDS;
 
-            List<WorkflowActionBean> actions = null;
+            Timestamp pendingAge = new Timestamp(System.currentTimeMillis() - olderThan * 1000);
+            Timestamp createdTime = new Timestamp(createdTimeInterval);
+            Timestamp fromTime = getScanStart(wfWatermark);
+            String fromId = "";
+            int scanned = 0;
+            int recovered = 0;
             try {
-                actions = WorkflowActionQueryExecutor.getInstance().getList(WorkflowActionQuery.GET_PENDING_ACTIONS,
-                        olderThan, createdTimeInterval);
+                List<WorkflowActionBean> actions;
+                do {
+                    actions = WorkflowActionQueryExecutor.getInstance().getList(
+                            WorkflowActionQuery.GET_PENDING_ACTIONS_PAGE, pendingAge, createdTime, fromTime, fromId,
+                            pageSize);
+                    scanned += actions.size();
+                    List<String> ids = new ArrayList<String>();
+                    for (WorkflowActionBean action : actions) {
+                        ids.add(action.getId());
+                    }
+                    Set<String> ownedIds = getIdsForThisServer(ids);
+                    for (WorkflowActionBean action : actions) {
+                        if (ownedIds.contains(action.getId())) {
+                            recovered++;
+                            recoverWFAction(action);
+                        }
+                    }
+                    if (!actions.isEmpty()) {
+                        WorkflowActionBean last = actions.get(actions.size() - 1);
+                        Timestamp lastPendingAge = new Timestamp(last.getPendingAge().getTime());
+                        if (lastPendingAge.equals(fromTime) && last.getId().equals(fromId)) {
+                            break;
+                        }
+                        fromTime = lastPendingAge;
+                        fromId = last.getId();
+                    }
+                } while (actions.size() == pageSize);
+                wfWatermark = pendingAge;
             }
             catch (JPAExecutorException ex) {
                 log.warn("Exception while reading pending actions from storage", ex);
-                return;
             }
-            // log.debug("QUEUING[{0}] pending wf actions for potential recovery",
-            // actions.size());
-            msg.append(" WF_ACTIONS " + actions.size());
-
-            for (WorkflowActionBean action : actions) {
-                try {
-                    if (Services.get().get(JobsConcurrencyService.class).isJobIdForThisServer(action.getId())) {
-                        Services.get().get(InstrumentationService.class).get()
-                                .incr(INSTRUMENTATION_GROUP, INSTR_RECOVERED_ACTIONS_COUNTER, 1);
-                        if (action.getStatus() == WorkflowActionBean.Status.PREP
-                                || action.getStatus() == WorkflowActionBean.Status.START_MANUAL) {
-                            queueCallable(new ActionStartXCommand(action.getId(), action.getType()));
-                            log.debug("Recover a workflow action from [{0}] status and resubmit ActionStartXCommand :[{1}]",
-                                    action.getStatus(), action.getId());
-                        }
-                        else if (action.getStatus() == WorkflowActionBean.Status.START_RETRY) {
-                            Date nextRunTime = action.getPendingAge();
-                            queueCallable(new ActionStartXCommand(action.getId(), action.getType()), nextRunTime.getTime()
-                                    - System.currentTimeMillis());
-                            log.debug("Recover a workflow action from [START_RETRY] status and resubmit ActionStartXCommand :[{0}]"
-                                    , action.getId());
-                        }
-                        else if (action.getStatus() == WorkflowActionBean.Status.DONE
-                                || action.getStatus() == WorkflowActionBean.Status.END_MANUAL) {
-                            queueCallable(new ActionEndXCommand(action.getId(), action.getType()));
-                            log.debug("Recover a workflow action from [{0}] status and resubmit ActionEndXCommand :[{1}]",
-                                    action.getStatus(), action.getId());
-                        }
-                        else if (action.getStatus() == WorkflowActionBean.Status.END_RETRY) {
-                            Date nextRunTime = action.getPendingAge();
-                            queueCallable(new ActionEndXCommand(action.getId(), action.getType()), nextRunTime.getTime()
-                                    - System.currentTimeMillis());
-                            log.debug("Recover a workflow action from [END_RETRY] status and resubmit ActionEndXCommand :[{0}]",
-                                    action.getId());
-                        }
-                        else if (action.getStatus() == WorkflowActionBean.Status.OK
-                                || action.getStatus() == WorkflowActionBean.Status.ERROR) {
-                            queueCallable(new SignalXCommand(action.getJobId(), action.getId()));
-                            log.debug("Recover a workflow action from [{0}] status and resubmit SignalXCommand :[{1}]",
-                                    action.getStatus(), action.getId());
-                        }
-                        else if (action.getStatus() == WorkflowActionBean.Status.USER_RETRY) {
-                            queueCallable(new ActionStartXCommand(action.getId(), action.getType()));
-                            log.debug("Recover a workflow action from [USER_RETRY] status and resubmit ActionStartXCommand :[{0}]"
-                                    , action.getId());
-                        }
-                    }
+            finally {
+                msg.append(" WF_ACTIONS : ").append(scanned).append(" SCANNED, ").append(recovered).append(" RECOVERED");
+                incrCounter(INSTR_SCANNED_ACTIONS_COUNTER, scanned);
+            }
+        }
+
+        private void recoverWFAction(WorkflowActionBean action) {
+            XLog log = XLog.getLog(getClass());
+            try {
+                incrCounter(INSTR_RECOVERED_ACTIONS_COUNTER, 1);
+                if (action.getStatus() == WorkflowActionBean.Status.PREP
+                        || action.getStatus() == WorkflowActionBean.Status.START_MANUAL) {
+                    queueCallable(new ActionStartXCommand(action.getId(), action.getType()));
+                    log.debug("Recover a workflow action from [{0}] status and resubmit ActionStartXCommand :[{1}]",
+                            action.getStatus(), action.getId());
+                }
+                else if (action.getStatus() == WorkflowActionBean.Status.START_RETRY) {
+                    Date nextRunTime = action.getPendingAge();
+                    queueCallable(new ActionStartXCommand(action.getId(), action.getType()), nextRunTime.getTime()
+                            - System.currentTimeMillis());
+                    log.debug("Recover a workflow action from [START_RETRY] status and resubmit ActionStartXCommand :[{0}]"
+                            , action.getId());
+                }
+                else if (action.getStatus() == WorkflowActionBean.Status.DONE
+                        || action.getStatus() == WorkflowActionBean.Status.END_MANUAL) {
+                    queueCallable(new ActionEndXCommand(action.getId(), action.getType()));
+                    log.debug("Recover a workflow action from [{0}] status and resubmit ActionEndXCommand :[{1}]",
+                            action.getStatus(), action.getId());
                 }
-                catch (Exception ex) {
-                    log.error("Exception, {0}", ex.getMessage(), ex);
+                else if (action.getStatus() == WorkflowActionBean.Status.END_RETRY) {
+                    Date nextRunTime = action.getPendingAge();
+                    queueCallable(new ActionEndXCommand(action.getId(), action.getType()), nextRunTime.getTime()
+                            - System.currentTimeMillis());
+                    log.debug("Recover a workflow action from [END_RETRY] status and resubmit ActionEndXCommand :[{0}]",
+                            action.getId());
+                }
+                else if (action.getStatus() == WorkflowActionBean.Status.OK
+                        || action.getStatus() == WorkflowActionBean.Status.ERROR) {
+                    queueCallable(new SignalXCommand(action.getJobId(), action.getId()));
+                    log.debug("Recover a workflow action from [{0}] status and resubmit SignalXCommand :[{1}]",
+                            action.getStatus(), action.getId());
+                }
+                else if (action.getStatus() == WorkflowActionBean.Status.USER_RETRY) {
+                    queueCallable(new ActionStartXCommand(action.getId(), action.getType()));
+                    log.debug("Recover a workflow action from [USER_RETRY] status and resubmit ActionStartXCommand :[{0}]"
+                            , action.getId());
                 }
             }
-
+            catch (Exception ex) {
+                log.error("Exception, {0}", ex.getMessage(), ex);
+            }
         }
 
         /**
@@ -30,9 +30,11 @@ import java.net.URLDecoder;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
@@ -79,6 +81,8 @@ public class ShareLibService implements Service, Instrumentable {
 
     public static final String FAIL_FAST_ON_STARTUP = CONF_PREFIX + "ShareLibService.fail.fast.on.startup";
 
+    public static final String CACHE_FILE_STATUS = CONF_PREFIX + "ShareLibService.cache.file.status";
+
     private static final String PERMISSION_STRING = "-rwxr-xr-x";
 
     public static final String LAUNCHER_LIB_PREFIX = "launcher_";
@@ -97,6 +101,8 @@ public class ShareLibService implements Service, Instrumentable {
 
     private Set<String> actionConfSet = new HashSet<String>();
 
+    private Map<URI, FileStatus> fileStatusCache = Collections.emptyMap();
+
     // symlink mapping. Oozie keeps on checking symlink path and if changes, Oozie reloads the sharelib
     private Map<String, Map<Path, Path>> symlinkMapping = new HashMap<String, Map<Path, Path>>();
 
@@ -106,6 +112,8 @@ public class ShareLibService implements Service, Instrumentable {
 
     private boolean isShipLauncherEnabled = false;
 
+    private boolean isFileStatusCacheEnabled = false;
+
     public static String SHARE_LIB_CONF_PREFIX = "oozie";
 
     private boolean shareLibLoadAttempted = false;
@@ -124,6 +132,7 @@ public class ShareLibService implements Service, Instrumentable {
         this.services = services;
         sharelibMappingFile = ConfigurationService.get(services.getConf(), SHARELIB_MAPPING_FILE);
         isShipLauncherEnabled = ConfigurationService.getBoolean(services.getConf(), SHIP_LAUNCHER_JAR);
+        isFileStatusCacheEnabled = ConfigurationService.getBoolean(services.getConf(), CACHE_FILE_STATUS);
         boolean failOnfailure = ConfigurationService.getBoolean(services.getConf(), FAIL_FAST_ON_STARTUP);
         Path launcherlibPath = getLauncherlibPath();
         HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
@@ -301,11 +310,13 @@ public class ShareLibService implements Service, Instrumentable {
      * @param rootDir the root directory
      * @param listOfPaths the list of paths
      * @param shareLibKey the share lib key
+     * @param fileStatusMap the statuses of the files and directories found
      * @return the path recursively
      * @throws IOException Signals that an I/O exception has occurred.
      */
     private void getPathRecursively(FileSystem fs, Path rootDir, List<Path> listOfPaths, String shareLibKey,
-            Map<String, Map<Path, Configuration>> shareLibConfigMap) throws IOException {
+            Map<String, Map<Path, Configuration>> shareLibConfigMap, Map<URI, FileStatus> fileStatusMap)
+            throws IOException {
         if (rootDir == null) {
             return;
         }
@@ -318,6 +329,7 @@ public class ShareLibService implements Service, Instrumentable {
                     cachePropertyFile(qualifiedRootDirPath, filePath, shareLibKey, shareLibConfigMap);
                 }
                 listOfPaths.add(qualifiedRootDirPath);
+                fileStatusMap.put(qualifiedRootDirPath.toUri(), fs.getFileStatus(filePath));
                 return;
             }
 
@@ -328,8 +340,9 @@ public class ShareLibService implements Service, Instrumentable {
             }
 
             for (FileStatus file : status) {
+                fileStatusMap.put(file.getPath().toUri(), file);
                 if (file.isDirectory()) {
-                    getPathRecursively(fs, file.getPath(), listOfPaths, shareLibKey, shareLibConfigMap);
+                    getPathRecursively(fs, file.getPath(), listOfPaths, shareLibKey, shareLibConfigMap, fileStatusMap);
                 }
                 else {
                     if (isFilePartOfConfList(file.getPath())) {
@@ -355,6 +368,57 @@ public class ShareLibService implements Service, Instrumentable {
         return symlinkMapping;
     }
 
+    /**
+     * Gets the statuses of the sharelib files and of their ancestor directories, keyed by their qualified URI.
+     * <p>
+     * The statuses are taken when the sharelib is loaded and replaced when it is updated, so they can be used to
+     * determine the timestamps, sizes and visibilities of the sharelib files shipped with a launcher without asking
+     * the NameNode again. The map is empty if {@link #CACHE_FILE_STATUS} is disabled.
+     *
+     * @return the sharelib file statuses
+     */
+    public Map<URI, FileStatus> getFileStatusCache() {
+        return fileStatusCache;
+    }
+
+    /**
+     * Creates a file status cache for a single launcher submission.
+     * <p>
+     * Lookups fall back to the sharelib file statuses, see {@link #getFileStatusCache()}, while the statuses added to
+     * the returned map are kept in it only, so creating it does not copy the sharelib statuses.
+     *
+     * @return a file status cache backed by the sharelib file statuses
+     */
+    public Map<URI, FileStatus> newFileStatusCache() {
+        return new OverlayFileStatusCache(fileStatusCache);
+    }
+
+    private Map<URI, FileStatus> createFileStatusCache(Map<URI, FileStatus> fileStatusMap) throws IOException {
+        if (!isFileStatusCacheEnabled) {
+            return Collections.emptyMap();
+        }
+        Map<URI, FileStatus> statuses = new HashMap<URI, FileStatus>();
+        for (Entry<URI, FileStatus> entry : fileStatusMap.entrySet()) {
+            if (!isLocalFile(entry.getKey().toString())) {
+                statuses.put(entry.getKey(), entry.getValue());
+            }
+        }
+        // the visibility of a file depends on the permissions of all its ancestors
+        for (URI uri : new ArrayList<URI>(statuses.keySet())) {
+            Path parent = new Path(uri).getParent();
+            while (parent != null && !statuses.containsKey(parent.toUri())) {
+                statuses.put(parent.toUri(), getHostFileSystem(parent).getFileStatus(parent));
+                parent = parent.getParent();
+            }
+        }
+        // the visibilities are looked up by path only
+        for (Entry<URI, FileStatus> entry : new ArrayList<Entry<URI, FileStatus>>(statuses.entrySet())) {
+            statuses.put(new Path(entry.getKey().getPath()).toUri(), entry.getValue());
+        }
+        LOG.info("Cached the status of [{0}] sharelib files and directories", statuses.size());
+        return Collections.unmodifiableMap(statuses);
+    }
+
     /**
      * Gets the action sharelib lib jars.
      *
@@ -395,13 +459,16 @@ public class ShareLibService implements Service, Instrumentable {
                     final Map<String, Map<Path, Path>> tmpSymlinkMapping = new HashMap<String, Map<Path, Path>>(
                             symlinkMapping);
 
+                    final Map<URI, FileStatus> tmpFileStatusMap = new HashMap<URI, FileStatus>(fileStatusCache);
+
                     LOG.info(MessageFormat.format("Symlink target for [{0}] has changed, was [{1}], now [{2}]",
                             shareLibKey, symlinkPath, symLinkTarget));
-                    loadShareLibMetaFile(tmpShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, sharelibMappingFile,
-                            shareLibKey);
+                    loadShareLibMetaFile(tmpShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, tmpFileStatusMap,
+                            sharelibMappingFile, shareLibKey);
                     shareLibMap = tmpShareLibMap;
                     symlinkMapping = tmpSymlinkMapping;
                     shareLibConfigMap = tmpShareLibConfigMap;
+                    fileStatusCache = createFileStatusCache(tmpFileStatusMap);
                     return;
                 }
             }
@@ -553,6 +620,7 @@ public class ShareLibService implements Service, Instrumentable {
     public void destroy() {
         shareLibMap.clear();
         launcherLibMap.clear();
+        fileStatusCache = Collections.emptyMap();
     }
 
     @Override
@@ -579,6 +647,7 @@ public class ShareLibService implements Service, Instrumentable {
         Map<String, List<Path>> tempShareLibMap = new HashMap<String, List<Path>>();
         Map<String, Map<Path, Path>> tmpSymlinkMapping = new HashMap<String, Map<Path, Path>>();
         Map<String, Map<Path, Configuration>> tmpShareLibConfigMap = new HashMap<String, Map<Path, Configuration>>();
+        Map<URI, FileStatus> tmpFileStatusMap = new HashMap<URI, FileStatus>();
 
         String trimmedSharelibMappingFile = sharelibMappingFile.trim();
         if (!StringUtils.isEmpty(trimmedSharelibMappingFile)) {
@@ -587,7 +656,8 @@ public class ShareLibService implements Service, Instrumentable {
             String sharelibMetaFileNewTimeStamp = JsonUtils.formatDateRfc822(
                     new Date(fileSystem.getFileStatus(new Path(sharelibMappingFile)).getModificationTime()), "GMT");
 
-            loadShareLibMetaFile(tempShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, sharelibMappingFile, null);
+            loadShareLibMetaFile(tempShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, tmpFileStatusMap,
+                    sharelibMappingFile, null);
             status.put("sharelibMetaFile", sharelibMappingFile);
             status.put("sharelibMetaFileNewTimeStamp", sharelibMetaFileNewTimeStamp);
             status.put("sharelibMetaFileOldTimeStamp", sharelibMetaFileOldTimeStamp);
@@ -596,7 +666,7 @@ public class ShareLibService implements Service, Instrumentable {
         else {
             Path shareLibpath = getLatestLibPath(services.get(WorkflowAppService.class).getSystemLibPath(),
                     SHARE_LIB_PREFIX);
-            loadShareLibfromDFS(tempShareLibMap, shareLibpath, tmpShareLibConfigMap);
+            loadShareLibfromDFS(tempShareLibMap, shareLibpath, tmpShareLibConfigMap, tmpFileStatusMap);
 
             if (shareLibpath != null) {
                 status.put("sharelibDirNew", shareLibpath.toString());
@@ -608,6 +678,7 @@ public class ShareLibService implements Service, Instrumentable {
         shareLibMap = tempShareLibMap;
         symlinkMapping = tmpSymlinkMapping;
         shareLibConfigMap = tmpShareLibConfigMap;
+        fileStatusCache = createFileStatusCache(tmpFileStatusMap);
         return status;
     }
 
@@ -616,10 +687,12 @@ public class ShareLibService implements Service, Instrumentable {
      *
      * @param shareLibMap the share lib jar map
      * @param shareLibpath the share libpath
+     * @param fileStatusMap the statuses of the sharelib files
      * @throws IOException Signals that an I/O exception has occurred.
      */
     private void loadShareLibfromDFS(Map<String, List<Path>> shareLibMap, Path shareLibpath,
-            Map<String, Map<Path, Configuration>> shareLibConfigMap) throws IOException {
+            Map<String, Map<Path, Configuration>> shareLibConfigMap, Map<URI, FileStatus> fileStatusMap)
+            throws IOException {
 
         if (shareLibpath == null) {
             LOG.info("No share lib directory found");
@@ -638,7 +711,8 @@ public class ShareLibService implements Service, Instrumentable {
                 continue;
             }
             List<Path> listOfPaths = new ArrayList<Path>();
-            getPathRecursively(fs, dir.getPath(), listOfPaths, dir.getPath().getName(), shareLibConfigMap);
+            fileStatusMap.put(dir.getPath().toUri(), dir);
+            getPathRecursively(fs, dir.getPath(), listOfPaths, dir.getPath().getName(), shareLibConfigMap, fileStatusMap);
             shareLibMap.put(dir.getPath().getName(), listOfPaths);
             LOG.info("Share lib for " + dir.getPath().getName() + ":" + listOfPaths);
 
@@ -652,14 +726,15 @@ public class ShareLibService implements Service, Instrumentable {
      *
      * @param shareLibMap the share lib jar map
      * @param symlinkMapping the symlink mapping
+     * @param fileStatusMap the statuses of the sharelib files
      * @param sharelibFileMapping the sharelib file mapping
      * @param shareLibKey the share lib key
      * @throws IOException Signals that an I/O exception has occurred.
      * @parm shareLibKey the sharelib key
      */
     private void loadShareLibMetaFile(Map<String, List<Path>> shareLibMap, Map<String, Map<Path, Path>> symlinkMapping,
-            Map<String, Map<Path, Configuration>> shareLibConfigMap, String sharelibFileMapping, String shareLibKey)
-            throws IOException {
+            Map<String, Map<Path, Configuration>> shareLibConfigMap, Map<URI, FileStatus> fileStatusMap,
+            String sharelibFileMapping, String shareLibKey) throws IOException {
 
         Path shareFileMappingPath = new Path(sharelibFileMapping);
         FileSystem filesystem = getHostFileSystem(shareFileMappingPath);
@@ -672,15 +747,15 @@ public class ShareLibService implements Service, Instrumentable {
             String mapKey = key.substring(SHARE_LIB_CONF_PREFIX.length() + 1);
             if (key.toLowerCase().startsWith(SHARE_LIB_CONF_PREFIX)
                     && (shareLibKey == null || shareLibKey.equals(mapKey))) {
-                loadSharelib(shareLibMap, symlinkMapping, shareLibConfigMap, mapKey,
+                loadSharelib(shareLibMap, symlinkMapping, shareLibConfigMap, fileStatusMap, mapKey,
                         ((String) prop.get(key)).split(","));
             }
         }
     }
 
     private void loadSharelib(Map<String, List<Path>> tmpShareLibMap, Map<String, Map<Path, Path>> tmpSymlinkMapping,
-            Map<String, Map<Path, Configuration>> shareLibConfigMap, String shareLibKey, String pathList[])
-            throws IOException {
+            Map<String, Map<Path, Configuration>> shareLibConfigMap, Map<URI, FileStatus> fileStatusMap, String shareLibKey,
+            String pathList[]) throws IOException {
         List<Path> listOfPaths = new ArrayList<Path>();
         Map<Path, Path> symlinkMappingforAction = new HashMap<Path, Path>();
 
@@ -688,7 +763,7 @@ public class ShareLibService implements Service, Instrumentable {
             Path path = new Path(pathStr);
             final FileSystem fileSystem = getHostFileSystem(pathStr);
 
-            getPathRecursively(fileSystem, path, listOfPaths, shareLibKey, shareLibConfigMap);
+            getPathRecursively(fileSystem, path, listOfPaths, shareLibKey, shareLibConfigMap, fileStatusMap);
             if (FSUtils.isSymlink(fileSystem, path)) {
                 symlinkMappingforAction.put(path, FSUtils.getSymLinkTarget(fileSystem, path));
             }
@@ -927,4 +1002,41 @@ public class ShareLibService implements Service, Instrumentable {
         String fileName = fragmentName == null ? path.getName() : fragmentName;
         return actionConfSet.contains(fileName);
     }
+
+    /**
+     * File statuses added on top of a shared, read only, map of file statuses.
+     */
+    private static class OverlayFileStatusCache extends AbstractMap<URI, FileStatus> {
+        private final Map<URI, FileStatus> shared;
+        private final Map<URI, FileStatus> added = new HashMap<URI, FileStatus>();
+
+        OverlayFileStatusCache(Map<URI, FileStatus> shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public FileStatus get(Object key) {
+            FileStatus status = added.get(key);
+            return status != null ? status : shared.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return added.containsKey(key) || shared.containsKey(key);
+        }
+
+        @Override
+        public FileStatus put(URI key, FileStatus value) {
+            FileStatus previous = get(key);
+            added.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public Set<Entry<URI, FileStatus>> entrySet() {
+            Map<URI, FileStatus> all = new HashMap<URI, FileStatus>(shared);
+            all.putAll(added);
+            return Collections.unmodifiableMap(all).entrySet();
+        }
+    }
 }
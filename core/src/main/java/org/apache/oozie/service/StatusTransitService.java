@@ -18,10 +18,13 @@
 
 package org.apache.oozie.service;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.BundleJobBean;
@@ -47,6 +50,10 @@ import org.apache.oozie.util.XLog;
  * It is to update job's status according to its child actions' status. If all child actions' pending flag equals 0 (job
  * done), we reset the job's pending flag to 0. If all child actions are succeeded, we set the job's status to
  * SUCCEEDED.
+ * <p>
+ * If {@link #CONF_DIRTY_INTERVAL} is set, the coordinator and bundle action commands mark the parent job of the
+ * actions they update, and the marked jobs are updated at that interval; the periodic run then is a safety net for the
+ * status changes made on other servers or not marked.
  */
 public class StatusTransitService implements Service {
     private static final String CONF_PREFIX = Service.CONF_PREFIX + "StatusTransitService.";
@@ -55,10 +62,14 @@ public class StatusTransitService implements Service {
             + "backward.support.for.coord.status";
     public static final String CONF_BACKWARD_SUPPORT_FOR_STATES_WITHOUT_ERROR = CONF_PREFIX
             + "backward.support.for.states.without.error";
+    public static final String CONF_DIRTY_INTERVAL = CONF_PREFIX + "dirty.interval";
     public static int limit = -1;
     public static Date lastInstanceStartTime = null;
     public final static XLog LOG = XLog.getLog(StatusTransitRunnable.class);
 
+    private static volatile Set<String> dirtyCoordIds = null;
+    private static volatile Set<String> dirtyBundleIds = null;
+
     /**
      * StateTransitRunnable is the runnable which is scheduled to run at the configured interval.
      * <p>
@@ -139,22 +150,7 @@ public class StatusTransitService implements Service {
             }
             bundleIds.addAll(bundleFailedIds);
             bundleFailedIds.clear();
-            for (final String jobId : bundleIds) {
-                try {
-                    new BundleStatusTransitXCommand(jobId).call();
-                }
-                catch (CommandException e) {
-                    // Unable to acquire lock. Will try next time
-                    if (e.getErrorCode() == ErrorCode.E0606) {
-                        bundleFailedIds.add(jobId);
-                        LOG.info("Unable to acquire lock for " + jobId + ". Will try next time");
-                    }
-                    else {
-                        LOG.error("Error running BundleStatusTransitXCommand for job " + jobId, e);
-                    }
-
-                }
-            }
+            transitBundleJobs(bundleIds, bundleFailedIds);
         }
 
         /**
@@ -187,26 +183,123 @@ public class StatusTransitService implements Service {
             }
             coordIds.addAll(coordFailedIds);
             coordFailedIds.clear();
-            for (final String coordId : coordIds) {
-                try {
-                    new CoordStatusTransitXCommand(coordId).call();
+            transitCoordJobs(coordIds, coordFailedIds);
+        }
+    }
+
+    /**
+     * DirtyJobsRunnable updates the status of the coordinator and bundle jobs marked by the action commands since its
+     * previous run.
+     */
+    public static class DirtyJobsRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                // coordinator jobs first, their status change marks their bundle
+                transitCoordJobs(drain(dirtyCoordIds), dirtyCoordIds);
+                transitBundleJobs(drain(dirtyBundleIds), dirtyBundleIds);
+            }
+            catch (Exception ex) {
+                LOG.warn("Exception happened during DirtyJobsRunnable ", ex);
+            }
+        }
+
+        private static Set<String> drain(Set<String> dirtyIds) {
+            Set<String> ids = new HashSet<String>();
+            if (dirtyIds != null) {
+                for (Iterator<String> it = dirtyIds.iterator(); it.hasNext();) {
+                    ids.add(it.next());
+                    it.remove();
                 }
-                catch (CommandException e) {
-                    // Unable to acquire lock. Will try next time
-                    if (e.getErrorCode() == ErrorCode.E0606) {
-                        coordFailedIds.add(coordId);
-                        LOG.info("Unable to acquire lock for " + coordId + ". Will try next time");
+            }
+            return ids;
+        }
+    }
 
+    /**
+     * Update the status of coordinator jobs.
+     *
+     * @param coordIds ids of the coordinator jobs.
+     * @param failedIds set the ids of the jobs which could not be locked are added to, to try next time.
+     */
+    private static void transitCoordJobs(Set<String> coordIds, Set<String> failedIds) {
+        for (final String coordId : coordIds) {
+            try {
+                new CoordStatusTransitXCommand(coordId).call();
+            }
+            catch (CommandException e) {
+                // Unable to acquire lock. Will try next time
+                if (e.getErrorCode() == ErrorCode.E0606) {
+                    if (failedIds != null) {
+                        failedIds.add(coordId);
                     }
-                    else {
-                        LOG.error("Error running CoordStatusTransitXCommand for job " + coordId, e);
-                    }
+                    LOG.info("Unable to acquire lock for " + coordId + ". Will try next time");
 
                 }
+                else {
+                    LOG.error("Error running CoordStatusTransitXCommand for job " + coordId, e);
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Update the status of bundle jobs.
+     *
+     * @param bundleIds ids of the bundle jobs.
+     * @param failedIds set the ids of the jobs which could not be locked are added to, to try next time.
+     */
+    private static void transitBundleJobs(Set<String> bundleIds, Set<String> failedIds) {
+        for (final String jobId : bundleIds) {
+            try {
+                new BundleStatusTransitXCommand(jobId).call();
+            }
+            catch (CommandException e) {
+                // Unable to acquire lock. Will try next time
+                if (e.getErrorCode() == ErrorCode.E0606) {
+                    if (failedIds != null) {
+                        failedIds.add(jobId);
+                    }
+                    LOG.info("Unable to acquire lock for " + jobId + ". Will try next time");
+                }
+                else {
+                    LOG.error("Error running BundleStatusTransitXCommand for job " + jobId, e);
+                }
+
             }
         }
     }
 
+    /**
+     * Mark a coordinator job to have its status updated by the next {@link DirtyJobsRunnable} run.
+     * <p>
+     * It does nothing if {@link #CONF_DIRTY_INTERVAL} is not set.
+     *
+     * @param coordId id of the coordinator job.
+     */
+    public static void markCoordJob(String coordId) {
+        Set<String> ids = dirtyCoordIds;
+        if (ids != null && coordId != null) {
+            ids.add(coordId);
+        }
+    }
+
+    /**
+     * Mark a bundle job to have its status updated by the next {@link DirtyJobsRunnable} run.
+     * <p>
+     * It does nothing if {@link #CONF_DIRTY_INTERVAL} is not set.
+     *
+     * @param bundleId id of the bundle job.
+     */
+    public static void markBundleJob(String bundleId) {
+        Set<String> ids = dirtyBundleIds;
+        if (ids != null && bundleId != null) {
+            ids.add(bundleId);
+        }
+    }
+
     /**
      * Initializes the {@link StatusTransitService}.
      *
@@ -218,6 +311,13 @@ public class StatusTransitService implements Service {
         Runnable stateTransitRunnable = new StatusTransitRunnable();
         services.get(SchedulerService.class).schedule(stateTransitRunnable, 10,
                 ConfigurationService.getInt(conf, CONF_STATUSTRANSIT_INTERVAL), SchedulerService.Unit.SEC);
+        int dirtyInterval = ConfigurationService.getInt(conf, CONF_DIRTY_INTERVAL);
+        if (dirtyInterval > 0) {
+            dirtyCoordIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            dirtyBundleIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            services.get(SchedulerService.class).schedule(new DirtyJobsRunnable(), 10, dirtyInterval,
+                    SchedulerService.Unit.SEC);
+        }
     }
 
     /**
@@ -225,6 +325,8 @@ public class StatusTransitService implements Service {
      */
     @Override
     public void destroy() {
+        dirtyCoordIds = null;
+        dirtyBundleIds = null;
     }
 
     /**
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.lock.MemoryLocks;
+import org.apache.oozie.lock.StripedMemoryLocks;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Service that provides in-memory locks over a fixed-size table of lock stripes, see {@link StripedMemoryLocks}. Assumes
+ * no other Oozie servers are using the database.
+ * <p>
+ * It is enabled by adding it to <code>oozie.services.ext</code>, replacing the {@link MemoryLocksService}.
+ * <p>
+ * The number of contended acquisitions of every stripe is exposed as an histogram under the <code>locks</code>
+ * instrumentation group: the number of stripes with no contention, 1 to 9, 10 to 99, 100 to 999 and 1000 or more
+ * contended acquisitions.
+ */
+public class StripedMemoryLocksService extends MemoryLocksService implements Service, Instrumentable {
+
+    private static final XLog LOG = XLog.getLog(StripedMemoryLocksService.class);
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "StripedMemoryLocksService.";
+    public static final String CONF_STRIPES = CONF_PREFIX + "stripes";
+    public static final String CONF_FAIR = CONF_PREFIX + "fair";
+
+    private static final long[] HISTOGRAM_BOUNDS = {1, 10, 100, 1000};
+    private static final String[] HISTOGRAM_NAMES = {"stripes.contended.0", "stripes.contended.1-9",
+            "stripes.contended.10-99", "stripes.contended.100-999", "stripes.contended.1000+"};
+
+    @Override
+    protected MemoryLocks createMemoryLocks(Services services) {
+        Configuration conf = services.getConf();
+        int stripes = ConfigurationService.getInt(conf, CONF_STRIPES);
+        boolean fair = ConfigurationService.getBoolean(conf, CONF_FAIR);
+        StripedMemoryLocks locks = new StripedMemoryLocks(stripes, fair);
+        LOG.info("Using [{0}] lock stripes, fair [{1}]", locks.getStripes(), fair);
+        return locks;
+    }
+
+    /**
+     * Instruments the striped memory locks service.
+     *
+     * @param instr instance to instrument the memory locks service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        super.instrument(instr);
+        final StripedMemoryLocks finalLocks = (StripedMemoryLocks) getMemoryLocks();
+        instr.addVariable(INSTRUMENTATION_GROUP, "stripes", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) finalLocks.getStripes();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "stripes.contended", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                long total = 0;
+                for (long count : finalLocks.getContention()) {
+                    total += count;
+                }
+                return total;
+            }
+        });
+        for (int i = 0; i < HISTOGRAM_NAMES.length; i++) {
+            final int bucket = i;
+            instr.addVariable(INSTRUMENTATION_GROUP, HISTOGRAM_NAMES[i], new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return getContentionHistogram(finalLocks.getContention())[bucket];
+                }
+            });
+        }
+    }
+
+    /**
+     * Return the histogram of the contended acquisitions of the stripes.
+     *
+     * @param contention number of contended acquisitions, indexed by stripe.
+     * @return number of stripes in every bucket of the histogram.
+     */
+    static long[] getContentionHistogram(long[] contention) {
+        long[] histogram = new long[HISTOGRAM_BOUNDS.length + 1];
+        for (long count : contention) {
+            int bucket = 0;
+            while (bucket < HISTOGRAM_BOUNDS.length && count >= HISTOGRAM_BOUNDS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+        }
+        return histogram;
+    }
+}
@@ -129,11 +129,7 @@ public abstract class WorkflowAppService implements Service {
                 throw new WorkflowException(ErrorCode.E0736, fsStatus.getLen(), this.maxWFLength);
             }
 
-            Reader reader = new InputStreamReader(fs.open(path));
-            StringWriter writer = new StringWriter();
-            IOUtils.copyCharStream(reader, writer);
-            return writer.toString();
-
+            return readDefinition(user, fs, fsStatus);
         }
         catch (WorkflowException wfe) {
             throw wfe;
@@ -151,6 +147,23 @@ public abstract class WorkflowAppService implements Service {
             throw new WorkflowException(ErrorCode.E0710, ex.getMessage(), ex);
         }
     }
+
+    /**
+     * Read the workflow definition file.
+     *
+     * @param user user name.
+     * @param fs file system of the definition file, for the user.
+     * @param fsStatus status of the definition file.
+     * @return workflow definition.
+     * @throws IOException thrown if the definition could not be read.
+     */
+    protected String readDefinition(String user, FileSystem fs, FileStatus fsStatus) throws IOException {
+        Reader reader = new InputStreamReader(fs.open(fsStatus.getPath()));
+        StringWriter writer = new StringWriter();
+        IOUtils.copyCharStream(reader, writer);
+        return writer.toString();
+    }
+
     /**
      * Create proto configuration. <p> The proto configuration includes the user,group and the paths which need to be
      * added to distributed cache. These paths include .jar,.so and the resource file paths.
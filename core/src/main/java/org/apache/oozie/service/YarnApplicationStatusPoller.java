@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+import org.apache.hadoop.yarn.client.api.YarnClient;
+import org.apache.oozie.action.hadoop.JavaActionExecutor;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Polls the ResourceManagers for the launchers of the running workflow actions in batch.
+ * <p>
+ * The outstanding actions are grouped by ResourceManager, each group costs a single <code>getApplications</code> call
+ * listing the live Oozie launchers of all the users instead of one <code>getApplicationReport</code> call per action.
+ * The calls are made as the Oozie server user. The {@link YarnClient} of a ResourceManager is kept for the next poll,
+ * and closed once the ResourceManager has no more outstanding actions.
+ */
+class YarnApplicationStatusPoller {
+
+    static final String INSTR_RM_CALLS_COUNTER = "yarn.rm.calls";
+    static final String INSTR_RM_CALL_ERRORS_COUNTER = "yarn.rm.call.errors";
+    static final String INSTR_CLIENTS_CREATED_COUNTER = "yarn.clients.created";
+    static final String INSTR_CLIENTS_REUSED_COUNTER = "yarn.clients.reused";
+
+    private static final EnumSet<YarnApplicationState> LIVE_STATES = EnumSet.of(YarnApplicationState.NEW,
+            YarnApplicationState.NEW_SAVING, YarnApplicationState.SUBMITTED, YarnApplicationState.ACCEPTED,
+            YarnApplicationState.RUNNING);
+    private static final String APPLICATION_PREFIX = "application_";
+
+    private static final XLog LOG = XLog.getLog(YarnApplicationStatusPoller.class);
+
+    private final Map<String, YarnClient> clients = new HashMap<String, YarnClient>();
+
+    /**
+     * Find the actions whose launcher is still live according to its ResourceManager. Checking these actions can be
+     * skipped, the launchers which ended (or could not be polled) are left to the regular action check.
+     *
+     * @param actions running actions as <code>[action id, tracker uri, external id]</code> arrays
+     * @param instr instrumentation to report the calls and client reuse to, may be null
+     * @return the ids of the actions with a live launcher
+     */
+    synchronized Set<String> getLiveActions(List<Object[]> actions, Instrumentation instr) {
+        Map<String, List<Object[]>> groups = new HashMap<String, List<Object[]>>();
+        for (Object[] action : actions) {
+            String rm = (String) action[1];
+            String externalId = (String) action[2];
+            if (rm == null || externalId == null || !externalId.startsWith(APPLICATION_PREFIX)) {
+                continue;
+            }
+            List<Object[]> group = groups.get(rm);
+            if (group == null) {
+                group = new ArrayList<Object[]>();
+                groups.put(rm, group);
+            }
+            group.add(action);
+        }
+
+        Set<String> liveActions = new HashSet<String>();
+        for (Map.Entry<String, List<Object[]>> entry : groups.entrySet()) {
+            String rm = entry.getKey();
+            List<Object[]> group = entry.getValue();
+            try {
+                YarnClient yarnClient = clients.get(rm);
+                if (yarnClient == null) {
+                    yarnClient = createYarnClient(rm);
+                    clients.put(rm, yarnClient);
+                    incr(instr, INSTR_CLIENTS_CREATED_COUNTER);
+                }
+                else {
+                    incr(instr, INSTR_CLIENTS_REUSED_COUNTER);
+                }
+                incr(instr, INSTR_RM_CALLS_COUNTER);
+                List<ApplicationReport> reports = yarnClient.getApplications(
+                        Collections.singleton(JavaActionExecutor.LAUNCHER_APPLICATION_TYPE), LIVE_STATES);
+                Set<String> liveApplications = new HashSet<String>(reports.size());
+                for (ApplicationReport report : reports) {
+                    liveApplications.add(report.getApplicationId().toString());
+                }
+                for (Object[] action : group) {
+                    if (liveApplications.contains(action[2])) {
+                        liveActions.add((String) action[0]);
+                    }
+                }
+            }
+            catch (Exception ex) {
+                LOG.warn("Could not poll the applications from ResourceManager [{0}], the actions will be checked one by"
+                        + " one: {1}", rm, ex.getMessage(), ex);
+                incr(instr, INSTR_RM_CALL_ERRORS_COUNTER);
+                IOUtils.closeQuietly(clients.remove(rm));
+            }
+        }
+
+        // release the clients of the ResourceManagers without outstanding actions
+        Iterator<Map.Entry<String, YarnClient>> it = clients.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, YarnClient> client = it.next();
+            if (!groups.containsKey(client.getKey())) {
+                IOUtils.closeQuietly(client.getValue());
+                it.remove();
+            }
+        }
+        return liveActions;
+    }
+
+    YarnClient createYarnClient(String rm) throws HadoopAccessorException, IOException {
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        Configuration conf = has.createConfiguration(rm);
+        conf.set(JavaActionExecutor.HADOOP_YARN_RM, rm);
+        return has.createYarnClient(UserGroupInformation.getLoginUser().getShortUserName(), conf);
+    }
+
+    synchronized void destroy() {
+        for (YarnClient yarnClient : clients.values()) {
+            IOUtils.closeQuietly(yarnClient);
+        }
+        clients.clear();
+    }
+
+    private static void incr(Instrumentation instr, String counter) {
+        if (instr != null) {
+            instr.incr(ActionCheckerService.INSTRUMENTATION_GROUP, counter, 1);
+        }
+    }
+}
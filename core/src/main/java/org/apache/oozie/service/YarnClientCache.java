@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.yarn.client.api.impl.YarnClientImpl;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * A bounded cache of started YARN clients, used by the {@link HadoopAccessorService}.
+ * <p>
+ * Clients are keyed by user, ResourceManager address and configuration digest, and shared by reference counting:
+ * closing a {@link CachedYarnClient} releases it back to the cache instead of stopping it. Clients not referenced for
+ * the idle timeout are stopped, as is the least recently used unreferenced client when a new one does not fit. When
+ * every cached client is in use, or once the cache is destroyed, new clients are stopped on their last close as
+ * usual.
+ */
+class YarnClientCache {
+
+    static final String INSTRUMENTATION_GROUP = "hadoopaccessor";
+    static final String INSTR_BUILT_COUNTER = "yarn.client.built";
+    static final String INSTR_REUSED_COUNTER = "yarn.client.reused";
+    static final String INSTR_EVICTED_COUNTER = "yarn.client.evicted";
+
+    private static final XLog LOG = XLog.getLog(YarnClientCache.class);
+
+    private final int maxSize;
+    private final long idleTimeout;
+    // in access order, the eldest entry is the least recently used client
+    private final Map<String, CachedYarnClient> clients = new LinkedHashMap<String, CachedYarnClient>(16, 0.75f, true);
+    private boolean destroyed;
+
+    /**
+     * A started YARN client shared through the cache, {@link #stop()} (and so {@link #close()}) releases it.
+     */
+    static class CachedYarnClient extends YarnClientImpl {
+        private final YarnClientCache cache;
+        private final String key;
+        private int references = 1;
+        private long lastReleased;
+        private boolean evicted;
+
+        CachedYarnClient(YarnClientCache cache, String key) {
+            this.cache = cache;
+            this.key = key;
+        }
+
+        @Override
+        public void stop() {
+            cache.release(this);
+        }
+
+        private void shutdown() {
+            try {
+                super.stop();
+            }
+            catch (RuntimeException ex) {
+                LOG.warn("Could not stop YARN client [{0}]: {1}", key, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    YarnClientCache(int maxSize, long idleTimeout) {
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Get a started client from the cache, its reference count is incremented.
+     *
+     * @param key cache key
+     * @return the cached client, null if there is none for the key
+     */
+    synchronized CachedYarnClient acquire(String key) {
+        CachedYarnClient client = destroyed ? null : clients.get(key);
+        if (client != null) {
+            client.references++;
+            incr(INSTR_REUSED_COUNTER);
+        }
+        return client;
+    }
+
+    /**
+     * Add a newly started client to the cache, holding a single reference.
+     * <p>
+     * If another client was added for the key meanwhile, that one is acquired and the new client stopped.
+     *
+     * @param client the new client
+     * @return the client to use
+     */
+    CachedYarnClient add(CachedYarnClient client) {
+        List<CachedYarnClient> stopped = new ArrayList<CachedYarnClient>();
+        CachedYarnClient result = client;
+        synchronized (this) {
+            incr(INSTR_BUILT_COUNTER);
+            CachedYarnClient existing = destroyed ? null : clients.get(client.key);
+            if (existing != null) {
+                existing.references++;
+                client.evicted = true;
+                client.references = 0;
+                stopped.add(client);
+                result = existing;
+            }
+            else if (destroyed || (clients.size() >= maxSize && !evictEldest(stopped))) {
+                // not cached, stopped by its last release
+                client.evicted = true;
+            }
+            else {
+                clients.put(client.key, client);
+            }
+        }
+        shutdown(stopped);
+        return result;
+    }
+
+    private void release(CachedYarnClient client) {
+        boolean stop = false;
+        synchronized (this) {
+            if (client.references < 0) {
+                // already stopped
+                return;
+            }
+            client.references = Math.max(0, client.references - 1);
+            client.lastReleased = System.currentTimeMillis();
+            if (client.evicted && client.references == 0) {
+                client.references = -1;
+                stop = true;
+            }
+        }
+        if (stop) {
+            client.shutdown();
+        }
+    }
+
+    private boolean evictEldest(List<CachedYarnClient> stopped) {
+        Iterator<CachedYarnClient> it = clients.values().iterator();
+        while (it.hasNext()) {
+            CachedYarnClient client = it.next();
+            if (client.references == 0) {
+                it.remove();
+                evict(client, stopped);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evict(CachedYarnClient client, List<CachedYarnClient> stopped) {
+        client.evicted = true;
+        if (client.references == 0) {
+            client.references = -1;
+            stopped.add(client);
+        }
+        incr(INSTR_EVICTED_COUNTER);
+    }
+
+    /**
+     * Stop the clients not referenced for the idle timeout.
+     */
+    void evictIdle() {
+        List<CachedYarnClient> stopped = new ArrayList<CachedYarnClient>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Iterator<CachedYarnClient> it = clients.values().iterator();
+            while (it.hasNext()) {
+                CachedYarnClient client = it.next();
+                if (client.references == 0 && now - client.lastReleased >= idleTimeout) {
+                    it.remove();
+                    evict(client, stopped);
+                }
+            }
+        }
+        shutdown(stopped);
+    }
+
+    synchronized int size() {
+        return clients.size();
+    }
+
+    /**
+     * Stop the unreferenced clients, the referenced ones are stopped on their last release.
+     */
+    void destroy() {
+        List<CachedYarnClient> stopped = new ArrayList<CachedYarnClient>();
+        synchronized (this) {
+            destroyed = true;
+            for (CachedYarnClient client : clients.values()) {
+                evict(client, stopped);
+            }
+            clients.clear();
+        }
+        shutdown(stopped);
+    }
+
+    private void shutdown(List<CachedYarnClient> stopped) {
+        for (CachedYarnClient client : stopped) {
+            client.shutdown();
+        }
+    }
+
+    private void incr(String counter) {
+        Services services = Services.get();
+        InstrumentationService instrService = services == null ? null : services.get(InstrumentationService.class);
+        Instrumentation instr = instrService == null ? null : instrService.get();
+        if (instr != null) {
+            instr.incr(INSTRUMENTATION_GROUP, counter, 1);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.JobsFilterUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
 
 public abstract class BaseJobsServlet extends JsonRestServlet {
 
@@ -120,7 +121,7 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
         }
         else {
             stopCron();
-            JSONObject json = getJobs(request);
+            JSONStreamAware json = getJobs(request);
             startCron();
             sendJsonResponse(response, HttpServletResponse.SC_OK, json);
         }
@@ -242,11 +243,11 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
      * abstract method to get a list of workflow jobs
      *
      * @param request
-     * @return JSONObject of the requested jobs
+     * @return JSON representation of the requested jobs
      * @throws XServletException
      * @throws IOException
      */
-    abstract JSONObject getJobs(HttpServletRequest request)
+    abstract JSONStreamAware getJobs(HttpServletRequest request)
     throws XServletException, IOException;
 
 }
@@ -20,6 +20,8 @@ package org.apache.oozie.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -32,32 +34,49 @@ import org.apache.oozie.BaseEngineException;
 import org.apache.oozie.BulkResponseInfo;
 import org.apache.oozie.BundleEngine;
 import org.apache.oozie.BundleEngineException;
+import org.apache.oozie.BundleJobBean;
 import org.apache.oozie.BundleJobInfo;
 import org.apache.oozie.CoordinatorEngine;
 import org.apache.oozie.CoordinatorEngineException;
+import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.CoordinatorJobInfo;
 import org.apache.oozie.DagEngine;
 import org.apache.oozie.DagEngineException;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.OozieJsonFactory;
+import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
 import org.apache.oozie.cli.OozieCLI;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.rest.BulkResponseImpl;
+import org.apache.oozie.client.rest.JsonBean;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.BundleEngineService;
+import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.CoordinatorEngineService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XmlUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
 
 public class V1JobsServlet extends BaseJobsServlet {
 
     private static final String INSTRUMENTATION_NAME = "v1jobs";
+
+    /**
+     * Maximum number of jobs a jobs listing can request, 0 for no maximum.
+     */
+    public static final String CONF_JOBS_MAX_LEN = "oozie.servlet.V1JobsServlet.jobs.max.len";
+
+    /**
+     * Number of jobs a jobs listing loads from the database at a time while it writes them.
+     */
+    public static final String CONF_JOBS_FETCH_SIZE = "oozie.servlet.V1JobsServlet.jobs.fetch.size";
     private static final Set<String> httpJobType = new HashSet<String>(){{
         this.add(OozieCLI.HIVE_CMD);
         this.add(OozieCLI.SQOOP_CMD);
@@ -108,6 +127,104 @@ public class V1JobsServlet extends BaseJobsServlet {
         return json;
     }
 
+    /**
+     * Return the number of jobs to list, 50 if the requested one is not positive.
+     *
+     * @throws XServletException thrown if the requested number is above {@link #CONF_JOBS_MAX_LEN}
+     */
+    private static int getListingLen(int len) throws XServletException {
+        int maxLen = ConfigurationService.getInt(CONF_JOBS_MAX_LEN);
+        if (maxLen > 0 && len > maxLen) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303, RestConstants.LEN_PARAM,
+                    len);
+        }
+        return (len < 1) ? 50 : len;
+    }
+
+    /**
+     * Return the position after which the jobs are listed, <code>null</code> if no page token is given.
+     */
+    private static JobsKeyset getPageToken(HttpServletRequest request) throws XServletException {
+        String token = request.getParameter(RestConstants.PAGE_TOKEN_PARAM);
+        try {
+            return (token != null) ? JobsKeyset.fromToken(token) : null;
+        }
+        catch (IllegalArgumentException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303,
+                    RestConstants.PAGE_TOKEN_PARAM, token);
+        }
+    }
+
+    /**
+     * Return whether a jobs filter leaves the listing in the default order, which a page token can continue.
+     */
+    private static boolean isDefaultOrder(String filter) {
+        if (filter != null) {
+            for (String token : filter.split(";")) {
+                String name = token.split("=", 2)[0].trim();
+                if (name.equalsIgnoreCase(OozieClient.FILTER_SORT_BY)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the position of a job, <code>null</code> if it has no creation time.
+     */
+    private static JobsKeyset getKeyset(Date createdTime, String id) {
+        return (createdTime != null) ? new JobsKeyset(createdTime, id) : null;
+    }
+
+    /**
+     * Return the number of jobs to load at a time for a listing.
+     */
+    private static int getFetchSize(int len) {
+        return Math.max(1, Math.min(len, ConfigurationService.getInt(CONF_JOBS_FETCH_SIZE)));
+    }
+
+    /**
+     * Loader of the chunks of a jobs listing. A listing in the default order continues after the position of the last
+     * job written, so it is not shifted by the jobs created meanwhile, and can be continued with a page token. Other
+     * listings continue at the offset of the next job.
+     */
+    private abstract static class ListingLoader implements OozieJsonFactory.JobsLoader {
+        private final boolean keyset;
+        private final int start;
+
+        ListingLoader(boolean keyset, int start) {
+            this.keyset = keyset;
+            this.start = start;
+        }
+
+        protected abstract JobsKeyset getKeyset(JsonBean job);
+
+        protected abstract List<? extends JsonBean> loadAfter(JobsKeyset after, int count) throws BaseEngineException;
+
+        protected abstract List<? extends JsonBean> loadAt(int offset, int count) throws BaseEngineException;
+
+        @Override
+        public List<? extends JsonBean> load(JsonBean last, int written, int count) throws IOException {
+            try {
+                if (keyset) {
+                    JobsKeyset after = getKeyset(last);
+                    return (after != null) ? loadAfter(after, count) : Collections.<JsonBean>emptyList();
+                }
+                return loadAt(start + written, count);
+            }
+            catch (BaseEngineException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public String getPageToken(JsonBean last) {
+            JobsKeyset after = keyset ? getKeyset(last) : null;
+            return (after != null) ? after.toToken() : null;
+        }
+    }
+
     /**
      * v1 service implementation to get a JSONObject representation of a job from its external ID
      */
@@ -138,8 +255,8 @@ public class V1JobsServlet extends BaseJobsServlet {
      * windows embedded in the request object
      */
     @Override
-    protected JSONObject getJobs(HttpServletRequest request) throws XServletException, IOException {
-        JSONObject json = null;
+    protected JSONStreamAware getJobs(HttpServletRequest request) throws XServletException, IOException {
+        JSONStreamAware json = null;
         String isBulk = request.getParameter(RestConstants.JOBS_BULK_PARAM);
         if(isBulk != null) {
             json = getBulkJobs(request);
@@ -305,8 +422,8 @@ public class V1JobsServlet extends BaseJobsServlet {
      * v1 service implementation to get a list of workflows, with filtering or interested windows embedded in the
      * request object
      */
-    private JSONObject getWorkflowJobs(HttpServletRequest request) throws XServletException {
-        JSONObject json;
+    private JSONStreamAware getWorkflowJobs(HttpServletRequest request) throws XServletException {
+        JSONStreamAware json;
         try {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -316,10 +433,29 @@ public class V1JobsServlet extends BaseJobsServlet {
             int start = (startStr != null) ? Integer.parseInt(startStr) : 1;
             start = (start < 1) ? 1 : start;
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
-            len = (len < 1) ? 50 : len;
-            DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(getUser(request));
-            WorkflowsInfo jobs = dagEngine.getJobs(filter, start, len);
-            json = OozieJsonFactory.getWFJSONObject(jobs, timeZoneId);
+            len = getListingLen(len);
+            JobsKeyset after = getPageToken(request);
+            int fetchSize = getFetchSize(len);
+            final DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(getUser(request));
+            WorkflowsInfo jobs = (after == null) ? dagEngine.getJobs(filter, start, fetchSize)
+                    : dagEngine.getJobs(filter, after, fetchSize);
+            json = OozieJsonFactory.getWFJSONStream(jobs, len,
+                    new ListingLoader(after != null || isDefaultOrder(filter), start) {
+                @Override
+                protected JobsKeyset getKeyset(JsonBean job) {
+                    return V1JobsServlet.getKeyset(((WorkflowJobBean) job).getCreatedTime(), ((WorkflowJobBean) job).getId());
+                }
+
+                @Override
+                protected List<? extends JsonBean> loadAfter(JobsKeyset after, int count) throws BaseEngineException {
+                    return dagEngine.getJobs(filter, after, count).getWorkflows();
+                }
+
+                @Override
+                protected List<? extends JsonBean> loadAt(int offset, int count) throws BaseEngineException {
+                    return dagEngine.getJobs(filter, offset, count).getWorkflows();
+                }
+            }, timeZoneId);
         }
         catch (DagEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
@@ -333,8 +469,8 @@ public class V1JobsServlet extends BaseJobsServlet {
      * request object
      */
     @SuppressWarnings("unchecked")
-    private JSONObject getCoordinatorJobs(HttpServletRequest request) throws XServletException {
-        JSONObject json;
+    private JSONStreamAware getCoordinatorJobs(HttpServletRequest request) throws XServletException {
+        JSONStreamAware json;
         try {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -344,11 +480,31 @@ public class V1JobsServlet extends BaseJobsServlet {
             int start = (startStr != null) ? Integer.parseInt(startStr) : 1;
             start = (start < 1) ? 1 : start;
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
-            len = (len < 1) ? 50 : len;
-            CoordinatorEngine coordEngine = Services.get().get(CoordinatorEngineService.class).getCoordinatorEngine(
-                    getUser(request));
-            CoordinatorJobInfo jobs = coordEngine.getCoordJobs(filter, start, len);
-            json = OozieJsonFactory.getCoordJSONObject(jobs, timeZoneId);
+            len = getListingLen(len);
+            JobsKeyset after = getPageToken(request);
+            int fetchSize = getFetchSize(len);
+            final CoordinatorEngine coordEngine = Services.get().get(CoordinatorEngineService.class)
+                    .getCoordinatorEngine(getUser(request));
+            CoordinatorJobInfo jobs = (after == null) ? coordEngine.getCoordJobs(filter, start, fetchSize)
+                    : coordEngine.getCoordJobs(filter, after, fetchSize);
+            json = OozieJsonFactory.getCoordJSONStream(jobs, len,
+                    new ListingLoader(after != null || isDefaultOrder(filter), start) {
+                @Override
+                protected JobsKeyset getKeyset(JsonBean job) {
+                    return V1JobsServlet.getKeyset(((CoordinatorJobBean) job).getCreatedTime(),
+                            ((CoordinatorJobBean) job).getId());
+                }
+
+                @Override
+                protected List<? extends JsonBean> loadAfter(JobsKeyset after, int count) throws BaseEngineException {
+                    return coordEngine.getCoordJobs(filter, after, count).getCoordJobs();
+                }
+
+                @Override
+                protected List<? extends JsonBean> loadAt(int offset, int count) throws BaseEngineException {
+                    return coordEngine.getCoordJobs(filter, offset, count).getCoordJobs();
+                }
+            }, timeZoneId);
         }
         catch (CoordinatorEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
@@ -357,8 +513,8 @@ public class V1JobsServlet extends BaseJobsServlet {
     }
 
     @SuppressWarnings("unchecked")
-    private JSONObject getBundleJobs(HttpServletRequest request) throws XServletException {
-        JSONObject json;
+    private JSONStreamAware getBundleJobs(HttpServletRequest request) throws XServletException {
+        JSONStreamAware json;
         try {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -368,11 +524,31 @@ public class V1JobsServlet extends BaseJobsServlet {
             int start = (startStr != null) ? Integer.parseInt(startStr) : 1;
             start = (start < 1) ? 1 : start;
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
-            len = (len < 1) ? 50 : len;
+            len = getListingLen(len);
+            JobsKeyset after = getPageToken(request);
+            int fetchSize = getFetchSize(len);
+
+            final BundleEngine bundleEngine = Services.get().get(BundleEngineService.class)
+                    .getBundleEngine(getUser(request));
+            BundleJobInfo jobs = (after == null) ? bundleEngine.getBundleJobs(filter, start, fetchSize)
+                    : bundleEngine.getBundleJobs(filter, after, fetchSize);
+            json = OozieJsonFactory.getBundleJSONStream(jobs, len,
+                    new ListingLoader(after != null || isDefaultOrder(filter), start) {
+                @Override
+                protected JobsKeyset getKeyset(JsonBean job) {
+                    return V1JobsServlet.getKeyset(((BundleJobBean) job).getCreatedTime(), ((BundleJobBean) job).getId());
+                }
 
-            BundleEngine bundleEngine = Services.get().get(BundleEngineService.class).getBundleEngine(getUser(request));
-            BundleJobInfo jobs = bundleEngine.getBundleJobs(filter, start, len);
-            json = OozieJsonFactory.getBundleJSONObject(jobs, timeZoneId);
+                @Override
+                protected List<? extends JsonBean> loadAfter(JobsKeyset after, int count) throws BaseEngineException {
+                    return bundleEngine.getBundleJobs(filter, after, count).getBundleJobs();
+                }
+
+                @Override
+                protected List<? extends JsonBean> loadAt(int offset, int count) throws BaseEngineException {
+                    return bundleEngine.getBundleJobs(filter, offset, count).getBundleJobs();
+                }
+            }, timeZoneId);
         }
         catch (BundleEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
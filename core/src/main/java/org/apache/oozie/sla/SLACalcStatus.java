@@ -28,37 +28,44 @@ import org.apache.oozie.client.event.SLAEvent;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.XLog;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 /**
  * Class used by SLAService to store SLA objects and perform calculations and
  * sla decisions
+ * <p>
+ * An instance is kept in memory for every job tracked by the SLA calculator, to keep them small times are stored as
+ * epoch milliseconds, only the registration fields the calculator reads are kept and the low-cardinality strings
+ * repeated across jobs (status, user and alert events) are shared.
  */
 public class SLACalcStatus extends SLAEvent {
 
     public static String SLA_ENTITYKEY_PREFIX = "sla-";
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+    private static final long NO_TIME = Long.MIN_VALUE;
     private SLARegistrationBean regBean;
-    private SLASummaryBean summary;
+    private boolean registrationLoaded;
     private String jobStatus;
     private SLAStatus slaStatus;
     private EventStatus eventStatus;
-    private Date actualStart;
-    private Date actualEnd;
+    private long actualStart = NO_TIME;
+    private long actualEnd = NO_TIME;
     private long actualDuration = -1;
-    private Date lastModifiedTime;
+    private long lastModifiedTime = NO_TIME;
     private byte eventProcessed;
     private String jobId;
 
-    private XLog LOG;
-
     public SLACalcStatus(SLARegistrationBean reg) {
         this();
         setSLARegistrationBean(reg);
-        LOG = LogUtils.setLogPrefix(LOG, this);
+        setLogPrefix();
     }
 
     public SLACalcStatus(SLASummaryBean summary, SLARegistrationBean regBean) {
         this(summary);
         updateSLARegistrationBean(regBean);
-        LOG = LogUtils.setLogPrefix(LOG, this);
+        setLogPrefix();
     }
 
     public SLACalcStatus(SLASummaryBean summary) {
@@ -72,7 +79,17 @@ public class SLACalcStatus extends SLAEvent {
         setLastModifiedTime(summary.getLastModifiedTime());
         setEventProcessed(summary.getEventProcessed());
         setId(summary.getId());
-        this.summary = summary;
+        SLARegistrationBean reg = new SLARegistrationBean();
+        reg.setId(summary.getId());
+        reg.setAppType(summary.getAppType());
+        reg.setUser(intern(summary.getUser()));
+        reg.setAppName(summary.getAppName());
+        reg.setParentId(summary.getParentId());
+        reg.setNominalTime(summary.getNominalTime());
+        reg.setExpectedStart(summary.getExpectedStart());
+        reg.setExpectedEnd(summary.getExpectedEnd());
+        reg.setExpectedDuration(summary.getExpectedDuration());
+        this.regBean = reg;
     }
 
     /**
@@ -80,7 +97,9 @@ public class SLACalcStatus extends SLAEvent {
      */
     public SLACalcStatus(SLACalcStatus a) {
         this();
-        setSLARegistrationBean(a.getSLARegistrationBean());
+        this.jobId = a.jobId;
+        this.regBean = a.regBean;
+        this.registrationLoaded = a.registrationLoaded;
         setJobStatus(a.getJobStatus());
         setSLAStatus(a.getSLAStatus());
         setEventStatus(a.getEventStatus());
@@ -88,28 +107,55 @@ public class SLACalcStatus extends SLAEvent {
         setActualEnd(a.getActualEnd());
         setActualDuration(a.getActualDuration());
         setEventProcessed(a.getEventProcessed());
-        LOG = LogUtils.setLogPrefix(LOG, this);
+        setLogPrefix();
     }
 
     public SLACalcStatus() {
         setMsgType(MessageType.SLA);
         setLastModifiedTime(new Date());
-        LOG = XLog.getLog(getClass());
     }
 
-    public SLARegistrationBean getSLARegistrationBean() {
-        return regBean;
+    private void setLogPrefix() {
+        // only sets the log info of the thread, no logger is kept per instance
+        LogUtils.setLogPrefix(XLog.getLog(getClass()), this);
+    }
+
+    private static String intern(String str) {
+        return (str == null) ? null : STRINGS.intern(str);
+    }
+
+    private static long toMillis(Date date) {
+        return (date == null) ? NO_TIME : date.getTime();
     }
 
-    public SLASummaryBean getSLASummaryBean() {
-        return summary;
+    private static Date toDate(long millis) {
+        return (millis == NO_TIME) ? null : new Date(millis);
     }
 
+    /**
+     * Get the registration of the job
+     *
+     * @return the registration, null if it has not been loaded yet after a restart
+     */
+    public SLARegistrationBean getSLARegistrationBean() {
+        return registrationLoaded ? regBean : null;
+    }
+
+    /**
+     * Set the registration of the job, setting null marks it for reload while keeping the fields read from the summary
+     *
+     * @param slaBean the registration
+     */
     public void setSLARegistrationBean(SLARegistrationBean slaBean) {
         if (slaBean != null) {
             this.jobId = slaBean.getId();
+            slaBean.setUser(intern(slaBean.getUser()));
+            if (slaBean.getAlertEvents() != null) {
+                slaBean.setAlertEvents(intern(slaBean.getAlertEvents()));
+            }
+            this.regBean = slaBean;
         }
-        this.regBean = slaBean;
+        this.registrationLoaded = slaBean != null;
     }
 
     @Override
@@ -123,20 +169,20 @@ public class SLACalcStatus extends SLAEvent {
 
     @Override
     public Date getActualStart() {
-        return actualStart;
+        return toDate(actualStart);
     }
 
     public void setActualStart(Date actualStart) {
-        this.actualStart = actualStart;
+        this.actualStart = toMillis(actualStart);
     }
 
     @Override
     public Date getActualEnd() {
-        return actualEnd;
+        return toDate(actualEnd);
     }
 
     public void setActualEnd(Date actualEnd) {
-        this.actualEnd = actualEnd;
+        this.actualEnd = toMillis(actualEnd);
     }
 
     @Override
@@ -154,7 +200,7 @@ public class SLACalcStatus extends SLAEvent {
     }
 
     public void setJobStatus(String status) {
-        this.jobStatus = status;
+        this.jobStatus = intern(status);
     }
 
     @Override
@@ -176,7 +222,7 @@ public class SLACalcStatus extends SLAEvent {
     }
 
     public void setLastModifiedTime(Date lastModifiedTime) {
-        this.lastModifiedTime = lastModifiedTime;
+        this.lastModifiedTime = toMillis(lastModifiedTime);
     }
 
     /**
@@ -277,7 +323,7 @@ public class SLACalcStatus extends SLAEvent {
 
     @Override
     public Date getLastModifiedTime() {
-        return lastModifiedTime;
+        return toDate(lastModifiedTime);
     }
 
     public String getEntityKey() {
@@ -295,15 +341,15 @@ public class SLACalcStatus extends SLAEvent {
             reg.addToSLAConfigMap(OozieClient.SLA_DISABLE_ALERT,
                     slaBean.getSLAConfigMap().get(OozieClient.SLA_DISABLE_ALERT));
         }
-        reg.setId(summary.getId());
-        reg.setAppType(summary.getAppType());
-        reg.setUser(summary.getUser());
-        reg.setAppName(summary.getAppName());
-        reg.setParentId(summary.getParentId());
-        reg.setNominalTime(summary.getNominalTime());
-        reg.setExpectedStart(summary.getExpectedStart());
-        reg.setExpectedEnd(summary.getExpectedEnd());
-        reg.setExpectedDuration(summary.getExpectedDuration());
+        reg.setId(regBean.getId());
+        reg.setAppType(regBean.getAppType());
+        reg.setUser(regBean.getUser());
+        reg.setAppName(regBean.getAppName());
+        reg.setParentId(regBean.getParentId());
+        reg.setNominalTime(regBean.getNominalTime());
+        reg.setExpectedStart(regBean.getExpectedStart());
+        reg.setExpectedEnd(regBean.getExpectedEnd());
+        reg.setExpectedDuration(regBean.getExpectedDuration());
         setSLARegistrationBean(reg);
     }
 
@@ -33,6 +33,8 @@ public interface SLACalculator {
 
     void init(Configuration conf) throws ServiceException;
 
+    void destroy();
+
     int size();
 
     Iterator<String> iterator();
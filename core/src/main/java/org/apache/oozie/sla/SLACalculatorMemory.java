@@ -27,7 +27,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.AppType;
@@ -42,6 +44,7 @@ import org.apache.oozie.client.event.SLAEvent.SLAStatus;
 import org.apache.oozie.client.rest.JsonBean;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.sla.SLAJobEventXCommand;
 import org.apache.oozie.executor.jpa.BatchQueryExecutor;
 import org.apache.oozie.executor.jpa.BatchQueryExecutor.UpdateEntry;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
@@ -50,10 +53,12 @@ import org.apache.oozie.executor.jpa.SLARegistrationQueryExecutor.SLARegQuery;
 import org.apache.oozie.executor.jpa.SLASummaryQueryExecutor;
 import org.apache.oozie.executor.jpa.SLASummaryQueryExecutor.SLASummaryQuery;
 import org.apache.oozie.executor.jpa.sla.SLASummaryGetRecordsOnRestartJPAExecutor;
+import org.apache.oozie.lock.LockToken;
 import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.SchedulerService;
 import org.apache.oozie.service.ServiceException;
 import org.apache.oozie.service.Services;
@@ -81,9 +86,18 @@ public class SLACalculatorMemory implements SLACalculator {
     protected EventHandlerService eventHandler;
     private static int modifiedAfter;
     private static long jobEventLatency;
+    private static int updateThreads;
+    private static int updateBatchSize;
+    private ForkJoinPool updatePool;
     private Instrumentation instrumentation;
     public static final String INSTRUMENTATION_GROUP = "sla-calculator";
     public static final String SLA_MAP = "sla-map";
+    public static final String SLA_UPDATE_PASS = "sla-update-pass";
+    // the number of updates per flush is the ratio of these two counters
+    public static final String SLA_UPDATE_FLUSHES = "sla-update-flushes";
+    public static final String SLA_UPDATES_FLUSHED = "sla-updates-flushed";
+    // shards per update thread, more shards than threads even out the time taken by every thread
+    private static final int SHARDS_PER_THREAD = 4;
 
     @Override
     public void init(Configuration conf) throws ServiceException {
@@ -94,6 +108,11 @@ public class SLACalculatorMemory implements SLACalculator {
         jpaService = Services.get().get(JPAService.class);
         eventHandler = Services.get().get(EventHandlerService.class);
         instrumentation = Services.get().get(InstrumentationService.class).get();
+        updateThreads = ConfigurationService.getInt(conf, SLAService.CONF_SLA_UPDATE_THREADS);
+        updateBatchSize = ConfigurationService.getInt(conf, SLAService.CONF_SLA_UPDATE_BATCH_SIZE);
+        if (updateThreads > 1) {
+            updatePool = new ForkJoinPool(updateThreads);
+        }
         // load events modified after
         modifiedAfter = conf.getInt(SLAService.CONF_EVENTS_MODIFIED_AFTER, 7);
         loadOnRestart();
@@ -191,10 +210,15 @@ public class SLACalculatorMemory implements SLACalculator {
         if (memObj == null || memObj.getSLARegistrationBean() == null) {
             SLARegistrationBean registrationBean = SLARegistrationQueryExecutor.getInstance()
                     .get(SLARegQuery.GET_SLA_REG_ON_RESTART, jobId);
-            SLASummaryBean summaryBean = memObj == null
-                    ? SLASummaryQueryExecutor.getInstance().get(SLASummaryQuery.GET_SLA_SUMMARY, jobId)
-                    : memObj.getSLASummaryBean();
-            return new SLACalcStatus(summaryBean, registrationBean);
+            if (memObj == null) {
+                SLASummaryBean summaryBean = SLASummaryQueryExecutor.getInstance()
+                        .get(SLASummaryQuery.GET_SLA_SUMMARY, jobId);
+                return new SLACalcStatus(summaryBean, registrationBean);
+            }
+            SLACalcStatus slaCalc = new SLACalcStatus(memObj);
+            slaCalc.setLastModifiedTime(memObj.getLastModifiedTime());
+            slaCalc.updateSLARegistrationBean(registrationBean);
+            return slaCalc;
         }
         return memObj;
     }
@@ -221,6 +245,17 @@ public class SLACalculatorMemory implements SLACalculator {
      * Invoked via periodic run, update the SLA for registered jobs
      */
     protected void updateJobSla(String jobId) throws Exception {
+        updateJobSla(jobId, null);
+    }
+
+    /**
+     * Invoked via periodic run, update the SLA for registered jobs
+     *
+     * @param jobId the job id
+     * @param batch batch the SLA summary update is added to, if <code>null</code> it is written to DB
+     * @throws Exception
+     */
+    protected void updateJobSla(String jobId, UpdateBatch batch) throws Exception {
         SLACalcStatus slaCalc = slaMap.get(jobId);
 
         if (slaCalc == null) {
@@ -262,8 +297,19 @@ public class SLACalculatorMemory implements SLACalculator {
                 LOG.debug("{0} job has SLA event change. EventProc = {1}, status = {2}", slaCalc.getId(),
                         slaCalc.getEventProcessed(), slaCalc.getJobStatus());
                 try {
-                    SLAXCommandFactory.getSLAEventXCommand(slaCalc).call();
-                    checkEventProc(slaCalc);
+                    SLAJobEventXCommand command = SLAXCommandFactory.getSLAEventXCommand(slaCalc);
+                    if (batch == null) {
+                        command.call();
+                        checkEventProc(slaCalc);
+                    }
+                    else if (batch.lock(command.getEntityKey())) {
+                        command.setUpdateList(batch.updates);
+                        command.call();
+                        batch.checked.add(slaCalc);
+                    }
+                    else {
+                        LOG.debug("SLA of job [{0}] is being updated, checking it on the next SLA check", jobId);
+                    }
                 }
                 catch (XException e) {
                     if (e.getErrorCode().equals(ErrorCode.E0604) || e.getErrorCode().equals(ErrorCode.E0605)) {
@@ -332,7 +378,8 @@ public class SLACalculatorMemory implements SLACalculator {
     }
 
     @SuppressWarnings("rawtypes")
-    private void executeBatchQuery(List<UpdateEntry> updateList) throws JPAExecutorException {
+    @VisibleForTesting
+    void executeBatchQuery(List<UpdateEntry> updateList) throws JPAExecutorException {
         BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(null, updateList, null);
     }
 
@@ -343,18 +390,125 @@ public class SLACalculatorMemory implements SLACalculator {
     @Override
     public void updateAllSlaStatus() {
         LOG.info("Running periodic SLA check");
-        Iterator<String> iterator = slaMap.keySet().iterator();
-        while (iterator.hasNext()) {
-            String jobId = iterator.next();
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        if (updatePool == null) {
+            updateSlaStatus(slaMap.keySet().iterator());
+        }
+        else {
+            List<String> jobIds = new ArrayList<String>(slaMap.keySet());
+            int shardSize = Math.max(1, (jobIds.size() + updateThreads * SHARDS_PER_THREAD - 1)
+                    / (updateThreads * SHARDS_PER_THREAD));
+            List<Callable<Void>> shards = new ArrayList<Callable<Void>>();
+            for (int i = 0; i < jobIds.size(); i += shardSize) {
+                final List<String> shard = jobIds.subList(i, Math.min(i + shardSize, jobIds.size()));
+                shards.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        updateSlaStatus(shard.iterator());
+                        return null;
+                    }
+                });
+            }
+            LOG.debug("Checking SLA of [{0}] jobs in [{1}] shards", jobIds.size(), shards.size());
+            updatePool.invokeAll(shards);
+        }
+        cron.stop();
+        instrumentation.addCron(INSTRUMENTATION_GROUP, SLA_UPDATE_PASS, cron);
+    }
+
+    /**
+     * Update the SLA status of the given jobs, writing the SLA summary updates to DB in batches if enabled.
+     *
+     * @param iterator the job ids
+     */
+    private void updateSlaStatus(Iterator<String> iterator) {
+        UpdateBatch batch = (updateBatchSize > 1) ? new UpdateBatch() : null;
+        try {
+            while (iterator.hasNext()) {
+                String jobId = iterator.next();
+                try {
+                    LOG.trace("Processing SLA for jobid={0}", jobId);
+                    updateJobSla(jobId, batch);
+                }
+                catch (Exception e) {
+                    setLogPrefix(jobId);
+                    LOG.error("Exception in SLA processing for job [{0}]", jobId, e);
+                    LogUtils.clearLogPrefix();
+                }
+                if (batch != null && batch.updates.size() >= updateBatchSize) {
+                    batch.flush();
+                }
+            }
+        }
+        finally {
+            if (batch != null) {
+                batch.flush();
+            }
+        }
+    }
+
+    /**
+     * SLA summary updates of the periodic SLA check written to DB in a single batch.
+     * <p>
+     * The SLA lock of every job with an update in the batch is held until the batch is written, so that the update
+     * of a job status event can't be overwritten by the older update of the batch. The jobs whose SLA processing is
+     * done are removed from memory only once their update is written. If the batch can't be written, the jobs stay
+     * in memory and their SLA is checked again from the DB state on the next SLA check.
+     */
+    class UpdateBatch {
+        @SuppressWarnings("rawtypes")
+        private final List<UpdateEntry> updates = new ArrayList<UpdateEntry>();
+        private final List<SLACalcStatus> checked = new ArrayList<SLACalcStatus>();
+        private final List<LockToken> locks = new ArrayList<LockToken>();
+
+        /**
+         * Obtain the SLA lock of a job until the batch is written, without waiting so that threads checking other
+         * shards never wait for each other.
+         *
+         * @param key lock key of the job
+         * @return true if the lock was obtained
+         * @throws InterruptedException thrown if the thread was interrupted
+         */
+        private boolean lock(String key) throws InterruptedException {
+            LockToken lock = Services.get().get(MemoryLocksService.class).getWriteLock(key, 0);
+            if (lock == null) {
+                return false;
+            }
+            locks.add(lock);
+            return true;
+        }
+
+        private void flush() {
             try {
-                LOG.trace("Processing SLA for jobid={0}", jobId);
-                updateJobSla(jobId);
+                if (!updates.isEmpty()) {
+                    executeBatchQuery(updates);
+                    instrumentation.incr(INSTRUMENTATION_GROUP, SLA_UPDATE_FLUSHES, 1);
+                    instrumentation.incr(INSTRUMENTATION_GROUP, SLA_UPDATES_FLUSHED, updates.size());
+                }
+                for (SLACalcStatus slaCalc : checked) {
+                    checkEventProc(slaCalc);
+                }
             }
-            catch (Exception e) {
-                setLogPrefix(jobId);
-                LOG.error("Exception in SLA processing for job [{0}]", jobId, e);
-                LogUtils.clearLogPrefix();
+            catch (JPAExecutorException e) {
+                LOG.error("Failed to write [{0}] SLA summary updates to DB, checking the jobs again on the next SLA"
+                        + " check", updates.size(), e);
             }
+            finally {
+                for (LockToken lock : locks) {
+                    lock.release();
+                }
+                updates.clear();
+                checked.clear();
+                locks.clear();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (updatePool != null) {
+            updatePool.shutdown();
         }
     }
 
@@ -53,6 +53,10 @@ public class SLAService implements Service {
     public static final String CONF_SLA_CHECK_INITIAL_DELAY = CONF_PREFIX + "check.initial.delay";
     public static final String CONF_SLA_CALC_LOCK_TIMEOUT = CONF_PREFIX + "oozie.sla.calc.default.lock.timeout";
     public static final String CONF_SLA_HISTORY_PURGE_INTERVAL = CONF_PREFIX + "history.purge.interval";
+    //Number of threads the SLA map is checked by, 1 checks it serially in the SLA Worker thread
+    public static final String CONF_SLA_UPDATE_THREADS = CONF_PREFIX + "update.threads";
+    //Maximum number of SLA summary updates written to DB in a batch, 1 writes every update on its own
+    public static final String CONF_SLA_UPDATE_BATCH_SIZE = CONF_PREFIX + "update.batch.size";
 
     private static SLACalculator calcImpl;
     private static boolean slaEnabled = false;
@@ -94,6 +98,9 @@ public class SLAService implements Service {
     @Override
     public void destroy() {
         slaEnabled = false;
+        if (calcImpl != null) {
+            calcImpl.destroy();
+        }
     }
 
     @Override
@@ -23,10 +23,13 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.Query;
+
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.XLog;
 
 public class StoreStatusFilter {
@@ -50,8 +53,17 @@ public class StoreStatusFilter {
     public static final String TIME_FORMAT = " Specify time either in UTC format (yyyy-MM-dd'T'HH:mm'Z') or " +
             "a offset value in days/hours/minutes e.g. (-2d/h/m) from the current time.";
 
+    /**
+     * Default order of the jobs listings, latest created first and by descending id for jobs created at the same time
+     * so that a {@link JobsKeyset} identifies a position in it.
+     */
+    public static final String DEFAULT_ORDER_BY = " order by w.createdTimestamp desc, w.id desc ";
+
     private static final String textFilterStr = "(w.appName LIKE :text1 OR w.user LIKE :text2 OR w.id = :text3)";
 
+    private static final String keysetFilterStr = "(w.createdTimestamp < :keysetTime OR "
+            + "(w.createdTimestamp = :keysetTime AND w.id < :keysetId))";
+
 
     public static void filter(Map<String, List<String>> filter, List<String> orArray, List<String> colArray,
            List<Object> valArray, StringBuilder sb, String seletStr, String countStr) throws JPAExecutorException {
@@ -390,6 +402,37 @@ public class StoreStatusFilter {
         return sortByStr;
     }
 
+    /**
+     * Append to a jobs query the condition selecting the jobs that follow a position of the default order, the ones
+     * created before it or created at the same time with a smaller id.
+     *
+     * @param after the position, the query is left unchanged if null
+     * @param orderBy the order of the query, it must be {@link #DEFAULT_ORDER_BY} if a position is given
+     * @param sb the query, with its select statement
+     * @throws JPAExecutorException thrown if a position is given for another order
+     */
+    public static void filterAfter(JobsKeyset after, String orderBy, StringBuilder sb) throws JPAExecutorException {
+        if (after != null) {
+            if (!DEFAULT_ORDER_BY.equals(orderBy)) {
+                throw new JPAExecutorException(ErrorCode.E0302, "a page token cannot be used with sortby");
+            }
+            sb.append(sb.indexOf(" where ") < 0 ? " where " : " and ").append(keysetFilterStr);
+        }
+    }
+
+    /**
+     * Set the parameters of the condition appended by {@link #filterAfter(JobsKeyset, String, StringBuilder)}.
+     *
+     * @param after the position, nothing is set if null
+     * @param q the query
+     */
+    public static void setAfterParameters(JobsKeyset after, Query q) {
+        if (after != null) {
+            q.setParameter("keysetTime", new Timestamp(after.getCreatedTime().getTime()));
+            q.setParameter("keysetId", after.getId());
+        }
+    }
+
     public static void filterJobsUsingText(Map<String, List<String>> filter, StringBuilder sb, boolean isEnabled,
            String seletStr, List<Object> valArray, List<String> orArray, List<String> colArray) throws JPAExecutorException {
         List<String> values = filter.get(OozieClient.FILTER_TEXT);
@@ -18,8 +18,16 @@
 
 package org.apache.oozie.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.el.Coercions;
+import org.apache.commons.el.Expression;
 import org.apache.commons.el.ExpressionEvaluatorImpl;
 import org.apache.commons.el.ExpressionString;
+import org.apache.commons.el.Logger;
+import org.jdom.Attribute;
+import org.jdom.Element;
+import org.jdom.Text;
 
 import javax.servlet.jsp.el.ELException;
 import javax.servlet.jsp.el.ExpressionEvaluator;
@@ -27,11 +35,17 @@ import javax.servlet.jsp.el.FunctionMapper;
 import javax.servlet.jsp.el.VariableResolver;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * JSP Expression Language Evaluator. <p> It provides a more convenient way of using the JSP EL Evaluator.
+ * <p>
+ * Parsed expressions are kept in a bounded cache shared by all the evaluators, keyed by the text of each
+ * <code>${...}</code> expression, the literal text around them is not cached. The same expressions are evaluated many
+ * times with different variables, for example the dataset URI templates during coordinator materialization.
  */
 public class ELEvaluator {
 
@@ -124,8 +138,187 @@ public class ELEvaluator {
         }
     }
 
+    /**
+     * Default maximum number of parsed expressions kept in the cache.
+     */
+    public static final int DEFAULT_EXPRESSION_CACHE_SIZE = 10000;
+
+    // commons-el reports warnings to the logger and throws the errors
+    private static final Logger EL_LOGGER = new Logger(null) {
+        @Override
+        public boolean isLoggingWarning() {
+            return XLog.getLog(ELEvaluator.class).isWarnEnabled();
+        }
+
+        @Override
+        public void logWarning(String message, Throwable throwable) {
+            XLog.getLog(ELEvaluator.class).warn((Object) message, throwable);
+        }
+    };
+
+    // bypasses the commons-el parsed expressions cache, it is unbounded and synchronized
+    private static final ExpressionEvaluatorImpl PARSER = new ExpressionEvaluatorImpl(true);
+
+    private static volatile Cache<String, Object> expressions = createCache(DEFAULT_EXPRESSION_CACHE_SIZE);
+
     private static ThreadLocal<ELEvaluator> current = new ThreadLocal<ELEvaluator>();
 
+    private static Cache<String, Object> createCache(int size) {
+        return (size > 0) ? CacheBuilder.newBuilder().maximumSize(size).<String, Object>build() : null;
+    }
+
+    /**
+     * Set the maximum number of parsed expressions kept in the cache, discarding the cached expressions. <p>
+     *
+     * @param size maximum number of parsed expressions, if <code>0</code> or less expressions are not cached.
+     */
+    public static void setExpressionCacheSize(int size) {
+        expressions = createCache(size);
+    }
+
+    /**
+     * Return the number of parsed expressions in the cache. <p>
+     *
+     * @return the number of parsed expressions in the cache.
+     */
+    public static long getExpressionCacheSize() {
+        Cache<String, Object> cache = expressions;
+        return (cache != null) ? cache.size() : 0;
+    }
+
+    /**
+     * Parse an EL expression, using the cache of parsed expressions for the <code>${...}</code> expressions it
+     * contains. <p>
+     *
+     * @param expr EL expression to parse.
+     * @return the parsed expression, a <code>String</code>, an <code>Expression</code> or an
+     * <code>ExpressionString</code>.
+     * @throws ELException thrown if the EL expression could not be parsed.
+     */
+    private static Object parse(String expr) throws ELException {
+        Cache<String, Object> cache = expressions;
+        if (cache == null) {
+            return PARSER.parseExpressionString(expr);
+        }
+        List<Object> elements = new ArrayList<Object>();
+        int pos = 0;
+        while (pos < expr.length()) {
+            int start = expr.indexOf("${", pos);
+            if (start < 0) {
+                elements.add(expr.substring(pos));
+                break;
+            }
+            int end = findExpressionEnd(expr, start);
+            if (end < 0) {
+                // unterminated expression, the parser reports the error
+                return PARSER.parseExpressionString(expr);
+            }
+            if (start > pos) {
+                elements.add(expr.substring(pos, start));
+            }
+            elements.add(parseExpression(cache, expr.substring(start, end)));
+            pos = end;
+        }
+        if (elements.isEmpty()) {
+            return expr;
+        }
+        return (elements.size() == 1) ? elements.get(0) : new ExpressionString(elements.toArray());
+    }
+
+    private static Object parseExpression(Cache<String, Object> cache, String expr) throws ELException {
+        Object parsed = cache.getIfPresent(expr);
+        if (parsed == null) {
+            parsed = PARSER.parseExpressionString(expr);
+            cache.put(expr, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Return the end of the <code>${...}</code> expression starting at the given position, skipping the closing
+     * braces within string literals. <p>
+     *
+     * @param text text containing the expression.
+     * @param start position of the <code>${</code> starting the expression.
+     * @return the position following the closing brace, <code>-1</code> if the expression is not terminated.
+     */
+    private static int findExpressionEnd(String text, int start) {
+        char quote = 0;
+        for (int i = start + 2; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                }
+                else if (c == quote) {
+                    quote = 0;
+                }
+            }
+            else if (c == '\'' || c == '"') {
+                quote = c;
+            }
+            else if (c == '}') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse the EL expressions of the text and attribute values of an XML element and its children, keeping them in
+     * the cache of parsed expressions. <p> Values that are not valid EL expressions are skipped, they fail when
+     * evaluated. <p>
+     *
+     * @param element XML element.
+     * @return the number of parsed expressions.
+     */
+    @SuppressWarnings("unchecked")
+    public static int precompile(Element element) {
+        int count = 0;
+        for (Attribute attr : (List<Attribute>) element.getAttributes()) {
+            count += precompile(attr.getValue());
+        }
+        for (Object content : element.getContent()) {
+            if (content instanceof Element) {
+                count += precompile((Element) content);
+            }
+            else if (content instanceof Text) {
+                count += precompile(((Text) content).getTextTrim());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parse the <code>${...}</code> expressions of a value keeping them in the cache of parsed expressions. <p>
+     * Expressions that are not valid are skipped, they fail when evaluated. <p>
+     *
+     * @param value value to parse.
+     * @return the number of parsed expressions.
+     */
+    public static int precompile(String value) {
+        Cache<String, Object> cache = expressions;
+        int count = 0;
+        if (cache != null && value != null) {
+            int start = value.indexOf("${");
+            while (start >= 0) {
+                int end = findExpressionEnd(value, start);
+                if (end < 0) {
+                    break;
+                }
+                try {
+                    parseExpression(cache, value.substring(start, end));
+                    count++;
+                }
+                catch (ELException ex) {
+                    // fails when evaluated
+                }
+                start = value.indexOf("${", end);
+            }
+        }
+        return count;
+    }
+
     /**
      * If within the scope of a EL evaluation call, it gives access to the ELEvaluator instance performing the EL
      * evaluation. <p> This is useful for EL function methods to get access to the variables of the Evaluator. Because
@@ -202,7 +395,17 @@ public class ELEvaluator {
         ELEvaluator existing = current.get();
         try {
             current.set(this);
-            return (T) evaluator.evaluate(expr, clazz, context, context);
+            if (expr == null || expressions == null) {
+                return (T) evaluator.evaluate(expr, clazz, context, context);
+            }
+            Object value = parse(expr);
+            if (value instanceof Expression) {
+                value = ((Expression) value).evaluate(context, context, EL_LOGGER);
+            }
+            else if (value instanceof ExpressionString) {
+                value = ((ExpressionString) value).evaluate(context, context, EL_LOGGER);
+            }
+            return (T) Coercions.coerce(value, clazz, EL_LOGGER);
         }
         catch (ELException ex) {
             if (ex.getRootCause() instanceof Exception) {
@@ -231,7 +434,7 @@ public class ELEvaluator {
     public boolean checkForExistence(String expr, String sequence)
             throws Exception {
         try {
-            Object exprString = evaluator.parseExpressionString(expr);
+            Object exprString = parse(expr);
             if (exprString instanceof ExpressionString) {
                 for (Object element : ((ExpressionString)exprString).getElements()) {
                     if (element instanceof String &&
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position of a job in a jobs listing sorted by the default order, latest created first and by descending id for jobs
+ * created at the same time.
+ * <p>
+ * A listing that starts after a position does not depend on the jobs created or removed in the meantime, unlike a
+ * listing that starts at an offset, and the database can seek to it instead of skipping all the preceding jobs.
+ * <p>
+ * The position is given to the clients as an opaque page token.
+ */
+public final class JobsKeyset {
+    private final Date createdTime;
+    private final String id;
+
+    public JobsKeyset(Date createdTime, String id) {
+        this.createdTime = ParamChecker.notNull(createdTime, "createdTime");
+        this.id = ParamChecker.notEmpty(id, "id");
+    }
+
+    public Date getCreatedTime() {
+        return createdTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Return the page token of the position.
+     *
+     * @return the page token
+     */
+    public String toToken() {
+        String value = createdTime.getTime() + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Return the position of a page token.
+     *
+     * @param token the page token
+     * @return the position
+     * @throws IllegalArgumentException thrown if the token is not a valid page token
+     */
+    public static JobsKeyset fromToken(String token) {
+        String value = new String(Base64.getUrlDecoder().decode(ParamChecker.notEmpty(token, "token")),
+                StandardCharsets.UTF_8);
+        int separator = value.indexOf(',');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
+        return new JobsKeyset(new Date(Long.parseLong(value.substring(0, separator))), value.substring(separator + 1));
+    }
+
+    @Override
+    public String toString() {
+        return id + "@" + createdTime.getTime();
+    }
+}
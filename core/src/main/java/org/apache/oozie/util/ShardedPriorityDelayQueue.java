@@ -0,0 +1,297 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link PriorityDelayQueue} that spreads its elements over several independent shards.
+ * <p>
+ * Each shard is a regular {@link PriorityDelayQueue} with its own lock and its own anti-starvation check. Producers are
+ * assigned a shard in round-robin fashion, so concurrent offers do not contend on a single lock. Consumers scan the
+ * shards priority by priority, starting from a rotating shard and skipping shards that are currently locked by another
+ * consumer; only when nothing was found and some shard was skipped the scan is repeated waiting on the shard locks.
+ * <p>
+ * Elements are still consumed from higher priorities first across all the shards. Within the same priority, elements
+ * are consumed based on their age within each shard, the ordering between shards is not strict.
+ * <p>
+ * The maximum size of the queue is enforced across all the shards.
+ */
+public class ShardedPriorityDelayQueue<E> extends PollablePriorityDelayQueue<E> {
+
+    private final PriorityDelayQueue<E>[] shards;
+    private final AtomicInteger offerIndex = new AtomicInteger();
+    private final AtomicInteger pollIndex = new AtomicInteger();
+
+    /**
+     * Create a <code>ShardedPriorityDelayQueue</code>.
+     *
+     * @param shards number of shards the queue is split into.
+     * @param priorities number of priorities the queue will support.
+     * @param maxWait max wait time for elements before they are promoted to the next higher priority.
+     * @param unit time unit of the max wait time.
+     * @param maxSize maximum size of the queue, -1 means unbounded.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedPriorityDelayQueue(int shards, int priorities, long maxWait, TimeUnit unit, int maxSize) {
+        super(priorities, maxWait, unit, maxSize);
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be 1 or more");
+        }
+        this.shards = new PriorityDelayQueue[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new PriorityDelayQueue<E>(priorities, maxWait, unit, -1) {
+                @Override
+                protected void debug(String msgTemplate, Object... msgArgs) {
+                    ShardedPriorityDelayQueue.this.debug(msgTemplate, msgArgs);
+                }
+            };
+        }
+    }
+
+    /**
+     * Return the number of shards of the queue.
+     *
+     * @return the number of shards of the queue.
+     */
+    public int getShards() {
+        return shards.length;
+    }
+
+    /**
+     * Return an iterator over all the {@link QueueElement} elements (both expired and unexpired) of all the shards. The
+     * iterator does not return the elements in any particular order and it is a snapshot of every shard at the time it
+     * was visited.
+     *
+     * @return an iterator over the {@link QueueElement} elements in this queue.
+     */
+    @Override
+    public Iterator<QueueElement<E>> iterator() {
+        List<QueueElement<E>> list = new ArrayList<QueueElement<E>>();
+        for (PriorityDelayQueue<E> shard : shards) {
+            Iterator<QueueElement<E>> it = shard.iterator();
+            while (it.hasNext()) {
+                list.add(it.next());
+            }
+        }
+        return list.iterator();
+    }
+
+    /**
+     * Return the number of elements in the queue.
+     *
+     * @return the number of elements in the queue.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (PriorityDelayQueue<E> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Return the number of elements on each priority, added up over all the shards.
+     *
+     * @return the number of elements on each priority.
+     */
+    @Override
+    public int[] sizes() {
+        int[] sizes = new int[priorities];
+        for (PriorityDelayQueue<E> shard : shards) {
+            int[] shardSizes = shard.sizes();
+            for (int i = 0; i < priorities; i++) {
+                sizes[i] += shardSizes[i];
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Insert the specified {@link QueueElement} element into the next shard.
+     *
+     * @param queueElement the {@link QueueElement} element to add.
+     * @param ignoreSize if the queue is bound to a maximum size and the maximum size is reached, this parameter (if set
+     * to <tt>true</tt>) allows to ignore the maximum size and add the element to the queue.
+     *
+     * @return <tt>true</tt> if the element has been inserted, <tt>false</tt> if the element was not inserted (the queue
+     *         has reached its maximum size).
+     */
+    @Override
+    boolean offer(QueueElement<E> queueElement, boolean ignoreSize) {
+        ParamChecker.notNull(queueElement, "queueElement");
+        if (!ignoreSize && currentSize != null && currentSize.get() >= getMaxSize()) {
+            return false;
+        }
+        int index = (offerIndex.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+        boolean accepted = shards[index].offer(queueElement, true);
+        if (accepted && currentSize != null) {
+            currentSize.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Retrieve and remove the oldest eligible element of the highest priority available in any of the shards, or return
+     * <tt>null</tt> if no shard has eligible elements with an expired delay.
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue has no elements eligible to run.
+     */
+    @Override
+    public QueueElement<E> poll() {
+        int start = (pollIndex.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+        QueueElement<E> e = poll(start, false);
+        if (e != null) {
+            if (currentSize != null) {
+                currentSize.decrementAndGet();
+            }
+            e.inQueue = false;
+        }
+        return e;
+    }
+
+    private QueueElement<E> poll(int start, boolean wait) {
+        boolean skipped = false;
+        for (int p = priorities - 1; p >= 0; p--) {
+            for (int i = 0; i < shards.length; i++) {
+                int index = (start + i) % shards.length;
+                PriorityDelayQueue<E> shard = shards[index];
+                if (wait) {
+                    shard.lock.lock();
+                }
+                else if (!shard.lock.tryLock()) {
+                    skipped = true;
+                    continue;
+                }
+                try {
+                    shard.antiStarvation();
+                    QueueElement<E> e = poll(shard.queues[p]);
+                    if (e != null) {
+                        debug("poll(): [{0}], from S[{1}] P[{2}]", e.getElement().toString(), index, p);
+                        return e;
+                    }
+                }
+                finally {
+                    shard.lock.unlock();
+                }
+            }
+        }
+        // shards locked by other consumers are inspected again, this time waiting for their locks
+        return (skipped) ? poll(start, true) : null;
+    }
+
+    private QueueElement<E> poll(DelayQueue<QueueElement<E>> queue) {
+        QueueElement<E> e = queue.peek();
+        if (e == null || e.getDelay(TimeUnit.MILLISECONDS) > 0) {
+            return null;
+        }
+        if (eligibleToPoll(e)) {
+            return queue.poll();
+        }
+        Iterator<QueueElement<E>> iter = queue.iterator();
+        while (iter.hasNext()) {
+            e = iter.next();
+            if (e.getDelay(TimeUnit.MILLISECONDS) <= 0 && eligibleToPoll(e)) {
+                queue.remove(e);
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve, but does not remove, the head of this queue, or returns <tt>null</tt> if this queue is empty.
+     * <p>
+     * The head is the highest priority expired element of all the shards, if no element has expired it is the element
+     * that will expire next.
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue is empty.
+     */
+    @Override
+    public QueueElement<E> peek() {
+        QueueElement<E> e = null;
+        for (PriorityDelayQueue<E> shard : shards) {
+            QueueElement<E> ee = shard.peek();
+            if (ee != null && (e == null || isAhead(ee, e))) {
+                e = ee;
+            }
+        }
+        return e;
+    }
+
+    private static boolean isAhead(QueueElement<?> e1, QueueElement<?> e2) {
+        long d1 = e1.getDelay(TimeUnit.MILLISECONDS);
+        long d2 = e2.getDelay(TimeUnit.MILLISECONDS);
+        if (d1 <= 0 && d2 <= 0 && e1.getPriority() != e2.getPriority()) {
+            return e1.getPriority() > e2.getPriority();
+        }
+        return d1 < d2;
+    }
+
+    /**
+     * Anti-starvation is performed by every shard on its own elements when the shard is polled.
+     */
+    @Override
+    protected void antiStarvation() {
+    }
+
+    @Override
+    public int drainTo(Collection<? super QueueElement<E>> c) {
+        int count = 0;
+        for (PriorityDelayQueue<E> shard : shards) {
+            count += shard.drainTo(c);
+        }
+        if (currentSize != null) {
+            currentSize.addAndGet(-count);
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(Collection<? super QueueElement<E>> c, int maxElements) {
+        int left = maxElements;
+        int count = 0;
+        for (PriorityDelayQueue<E> shard : shards) {
+            int drained = shard.drainTo(c, left);
+            count += drained;
+            left -= drained;
+        }
+        if (currentSize != null) {
+            currentSize.addAndGet(-count);
+        }
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        for (PriorityDelayQueue<E> shard : shards) {
+            shard.clear();
+        }
+        if (currentSize != null) {
+            currentSize.set(0);
+        }
+    }
+}
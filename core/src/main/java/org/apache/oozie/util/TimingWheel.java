@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A hierarchical timing wheel to hold elements until their delay expires.
+ * <p>
+ * The wheel keeps time in ticks of a fixed, coarse, duration. The first level has one bucket per tick, every following
+ * level has buckets spanning a full turn of the previous level. Inserting an element is O(1), it is appended to the
+ * bucket of the level that covers its deadline. New levels are added on demand for deadlines far in the future.
+ * <p>
+ * The wheel does not use its own thread, the owner must call {@link #advance(long)} periodically, typically once every
+ * tick. Advancing the wheel moves the elements of the buckets of the upper levels that became current to the lower
+ * levels, and returns the elements whose deadline has been reached.
+ * <p>
+ * Elements are never returned before their deadline, they may be returned up to one tick (plus the advancing period)
+ * after it.
+ */
+public class TimingWheel<E> {
+
+    private static class Entry<E> {
+        private final E element;
+        private final long tick;
+
+        private Entry(E element, long tick) {
+            this.element = element;
+            this.tick = tick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<Entry<E>>[]> levels = new ArrayList<List<Entry<E>>[]>();
+    private final List<Long> levelTicks = new ArrayList<Long>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    /**
+     * Create a <code>TimingWheel</code>.
+     *
+     * @param tickDuration duration of a tick.
+     * @param unit time unit of the tick duration.
+     * @param wheelSize number of buckets of every level of the wheel.
+     */
+    public TimingWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+        this(tickDuration, unit, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * Create a <code>TimingWheel</code> starting at the given time.
+     *
+     * @param tickDuration duration of a tick.
+     * @param unit time unit of the tick duration.
+     * @param wheelSize number of buckets of every level of the wheel.
+     * @param startMillis start time of the wheel, in milliseconds.
+     */
+    public TimingWheel(long tickDuration, TimeUnit unit, int wheelSize, long startMillis) {
+        if (unit.toMillis(tickDuration) < 1) {
+            throw new IllegalArgumentException("tick duration must be 1 millisecond or more");
+        }
+        if (wheelSize < 2) {
+            throw new IllegalArgumentException("wheelSize must be 2 or more");
+        }
+        this.tickMillis = unit.toMillis(tickDuration);
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        addLevel();
+    }
+
+    /**
+     * Return the duration of a tick.
+     *
+     * @param unit time unit of the tick duration.
+     *
+     * @return the duration of a tick in the specified time unit.
+     */
+    public long getTickDuration(TimeUnit unit) {
+        return unit.convert(tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Return the number of elements in the wheel.
+     *
+     * @return the number of elements in the wheel.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of levels the wheel currently has.
+     *
+     * @return the number of levels of the wheel.
+     */
+    public int getLevels() {
+        lock.lock();
+        try {
+            return levels.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add an element to the wheel.
+     *
+     * @param element element to add.
+     * @param deadlineMillis time, in milliseconds, when the element becomes due.
+     *
+     * @return <tt>true</tt> if the element was added to the wheel, <tt>false</tt> if the deadline falls within the
+     *         current tick and the element was not added.
+     */
+    public boolean add(E element, long deadlineMillis) {
+        ParamChecker.notNull(element, "element");
+        // rounding up so elements are never due before their deadline
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        lock.lock();
+        try {
+            if (tick <= currentTick) {
+                return false;
+            }
+            place(new Entry<E>(element, tick));
+            size++;
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advance the wheel up to the given time.
+     *
+     * @param nowMillis current time, in milliseconds.
+     *
+     * @return the elements that became due, in no particular order within the same tick.
+     */
+    public List<E> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<E> due = new ArrayList<E>();
+        lock.lock();
+        try {
+            while (currentTick < nowTick && size > 0) {
+                currentTick++;
+                for (int level = levels.size() - 1; level > 0; level--) {
+                    long span = levelTicks.get(level);
+                    if (currentTick % span == 0) {
+                        List<Entry<E>>[] buckets = levels.get(level);
+                        int slot = (int) ((currentTick / span) % wheelSize);
+                        List<Entry<E>> bucket = buckets[slot];
+                        if (bucket != null) {
+                            buckets[slot] = null;
+                            for (Entry<E> entry : bucket) {
+                                if (entry.tick <= currentTick) {
+                                    due.add(entry.element);
+                                    size--;
+                                }
+                                else {
+                                    place(entry);
+                                }
+                            }
+                        }
+                    }
+                }
+                List<Entry<E>>[] buckets = levels.get(0);
+                int slot = (int) (currentTick % wheelSize);
+                List<Entry<E>> bucket = buckets[slot];
+                if (bucket != null) {
+                    buckets[slot] = null;
+                    for (Entry<E> entry : bucket) {
+                        due.add(entry.element);
+                    }
+                    size -= bucket.size();
+                }
+            }
+            if (currentTick < nowTick) {
+                // the wheel is empty, there is nothing to cascade
+                currentTick = nowTick;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return due;
+    }
+
+    /**
+     * Return all the elements in the wheel, without removing them.
+     *
+     * @return all the elements in the wheel, in no particular order.
+     */
+    public List<E> elements() {
+        List<E> list = new ArrayList<E>();
+        lock.lock();
+        try {
+            for (List<Entry<E>>[] buckets : levels) {
+                for (List<Entry<E>> bucket : buckets) {
+                    if (bucket != null) {
+                        for (Entry<E> entry : bucket) {
+                            list.add(entry.element);
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return list;
+    }
+
+    /**
+     * Remove all the elements from the wheel.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (List<Entry<E>>[] buckets : levels) {
+                for (int i = 0; i < buckets.length; i++) {
+                    buckets[i] = null;
+                }
+            }
+            size = 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void place(Entry<E> entry) {
+        int level = 0;
+        while (true) {
+            if (level == levels.size()) {
+                addLevel();
+            }
+            long span = levelTicks.get(level);
+            if (entry.tick / span - currentTick / span < wheelSize) {
+                List<Entry<E>>[] buckets = levels.get(level);
+                int slot = (int) ((entry.tick / span) % wheelSize);
+                if (buckets[slot] == null) {
+                    buckets[slot] = new ArrayList<Entry<E>>();
+                }
+                buckets[slot].add(entry);
+                return;
+            }
+            level++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        long span = (levelTicks.isEmpty()) ? 1 : levelTicks.get(levelTicks.size() - 1) * wheelSize;
+        levels.add(new List[wheelSize]);
+        levelTicks.add(span);
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Factory of virtual threads named with a prefix and a counter.
+ * <p>
+ * Virtual threads are available from Java 21 onwards, as Oozie is built for earlier Java versions the factory is
+ * obtained through reflection. Use {@link #isSupported()} to check if the running JVM supports them.
+ */
+public class VirtualThreadFactory {
+
+    private VirtualThreadFactory() {
+    }
+
+    /**
+     * Return if the running JVM supports virtual threads.
+     *
+     * @return <tt>true</tt> if virtual threads are supported.
+     */
+    public static boolean isSupported() {
+        return create("VirtualThreadFactory") != null;
+    }
+
+    /**
+     * Create a factory of virtual threads.
+     *
+     * @param threadPrefix prefix of the name of the threads.
+     *
+     * @return the factory of virtual threads.
+     *
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+     */
+    public static ThreadFactory newFactory(String threadPrefix) {
+        ParamChecker.notEmpty(threadPrefix, "threadPrefix");
+        ThreadFactory factory = create(threadPrefix);
+        if (factory == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by Java "
+                    + System.getProperty("java.version"));
+        }
+        return factory;
+    }
+
+    private static ThreadFactory create(String threadPrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadPrefix + "-", 0L);
+            Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        }
+        catch (Exception ex) {
+            // NoSuchMethodException before Java 19, UnsupportedOperationException (wrapped) for preview versions
+            return null;
+        }
+    }
+}
@@ -166,12 +166,28 @@ public class LiteWorkflowAppParser {
      */
     public LiteWorkflowApp validateAndParse(Reader reader, Configuration jobConf, Configuration configDefault)
             throws WorkflowException {
+        return validateAndParse(reader, jobConf, configDefault, true);
+    }
+
+    /**
+     * Parse and validate xml to {@link LiteWorkflowApp}
+     *
+     * @param reader
+     * @param jobConf
+     * @param configDefault
+     * @param validateSchema if the xml has to be validated against the schema, it can be skipped if the same xml
+     * has already been validated
+     * @return LiteWorkflowApp
+     * @throws WorkflowException
+     */
+    public LiteWorkflowApp validateAndParse(Reader reader, Configuration jobConf, Configuration configDefault,
+            boolean validateSchema) throws WorkflowException {
         try {
             StringWriter writer = new StringWriter();
             IOUtils.copyCharStream(reader, writer);
             String strDef = writer.toString();
 
-            if (schema != null) {
+            if (schema != null && validateSchema) {
                 Validator validator = SchemaService.getValidator(schema);
                 validator.validate(new StreamSource(new StringReader(strDef)));
             }
@@ -19,11 +19,14 @@
 package org.apache.oozie.workflow.lite;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.service.DagXLogInfoService;
+import org.apache.oozie.service.LiteWorkflowStoreService;
 import org.apache.oozie.service.XLogService;
 import org.apache.oozie.util.StringSerializationUtil;
 import org.apache.oozie.util.ParamChecker;
@@ -36,10 +39,14 @@ import org.apache.oozie.workflow.WorkflowInstance;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +60,11 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     private static String ROOT = PATH_SEPARATOR;
     private static String TRANSITION_SEPARATOR = "#";
 
+    // marks the compact serialization, the length of an instance id written by writeUTF() is never 65535
+    private static final int COMPACT_SERIALIZATION_FLAG = 0xFFFF;
+    private static final byte COMPACT_SERIALIZATION_VERSION = 1;
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 128;
+
     private static class NodeInstance {
         String nodeName;
         boolean started = false;
@@ -553,18 +565,13 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
 
     @Override
     public void write(DataOutput dOut) throws IOException {
+        if (LiteWorkflowStoreService.isCompactInstanceSerialization()) {
+            writeCompact(dOut);
+            return;
+        }
 
         dOut.writeUTF(instanceId);
-
-        //Hadoop Configuration has to get its act right
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        conf.writeXml(baos);
-        baos.close();
-        byte[] array = baos.toByteArray();
-        dOut.writeInt(array.length);
-        dOut.write(array);
-
-        def.write(dOut);
+        writeConfAndDef(dOut);
         dOut.writeUTF(status.toString());
         dOut.writeInt(executionPaths.size());
         for (Map.Entry<String, NodeInstance> entry : executionPaths.entrySet()) {
@@ -579,19 +586,118 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         }
     }
 
-    @Override
-    public void readFields(DataInput dIn) throws IOException {
-        instanceId = dIn.readUTF();
-
+    private void writeConfAndDef(DataOutput dOut) throws IOException {
         //Hadoop Configuration has to get its act right
-        int len = dIn.readInt();
-        byte[] array = new byte[len];
-        dIn.readFully(array);
-        ByteArrayInputStream bais = new ByteArrayInputStream(array);
-        conf = new XConfiguration(bais);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        conf.writeXml(baos);
+        baos.close();
+        byte[] array = baos.toByteArray();
+        dOut.writeInt(array.length);
+        dOut.write(array);
 
-        def = new LiteWorkflowApp();
-        def.readFields(dIn);
+        def.write(dOut);
+    }
+
+    /**
+     * Write the instance in the compact format.
+     * <p>
+     * The state is written with variable length integers, the strings are written once in a dictionary and referred to
+     * by their index, the execution paths are sorted and written as the length of the prefix shared with the previous
+     * path followed by the rest of the path, and the variable names are split in node name and variable name.
+     */
+    private void writeCompact(DataOutput dOut) throws IOException {
+        dOut.writeShort(COMPACT_SERIALIZATION_FLAG);
+        dOut.writeByte(COMPACT_SERIALIZATION_VERSION);
+        writeConfAndDef(dOut);
+
+        Map<String, Integer> dictionary = new LinkedHashMap<String, Integer>();
+        ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+        DataOutputStream state = new DataOutputStream(stateBytes);
+        writeDictionaryIndex(state, dictionary, instanceId);
+        writeDictionaryIndex(state, dictionary, status.toString());
+
+        List<String> paths = new ArrayList<String>(executionPaths.keySet());
+        Collections.sort(paths);
+        WritableUtils.writeVInt(state, paths.size());
+        String previousPath = "";
+        for (String path : paths) {
+            int prefix = 0;
+            int maxPrefix = Math.min(previousPath.length(), path.length());
+            while (prefix < maxPrefix && previousPath.charAt(prefix) == path.charAt(prefix)) {
+                prefix++;
+            }
+            WritableUtils.writeVInt(state, prefix);
+            writeDictionaryIndex(state, dictionary, path.substring(prefix));
+            NodeInstance nodeInstance = executionPaths.get(path);
+            writeDictionaryIndex(state, dictionary, nodeInstance.nodeName);
+            state.writeBoolean(nodeInstance.started);
+            previousPath = path;
+        }
+
+        List<String> names = new ArrayList<String>(persistentVars.keySet());
+        Collections.sort(names);
+        WritableUtils.writeVInt(state, names.size());
+        for (String name : names) {
+            int separator = name.indexOf(NODE_VAR_SEPARATOR);
+            if (separator >= 0) {
+                WritableUtils.writeVInt(state, 1 + getDictionaryIndex(dictionary, name.substring(0, separator)));
+                writeDictionaryIndex(state, dictionary, name.substring(separator + NODE_VAR_SEPARATOR.length()));
+            }
+            else {
+                WritableUtils.writeVInt(state, 0);
+                writeDictionaryIndex(state, dictionary, name);
+            }
+            String value = persistentVars.get(name);
+            if (value == null) {
+                WritableUtils.writeVInt(state, 0);
+            }
+            else if (value.length() <= MAX_DICTIONARY_VALUE_LENGTH) {
+                WritableUtils.writeVInt(state, (1 + getDictionaryIndex(dictionary, value)) << 1);
+            }
+            else {
+                WritableUtils.writeVInt(state, 1);
+                Text.writeString(state, value);
+            }
+        }
+        state.close();
+
+        WritableUtils.writeVInt(dOut, dictionary.size());
+        for (String string : dictionary.keySet()) {
+            Text.writeString(dOut, string);
+        }
+        dOut.write(stateBytes.toByteArray());
+    }
+
+    private static int getDictionaryIndex(Map<String, Integer> dictionary, String string) {
+        Integer index = dictionary.get(string);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(string, index);
+        }
+        return index;
+    }
+
+    private static void writeDictionaryIndex(DataOutput dOut, Map<String, Integer> dictionary, String string)
+            throws IOException {
+        WritableUtils.writeVInt(dOut, getDictionaryIndex(dictionary, string));
+    }
+
+    @Override
+    public void readFields(DataInput dIn) throws IOException {
+        int instanceIdLength = dIn.readUnsignedShort();
+        if (instanceIdLength == COMPACT_SERIALIZATION_FLAG) {
+            readCompact(dIn);
+            refreshLog();
+            return;
+        }
+        // the length of the instance id was read, read it back as written by writeUTF()
+        byte[] instanceIdBytes = new byte[2 + instanceIdLength];
+        instanceIdBytes[0] = (byte) (instanceIdLength >>> 8);
+        instanceIdBytes[1] = (byte) instanceIdLength;
+        dIn.readFully(instanceIdBytes, 2, instanceIdLength);
+        instanceId = new DataInputStream(new ByteArrayInputStream(instanceIdBytes)).readUTF();
+
+        readConfAndDef(dIn);
         status = Status.valueOf(dIn.readUTF());
         int numExPaths = dIn.readInt();
         for (int x = 0; x < numExPaths; x++) {
@@ -610,6 +716,62 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         refreshLog();
     }
 
+    private void readConfAndDef(DataInput dIn) throws IOException {
+        //Hadoop Configuration has to get its act right
+        int len = dIn.readInt();
+        byte[] array = new byte[len];
+        dIn.readFully(array);
+        ByteArrayInputStream bais = new ByteArrayInputStream(array);
+        conf = new XConfiguration(bais);
+
+        def = new LiteWorkflowApp();
+        def.readFields(dIn);
+    }
+
+    private void readCompact(DataInput dIn) throws IOException {
+        byte version = dIn.readByte();
+        if (version != COMPACT_SERIALIZATION_VERSION) {
+            throw new IOException("Unsupported workflow instance serialization version " + version);
+        }
+        readConfAndDef(dIn);
+
+        String[] dictionary = new String[WritableUtils.readVInt(dIn)];
+        for (int x = 0; x < dictionary.length; x++) {
+            dictionary[x] = Text.readString(dIn);
+        }
+        instanceId = dictionary[WritableUtils.readVInt(dIn)];
+        status = Status.valueOf(dictionary[WritableUtils.readVInt(dIn)]);
+
+        int numExPaths = WritableUtils.readVInt(dIn);
+        String path = "";
+        for (int x = 0; x < numExPaths; x++) {
+            int prefix = WritableUtils.readVInt(dIn);
+            path = path.substring(0, prefix) + dictionary[WritableUtils.readVInt(dIn)];
+            NodeInstance nodeInstance = new NodeInstance(dictionary[WritableUtils.readVInt(dIn)]);
+            nodeInstance.started = dIn.readBoolean();
+            executionPaths.put(path, nodeInstance);
+        }
+
+        int numVars = WritableUtils.readVInt(dIn);
+        for (int x = 0; x < numVars; x++) {
+            int nodeIndex = WritableUtils.readVInt(dIn);
+            String name = dictionary[WritableUtils.readVInt(dIn)];
+            if (nodeIndex > 0) {
+                name = dictionary[nodeIndex - 1] + NODE_VAR_SEPARATOR + name;
+            }
+            int value = WritableUtils.readVInt(dIn);
+            if (value == 0) {
+                persistentVars.put(name, null);
+            }
+            else if (value == 1) {
+                persistentVars.put(name, Text.readString(dIn));
+            }
+            else {
+                persistentVars.put(name, dictionary[(value >> 1) - 1]);
+            }
+        }
+    }
+
     @Override
     public Configuration getConf() {
         return conf;
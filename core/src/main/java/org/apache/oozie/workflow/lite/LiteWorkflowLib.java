@@ -51,9 +51,24 @@ public abstract class LiteWorkflowLib implements WorkflowLib {
 
     @Override
     public WorkflowApp parseDef(String appXml, Configuration jobConf, Configuration configDefault) throws WorkflowException {
+        return parseDef(appXml, jobConf, configDefault, true);
+    }
+
+    /**
+     * Parse a workflow application definition.
+     *
+     * @param appXml application definition.
+     * @param jobConf job configuration.
+     * @param configDefault configuration from config-default.xml.
+     * @param validateSchema if the definition has to be validated against the schema.
+     * @return the parsed workflow application.
+     * @throws WorkflowException thrown if the definition could not be parsed.
+     */
+    public WorkflowApp parseDef(String appXml, Configuration jobConf, Configuration configDefault,
+            boolean validateSchema) throws WorkflowException {
         ParamChecker.notEmpty(appXml, "appXml");
         return new LiteWorkflowAppParser(schema, controlHandlerClass, decisionHandlerClass, actionHandlerClass)
-                .validateAndParse(new StringReader(appXml), jobConf, configDefault);
+                .validateAndParse(new StringReader(appXml), jobConf, configDefault, validateSchema);
     }
 
     @Override
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.client.Job;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonTags;
+import org.apache.oozie.test.XTestCase;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+import org.json.simple.JSONValue;
+
+public class TestOozieJsonFactory extends XTestCase {
+
+    private String toString(JSONStreamAware json) throws Exception {
+        StringWriter writer = new StringWriter();
+        json.writeJSONString(writer);
+        return writer.toString();
+    }
+
+    public void testWFJSONStream() throws Exception {
+        List<WorkflowJobBean> workflows = new ArrayList<WorkflowJobBean>();
+        for (int i = 0; i < 3; i++) {
+            WorkflowJobBean workflow = new WorkflowJobBean();
+            workflow.setId("000000" + i + "-oozie-W");
+            workflow.setAppName("app \"" + i + "\"");
+            workflow.setStatus(WorkflowJob.Status.RUNNING);
+            workflow.setCreatedTime(new Date(i * 1000));
+            workflows.add(workflow);
+        }
+        WorkflowsInfo jobs = new WorkflowsInfo(workflows, 11, 3, 20);
+
+        String stream = toString(OozieJsonFactory.getWFJSONStream(jobs, "GMT"));
+        JSONObject json = (JSONObject) JSONValue.parse(stream);
+        assertEquals(JSONValue.parse(toString(OozieJsonFactory.getWFJSONObject(jobs, "GMT"))), json);
+        assertEquals(20L, json.get(JsonTags.WORKFLOWS_TOTAL));
+        assertEquals(11L, json.get(JsonTags.WORKFLOWS_OFFSET));
+        assertEquals(3L, json.get(JsonTags.WORKFLOWS_LEN));
+        JSONArray array = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+        assertEquals(3, array.size());
+        assertEquals("app \"2\"", ((JSONObject) array.get(2)).get(JsonTags.WORKFLOW_APP_NAME));
+    }
+
+    public void testChunkedWFJSONStream() throws Exception {
+        final List<WorkflowJobBean> workflows = new ArrayList<WorkflowJobBean>();
+        for (int i = 0; i < 5; i++) {
+            WorkflowJobBean workflow = new WorkflowJobBean();
+            workflow.setId("000000" + i + "-oozie-W");
+            workflow.setStatus(WorkflowJob.Status.RUNNING);
+            workflows.add(workflow);
+        }
+        final List<Integer> counts = new ArrayList<Integer>();
+        OozieJsonFactory.JobsLoader loader = new OozieJsonFactory.JobsLoader() {
+            @Override
+            public List<? extends JsonBean> load(JsonBean last, int written, int count) {
+                assertEquals(workflows.get(written - 1), last);
+                counts.add(count);
+                return workflows.subList(written, Math.min(written + count, workflows.size()));
+            }
+
+            @Override
+            public String getPageToken(JsonBean last) {
+                return ((WorkflowJobBean) last).getId();
+            }
+        };
+        WorkflowsInfo jobs = new WorkflowsInfo(workflows.subList(0, 2), 1, 2, 5);
+
+        JSONObject json = (JSONObject) JSONValue.parse(toString(OozieJsonFactory.getWFJSONStream(jobs, 4, loader, "GMT")));
+        assertEquals(4, ((JSONArray) json.get(JsonTags.WORKFLOWS_JOBS)).size());
+        assertEquals(4L, json.get(JsonTags.WORKFLOWS_LEN));
+        assertEquals(5L, json.get(JsonTags.WORKFLOWS_TOTAL));
+        assertEquals(Arrays.asList(2), counts);
+        assertEquals(workflows.get(3).getId(), json.get(JsonTags.WORKFLOWS_NEXT_PAGE_TOKEN));
+
+        counts.clear();
+        json = (JSONObject) JSONValue.parse(toString(OozieJsonFactory.getWFJSONStream(jobs, 10, loader, "GMT")));
+        assertEquals(5, ((JSONArray) json.get(JsonTags.WORKFLOWS_JOBS)).size());
+        assertEquals(Arrays.asList(2, 2), counts);
+        assertFalse(json.containsKey(JsonTags.WORKFLOWS_NEXT_PAGE_TOKEN));
+    }
+
+    public void testEmptyJSONStream() throws Exception {
+        CoordinatorJobInfo coordJobs = new CoordinatorJobInfo(new ArrayList<CoordinatorJobBean>(), 1, 50, 0);
+        assertEquals(JSONValue.parse(toString(OozieJsonFactory.getCoordJSONObject(coordJobs, "GMT"))),
+                JSONValue.parse(toString(OozieJsonFactory.getCoordJSONStream(coordJobs, "GMT"))));
+
+        List<BundleJobBean> bundles = new ArrayList<BundleJobBean>();
+        BundleJobBean bundle = new BundleJobBean();
+        bundle.setId("0000000-oozie-B");
+        bundle.setStatus(Job.Status.PREP);
+        bundles.add(bundle);
+        BundleJobInfo bundleJobs = new BundleJobInfo(bundles, 1, 50, 1);
+        assertEquals(JSONValue.parse(toString(OozieJsonFactory.getBundleJSONObject(bundleJobs, "GMT"))),
+                JSONValue.parse(toString(OozieJsonFactory.getBundleJSONStream(bundleJobs, "GMT"))));
+    }
+}
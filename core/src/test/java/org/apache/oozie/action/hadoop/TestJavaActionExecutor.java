@@ -19,6 +19,7 @@
 package org.apache.oozie.action.hadoop;
 
 import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -35,6 +36,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +49,7 @@ import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.security.Credentials;
@@ -2702,4 +2705,45 @@ public class TestJavaActionExecutor extends ActionExecutorTestCase {
                "    </configuration>" +
                "</global>";
     }
+
+    public void testGetActionDataFromCompactFileIsCached() throws Exception {
+        LauncherHelper.clearActionDataCache();
+        FileSystem fs = getFileSystem();
+        Configuration conf = new Configuration(false);
+        conf.set(OozieClient.USER_NAME, getTestUser());
+
+        Path seqActionDir = new Path(getFsTestCaseDir(), "seq");
+        try (SequenceFile.Writer writer = SequenceFile.createWriter(fs, conf,
+                LauncherHelper.getActionDataSequenceFilePath(seqActionDir), Text.class, Text.class)) {
+            writer.append(new Text(LauncherAM.ACTION_DATA_FINAL_STATUS), new Text("FAILED"));
+        }
+        assertEquals(Collections.singletonMap(LauncherAM.ACTION_DATA_FINAL_STATUS, "FAILED"),
+                LauncherHelper.getActionData(fs, seqActionDir, conf));
+
+        Path actionDir = new Path(getFsTestCaseDir(), "compact");
+        writeCompactActionData(fs, actionDir, Collections.singletonMap(LauncherAM.ACTION_DATA_FINAL_STATUS, "SUCCEEDED"));
+        Map<String, String> actionData = LauncherHelper.getActionData(fs, actionDir, conf);
+        assertEquals(Collections.singletonMap(LauncherAM.ACTION_DATA_FINAL_STATUS, "SUCCEEDED"), actionData);
+        assertSame(actionData, LauncherHelper.getActionData(fs, actionDir, conf));
+
+        // a rerun of the launcher rewrites the file, which must invalidate the cached data
+        Map<String, String> rerunData = new HashMap<>();
+        rerunData.put(LauncherAM.ACTION_DATA_FINAL_STATUS, "SUCCEEDED");
+        rerunData.put(LauncherAM.ACTION_DATA_NEW_ID, "job_1_0001");
+        writeCompactActionData(fs, actionDir, rerunData);
+        assertEquals(rerunData, LauncherHelper.getActionData(fs, actionDir, conf));
+
+        ConfigurationService.set(LauncherHelper.CONF_ACTION_DATA_CACHE_SIZE, "0");
+        LauncherHelper.clearActionDataCache();
+        actionData = LauncherHelper.getActionData(fs, actionDir, conf);
+        assertEquals(rerunData, actionData);
+        assertNotSame(actionData, LauncherHelper.getActionData(fs, actionDir, conf));
+    }
+
+    private void writeCompactActionData(FileSystem fs, Path actionDir, Map<String, String> actionData)
+            throws IOException {
+        try (DataOutputStream out = fs.create(LauncherHelper.getActionDataCompactFilePath(actionDir), true)) {
+            ActionDataFormat.write(out, actionData);
+        }
+    }
 }
@@ -26,6 +26,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.oozie.BuildInfo;
 import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.servlet.DagServletTestCase;
 import org.apache.oozie.servlet.MockCoordinatorEngineService;
 import org.apache.oozie.servlet.MockDagEngineService;
@@ -313,6 +314,29 @@ public class TestWorkflowClient extends DagServletTestCase {
         });
     }
 
+    public void testJobsPage() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                OozieClient wc = new OozieClient(oozieUrl);
+
+                WorkflowJob first = MockDagEngineService.workflows.get(0);
+                String token = new JobsKeyset(first.getCreatedTime(), first.getId()).toToken();
+                JobsPage<WorkflowJob> page = wc.getJobsPage("name=x", token, 2);
+                assertEquals(2, page.getJobs().size());
+                assertEquals(MockDagEngineService.workflows.get(1).getId(), page.getJobs().get(0).getId());
+                assertEquals(MockDagEngineService.workflows.get(2).getId(), page.getJobs().get(1).getId());
+                assertNotNull(page.getNextPageToken());
+
+                page = wc.getJobsPage("name=x", page.getNextPageToken(), 2);
+                assertEquals(1, page.getJobs().size());
+                assertEquals(MockDagEngineService.workflows.get(3).getId(), page.getJobs().get(0).getId());
+                assertNull(page.getNextPageToken());
+                return null;
+            }
+        });
+    }
+
     public void testExternalId() throws Exception {
         runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
@@ -18,12 +18,17 @@
 
 package org.apache.oozie.command.wf;
 
+import java.util.Map;
+
+import org.apache.oozie.DagEngine;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.command.XCommand;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
+import org.apache.oozie.service.CallbackService;
+import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
@@ -197,4 +202,44 @@ public class TestCompletedActionXCommand extends XDataTestCase {
         }
         assertEquals(0L, xexceptionCount);
     }
+
+    public void testBatchedCallbacks() throws Exception {
+        services.destroy();
+        services = new Services();
+        services.getConf().setInt(CallbackService.CONF_BATCH_INTERVAL, 200);
+        services.init();
+        final Instrumentation inst = Services.get().get(InstrumentationService.class).get();
+
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowActionBean running = addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.RUNNING);
+        WorkflowActionBean prep = addRecordToWfActionTable(job.getId(), "2", WorkflowAction.Status.PREP);
+        WorkflowActionBean done = addRecordToWfActionTable(job.getId(), "3", WorkflowAction.Status.OK);
+
+        DagEngine dagEngine = Services.get().get(DagEngineService.class).getSystemDagEngine();
+        dagEngine.processCallback(running.getId(), "RUNNING", null);
+        dagEngine.processCallback(running.getId(), "SUCCEEDED", null);
+        dagEngine.processCallback(prep.getId(), "SUCCEEDED", null);
+        dagEngine.processCallback(done.getId(), "SUCCEEDED", null);
+        dagEngine.processCallback(job.getId() + "@unknown", "SUCCEEDED", null);
+
+        waitFor(20000, new Predicate() {
+            @Override
+            public boolean evaluate() throws Exception {
+                return getCounter(inst, XCommand.INSTRUMENTATION_GROUP, "action.check.executions") == 1L
+                        && getCounter(inst, XCommand.INSTRUMENTATION_GROUP, "callback.executions") >= 1L;
+            }
+        });
+        // the last status of the running action was used, a single database read resolved all the callbacks
+        assertEquals(1L, getCounter(inst, XCommand.INSTRUMENTATION_GROUP, "action.check.executions"));
+        assertTrue(getCounter(inst, XCommand.INSTRUMENTATION_GROUP, "callback.executions") >= 1L);
+        assertEquals(4L, getCounter(inst, CallbackService.INSTRUMENTATION_GROUP, "ingested"));
+        assertEquals(1L, getCounter(inst, CallbackService.INSTRUMENTATION_GROUP, "deduplicated"));
+        assertEquals(1L, getCounter(inst, CallbackService.INSTRUMENTATION_GROUP, "batches"));
+    }
+
+    private long getCounter(Instrumentation inst, String group, String name) {
+        Map<String, Instrumentation.Element<Long>> counters = inst.getCounters().get(group);
+        Instrumentation.Element<Long> counter = counters == null ? null : counters.get(name);
+        return counter == null ? 0L : counter.getValue();
+    }
 }
@@ -74,6 +74,37 @@ public class TestCodecFactory extends XTestCase {
         dais.close();
     }
 
+    @Test
+    public void testBuiltInCodecs() throws Exception {
+        String conf = "<configuration>\n  <property>\n    <name>oozie.wf.application.path</name>\n"
+                + "    <value>hdfs://localhost:8020/user/test/app</value>\n  </property>\n  <property>\n"
+                + "    <name>mapreduce.job.queuename</name>\n    <value>default</value>\n  </property>\n"
+                + "</configuration>\n";
+        byte[] gzBytes = CodecFactory.getCompressionCodec().compressString(CodecFactory.getHeaderBytes(), conf);
+
+        Configuration serviceConf = services.getConf();
+        for (String codecName : Arrays.asList(SnappyCompressionCodec.CODEC_NAME, DeflateCompressionCodec.CODEC_NAME)) {
+            serviceConf.set(CodecFactory.COMPRESSION_OUTPUT_CODEC, codecName);
+            CodecFactory.initialize(serviceConf);
+
+            byte[] compressed = CodecFactory.getCompressionCodec().compressString(CodecFactory.getHeaderBytes(), conf);
+            DataInputStream dais = new DataInputStream(new ByteArrayInputStream(compressed));
+            assertEquals(conf, CodecFactory.getDeCompressionCodec(dais).decompressToString(dais));
+
+            byte[] bytes = conf.getBytes(CodecFactory.UTF_8_ENCODING);
+            compressed = CodecFactory.getCompressionCodec().compressBytes(CodecFactory.getHeaderBytes(), bytes);
+            dais = new DataInputStream(new ByteArrayInputStream(compressed));
+            assertTrue(Arrays.equals(bytes, CodecFactory.getDeCompressionCodec(dais).decompressToBytes(dais)));
+
+            // data compressed with the former codec is still readable
+            dais = new DataInputStream(new ByteArrayInputStream(gzBytes));
+            assertEquals(conf, CodecFactory.getDeCompressionCodec(dais).decompressToString(dais));
+        }
+        // the dictionary makes small configurations smaller than with gzip
+        byte[] deflateBytes = CodecFactory.getCompressionCodec().compressString(CodecFactory.getHeaderBytes(), conf);
+        assertTrue(deflateBytes.length < gzBytes.length);
+    }
+
     @Test
     public void testCodecFactoryConf() throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
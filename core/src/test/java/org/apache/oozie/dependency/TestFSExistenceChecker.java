@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XFsTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestFSExistenceChecker extends XFsTestCase {
+
+    private Services services = null;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private long getCounter(String name) {
+        Map<String, Instrumentation.Element<Long>> counters = services.get(InstrumentationService.class).get()
+                .getCounters().get(FSExistenceChecker.INSTRUMENTATION_GROUP);
+        return (counters != null && counters.get(name) != null) ? counters.get(name).getValue() : 0;
+    }
+
+    public void testExists() throws Exception {
+        final FileSystem fs = getFileSystem();
+        String nameNode = fs.getUri().getAuthority();
+        Path dir = new Path(getFsTestCaseDir(), "2012/12");
+        fs.mkdirs(new Path(dir, "02"));
+
+        FSExistenceChecker checker = new FSExistenceChecker(0, 0, 0);
+        assertTrue(checker.exists(fs, getTestUser(), new Path(dir, "02")));
+        assertFalse(checker.exists(fs, getTestUser(), new Path(dir, "03")));
+        assertFalse(checker.exists(fs, getTestUser(), new Path(dir, "03")));
+        assertEquals(3, getCounter(nameNode + ".exists"));
+        assertEquals(0, getCounter(FSExistenceChecker.MISSING_CACHE_HITS));
+    }
+
+    public void testMissingCache() throws Exception {
+        FileSystem fs = getFileSystem();
+        String nameNode = fs.getUri().getAuthority();
+        Path path = new Path(getFsTestCaseDir(), "2012/12/03");
+
+        FSExistenceChecker checker = new FSExistenceChecker(0, 500, 10);
+        assertFalse(checker.exists(fs, getTestUser(), path));
+        fs.mkdirs(path);
+        assertFalse(checker.exists(fs, getTestUser(), path));
+        assertEquals(1, getCounter(nameNode + ".exists"));
+        assertEquals(1, getCounter(FSExistenceChecker.MISSING_CACHE_HITS));
+
+        Thread.sleep(600);
+        assertTrue(checker.exists(fs, getTestUser(), path));
+        assertTrue(checker.exists(fs, getTestUser(), path));
+        assertEquals(3, getCounter(nameNode + ".exists"));
+    }
+
+    public void testCoalescedChecks() throws Exception {
+        final FileSystem fs = getFileSystem();
+        String nameNode = fs.getUri().getAuthority();
+        final Path dir = new Path(getFsTestCaseDir(), "2012/12");
+        for (int i = 0; i < 5; i++) {
+            fs.mkdirs(new Path(dir, "0" + i));
+        }
+
+        final FSExistenceChecker checker = new FSExistenceChecker(1000, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 10; i++) {
+                final Path path = new Path(dir, "0" + i % 8);
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return checker.exists(fs, getTestUser(), path);
+                    }
+                }));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i % 8 < 5, (boolean) results.get(i).get());
+            }
+        }
+        finally {
+            executor.shutdown();
+            checker.destroy();
+        }
+        assertEquals(1, getCounter(nameNode + ".listStatus"));
+        assertEquals(0, getCounter(nameNode + ".exists"));
+        assertEquals(9, getCounter(FSExistenceChecker.COALESCED));
+
+        // the children of a missing directory are missing
+        assertFalse(checker.exists(fs, getTestUser(), new Path(dir, "missing/00")));
+        assertEquals(1, getCounter(nameNode + ".exists"));
+    }
+
+    public void testBatchClosedByCollector() throws Exception {
+        final FileSystem fs = getFileSystem();
+        final Path dir = new Path(getFsTestCaseDir(), "2012/12");
+        fs.mkdirs(new Path(dir, "01"));
+
+        // the window is never reached, the batch is closed when the checker is destroyed
+        final FSExistenceChecker checker = new FSExistenceChecker(60 * 60 * 1000, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> exists = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return checker.exists(fs, getTestUser(), new Path(dir, "01"));
+                }
+            });
+            Future<Boolean> missing = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return checker.exists(fs, getTestUser(), new Path(dir, "02"));
+                }
+            });
+            Thread.sleep(500);
+            assertFalse(exists.isDone());
+            checker.destroy();
+            assertTrue(exists.get(10, TimeUnit.SECONDS));
+            assertFalse(missing.get(10, TimeUnit.SECONDS));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
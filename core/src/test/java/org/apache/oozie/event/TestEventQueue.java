@@ -18,8 +18,14 @@
 
 package org.apache.oozie.event;
 
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.RandomAccessFile;
+import java.util.List;
+
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.event.Event;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.JMSAccessorService;
 import org.apache.oozie.service.JMSTopicService;
@@ -31,7 +37,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 /**
- * Test case to check correct functioning of MemoryEventQueue
+ * Test case to check correct functioning of MemoryEventQueue and PersistentEventQueue
  */
 public class TestEventQueue extends XDataTestCase {
 
@@ -127,4 +133,131 @@ public class TestEventQueue extends XDataTestCase {
         assertEquals(eventQ.size(), 0);
     }
 
+
+    @Test
+    public void testPersistentEventQueueRecovery() throws Exception {
+        services.destroy();
+        services = createPersistentQueueServices(1024 * 1024);
+        EventQueue eventQ = services.get(EventHandlerService.class).getEventQueue();
+        assertTrue(eventQ instanceof PersistentEventQueue);
+        for (int i = 0; i < 10; i++) {
+            eventQ.add(new WorkflowJobEvent("000000" + i + "-W", null, WorkflowJob.Status.RUNNING, getTestUser(),
+                    "myapp", null, null));
+        }
+        List<Event> polled = eventQ.pollBatch();
+        assertEquals(3, polled.size());
+        Event fourth = eventQ.poll();
+        assertEquals("0000003-W", ((WorkflowJobEvent) fourth).getId());
+        Event fifth = eventQ.poll();
+        // the offset only moves past the events acknowledged in order
+        eventQ.acknowledge(polled.get(1));
+        eventQ.acknowledge(fifth);
+        assertEquals(5, ((PersistentEventQueue) eventQ).getInFlight());
+        eventQ.acknowledge(polled.get(0));
+        eventQ.acknowledge(polled.get(2));
+        eventQ.acknowledge(fourth);
+        assertEquals(0, ((PersistentEventQueue) eventQ).getInFlight());
+        // polled but not acknowledged
+        assertEquals("0000005-W", ((WorkflowJobEvent) eventQ.poll()).getId());
+        services.destroy();
+
+        // only the events not yet delivered are replayed
+        services = createPersistentQueueServices(1024 * 1024);
+        eventQ = services.get(EventHandlerService.class).getEventQueue();
+        assertEquals(5, ((PersistentEventQueue) eventQ).getRecoveredEvents());
+        assertEquals(5, eventQ.size());
+        WorkflowJobEvent event = (WorkflowJobEvent) eventQ.poll();
+        assertEquals("0000005-W", event.getId());
+        assertEquals(Event.MessageType.JOB, event.getMsgType());
+        assertEquals(WorkflowJob.Status.RUNNING, event.getStatus());
+        assertEquals(getTestUser(), event.getUser());
+        eventQ.clear();
+        services.destroy();
+
+        services = createPersistentQueueServices(1024 * 1024);
+        assertTrue(services.get(EventHandlerService.class).getEventQueue().isEmpty());
+    }
+
+    @Test
+    public void testPersistentEventQueueCompaction() throws Exception {
+        services.destroy();
+        services = createPersistentQueueServices(4096);
+        EventQueue eventQ = services.get(EventHandlerService.class).getEventQueue();
+        for (int i = 0; i < 100; i++) {
+            eventQ.add(new WorkflowJobEvent("job-" + i, null, WorkflowJob.Status.RUNNING, getTestUser(), "myapp",
+                    null, null));
+        }
+        File dir = new File(getTestCaseDir(), "events");
+        int segments = dir.list().length - 1;
+        assertTrue(segments > 2);
+        for (int i = 0; i < 90; i++) {
+            Event event = eventQ.poll();
+            assertEquals("job-" + i, ((WorkflowJobEvent) event).getId());
+            eventQ.acknowledge(event);
+        }
+        ((PersistentEventQueue) eventQ).close();
+        assertTrue(dir.list().length - 1 < segments);
+        services.destroy();
+
+        services = createPersistentQueueServices(4096);
+        eventQ = services.get(EventHandlerService.class).getEventQueue();
+        assertEquals(10, eventQ.size());
+        assertEquals("job-90", ((WorkflowJobEvent) eventQ.peek()).getId());
+    }
+
+    @Test
+    public void testPersistentEventQueueTornRecord() throws Exception {
+        services.destroy();
+        services = createPersistentQueueServices(1024 * 1024);
+        EventQueue eventQ = services.get(EventHandlerService.class).getEventQueue();
+        for (int i = 0; i < 3; i++) {
+            eventQ.add(new WorkflowJobEvent("job-" + i, null, WorkflowJob.Status.RUNNING, getTestUser(), "myapp",
+                    null, null));
+        }
+        services.destroy();
+
+        // corrupt the last record as a crash in the middle of a write would
+        File segment = new File(getTestCaseDir(), "events").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".log");
+            }
+        })[0];
+        RandomAccessFile raf = new RandomAccessFile(segment, "rw");
+        int position = 0;
+        for (int i = 0; i < 2; i++) {
+            raf.seek(position);
+            position += raf.readInt() + 9;
+        }
+        raf.seek(position + 20);
+        raf.writeLong(-1L);
+        raf.close();
+
+        services = createPersistentQueueServices(1024 * 1024);
+        eventQ = services.get(EventHandlerService.class).getEventQueue();
+        assertEquals(2, eventQ.size());
+        eventQ.add(new WorkflowJobEvent("job-3", null, WorkflowJob.Status.RUNNING, getTestUser(), "myapp", null, null));
+        services.destroy();
+
+        services = createPersistentQueueServices(1024 * 1024);
+        eventQ = services.get(EventHandlerService.class).getEventQueue();
+        assertEquals(3, eventQ.size());
+        eventQ.poll();
+        eventQ.poll();
+        assertEquals("job-3", ((WorkflowJobEvent) eventQ.poll()).getId());
+    }
+
+    private Services createPersistentQueueServices(int segmentSize) throws Exception {
+        Services services = new Services();
+        Configuration conf = services.getConf();
+        conf.set(Services.CONF_SERVICE_EXT_CLASSES, EventHandlerService.class.getName());
+        conf.set(EventHandlerService.CONF_EVENT_QUEUE, PersistentEventQueue.class.getName());
+        conf.set(EventHandlerService.CONF_LISTENERS, "");
+        conf.setInt(EventHandlerService.CONF_BATCH_SIZE, 3);
+        conf.set(PersistentEventQueue.CONF_DIR, new File(getTestCaseDir(), "events").getAbsolutePath());
+        conf.setInt(PersistentEventQueue.CONF_SEGMENT_SIZE, segmentSize);
+        services.init();
+        return services;
+    }
+
 }
@@ -20,7 +20,10 @@ package org.apache.oozie.executor.jpa;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.CoordinatorJobBean;
@@ -38,9 +41,11 @@ import org.apache.oozie.executor.jpa.CoordActionQueryExecutor.CoordActionQuery;
 import org.apache.oozie.executor.jpa.CoordJobQueryExecutor.CoordJobQuery;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.workflow.WorkflowInstance;
 
 public class TestBatchQueryExecutor extends XDataTestCase {
@@ -106,6 +111,68 @@ public class TestBatchQueryExecutor extends XDataTestCase {
         }
     }
 
+    public void testExecuteBatchUpdateGroupCommit() throws Exception {
+        services.destroy();
+        setSystemProperty(JPAService.CONF_GROUP_COMMIT_WINDOW, "10000");
+        setSystemProperty(JPAService.CONF_GROUP_COMMIT_MAX_BATCHES, "4");
+        services = new Services();
+        services.init();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Exception> errors = Collections.synchronizedList(new ArrayList<Exception>());
+        List<WorkflowJobBean> wfJobs = new ArrayList<WorkflowJobBean>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            final WorkflowJobBean wfJob = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+            wfJobs.add(wfJob);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        List<UpdateEntry> updateList = new ArrayList<UpdateEntry>();
+                        wfJob.setStatus(WorkflowJob.Status.RUNNING);
+                        updateList.add(new UpdateEntry<WorkflowJobQuery>(WorkflowJobQuery.UPDATE_WORKFLOW_STATUS_MODTIME,
+                                wfJob));
+                        wfJob.setStatus(WorkflowJob.Status.SUCCEEDED);
+                        updateList.add(new UpdateEntry<WorkflowJobQuery>(WorkflowJobQuery.UPDATE_WORKFLOW_STATUS_MODTIME,
+                                wfJob));
+                        BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(null, updateList, null);
+                    }
+                    catch (Exception ex) {
+                        errors.add(ex);
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        long commits = getCounter("batch.commits");
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        for (WorkflowJobBean wfJob : wfJobs) {
+            assertEquals("SUCCEEDED", WorkflowJobQueryExecutor.getInstance().get(WorkflowJobQuery.GET_WORKFLOW_STATUS,
+                    wfJob.getId()).getStatusStr());
+        }
+        // the four batches are committed together, with one update per job
+        assertEquals(commits + 1, getCounter("batch.commits"));
+        assertEquals(1, getCounter("batch.group.commits"));
+        assertEquals(4, getCounter("batch.coalesced.updates"));
+    }
+
+    private long getCounter(String name) {
+        Map<String, Instrumentation.Element<Long>> counters = services.get(InstrumentationService.class).get()
+                .getCounters().get("jpa");
+        if (counters == null || counters.get(name) == null) {
+            return 0;
+        }
+        return counters.get(name).getValue();
+    }
+
     public void testExecuteBatchUpdateInsertDeleteRollBack() throws Exception {
         BatchQueryExecutor executor = BatchQueryExecutor.getInstance();
         WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.HashSet;
 
 import javax.persistence.EntityManager;
@@ -35,10 +36,12 @@ import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.workflow.WorkflowInstance;
 
 public class TestWorkflowJobQueryExecutor extends XDataTestCase {
@@ -302,11 +305,18 @@ public class TestWorkflowJobQueryExecutor extends XDataTestCase {
         assertEquals(ByteBuffer.wrap(bean.getWfInstanceBlob().getBytes()).getInt(),
                 ByteBuffer.wrap(retBean.getWfInstanceBlob().getBytes()).getInt());
         assertEquals(bean.getSlaXml(), retBean.getSlaXml());
+        assertTrue(retBean.getProtoActionConfBlob().isLazy());
         assertEquals(bean.getProtoActionConf(), retBean.getProtoActionConf());
+        assertFalse(retBean.getProtoActionConfBlob().isLazy());
         assertNull(retBean.getConf());
 
         // GET_WORKFLOW_RESUME
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        long protoBytes = getCounter(instr, WorkflowJobQueryExecutor.GET_WORKFLOW_PROTO_ACTION_CONF + ".blob.bytes");
         retBean = WorkflowJobQueryExecutor.getInstance().get(WorkflowJobQuery.GET_WORKFLOW_RESUME, bean.getId());
+        assertTrue(getCounter(instr, WorkflowJobQuery.GET_WORKFLOW_RESUME.name() + ".blob.bytes") > 0);
+        assertEquals(protoBytes,
+                getCounter(instr, WorkflowJobQueryExecutor.GET_WORKFLOW_PROTO_ACTION_CONF + ".blob.bytes"));
         assertEquals(bean.getId(), retBean.getId());
         assertEquals(bean.getUser(), retBean.getUser());
         assertEquals(bean.getGroup(), retBean.getGroup());
@@ -320,6 +330,8 @@ public class TestWorkflowJobQueryExecutor extends XDataTestCase {
         assertEquals(ByteBuffer.wrap(bean.getWfInstanceBlob().getBytes()).getInt(),
                 ByteBuffer.wrap(retBean.getWfInstanceBlob().getBytes()).getInt());
         assertEquals(bean.getProtoActionConf(), retBean.getProtoActionConf());
+        assertEquals(protoBytes + bean.getProtoActionConfBlob().getRawBlob().length,
+                getCounter(instr, WorkflowJobQueryExecutor.GET_WORKFLOW_PROTO_ACTION_CONF + ".blob.bytes"));
         assertNull(retBean.getConf());
         assertNull(retBean.getSlaXml());
 
@@ -329,6 +341,14 @@ public class TestWorkflowJobQueryExecutor extends XDataTestCase {
         assertEquals(bean.getStatus(), retBean.getStatus());
     }
 
+    private long getCounter(Instrumentation instr, String name) {
+        Map<String, Instrumentation.Element<Long>> counters = instr.getCounters().get(BlobLoader.INSTRUMENTATION_GROUP);
+        if (counters == null || counters.get(name) == null) {
+            return 0;
+        }
+        return counters.get(name).getValue();
+    }
+
     public void testGetList() throws Exception {
         // GET_WORKFLOWS_PARENT_COORD_RERUN
         CoordinatorJobBean coordJob = addRecordToCoordJobTable(CoordinatorJob.Status.SUCCEEDED, null, null, false,
@@ -19,10 +19,13 @@
 package org.apache.oozie.executor.jpa;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
@@ -36,6 +39,7 @@ import org.apache.oozie.service.LiteWorkflowStoreService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowInstance;
 import org.apache.oozie.workflow.lite.LiteWorkflowApp;
@@ -65,6 +69,45 @@ public class TestWorkflowsJobGetJPAExecutor extends XDataTestCase {
         System.out.println("testWfJobsGet Successful");
     }
 
+    public void testWfJobsGetAfterKeyset() throws Exception {
+        addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+        addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+        addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+        JPAService jpaService = Services.get().get(JPAService.class);
+
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        WorkflowsInfo wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, 1, 2));
+        assertEquals(2, wfInfo.getWorkflows().size());
+        assertEquals(3, wfInfo.getTotal());
+        Set<String> ids = new HashSet<String>();
+        for (WorkflowJobBean wfBean : wfInfo.getWorkflows()) {
+            ids.add(wfBean.getId());
+        }
+
+        WorkflowJobBean last = wfInfo.getWorkflows().get(1);
+        JobsKeyset after = new JobsKeyset(last.getCreatedTime(), last.getId());
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, after, 2));
+        assertEquals(1, wfInfo.getWorkflows().size());
+        assertEquals(-1, wfInfo.getTotal());
+        assertTrue(ids.add(wfInfo.getWorkflows().get(0).getId()));
+
+        filter.put(OozieClient.FILTER_STATUS, Arrays.asList(WorkflowJob.Status.PREP.toString()));
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, after, 2));
+        assertEquals(1, wfInfo.getWorkflows().size());
+        filter.put(OozieClient.FILTER_STATUS, Arrays.asList(WorkflowJob.Status.RUNNING.toString()));
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, after, 2));
+        assertEquals(0, wfInfo.getWorkflows().size());
+
+        filter.put(OozieClient.FILTER_SORT_BY, Arrays.asList(OozieClient.SORT_BY.lastModifiedTime.toString()));
+        try {
+            jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, after, 2));
+            fail("WorkflowsJobGetJPAExecutor should have thrown E0302 exception.");
+        }
+        catch (XException e) {
+            assertEquals(ErrorCode.E0302, e.getErrorCode());
+        }
+    }
+
     private void _testGetWFInfos() throws JPAExecutorException {
         JPAService jpaService = Services.get().get(JPAService.class);
         assertNotNull(jpaService);
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.lock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.oozie.service.MemoryLocksService;
+import org.apache.oozie.service.MemoryLocksService.Type;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StripedMemoryLocksService;
+import org.apache.oozie.test.XTestCase;
+
+public class TestStripedMemoryLocks extends XTestCase {
+
+    public void testStripes() {
+        assertEquals(1, new StripedMemoryLocks(1, true).getStripes());
+        assertEquals(16, new StripedMemoryLocks(16, true).getStripes());
+        assertEquals(32, new StripedMemoryLocks(17, false).getStripes());
+        try {
+            new StripedMemoryLocks(0, true);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        StripedMemoryLocks locks = new StripedMemoryLocks(64, true);
+        String id = "0000001-180101000000000-oozie-oozi-W";
+        assertEquals(locks.getStripe(id), locks.getStripe(new String(id)));
+        assertTrue(locks.getStripe(id) >= 0 && locks.getStripe(id) < 64);
+    }
+
+    public void testReadWriteLock() throws Exception {
+        final StripedMemoryLocks locks = new StripedMemoryLocks(16, true);
+        assertEquals(0, locks.size());
+
+        LockToken read1 = locks.getLock("a", Type.READ, 0);
+        LockToken read2 = locks.getLock("a", Type.READ, 0);
+        assertNotNull(read1);
+        assertNotNull(read2);
+        assertEquals(1, locks.size());
+
+        final AtomicReference<LockToken> write = new AtomicReference<LockToken>();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write.set(locks.getLock("a", Type.WRITE, 100));
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+        writer.start();
+        writer.join();
+        assertNull(write.get());
+        assertEquals(1, locks.getContention()[locks.getStripe("a")]);
+
+        read1.release();
+        read2.release();
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    LockToken token = locks.getLock("a", Type.WRITE, 0);
+                    write.set(token);
+                    token.release();
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+        writer.start();
+        writer.join();
+        assertNotNull(write.get());
+    }
+
+    public void testWriteLockWaits() throws Exception {
+        final StripedMemoryLocks locks = new StripedMemoryLocks(16, true);
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    LockToken token = locks.getLock("a", Type.WRITE, -1);
+                    locked.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    token.release();
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        assertNull(locks.getLock("a", Type.WRITE, 0));
+        assertNull(locks.getLock("a", Type.READ, 10));
+        release.countDown();
+        holder.join();
+        LockToken token = locks.getLock("a", Type.WRITE, 0);
+        assertNotNull(token);
+        token.release();
+        assertEquals(2, locks.getContention()[locks.getStripe("a")]);
+    }
+
+    public void testLockReentrant() throws Exception {
+        StripedMemoryLocks locks = new StripedMemoryLocks(16, true);
+        LockToken lock1 = locks.getLock("a", Type.WRITE, 0);
+        LockToken lock2 = locks.getLock("a", Type.WRITE, 0);
+        LockToken lock3 = locks.getLock("a", Type.READ, 0);
+        assertNotNull(lock1);
+        assertNotNull(lock2);
+        assertNotNull(lock3);
+        assertEquals(1, locks.size());
+        lock3.release();
+        lock2.release();
+        assertEquals(1, locks.size());
+        lock1.release();
+        assertFalse(locks.getStripeLock("a").isWriteLocked());
+        assertEquals(0, locks.size());
+    }
+
+    public void testResourcesOfSameStripeShareLock() throws Exception {
+        final StripedMemoryLocks locks = new StripedMemoryLocks(1, true);
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // nested locks, like a workflow job and its parent coordinator action
+                    LockToken child = locks.getLock("child", Type.WRITE, -1);
+                    LockToken parent = locks.getLock("parent", Type.WRITE, -1);
+                    locked.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    parent.release();
+                    child.release();
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+        holder.start();
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            assertSame(locks.getStripeLock("child"), locks.getStripeLock("other"));
+            assertEquals(1, locks.size());
+            assertNull(locks.getLock("other", Type.WRITE, 0));
+            assertNull(locks.getLock("other", Type.READ, 10));
+            assertEquals(2, locks.getContention()[0]);
+        }
+        finally {
+            release.countDown();
+            holder.join();
+        }
+        LockToken other = locks.getLock("other", Type.WRITE, 0);
+        assertNotNull(other);
+        other.release();
+        assertEquals(0, locks.size());
+    }
+
+    public void testNoWriteLockOnReadLockedStripe() throws Exception {
+        StripedMemoryLocks locks = new StripedMemoryLocks(1, true);
+        LockToken read = locks.getLock("a", Type.READ, -1);
+        assertNotNull(read);
+        // would never be granted, it is refused even with no timeout
+        assertNull(locks.getLock("b", Type.WRITE, -1));
+        assertEquals(1, locks.getContention()[0]);
+        LockToken readB = locks.getLock("b", Type.READ, 0);
+        assertNotNull(readB);
+        readB.release();
+        read.release();
+
+        LockToken write = locks.getLock("a", Type.WRITE, 0);
+        assertNotNull(write);
+        LockToken readB2 = locks.getLock("b", Type.READ, 0);
+        LockToken writeB = locks.getLock("b", Type.WRITE, 0);
+        assertNotNull(readB2);
+        assertNotNull(writeB);
+        writeB.release();
+        readB2.release();
+        write.release();
+        assertEquals(0, locks.size());
+    }
+
+    public void testService() throws Exception {
+        setSystemProperty(Services.CONF_SERVICE_EXT_CLASSES, StripedMemoryLocksService.class.getName());
+        setSystemProperty(StripedMemoryLocksService.CONF_STRIPES, "100");
+        Services services = new Services();
+        services.init();
+        try {
+            MemoryLocksService lockService = services.get(MemoryLocksService.class);
+            assertTrue(lockService instanceof StripedMemoryLocksService);
+            assertEquals(128, ((StripedMemoryLocks) lockService.getMemoryLocks()).getStripes());
+            LockToken token = lockService.getWriteLock("job", 0);
+            assertNotNull(token);
+            assertEquals(1, lockService.getMemoryLocks().size());
+            assertTrue(((StripedMemoryLocks) lockService.getMemoryLocks()).getStripeLock("job").isWriteLocked());
+            token.release();
+            assertFalse(((StripedMemoryLocks) lockService.getMemoryLocks()).getStripeLock("job").isWriteLocked());
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+}
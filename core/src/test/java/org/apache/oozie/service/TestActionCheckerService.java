@@ -22,16 +22,27 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Date;
+import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+import org.apache.hadoop.yarn.client.api.YarnClient;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.executor.jpa.CoordActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionsGetForJobJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
 import org.apache.oozie.CoordinatorActionBean;
@@ -47,8 +58,11 @@ import org.apache.oozie.service.ActionService;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.workflow.WorkflowInstance;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
 
 /**
  * Test cases for the Action Checker Service.
@@ -140,6 +154,100 @@ public class TestActionCheckerService extends XDataTestCase {
         assertEquals(WorkflowActionBean.Status.OK, action2.getStatus());
     }
 
+    /**
+     * Tests the batched YARN status poll of the Action Checker Service Runnable. </p> Adds three running actions with a
+     * launcher, only one of them still live according to the ResourceManager. Verifies that a single RM call is made
+     * per poll, the live action is not checked, and the YARN client is reused on the next poll.
+     *
+     * @throws Exception
+     */
+    public void testActionCheckerServiceYarnStatusPoll() throws Exception {
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        for (int i = 1; i <= 3; i++) {
+            WorkflowActionBean action = createWorkflowAction(job.getId(), "action" + i, WorkflowAction.Status.RUNNING,
+                    true);
+            action.setLastCheckTime(new Date(System.currentTimeMillis() - 60 * 1000));
+            action.setStartData("application_1000_000" + i, "rm:8032", "http://rm:8088");
+            services.get(JPAService.class).execute(new WorkflowActionInsertJPAExecutor(action));
+        }
+
+        final YarnClient yarnClient = Mockito.mock(YarnClient.class);
+        ApplicationReport report = Mockito.mock(ApplicationReport.class);
+        Mockito.when(report.getApplicationId()).thenReturn(ApplicationId.newInstance(1000, 2));
+        Mockito.when(yarnClient.getApplications(Matchers.anySetOf(String.class),
+                Matchers.<EnumSet<YarnApplicationState>>any())).thenReturn(Arrays.asList(report));
+        YarnApplicationStatusPoller poller = new YarnApplicationStatusPoller() {
+            @Override
+            YarnClient createYarnClient(String rm) {
+                return yarnClient;
+            }
+        };
+
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        new ActionCheckRunnable(0, poller).run();
+        assertEquals(1L, getCounter(instr, YarnApplicationStatusPoller.INSTR_RM_CALLS_COUNTER));
+        assertEquals(1L, getCounter(instr, YarnApplicationStatusPoller.INSTR_CLIENTS_CREATED_COUNTER));
+        assertEquals(1L, getCounter(instr, ActionCheckerService.INSTR_SKIPPED_ACTIONS_COUNTER));
+        assertEquals(2L, getCounter(instr, ActionCheckerService.INSTR_CHECK_ACTIONS_COUNTER));
+
+        // the action with a live launcher is still not checked on the next poll, the client is reused
+        WorkflowActionBean live = WorkflowActionQueryExecutor.getInstance().get(WorkflowActionQuery.GET_ACTION,
+                job.getId() + "@action2");
+        live.setLastCheckTime(new Date(System.currentTimeMillis() - 60 * 1000));
+        WorkflowActionQueryExecutor.getInstance().executeUpdate(
+                WorkflowActionQuery.UPDATE_ACTION_FOR_LAST_CHECKED_TIME, live);
+        new ActionCheckRunnable(0, poller).run();
+        assertEquals(2L, getCounter(instr, YarnApplicationStatusPoller.INSTR_RM_CALLS_COUNTER));
+        assertEquals(1L, getCounter(instr, YarnApplicationStatusPoller.INSTR_CLIENTS_REUSED_COUNTER));
+        assertEquals(2L, getCounter(instr, ActionCheckerService.INSTR_SKIPPED_ACTIONS_COUNTER));
+        Mockito.verify(yarnClient, Mockito.times(2)).getApplications(Matchers.anySetOf(String.class),
+                Matchers.<EnumSet<YarnApplicationState>>any());
+        Mockito.verify(yarnClient, Mockito.never()).getApplicationReport(Matchers.any(ApplicationId.class));
+
+        poller.destroy();
+        Mockito.verify(yarnClient).close();
+    }
+
+    /**
+     * Tests that the batched YARN status poll makes a single RM call, as the Oozie user, for the launchers of a
+     * ResourceManager whatever the user of their workflow.
+     *
+     * @throws Exception
+     */
+    public void testYarnStatusPollPerResourceManager() throws Exception {
+        final YarnClient yarnClient = Mockito.mock(YarnClient.class);
+        ApplicationReport report1 = Mockito.mock(ApplicationReport.class);
+        Mockito.when(report1.getApplicationId()).thenReturn(ApplicationId.newInstance(1000, 1));
+        ApplicationReport report2 = Mockito.mock(ApplicationReport.class);
+        Mockito.when(report2.getApplicationId()).thenReturn(ApplicationId.newInstance(1000, 2));
+        Mockito.when(yarnClient.getApplications(Matchers.anySetOf(String.class),
+                Matchers.<EnumSet<YarnApplicationState>>any())).thenReturn(Arrays.asList(report1, report2));
+        final List<String> rms = new ArrayList<String>();
+        YarnApplicationStatusPoller poller = new YarnApplicationStatusPoller() {
+            @Override
+            YarnClient createYarnClient(String rm) {
+                rms.add(rm);
+                return yarnClient;
+            }
+        };
+
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        Set<String> live = poller.getLiveActions(Arrays.asList(
+                new Object[]{"W1@a", "rm:8032", "application_1000_0001"},
+                new Object[]{"W2@a", "rm:8032", "application_1000_0002"},
+                new Object[]{"W3@a", "rm:8032", "application_1000_0003"}), instr);
+        assertEquals(new HashSet<String>(Arrays.asList("W1@a", "W2@a")), live);
+        assertEquals(Arrays.asList("rm:8032"), rms);
+        assertEquals(1L, getCounter(instr, YarnApplicationStatusPoller.INSTR_RM_CALLS_COUNTER));
+        poller.destroy();
+    }
+
+    private long getCounter(Instrumentation instr, String name) {
+        Instrumentation.Element<Long> counter = instr.getCounters().get(ActionCheckerService.INSTRUMENTATION_GROUP)
+                .get(name);
+        return counter == null ? 0 : counter.getValue();
+    }
+
     /**
      * Tests the delayed check functionality of the Action Check Service
      * Runnable. </p> Starts an action which behaves like an Async Action
@@ -24,11 +24,15 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.XCommand;
 import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.VirtualThreadFactory;
 import org.apache.oozie.util.XCallable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -228,6 +232,31 @@ public class TestCallableQueueService extends XTestCase {
         assertTrue(callable.executed >= scheduled + 1000);
     }
 
+    public void testDelayedQueuingWithTimingWheel() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(CallableQueueService.CONF_DELAYED_TIMING_WHEEL, "true");
+        setSystemProperty(CallableQueueService.CONF_DELAYED_TIMING_WHEEL_TICK, "50");
+        new Services().init();
+
+        final CallableQueueService queueservice = Services.get().get(CallableQueueService.class);
+
+        final MyCallable callable = new MyCallable();
+        final MyCallable callableNow = new MyCallable();
+        long scheduled = System.currentTimeMillis();
+        queueservice.queue(callable, 1000);
+        assertEquals(1, queueservice.getQueueDump().size());
+        assertEquals(1, queueservice.queueSize());
+        queueservice.queue(callableNow);
+        waitFor(3000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return callable.executed != 0;
+            }
+        });
+        assertTrue(callableNow.executed != 0);
+        assertTrue(callable.executed >= scheduled + 1000);
+        assertEquals(0, queueservice.queueSize());
+    }
+
     public void testPriorityExecution() throws Exception {
         EXEC_ORDER = new AtomicLong();
         Services.get().destroy();
@@ -262,6 +291,82 @@ public class TestCallableQueueService extends XTestCase {
         assertTrue(callableHigh.order < callableLow.order);
     }
 
+    public void testShardedQueue() throws Exception {
+        EXEC_ORDER = new AtomicLong();
+        Services.get().destroy();
+        setSystemProperty(CallableQueueService.CONF_THREADS, "1");
+        setSystemProperty(CallableQueueService.CONF_QUEUE_SHARDS, "4");
+        new Services().init();
+
+        final CallableQueueService queueservice = Services.get().get(CallableQueueService.class);
+
+        final List<MyCallable> callables = new ArrayList<MyCallable>();
+        for (int i = 0; i < 8; i++) {
+            callables.add(new MyCallable(0, 50));
+        }
+        final MyCallable callableHigh = new MyCallable(1, 10);
+        for (MyCallable callable : callables) {
+            queueservice.queue(callable);
+        }
+        queueservice.queue(callableHigh);
+
+        waitFor(3000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                for (MyCallable callable : callables) {
+                    if (callable.executed == 0) {
+                        return false;
+                    }
+                }
+                return callableHigh.executed != 0;
+            }
+        });
+        for (MyCallable callable : callables) {
+            assertTrue(callable.executed != 0);
+            assertTrue(callableHigh.order < callable.order || callable.order == 0);
+        }
+        assertEquals(0, queueservice.queueSize());
+    }
+
+    public void testQueueSizeWithConcurrentProducers() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(CallableQueueService.CONF_THREADS, "1");
+        setSystemProperty(CallableQueueService.CONF_QUEUE_SIZE, "10");
+        setSystemProperty(CallableQueueService.CONF_QUEUE_SHARDS, "4");
+        new Services().init();
+
+        final CallableQueueService queueservice = Services.get().get(CallableQueueService.class);
+        // keeps the only thread busy, the other callables stay in the queue
+        final MyCallable busy = new MyCallable(0, 3000);
+        assertTrue(queueservice.queue(busy));
+        waitFor(1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return queueservice.queueSize() == 0;
+            }
+        });
+
+        final AtomicInteger queued = new AtomicInteger();
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 20; j++) {
+                        if (queueservice.queue(new MyCallable(0, 0))) {
+                            queued.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(10, queued.get());
+        assertEquals(10, queueservice.queueSize());
+    }
+
     public void testQueueSerial() throws Exception {
         EXEC_ORDER = new AtomicLong();
         final MyCallable callable1 = new MyCallable(0, 10);
@@ -379,6 +484,91 @@ public class TestCallableQueueService extends XTestCase {
         assertTrue(CLCallable.getConcurrency() <= 3);
     }
 
+    public void testConcurrencyLimitWithVirtualThreads() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(CallableQueueService.CONF_VIRTUAL_THREADS, "true");
+        setSystemProperty(CallableQueueService.CONF_VIRTUAL_THREADS_COUNT, "50");
+        new Services().init();
+
+        CLCallable.resetConcurrency();
+        final CallableQueueService queueservice = Services.get().get(CallableQueueService.class);
+
+        for (int i = 0; i < 20; i++) {
+            queueservice.queue(new CLCallable(), 10);
+        }
+
+        float originalRatio = XTestCase.WAITFOR_RATIO;
+        try{
+            XTestCase.WAITFOR_RATIO = 1;
+            waitFor(3000, new Predicate() {
+                public boolean evaluate() throws Exception {
+                    return queueservice.queueSize() == 0;
+                }
+            });
+        }
+        finally {
+            XTestCase.WAITFOR_RATIO = originalRatio;
+        }
+
+        assertEquals(0, queueservice.queueSize());
+        assertTrue(CLCallable.getConcurrency() > 0);
+        assertTrue(CLCallable.getConcurrency() <= 3);
+    }
+
+    public void testVirtualThreadPerCallable() throws Exception {
+        if (!VirtualThreadFactory.isSupported()) {
+            return;
+        }
+        Services.get().destroy();
+        setSystemProperty(CallableQueueService.CONF_VIRTUAL_THREADS, "true");
+        setSystemProperty(CallableQueueService.CONF_VIRTUAL_THREADS_COUNT, "2");
+        new Services().init();
+
+        final CallableQueueService queueservice = Services.get().get(CallableQueueService.class);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+        final List<MyCallable> callables = new ArrayList<MyCallable>();
+        for (int i = 0; i < 6; i++) {
+            callables.add(new MyCallable("type" + i, 0, 100) {
+                @Override
+                public Void call() throws Exception {
+                    threadNames.add(Thread.currentThread().getName());
+                    int current = running.incrementAndGet();
+                    while (current > maxRunning.get()) {
+                        maxRunning.compareAndSet(maxRunning.get(), current);
+                    }
+                    try {
+                        return super.call();
+                    }
+                    finally {
+                        running.decrementAndGet();
+                    }
+                }
+            });
+        }
+        for (MyCallable callable : callables) {
+            queueservice.queue(callable);
+        }
+
+        waitFor(5000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                for (MyCallable callable : callables) {
+                    if (callable.executed == 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+
+        for (MyCallable callable : callables) {
+            assertTrue(callable.executed > 0);
+        }
+        assertEquals(2, maxRunning.get());
+        assertEquals("every callable should run on its own virtual thread", 6, threadNames.size());
+    }
+
     /**
      * When using config 'oozie.service.CallableQueueService.callable.next.eligible' true, the next other type of callables
      * should be invoked when top one in the queue is reached max concurrency.
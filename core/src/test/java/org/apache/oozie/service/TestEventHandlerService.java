@@ -18,24 +18,35 @@
 
 package org.apache.oozie.service;
 
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.spi.LoggingEvent;
+import org.apache.oozie.AppType;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.event.BundleJobEvent;
 import org.apache.oozie.event.CoordinatorActionEvent;
 import org.apache.oozie.event.CoordinatorJobEvent;
+import org.apache.oozie.client.event.SLAEvent;
 import org.apache.oozie.event.MemoryEventQueue;
+import org.apache.oozie.event.PersistentEventQueue;
 import org.apache.oozie.event.WorkflowActionEvent;
 import org.apache.oozie.event.WorkflowJobEvent;
 import org.apache.oozie.event.listener.JobEventListener;
+import org.apache.oozie.sla.SLACalcStatus;
+import org.apache.oozie.sla.SLARegistrationBean;
+import org.apache.oozie.sla.listener.SLAEventListener;
 import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.util.Instrumentation;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -253,6 +264,217 @@ public class TestEventHandlerService extends XDataTestCase {
         return ehs;
     }
 
+    @Test
+    public void testShardedDispatch() throws Exception {
+        Services.get().destroy();
+        Services services = new Services();
+        Configuration conf = services.getConf();
+        conf.set(Services.CONF_SERVICE_EXT_CLASSES, "org.apache.oozie.service.EventHandlerService");
+        conf.set(EventHandlerService.CONF_LISTENERS, BlockingJobEventListener.class.getName() + ","
+                + CountingJobEventListener.class.getName());
+        conf.setInt(EventHandlerService.CONF_DISPATCH_SHARDS, 2);
+        conf.setInt(EventHandlerService.CONF_DISPATCH_SHARD_CAPACITY, 5);
+        conf.set(EventHandlerService.CONF_DISPATCH_DROP_POLICY, EventHandlerService.DropPolicy.DROP_NEWEST.name());
+        services.init();
+        EventHandlerService ehs = services.get(EventHandlerService.class);
+        final Instrumentation instr = services.get(InstrumentationService.class).get();
+
+        BlockingJobEventListener.release = new CountDownLatch(1);
+        CountingJobEventListener.events.set(0);
+        try {
+            for (int i = 0; i < 40; i++) {
+                ehs.queueEvent(new WorkflowJobEvent("job" + i, null, WorkflowJob.Status.RUNNING, getTestUser(), "myapp",
+                        null, null));
+            }
+            // the blocked listener does not delay the other one
+            waitFor(10000, new Predicate() {
+                @Override
+                public boolean evaluate() throws Exception {
+                    return CountingJobEventListener.events.get()
+                            + getDropped(instr, CountingJobEventListener.class) == 40;
+                }
+            });
+            assertEquals(40, CountingJobEventListener.events.get() + getDropped(instr, CountingJobEventListener.class));
+            assertTrue(CountingJobEventListener.events.get() > 0);
+            // at most one in-flight event plus a full queue per shard is kept for the blocked listener
+            assertTrue(getDropped(instr, BlockingJobEventListener.class) >= 40 - 2 * (5 + 1));
+        }
+        finally {
+            BlockingJobEventListener.release.countDown();
+        }
+    }
+
+    public void testDispatchByMessageType() throws Exception {
+        Services.get().destroy();
+        Services services = new Services();
+        Configuration conf = services.getConf();
+        conf.set(Services.CONF_SERVICE_EXT_CLASSES, "org.apache.oozie.service.EventHandlerService");
+        conf.set(EventHandlerService.CONF_LISTENERS, BlockingSLAEventListener.class.getName() + ","
+                + CountingJobEventListener.class.getName());
+        conf.setInt(EventHandlerService.CONF_DISPATCH_SHARDS, 1);
+        conf.setInt(EventHandlerService.CONF_DISPATCH_SHARD_CAPACITY, 2);
+        conf.set(EventHandlerService.CONF_DISPATCH_DROP_POLICY, EventHandlerService.DropPolicy.BLOCK.name());
+        conf.setLong(EventHandlerService.CONF_DISPATCH_BLOCK_TIMEOUT, 1000);
+        services.init();
+        EventHandlerService ehs = services.get(EventHandlerService.class);
+        final Instrumentation instr = services.get(InstrumentationService.class).get();
+
+        BlockingSLAEventListener.release = new CountDownLatch(1);
+        BlockingSLAEventListener.events.set(0);
+        CountingJobEventListener.events.set(0);
+        try {
+            SLARegistrationBean reg = new SLARegistrationBean();
+            reg.setId("job-sla");
+            reg.setAppType(AppType.WORKFLOW_JOB);
+            reg.setAppName("myapp");
+            reg.setUser(getTestUser());
+            SLACalcStatus slaEvent = new SLACalcStatus(reg);
+            slaEvent.setEventStatus(SLAEvent.EventStatus.START_MET);
+            ehs.queueEvent(slaEvent);
+            waitFor(10000, new Predicate() {
+                @Override
+                public boolean evaluate() throws Exception {
+                    return BlockingSLAEventListener.events.get() == 1;
+                }
+            });
+            // job events neither reach nor fill the queue of the blocked SLA listener
+            for (int i = 0; i < 10; i++) {
+                ehs.queueEvent(new WorkflowJobEvent("job" + i, null, WorkflowJob.Status.RUNNING, getTestUser(), "myapp",
+                        null, null));
+            }
+            waitFor(10000, new Predicate() {
+                @Override
+                public boolean evaluate() throws Exception {
+                    return CountingJobEventListener.events.get() == 10;
+                }
+            });
+            assertEquals(10, CountingJobEventListener.events.get());
+            assertEquals(0, getDropped(instr, BlockingSLAEventListener.class));
+            assertEquals(0, getDropped(instr, CountingJobEventListener.class));
+            assertEquals(1, BlockingSLAEventListener.events.get());
+        }
+        finally {
+            BlockingSLAEventListener.release.countDown();
+        }
+    }
+
+    public void testDispatchFromPersistentEventQueue() throws Exception {
+        Services.get().destroy();
+        Services services = new Services();
+        Configuration conf = services.getConf();
+        conf.set(Services.CONF_SERVICE_EXT_CLASSES, "org.apache.oozie.service.EventHandlerService");
+        conf.set(EventHandlerService.CONF_LISTENERS, CountingJobEventListener.class.getName());
+        conf.set(EventHandlerService.CONF_EVENT_QUEUE, PersistentEventQueue.class.getName());
+        conf.set(PersistentEventQueue.CONF_DIR, new File(getTestCaseDir(), "events").getAbsolutePath());
+        conf.setInt(EventHandlerService.CONF_DISPATCH_SHARDS, 2);
+        services.init();
+        EventHandlerService ehs = services.get(EventHandlerService.class);
+        assertTrue(ehs.getEventQueue() instanceof PersistentEventQueue);
+
+        CountingJobEventListener.events.set(0);
+        for (int i = 0; i < 10; i++) {
+            ehs.queueEvent(new WorkflowJobEvent("job" + i, null, WorkflowJob.Status.RUNNING, getTestUser(), "myapp",
+                    null, null));
+        }
+        // the events go through the configured queue
+        waitFor(10000, new Predicate() {
+            @Override
+            public boolean evaluate() throws Exception {
+                return CountingJobEventListener.events.get() == 10;
+            }
+        });
+        assertEquals(10, CountingJobEventListener.events.get());
+        assertTrue(ehs.getEventQueue().isEmpty());
+        // the events are acknowledged once delivered
+        final PersistentEventQueue queue = (PersistentEventQueue) ehs.getEventQueue();
+        waitFor(10000, new Predicate() {
+            @Override
+            public boolean evaluate() throws Exception {
+                return queue.getInFlight() == 0;
+            }
+        });
+        assertEquals(0, queue.getInFlight());
+    }
+
+    private long getDropped(Instrumentation instr, Class<?> listener) {
+        Map<String, Instrumentation.Element<Long>> counters = instr.getCounters().get(EventHandlerService.INSTRUMENTATION_GROUP);
+        Instrumentation.Element<Long> dropped = counters == null ? null
+                : counters.get(listener.getSimpleName() + ".dropped");
+        return dropped == null ? 0 : dropped.getValue();
+    }
+
+    static class BlockingJobEventListener extends DummyJobEventListener {
+        static volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Override
+        public void onWorkflowJobEvent(WorkflowJobEvent wje) {
+            try {
+                release.await();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static class BlockingSLAEventListener extends SLAEventListener {
+        static volatile CountDownLatch release = new CountDownLatch(0);
+        static final AtomicInteger events = new AtomicInteger();
+
+        @Override
+        public void onStartMet(SLAEvent event) {
+            events.incrementAndGet();
+            try {
+                release.await();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onStartMiss(SLAEvent event) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onEndMet(SLAEvent event) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onEndMiss(SLAEvent event) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onDurationMet(SLAEvent event) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onDurationMiss(SLAEvent event) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void init(Configuration conf) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    static class CountingJobEventListener extends DummyJobEventListener {
+        static final AtomicInteger events = new AtomicInteger();
+
+        @Override
+        public void onWorkflowJobEvent(WorkflowJobEvent wje) {
+            events.incrementAndGet();
+        }
+    }
+
     static class DummyJobEventListener extends JobEventListener {
 
         @Override
@@ -21,6 +21,7 @@ package org.apache.oozie.service;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.ipc.RemoteException;
 import org.apache.hadoop.security.authorize.AuthorizationException;
+import org.apache.hadoop.service.Service.STATE;
 import org.apache.hadoop.yarn.api.records.LocalResource;
 import org.apache.hadoop.yarn.api.records.LocalResourceType;
 import org.apache.hadoop.yarn.api.records.LocalResourceVisibility;
@@ -32,12 +33,14 @@ import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.io.Text;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Map;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.util.XConfiguration;
@@ -199,6 +202,79 @@ public class TestHadoopAccessorService extends XFsTestCase {
         }
     }
 
+    public void testCreateYarnClientCacheIgnoresActionProperties() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(HadoopAccessorService.YARN_CLIENT_CACHE_SIZE, "2");
+        new Services().init();
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        Configuration conf1 = has.createConfiguration(getJobTrackerUri());
+        conf1.set("oozie.job.id", "0000001-oozie-W");
+        conf1.set("oozie.action.id", "0000001-oozie-W@a");
+        conf1.set("oozie.action.dir.path", "/user/test/oozie-oozi/0000001-oozie-W/a--java");
+        conf1.set("mapreduce.job.tags", "oozie-1");
+        Configuration conf2 = has.createConfiguration(getJobTrackerUri());
+        conf2.set("oozie.job.id", "0000002-oozie-W");
+        conf2.set("oozie.action.id", "0000002-oozie-W@b");
+        conf2.set("oozie.action.dir.path", "/user/test/oozie-oozi/0000002-oozie-W/b--java");
+        conf2.set("mapreduce.job.tags", "oozie-2");
+
+        YarnClient yc1 = has.createYarnClient(getTestUser(), conf1);
+        yc1.close();
+        YarnClient yc2 = has.createYarnClient(getTestUser(), conf2);
+        assertSame(yc1, yc2);
+        yc2.close();
+
+        Configuration conf3 = has.createConfiguration(getJobTrackerUri());
+        conf3.set("ipc.client.connect.max.retries", "5");
+        YarnClient yc3 = has.createYarnClient(getTestUser(), conf3);
+        assertNotSame(yc1, yc3);
+        yc3.close();
+    }
+
+    public void testCreateYarnClientCache() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(HadoopAccessorService.YARN_CLIENT_CACHE_SIZE, "1");
+        new Services().init();
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        Configuration conf = has.createConfiguration(getJobTrackerUri());
+
+        YarnClient yc1 = has.createYarnClient(getTestUser(), conf);
+        yc1.getApplications();
+        yc1.close();
+        assertEquals(STATE.STARTED, yc1.getServiceState());
+        YarnClient yc2 = has.createYarnClient(getTestUser(), has.createConfiguration(getJobTrackerUri()));
+        assertSame(yc1, yc2);
+        yc2.getApplications();
+
+        // the only cache slot is in use, the client of another configuration is not cached
+        Configuration otherConf = has.createConfiguration(getJobTrackerUri());
+        otherConf.set("yarn.resourcemanager.connect.max-wait.ms", "1000");
+        YarnClient yc3 = has.createYarnClient(getTestUser(), otherConf);
+        assertNotSame(yc2, yc3);
+        yc3.close();
+        assertEquals(STATE.STOPPED, yc3.getServiceState());
+
+        // once released, the least recently used client is evicted for a new one
+        yc2.close();
+        YarnClient yc4 = has.createYarnClient(getTestUser(), otherConf);
+        assertEquals(STATE.STOPPED, yc2.getServiceState());
+        yc4.getApplications();
+
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        Map<String, Instrumentation.Element<Long>> counters = instr.getCounters().get(
+                YarnClientCache.INSTRUMENTATION_GROUP);
+        assertEquals(3L, counters.get(YarnClientCache.INSTR_BUILT_COUNTER).getValue().longValue());
+        assertEquals(1L, counters.get(YarnClientCache.INSTR_REUSED_COUNTER).getValue().longValue());
+        assertEquals(1L, counters.get(YarnClientCache.INSTR_EVICTED_COUNTER).getValue().longValue());
+
+        // clients still in use are stopped on their last release after the service is destroyed
+        Services.get().destroy();
+        assertEquals(STATE.STARTED, yc4.getServiceState());
+        yc4.close();
+        assertEquals(STATE.STOPPED, yc4.getServiceState());
+        new Services().init();
+    }
+
     public void testCreateFileSystem() throws Exception {
         HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
         Configuration conf = has.createConfiguration(getJobTrackerUri());
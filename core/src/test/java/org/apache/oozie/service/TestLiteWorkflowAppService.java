@@ -26,6 +26,7 @@ import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.workflow.lite.LiteWorkflowApp;
 import org.apache.oozie.test.XTestCase;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.action.ActionExecutorException;
@@ -224,6 +225,55 @@ public class TestLiteWorkflowAppService extends XTestCase {
         }
     }
 
+    public void testDefinitionAndValidationCache() throws Exception {
+        setSystemProperty(LiteWorkflowAppService.CONF_DEFINITION_CACHE_SIZE, "10");
+        Services services = new Services();
+        try {
+            services.init();
+
+            File file = new File(getTestCaseDir(), "workflow.xml");
+            Reader reader = IOUtils.getResourceAsReader("wf-schema-valid.xml", -1);
+            Writer writer = new FileWriter(file);
+            IOUtils.copyCharStream(reader, writer);
+
+            WorkflowAppService wps = services.get(WorkflowAppService.class);
+            Instrumentation instr = services.get(InstrumentationService.class).get();
+
+            Configuration jobConf = new XConfiguration();
+            jobConf.set(OozieClient.APP_PATH, getTestCaseFileUri("workflow.xml"));
+            jobConf.set(OozieClient.USER_NAME, getTestUser());
+
+            assertEquals("test-wf", wps.parseDef(jobConf).getName());
+            assertEquals("test-wf", wps.parseDef(jobConf).getName());
+            assertEquals(1, getCounter(instr, LiteWorkflowAppService.DEFINITION_CACHE_MISSES));
+            assertEquals(1, getCounter(instr, LiteWorkflowAppService.DEFINITION_CACHE_HITS));
+            assertEquals(1, getCounter(instr, LiteWorkflowAppService.VALIDATION_CACHE_MISSES));
+            assertEquals(1, getCounter(instr, LiteWorkflowAppService.VALIDATION_CACHE_HITS));
+
+            // an updated definition is read and validated again
+            reader = IOUtils.getResourceAsReader("wf-schema-invalid.xml", -1);
+            writer = new FileWriter(file);
+            IOUtils.copyCharStream(reader, writer);
+            assertTrue(file.setLastModified(file.lastModified() + 10000));
+            try {
+                wps.parseDef(jobConf);
+                fail();
+            }
+            catch (WorkflowException ex) {
+                //nop
+            }
+            assertEquals(2, getCounter(instr, LiteWorkflowAppService.DEFINITION_CACHE_MISSES));
+            assertEquals(2, getCounter(instr, LiteWorkflowAppService.VALIDATION_CACHE_MISSES));
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+    private long getCounter(Instrumentation instr, String name) {
+        return instr.getCounters().get(LiteWorkflowAppService.INSTRUMENTATION_GROUP).get(name).getValue();
+    }
+
     public void testActionNameLength() throws Exception {
         setSystemProperty("oozie.service.ActionService.executor.ext.classes", TestActionExecutor.class.getName());
         Services services = new Services();
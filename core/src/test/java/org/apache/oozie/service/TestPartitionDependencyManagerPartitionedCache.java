@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.oozie.dependency.hcat.HCatDependencyCache;
+import org.apache.oozie.dependency.hcat.PartitionedHCatDependencyCache;
+import org.apache.oozie.dependency.hcat.SimpleHCatDependencyCache;
+import org.apache.oozie.util.HCatURI;
+import org.apache.oozie.util.XLog;
+import org.junit.Test;
+
+public class TestPartitionDependencyManagerPartitionedCache extends TestPartitionDependencyManagerService {
+
+    private static XLog LOG = XLog.getLog(TestPartitionDependencyManagerPartitionedCache.class);
+
+    private static final String SERVER = "hcat.server.com:5080";
+
+    private void setupServices() throws ServiceException {
+        Services.get().destroy();
+        services = super.setupServicesForHCatalog();
+        services.getConf().setInt(PartitionDependencyManagerService.CACHE_PURGE_INTERVAL, 1000000);
+        services.getConf().set(PartitionDependencyManagerService.CACHE_MANAGER_IMPL,
+                PartitionedHCatDependencyCache.class.getName());
+        services.init();
+    }
+
+    @Override
+    @Test
+    public void testPartitionDependency() throws Exception {
+        setupServices();
+        super.testPartitionDependency();
+    }
+
+    @Override
+    @Test
+    public void testMemoryUsageAndSpeed() throws Exception {
+        setupServices();
+        super.testMemoryUsageAndSpeed();
+    }
+
+    @Test
+    public void testRemoveNonWaitingCoordActions() throws Exception {
+        HCatURI dep1 = new HCatURI("hcat://" + SERVER + "/mydb/mytbl/dt=20120101;country=us");
+        HCatURI dep2 = new HCatURI("hcat://" + SERVER + "/mydb/mytbl/dt=20120101");
+        PartitionedHCatDependencyCache cache = new PartitionedHCatDependencyCache();
+        cache.init(services.getConf());
+        cache.addMissingDependency(dep1, "1");
+        cache.addMissingDependency(dep2, "1");
+        cache.addMissingDependency(dep2, "2");
+        cache.removeNonWaitingCoordActions(Collections.singleton("1"));
+        assertNull(cache.getWaitingActions(dep1));
+        assertEquals(Collections.singletonList("2"), cache.getWaitingActions(dep2));
+
+        Map<String, String> partitions = new HashMap<String, String>();
+        partitions.put("dt", "20120101");
+        partitions.put("country", "us");
+        assertEquals(Collections.singleton("2"), cache.markDependencyAvailable(SERVER, "mydb", "mytbl", partitions));
+        assertEquals(Collections.singletonList(dep2.toURIString()), cache.getAvailableDependencyURIs("2"));
+        assertNull(cache.getWaitingActions(dep2));
+    }
+
+    /**
+     * Replays the same partition event stream on the simple and the partitioned caches, they must find the same
+     * waiting actions.
+     */
+    @Test
+    public void testReplayPartitionEvents() throws Exception {
+        int numTables = 20;
+        int numDays = 250;
+        String[] regions = {"us", "eu", "apac"};
+        Random random = new Random(42);
+        List<HCatURI> deps = new ArrayList<HCatURI>();
+        List<String> actionIDs = new ArrayList<String>();
+        List<Map<String, String>> events = new ArrayList<Map<String, String>>();
+        for (int t = 0; t < numTables; t++) {
+            for (int d = 0; d < numDays; d++) {
+                String dt = String.valueOf(20120101 + d);
+                deps.add(new HCatURI("hcat://" + SERVER + "/mydb/tbl" + t + "/dt=" + dt));
+                actionIDs.add("daily-" + t + "-" + d);
+                for (String region : regions) {
+                    deps.add(new HCatURI("hcat://" + SERVER + "/mydb/tbl" + t + "/region=" + region + ";dt=" + dt));
+                    actionIDs.add("regional-" + t + "-" + d + "-" + region);
+                    Map<String, String> event = new HashMap<String, String>();
+                    event.put("table", "tbl" + t);
+                    event.put("dt", dt);
+                    event.put("region", region);
+                    events.add(event);
+                    // partitions nobody waits for
+                    event = new HashMap<String, String>(event);
+                    event.put("dt", String.valueOf(20130101 + d));
+                    events.add(event);
+                }
+            }
+        }
+        Collections.shuffle(events, random);
+
+        List<Collection<String>> expected = replay(new SimpleHCatDependencyCache(), deps, actionIDs, events,
+                "SimpleHCatDependencyCache");
+        List<Collection<String>> actual = replay(new PartitionedHCatDependencyCache(), deps, actionIDs, events,
+                "PartitionedHCatDependencyCache");
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(events.get(i).toString(), expected.get(i), actual.get(i));
+        }
+    }
+
+    private List<Collection<String>> replay(HCatDependencyCache cache, List<HCatURI> deps, List<String> actionIDs,
+            List<Map<String, String>> events, String name) {
+        cache.init(services.getConf());
+        for (int i = 0; i < deps.size(); i++) {
+            cache.addMissingDependency(deps.get(i), actionIDs.get(i));
+        }
+        List<Collection<String>> found = new ArrayList<Collection<String>>();
+        long start = System.nanoTime();
+        for (Map<String, String> event : events) {
+            Map<String, String> partitions = new HashMap<String, String>(event);
+            String table = partitions.remove("table");
+            Collection<String> actions = cache.markDependencyAvailable(SERVER, "mydb", table, partitions);
+            found.add(actions == null ? new HashSet<String>() : new HashSet<String>(actions));
+        }
+        LOG.info("{0} replayed {1} partition events in {2} ms", name, events.size(),
+                (System.nanoTime() - start) / 1000000);
+        for (int i = 0; i < actionIDs.size(); i++) {
+            assertNotNull(cache.getAvailableDependencyURIs(actionIDs.get(i)));
+        }
+        cache.destroy();
+        return found;
+    }
+}
@@ -927,4 +927,46 @@ public class TestRecoveryService extends XDataTestCase {
 
         return action;
     }
+    /**
+     * Tests the incremental scans of the Recovery Service Runnable. </p> Inserts suspended coordinator actions, runs a
+     * full scan reading them in pages, then an incremental scan reading only the action modified since, then a full
+     * scan again.
+     *
+     * @throws Exception
+     */
+    public void testIncrementalScan() throws Exception {
+        ConfigurationService.set(RecoveryService.CONF_PAGE_SIZE, "2");
+        ConfigurationService.set(RecoveryService.CONF_FULL_SCAN_INTERVAL, "2");
+        Date start = DateUtils.parseDateOozieTZ("2009-02-01T01:00Z");
+        Date end = DateUtils.parseDateOozieTZ("2009-02-02T23:59Z");
+        CoordinatorJobBean coordJob = addRecordToCoordJobTable(CoordinatorJob.Status.SUSPENDED, start, end, false, false,
+                3);
+        CoordinatorActionBean action = null;
+        for (int i = 1; i <= 3; i++) {
+            action = addRecordToCoordActionTable(coordJob.getId(), i, CoordinatorAction.Status.SUSPENDED,
+                    "coord-action-get.xml", 1);
+        }
+        sleep(1000);
+
+        Runnable recoveryRunnable = new RecoveryRunnable(0, 0, 0);
+        recoveryRunnable.run();
+        assertEquals(3, getRecoveryCounter("coord_actions_scanned"));
+        assertEquals(3, getRecoveryCounter("coord_actions"));
+
+        action.setLastModifiedTime(new Date());
+        CoordActionQueryExecutor.getInstance().executeUpdate(CoordActionQuery.UPDATE_COORD_ACTION_FOR_MODIFIED_DATE,
+                action);
+        sleep(1000);
+        recoveryRunnable.run();
+        assertEquals(4, getRecoveryCounter("coord_actions_scanned"));
+        assertEquals(4, getRecoveryCounter("coord_actions"));
+
+        recoveryRunnable.run();
+        assertEquals(7, getRecoveryCounter("coord_actions_scanned"));
+        assertEquals(7, getRecoveryCounter("coord_actions"));
+    }
+
+    private long getRecoveryCounter(String name) {
+        return services.get(InstrumentationService.class).get().getCounters().get("recovery").get(name).getValue();
+    }
 }
@@ -36,9 +36,12 @@ import com.google.common.io.Files;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.filecache.ClientDistributedCacheManager;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.action.hadoop.ActionExecutorTestCase.Context;
@@ -518,6 +521,72 @@ public class TestShareLibService extends XFsTestCase {
         verifyFilesInDistributedCache(DistributedCache.getCacheFiles(jobConf), "pig-10.jar", "oozie_luncher.jar");
     }
 
+    @Test
+    public void testFileStatusCache() throws Exception {
+        getOozieConfig().set(ShareLibService.CACHE_FILE_STATUS, "true");
+        services.init();
+        FileSystem fs = getFileSystem();
+        ShareLibService shareLibService = Services.get().get(ShareLibService.class);
+        Path basePath = new Path(getOozieConfig().get(WorkflowAppService.SYSTEM_LIB_PATH));
+        Date time = new Date(System.currentTimeMillis());
+
+        Path libpath = new Path(basePath, ShareLibService.SHARE_LIB_PREFIX + ShareLibService.dateFormat.format(time));
+        Path pigJar = fs.makeQualified(new Path(libpath, "pig" + Path.SEPARATOR + "pig.jar"));
+        Path launcherJar = fs.makeQualified(new Path(libpath, "oozie" + Path.SEPARATOR + "oozie_luncher.jar"));
+        createFiles(pigJar, launcherJar);
+        shareLibService.updateShareLib();
+
+        Map<URI, FileStatus> fileStatusCache = shareLibService.getFileStatusCache();
+        assertEquals(fs.getFileStatus(pigJar).getModificationTime(),
+                fileStatusCache.get(pigJar.toUri()).getModificationTime());
+        assertTrue(fileStatusCache.containsKey(launcherJar.toUri()));
+        assertTrue(fileStatusCache.containsKey(fs.makeQualified(new Path("/")).toUri()));
+
+        // the cached statuses cover every lookup made for the timestamps, sizes and visibilities of the sharelib files
+        Configuration jobConf = new Configuration(false);
+        DistributedCache.addCacheFile(pigJar.toUri(), jobConf);
+        DistributedCache.addCacheFile(launcherJar.toUri(), jobConf);
+        Map<URI, FileStatus> statCache = shareLibService.newFileStatusCache();
+        int cachedStatuses = fileStatusCache.size();
+        ClientDistributedCacheManager.determineTimestamps(jobConf, statCache);
+        ClientDistributedCacheManager.determineCacheVisibilities(jobConf, statCache);
+        assertEquals(cachedStatuses, statCache.size());
+        assertEquals(fs.getFileStatus(pigJar).getModificationTime() + "," + fs.getFileStatus(launcherJar).getModificationTime(),
+                jobConf.get(MRJobConfig.CACHE_FILE_TIMESTAMPS));
+
+        // the statuses of other files are kept by the cache of the submission only
+        Path appJar = fs.makeQualified(new Path(getFsTestCaseDir(), "app.jar"));
+        createFiles(appJar);
+        statCache.put(appJar.toUri(), fs.getFileStatus(appJar));
+        assertTrue(statCache.containsKey(appJar.toUri()));
+        assertFalse(fileStatusCache.containsKey(appJar.toUri()));
+
+        Path newLibpath = new Path(basePath, ShareLibService.SHARE_LIB_PREFIX
+                + ShareLibService.dateFormat.format(new Date(time.getTime() + TimeUnit.SECONDS.toMillis(1))));
+        Path newPigJar = fs.makeQualified(new Path(newLibpath, "pig" + Path.SEPARATOR + "pig.jar"));
+        createFiles(newPigJar);
+        shareLibService.updateShareLib();
+
+        fileStatusCache = shareLibService.getFileStatusCache();
+        assertTrue(fileStatusCache.containsKey(newPigJar.toUri()));
+        assertFalse(fileStatusCache.containsKey(pigJar.toUri()));
+    }
+
+    @Test
+    public void testFileStatusCacheDisabled() throws Exception {
+        getOozieConfig().set(ShareLibService.CACHE_FILE_STATUS, "false");
+        services.init();
+        ShareLibService shareLibService = Services.get().get(ShareLibService.class);
+        Path basePath = new Path(getOozieConfig().get(WorkflowAppService.SYSTEM_LIB_PATH));
+        Path libpath = new Path(basePath, ShareLibService.SHARE_LIB_PREFIX
+                + ShareLibService.dateFormat.format(new Date(System.currentTimeMillis())));
+        createFiles(new Path(libpath, "pig" + Path.SEPARATOR + "pig.jar"));
+        shareLibService.updateShareLib();
+
+        assertNotNull(shareLibService.getShareLibJars("pig"));
+        assertTrue(shareLibService.getFileStatusCache().isEmpty());
+    }
+
     @Test
     public void testShareLibLoadFileMultipleFile() throws Exception {
         FileSystem fs = getFileSystem();
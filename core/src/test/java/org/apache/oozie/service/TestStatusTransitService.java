@@ -138,6 +138,39 @@ public class TestStatusTransitService extends XDataTestCase {
         assertEquals(CoordinatorJob.Status.DONEWITHERROR, coordJob.getStatus());
     }
 
+    /**
+     * Tests functionality of the StatusTransitService dirty jobs Runnable. </p> Insert a coordinator job with RUNNING
+     * and pending true and coordinator actions with pending false. Then, runs the dirty jobs runnable and ensures the
+     * job status changes to SUCCEEDED only once the job is marked.
+     *
+     * @throws Exception
+     */
+    public void testCoordStatusTransitServiceDirtyJobs() throws Exception {
+        String currentDatePlusMonth = XDataTestCase.getCurrentDateafterIncrementingInMonths(1);
+        Date start = DateUtils.parseDateOozieTZ(currentDatePlusMonth);
+        Date end = DateUtils.parseDateOozieTZ(currentDatePlusMonth);
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, start, end, true, true, 3);
+        addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.SUCCEEDED, "coord-action-get.xml", 0);
+        addRecordToCoordActionTable(job.getId(), 2, CoordinatorAction.Status.SUCCEEDED, "coord-action-get.xml", 0);
+        addRecordToCoordActionTable(job.getId(), 3, CoordinatorAction.Status.SKIPPED, "coord-action-get.xml", 0);
+
+        // not marked while the dirty jobs are disabled
+        StatusTransitService.markCoordJob(job.getId());
+        ConfigurationService.set(StatusTransitService.CONF_DIRTY_INTERVAL, "3600");
+        services.setService(StatusTransitService.class);
+
+        Runnable runnable = new StatusTransitService.DirtyJobsRunnable();
+        runnable.run();
+        JPAService jpaService = Services.get().get(JPAService.class);
+        CoordinatorJobBean coordJob = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(CoordinatorJob.Status.RUNNING, coordJob.getStatus());
+
+        StatusTransitService.markCoordJob(job.getId());
+        runnable.run();
+        coordJob = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(CoordinatorJob.Status.SUCCEEDED, coordJob.getStatus());
+    }
+
     /**
      * Tests functionality of the StatusTransitService Runnable command. </p> Insert a coordinator job with RUNNING and
      * pending true and coordinator actions with pending false, but one of action is KILLED.
@@ -37,6 +37,7 @@ import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.rest.JMSConnectionInfoBean;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.DagEngineService;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.XmlUtils;
 
 public class MockDagEngineService extends DagEngineService {
@@ -228,6 +229,15 @@ public class MockDagEngineService extends DagEngineService {
             return new WorkflowsInfo((List) workflows, start, len, workflows.size());
         }
 
+        @Override
+        public WorkflowsInfo getJobs(String filter, JobsKeyset after, int len) throws DagEngineException {
+            parseFilter(filter);
+            did = RestConstants.JOBS_FILTER_PARAM;
+            int from = validateWorkflowIdx(after.getId()) + 1;
+            List<WorkflowJob> jobs = workflows.subList(from, Math.min(from + len, workflows.size()));
+            return new WorkflowsInfo((List) new ArrayList<WorkflowJob>(jobs), 1, len, -1);
+        }
+
         @Override
         public String getJobIdForExternalId(String externalId) throws DagEngineException {
             did = RestConstants.JOBS_EXTERNAL_ID_PARAM;
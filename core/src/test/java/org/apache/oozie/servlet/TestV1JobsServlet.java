@@ -33,11 +33,13 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.oozie.DagEngine;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.AuthorizationService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsKeyset;
 import org.apache.oozie.util.XConfiguration;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -251,4 +253,65 @@ public class TestV1JobsServlet extends DagServletTestCase {
         });
     }
 
+    public void testJobsMaxLen() throws Exception {
+        setSystemProperty(V1JobsServlet.CONF_JOBS_MAX_LEN, "2");
+        runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockDagEngineService.reset();
+
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.JOBS_FILTER_PARAM, "name=x");
+                params.put(RestConstants.LEN_PARAM, "100");
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+
+                params.put(RestConstants.LEN_PARAM, "2");
+                url = createURL("", params);
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
+
+    public void testJobsPageToken() throws Exception {
+        setSystemProperty(V1JobsServlet.CONF_JOBS_FETCH_SIZE, "2");
+        runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockDagEngineService.reset();
+
+                WorkflowJob first = MockDagEngineService.workflows.get(0);
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.JOBS_FILTER_PARAM, "name=x");
+                params.put(RestConstants.PAGE_TOKEN_PARAM,
+                        new JobsKeyset(first.getCreatedTime(), first.getId()).toToken());
+                params.put(RestConstants.LEN_PARAM, "3");
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                JSONArray array = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+                assertEquals(3, array.size());
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(MockDagEngineService.workflows.get(i + 1).getId(),
+                            ((JSONObject) array.get(i)).get(JsonTags.WORKFLOW_ID));
+                }
+                assertEquals(3L, json.get(JsonTags.WORKFLOWS_LEN));
+                WorkflowJob last = MockDagEngineService.workflows.get(3);
+                assertEquals(new JobsKeyset(last.getCreatedTime(), last.getId()).toToken(),
+                        json.get(JsonTags.WORKFLOWS_NEXT_PAGE_TOKEN));
+
+                params.put(RestConstants.PAGE_TOKEN_PARAM, "x");
+                url = createURL("", params);
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
 }
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.sla;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.oozie.AppType;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XTestCase;
+
+public class TestSLACalcStatus extends XTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private SLARegistrationBean createRegistration(String id) {
+        SLARegistrationBean reg = new SLARegistrationBean();
+        reg.setId(id);
+        reg.setAppType(AppType.WORKFLOW_JOB);
+        reg.setAppName(new String("app-name"));
+        reg.setUser(new String("user"));
+        reg.setParentId(new String("parent-id"));
+        reg.setAlertEvents(new String("START_MISS,END_MISS"));
+        return reg;
+    }
+
+    public void testTimes() {
+        SLACalcStatus calc = new SLACalcStatus(createRegistration("job-1-W"));
+        assertNotNull(calc.getLastModifiedTime());
+        assertNull(calc.getActualStart());
+        assertNull(calc.getActualEnd());
+
+        Date start = new Date(1000);
+        Timestamp end = new Timestamp(2000);
+        calc.setActualStart(start);
+        calc.setActualEnd(end);
+        calc.setLastModifiedTime(new Date(0));
+        assertEquals(start, calc.getActualStart());
+        assertEquals(2000, calc.getActualEnd().getTime());
+        assertEquals(new Date(0), calc.getLastModifiedTime());
+        assertTrue(calc.getActualEnd().equals(end));
+
+        calc.setActualStart(null);
+        assertNull(calc.getActualStart());
+    }
+
+    public void testSharedStrings() {
+        SLACalcStatus calc1 = new SLACalcStatus(createRegistration("job-1-W"));
+        SLACalcStatus calc2 = new SLACalcStatus(createRegistration("job-2-W"));
+        calc1.setJobStatus(new String("RUNNING"));
+        calc2.setJobStatus(new String("RUNNING"));
+
+        assertEquals("app-name", calc1.getAppName());
+        assertSame(calc1.getUser(), calc2.getUser());
+        assertSame(calc1.getAlertEvents(), calc2.getAlertEvents());
+        assertSame(calc1.getJobStatus(), calc2.getJobStatus());
+        assertNotSame(calc1.getParentId(), calc2.getParentId());
+        assertEquals("job-1-W", calc1.getId());
+        assertEquals("job-2-W", calc2.getId());
+    }
+
+    public void testRegistrationLoadedAfterRestart() {
+        SLASummaryBean summary = new SLASummaryBean();
+        summary.setId("job-1-W");
+        summary.setAppType(AppType.WORKFLOW_JOB);
+        summary.setAppName("app-name");
+        summary.setUser("user");
+        summary.setParentId("parent-id");
+        summary.setExpectedEnd(new Date(3000));
+        summary.setJobStatus("RUNNING");
+        SLACalcStatus calc = new SLACalcStatus(summary);
+        assertNull(calc.getSLARegistrationBean());
+        assertEquals("job-1-W", calc.getId());
+        assertEquals("app-name", calc.getAppName());
+        assertEquals(new Date(3000), calc.getExpectedEnd());
+
+        SLARegistrationBean reg = createRegistration("job-1-W");
+        reg.setNotificationMsg("notification");
+        reg.setExpectedEnd(new Date(5000));
+        calc.updateSLARegistrationBean(reg);
+        assertNotNull(calc.getSLARegistrationBean());
+        assertEquals("notification", calc.getNotificationMsg());
+        assertEquals("START_MISS,END_MISS", calc.getAlertEvents());
+        assertEquals(new Date(3000), calc.getExpectedEnd());
+
+        calc.setSLARegistrationBean(null);
+        assertNull(calc.getSLARegistrationBean());
+        assertEquals("parent-id", calc.getParentId());
+        SLACalcStatus copy = new SLACalcStatus(calc);
+        assertEquals("job-1-W", copy.getId());
+        assertNull(copy.getSLARegistrationBean());
+        calc.updateSLARegistrationBean(reg);
+        assertEquals(new Date(3000), calc.getExpectedEnd());
+    }
+}
@@ -25,6 +25,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -35,6 +37,7 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.spi.LoggingEvent;
 import org.apache.oozie.AppType;
 import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.CoordinatorAction;
@@ -59,10 +62,12 @@ import org.apache.oozie.executor.jpa.SLASummaryQueryExecutor.SLASummaryQuery;
 import org.apache.oozie.executor.jpa.WorkflowActionInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.lock.LockToken;
 import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.sla.service.SLAService;
 import org.apache.oozie.test.XDataTestCase;
@@ -261,6 +266,159 @@ public class TestSLACalculatorMemory extends XDataTestCase {
     }
 
 
+    @Test
+    public void testUpdateAllSlaStatusInParallelBatches() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-mm-dd");
+        Configuration conf = Services.get().get(ConfigurationService.class).getConf();
+        conf.setInt(SLAService.CONF_SLA_UPDATE_THREADS, 2);
+        conf.setInt(SLAService.CONF_SLA_UPDATE_BATCH_SIZE, 4);
+        SLACalculatorMemory slaCalcMemory = new SLACalculatorMemory();
+        slaCalcMemory.init(conf);
+        List<String> jobIds = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            SLARegistrationBean slaRegBean = _createSLARegistration("job-" + i + "-W", AppType.WORKFLOW_JOB);
+            slaRegBean.setExpectedEnd(sdf.parse("2013-03-07"));
+            slaRegBean.setExpectedStart(sdf.parse("2012-03-07"));
+            slaCalcMemory.addRegistration(slaRegBean.getId(), slaRegBean);
+            SLACalcStatus calc = slaCalcMemory.get(slaRegBean.getId());
+            calc.setEventProcessed(1);
+            calc.setSLAStatus(SLAEvent.SLAStatus.IN_PROCESS);
+            calc.setJobStatus(WorkflowJob.Status.RUNNING.name());
+            calc.setLastModifiedTime(new Date());
+            SLASummaryQueryExecutor.getInstance().executeUpdate(SLASummaryQuery.UPDATE_SLA_SUMMARY_ALL,
+                    new SLASummaryBean(calc));
+
+            WorkflowJobBean wjb = new WorkflowJobBean();
+            wjb.setId(slaRegBean.getId());
+            wjb.setStatus(WorkflowJob.Status.SUCCEEDED);
+            wjb.setStartTime(sdf.parse("2012-02-07"));
+            wjb.setEndTime(sdf.parse("2013-02-07"));
+            wjb.setLastModifiedTime(new Date());
+            WorkflowJobQueryExecutor.getInstance().insert(wjb);
+            jobIds.add(slaRegBean.getId());
+        }
+        slaCalcMemory.destroy();
+
+        slaCalcMemory = new SLACalculatorMemory();
+        slaCalcMemory.init(conf);
+        assertEquals(10, slaCalcMemory.size());
+        try {
+            slaCalcMemory.updateAllSlaStatus();
+        }
+        finally {
+            slaCalcMemory.destroy();
+        }
+
+        assertEquals(0, slaCalcMemory.size());
+        for (String jobId : jobIds) {
+            SLASummaryBean slaSummary = SLASummaryQueryExecutor.getInstance().get(SLASummaryQuery.GET_SLA_SUMMARY,
+                    jobId);
+            assertEquals(8, slaSummary.getEventProcessed());
+            assertEquals("SUCCEEDED", slaSummary.getJobStatus());
+            assertEquals(SLAEvent.SLAStatus.MET, slaSummary.getSLAStatus());
+        }
+        Map<String, Instrumentation.Element<Long>> counters = instrumentation.getCounters().get(
+                SLACalculatorMemory.INSTRUMENTATION_GROUP);
+        assertEquals(10, (long) counters.get(SLACalculatorMemory.SLA_UPDATES_FLUSHED).getValue());
+        assertTrue(counters.get(SLACalculatorMemory.SLA_UPDATE_FLUSHES).getValue() < 10);
+        assertTrue(instrumentation.getTimers().get(SLACalculatorMemory.INSTRUMENTATION_GROUP)
+                .get(SLACalculatorMemory.SLA_UPDATE_PASS).getValue().getTicks() > 0);
+    }
+
+    @Test
+    public void testFailedBatchUpdatesAreCheckedAgain() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-mm-dd");
+        Configuration conf = Services.get().get(ConfigurationService.class).getConf();
+        conf.setInt(SLAService.CONF_SLA_UPDATE_THREADS, 2);
+        conf.setInt(SLAService.CONF_SLA_UPDATE_BATCH_SIZE, 4);
+        SLACalculatorMemory slaCalcMemory = new SLACalculatorMemory();
+        slaCalcMemory.init(conf);
+        final SLARegistrationBean slaRegBean = _createSLARegistration("job-1-W", AppType.WORKFLOW_JOB);
+        slaRegBean.setExpectedEnd(sdf.parse("2013-03-07"));
+        slaRegBean.setExpectedStart(sdf.parse("2012-03-07"));
+        slaCalcMemory.addRegistration(slaRegBean.getId(), slaRegBean);
+        SLACalcStatus calc = slaCalcMemory.get(slaRegBean.getId());
+        calc.setEventProcessed(1);
+        calc.setSLAStatus(SLAEvent.SLAStatus.IN_PROCESS);
+        calc.setJobStatus(WorkflowJob.Status.RUNNING.name());
+        calc.setLastModifiedTime(new Date());
+        SLASummaryQueryExecutor.getInstance().executeUpdate(SLASummaryQuery.UPDATE_SLA_SUMMARY_ALL,
+                new SLASummaryBean(calc));
+        WorkflowJobBean wjb = new WorkflowJobBean();
+        wjb.setId(slaRegBean.getId());
+        wjb.setStatus(WorkflowJob.Status.SUCCEEDED);
+        wjb.setStartTime(sdf.parse("2012-02-07"));
+        wjb.setEndTime(sdf.parse("2013-02-07"));
+        wjb.setLastModifiedTime(new Date());
+        WorkflowJobQueryExecutor.getInstance().insert(wjb);
+        slaCalcMemory.destroy();
+
+        final AtomicInteger failures = new AtomicInteger(1);
+        final AtomicBoolean lockedWhileWriting = new AtomicBoolean();
+        final SLACalculatorMemory failingSlaCalcMemory = new SLACalculatorMemory() {
+            @Override
+            @SuppressWarnings("rawtypes")
+            void executeBatchQuery(List<UpdateEntry> updateList) throws JPAExecutorException {
+                lockedWhileWriting.set(!isUnlocked("sla_" + slaRegBean.getId()));
+                if (failures.getAndDecrement() > 0) {
+                    throw new JPAExecutorException(ErrorCode.E0603, "DB unavailable");
+                }
+                super.executeBatchQuery(updateList);
+            }
+        };
+        failingSlaCalcMemory.init(conf);
+        try {
+            // the job is kept in memory until its update is written
+            failingSlaCalcMemory.updateAllSlaStatus();
+            assertTrue(lockedWhileWriting.get());
+            assertTrue(isUnlocked("sla_" + slaRegBean.getId()));
+            assertTrue(failingSlaCalcMemory.isJobIdInSLAMap(slaRegBean.getId()));
+            assertEquals(1, SLASummaryQueryExecutor.getInstance().get(SLASummaryQuery.GET_SLA_SUMMARY,
+                    slaRegBean.getId()).getEventProcessed());
+
+            failingSlaCalcMemory.updateAllSlaStatus();
+            assertTrue(lockedWhileWriting.get());
+            assertFalse(failingSlaCalcMemory.isJobIdInSLAMap(slaRegBean.getId()));
+            SLASummaryBean slaSummary = SLASummaryQueryExecutor.getInstance().get(SLASummaryQuery.GET_SLA_SUMMARY,
+                    slaRegBean.getId());
+            assertEquals(8, slaSummary.getEventProcessed());
+            assertEquals("SUCCEEDED", slaSummary.getJobStatus());
+        }
+        finally {
+            failingSlaCalcMemory.destroy();
+        }
+    }
+
+    /**
+     * Check from another thread that no thread holds the lock, memory locks are reentrant.
+     */
+    private boolean isUnlocked(final String key) {
+        final AtomicBoolean unlocked = new AtomicBoolean();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    LockToken lock = Services.get().get(MemoryLocksService.class).getWriteLock(key, 0);
+                    if (lock != null) {
+                        unlocked.set(true);
+                        lock.release();
+                    }
+                }
+                catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        }
+        catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+        return unlocked.get();
+    }
+
     @Test
     public void testWorkflowJobSLAStatusOnRestart() throws Exception {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-mm-dd");
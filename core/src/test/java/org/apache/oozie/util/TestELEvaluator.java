@@ -19,6 +19,7 @@
 package org.apache.oozie.util;
 
 import org.apache.oozie.test.XTestCase;
+import org.jdom.Element;
 
 import javax.servlet.jsp.el.ELException;
 import java.lang.reflect.Method;
@@ -199,4 +200,53 @@ public class TestELEvaluator extends XTestCase {
         assertNull(ELEvaluator.getCurrent());
     }
 
+
+    public void testExpressionCache() throws Exception {
+        ELEvaluator.setExpressionCacheSize(10);
+        try {
+            ELEvaluator.Context support = new ELEvaluator.Context();
+            support.addFunction("a", "d", functionD);
+            ELEvaluator evaluator = new ELEvaluator(support);
+            assertEquals(0, ELEvaluator.getExpressionCacheSize());
+            for (int i = 0; i < 3; i++) {
+                evaluator.setVariable("i", i);
+                assertEquals(i + "::b", evaluator.evaluate("${a:d(i, 'b')}", String.class));
+                assertEquals(i + 1, (int) evaluator.evaluate("${i + 1}", Integer.class));
+            }
+            assertEquals(2, ELEvaluator.getExpressionCacheSize());
+            assertEquals("x2::b-3}", evaluator.evaluate("x${a:d(i, 'b')}-${i + 1}}", String.class));
+            assertEquals("}::{", evaluator.evaluate("${a:d('}', \"{\")}", String.class));
+            assertEquals(3, ELEvaluator.getExpressionCacheSize());
+            assertEquals("static", evaluator.evaluate("static", String.class));
+            assertEquals(Boolean.TRUE, evaluator.evaluate("true", Boolean.class));
+            assertEquals("", evaluator.evaluate("", String.class));
+            try {
+                evaluator.evaluate("${a:d(i}", String.class);
+                fail();
+            }
+            catch (ELException ex) {
+                //nop
+            }
+            try {
+                evaluator.evaluate("${i} ${i", String.class);
+                fail();
+            }
+            catch (ELException ex) {
+                //nop
+            }
+            assertEquals(4, ELEvaluator.getExpressionCacheSize());
+
+            Element element = XmlUtils.parseXml("<a x='${i}'><b>${a:d(i, 'b')} ${i + 2}</b><c>${c</c><d>d</d></a>");
+            assertEquals(3, ELEvaluator.precompile(element));
+            assertEquals(5, ELEvaluator.getExpressionCacheSize());
+
+            ELEvaluator.setExpressionCacheSize(0);
+            assertEquals("2::b", evaluator.evaluate("${a:d(i, 'b')}", String.class));
+            assertEquals(0, ELEvaluator.precompile(element));
+            assertEquals(0, ELEvaluator.getExpressionCacheSize());
+        }
+        finally {
+            ELEvaluator.setExpressionCacheSize(ELEvaluator.DEFAULT_EXPRESSION_CACHE_SIZE);
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
+import org.apache.oozie.util.TestPriorityDelayQueue.TestQueueElement;
+
+public class TestShardedPriorityDelayQueue extends TestCase {
+
+    public void testQueueConstructor() throws Exception {
+        try {
+            new ShardedPriorityDelayQueue<Integer>(0, 3, 1000, TimeUnit.MILLISECONDS, -1);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            new ShardedPriorityDelayQueue<Integer>(4, 0, 1000, TimeUnit.MILLISECONDS, -1);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        ShardedPriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(4, 3, 1000,
+                TimeUnit.MILLISECONDS, -1);
+        assertEquals(4, q.getShards());
+        assertEquals(3, q.getPriorities());
+    }
+
+    public void testBoundQueueSize() {
+        ShardedPriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(4, 1, 1000,
+                TimeUnit.MILLISECONDS, 2);
+        assertTrue(q.offer(new TestQueueElement<Integer>(1)));
+        assertTrue(q.offer(new TestQueueElement<Integer>(2)));
+        assertEquals(2, q.size());
+        assertFalse(q.offer(new TestQueueElement<Integer>(3)));
+        assertEquals(2, q.size());
+        assertNotNull(q.poll());
+        assertEquals(1, q.size());
+        assertTrue(q.offer(new TestQueueElement<Integer>(3)));
+        assertEquals(2, q.size());
+        q.clear();
+        assertEquals(0, q.size());
+        assertTrue(q.offer(new TestQueueElement<Integer>(4)));
+    }
+
+    public void testPollPriorityAcrossShards() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(4, 3, 500,
+                TimeUnit.MILLISECONDS, -1);
+
+        q.offer(new TestQueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new TestQueueElement<Integer>(11, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new TestQueueElement<Integer>(20, 1, 0, TimeUnit.MILLISECONDS));
+        q.offer(new TestQueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+        q.offer(new TestQueueElement<Integer>(40, 2, 100, TimeUnit.MILLISECONDS));
+        assertEquals(5, q.size());
+        assertEquals(2, q.sizes()[0]);
+        assertEquals(1, q.sizes()[1]);
+        assertEquals(2, q.sizes()[2]);
+
+        assertEquals((Integer) 30, q.peek().getElement().call());
+        assertEquals((Integer) 30, q.poll().getElement().call());
+        assertEquals((Integer) 20, q.poll().getElement().call());
+        assertEquals(0, q.poll().getPriority());
+        assertEquals(0, q.poll().getPriority());
+        assertNull(q.poll());
+        assertEquals((Integer) 40, q.peek().getElement().call());
+
+        Thread.sleep(101);
+        assertEquals((Integer) 40, q.poll().getElement().call());
+        assertEquals(0, q.size());
+    }
+
+    public void testEligibleToPoll() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(2, 1, 500,
+                TimeUnit.MILLISECONDS, -1) {
+            @Override
+            protected boolean eligibleToPoll(QueueElement<?> element) {
+                try {
+                    return ((Integer) element.getElement().call()) % 2 == 0;
+                }
+                catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        q.offer(new TestQueueElement<Integer>(1));
+        q.offer(new TestQueueElement<Integer>(3));
+        q.offer(new TestQueueElement<Integer>(2));
+        assertEquals((Integer) 2, q.poll().getElement().call());
+        assertNull(q.poll());
+        assertEquals(2, q.size());
+    }
+
+    public void testAntiStarvation() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(2, 3, 500,
+                TimeUnit.MILLISECONDS, -1);
+        q.offer(new TestQueueElement<Integer>(1, 0, 0, TimeUnit.MILLISECONDS));
+        assertEquals(1, q.sizes()[0]);
+        Thread.sleep(600);
+        QueueElement<Integer> e = q.poll();
+        assertEquals((Integer) 1, e.getElement().call());
+        assertEquals(1, e.getPriority());
+    }
+
+    public void testConcurrency() throws Exception {
+        final int threads = 8;
+        final int elements = 500;
+        final int priorities = 3;
+        final AtomicInteger polled = new AtomicInteger();
+        final ShardedPriorityDelayQueue<String> queue = new ShardedPriorityDelayQueue<String>(4, priorities, 100,
+                TimeUnit.MILLISECONDS, -1);
+
+        Thread[] producers = new Thread[threads];
+        Thread[] consumers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int count = i;
+            producers[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < elements; j++) {
+                        queue.offer(new TestQueueElement<String>(count + " - " + j,
+                                (int) (Math.random() * priorities), (int) (Math.random() * 20),
+                                TimeUnit.MILLISECONDS));
+                    }
+                }
+            });
+            consumers[i] = new Thread(new Runnable() {
+                public void run() {
+                    long limit = System.currentTimeMillis() + 30 * 1000;
+                    while (polled.get() < threads * elements && System.currentTimeMillis() < limit) {
+                        if (queue.poll() != null) {
+                            polled.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < threads; i++) {
+            producers[i].start();
+            consumers[i].start();
+        }
+        for (int i = 0; i < threads; i++) {
+            producers[i].join();
+            consumers[i].join();
+        }
+        assertEquals(threads * elements, polled.get());
+        assertEquals(0, queue.size());
+    }
+
+}
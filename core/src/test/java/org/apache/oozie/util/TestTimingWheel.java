@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TestTimingWheel extends TestCase {
+
+    public void testConstructor() {
+        try {
+            new TimingWheel<Integer>(0, TimeUnit.MILLISECONDS, 8);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            new TimingWheel<Integer>(10, TimeUnit.MILLISECONDS, 1);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(10, TimeUnit.MILLISECONDS, 8);
+        assertEquals(10, wheel.getTickDuration(TimeUnit.MILLISECONDS));
+        assertEquals(0, wheel.size());
+        assertEquals(1, wheel.getLevels());
+    }
+
+    public void testAddWithinCurrentTick() {
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(10, TimeUnit.MILLISECONDS, 8, 1000);
+        assertFalse(wheel.add(1, 995));
+        assertFalse(wheel.add(1, 1000));
+        assertTrue(wheel.add(1, 1001));
+        assertEquals(1, wheel.size());
+    }
+
+    public void testAdvance() {
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(10, TimeUnit.MILLISECONDS, 8, 0);
+        assertTrue(wheel.add(1, 15));
+        assertTrue(wheel.add(2, 20));
+        assertTrue(wheel.add(3, 75));
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.advance(10).isEmpty());
+        assertTrue(wheel.advance(19).isEmpty());
+        assertEquals(Arrays.asList(1, 2), wheel.advance(20));
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(79).isEmpty());
+        assertEquals(Collections.singletonList(3), wheel.advance(80));
+        assertEquals(0, wheel.size());
+    }
+
+    public void testCascade() {
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(10, TimeUnit.MILLISECONDS, 4, 0);
+        // beyond the first level (4 ticks) and the second level (16 ticks)
+        assertTrue(wheel.add(1, 100));
+        assertTrue(wheel.add(2, 500));
+        assertTrue(wheel.add(3, 30));
+        assertEquals(3, wheel.getLevels());
+
+        List<Integer> due = new ArrayList<Integer>();
+        List<Long> when = new ArrayList<Long>();
+        for (long now = 0; now <= 600; now += 5) {
+            for (Integer i : wheel.advance(now)) {
+                due.add(i);
+                when.add(now);
+            }
+        }
+        assertEquals(3, due.size());
+        assertEquals((Integer) 3, due.get(0));
+        assertEquals((Long) 30L, when.get(0));
+        assertEquals((Integer) 1, due.get(1));
+        assertEquals((Long) 100L, when.get(1));
+        assertEquals((Integer) 2, due.get(2));
+        assertEquals((Long) 500L, when.get(2));
+        assertEquals(0, wheel.size());
+    }
+
+    public void testNeverEarly() {
+        long start = 1000000;
+        TimingWheel<Long> wheel = new TimingWheel<Long>(7, TimeUnit.MILLISECONDS, 16, start);
+        Random random = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            long deadline = start + 1 + random.nextInt(20000);
+            assertTrue(wheel.add(deadline, deadline));
+        }
+        int count = 0;
+        for (long now = start; now <= start + 20010; now += 3) {
+            for (Long deadline : wheel.advance(now)) {
+                assertTrue(deadline <= now);
+                assertTrue(now - deadline < 7 + 3);
+                count++;
+            }
+        }
+        assertEquals(5000, count);
+        assertEquals(0, wheel.size());
+    }
+
+    public void testElementsAndClear() {
+        TimingWheel<Integer> wheel = new TimingWheel<Integer>(10, TimeUnit.MILLISECONDS, 4, 0);
+        wheel.add(1, 20);
+        wheel.add(2, 2000);
+        List<Integer> elements = wheel.elements();
+        Collections.sort(elements);
+        assertEquals(2, elements.size());
+        assertEquals((Integer) 1, elements.get(0));
+        assertEquals((Integer) 2, elements.get(1));
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.elements().isEmpty());
+        assertTrue(wheel.advance(3000).isEmpty());
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestVirtualThreadFactory extends TestCase {
+
+    public void testNewFactory() throws Exception {
+        if (VirtualThreadFactory.isSupported()) {
+            ThreadFactory factory = VirtualThreadFactory.newFactory("test");
+            final AtomicBoolean ran = new AtomicBoolean();
+            Thread thread = factory.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    ran.set(true);
+                }
+            });
+            assertEquals("test-0", thread.getName());
+            assertTrue(thread.isDaemon());
+            thread.start();
+            thread.join();
+            assertTrue(ran.get());
+            assertEquals("test-1", factory.newThread(thread).getName());
+        }
+        else {
+            try {
+                VirtualThreadFactory.newFactory("test");
+                fail();
+            }
+            catch (UnsupportedOperationException ex) {
+            }
+        }
+    }
+
+}
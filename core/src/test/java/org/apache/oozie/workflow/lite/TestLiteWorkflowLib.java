@@ -20,6 +20,8 @@ package org.apache.oozie.workflow.lite;
 
 
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.oozie.service.ConfigurationService;
+import org.apache.oozie.service.LiteWorkflowStoreService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.workflow.WorkflowInstance;
@@ -758,6 +760,45 @@ public class TestLiteWorkflowLib extends XTestCase {
         assertEquals(WorkflowInstance.Status.SUCCEEDED, job.getStatus());
     }
 
+    public void testCompactJobPersistance() throws Exception {
+        List<String> branches = new ArrayList<String>();
+        for (int i = 0; i < 500; i++) {
+            branches.add("action-" + i);
+        }
+        LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>",
+            new StartNodeDef(TestControlNodeHandler.class, "f"))
+                .addNode(new ForkNodeDef("f", TestControlNodeHandler.class, branches));
+        for (String branch : branches) {
+            def.addNode(new NodeDef(branch, null, AsynchNodeHandler.class, Arrays.asList(new String[]{"j"})));
+        }
+        def.addNode(new JoinNodeDef("j", TestControlNodeHandler.class, "end"))
+            .addNode(new EndNodeDef("end", TestControlNodeHandler.class));
+
+        LiteWorkflowInstance job = new LiteWorkflowInstance(def, new XConfiguration(), "0000001-oozie-W");
+        job.start();
+        for (String branch : branches) {
+            job.setVar(branch + WorkflowInstance.NODE_VAR_SEPARATOR + "oozie.action.id", "0000001-oozie-W@" + branch);
+            job.setVar(branch + WorkflowInstance.NODE_VAR_SEPARATOR + "status", "OK");
+        }
+        job.setVar("long", RandomStringUtils.randomAlphanumeric(1000));
+        assertEquals(WorkflowInstance.Status.RUNNING, job.getStatus());
+
+        byte[] legacy = WritableUtils.toByteArray(job);
+        ConfigurationService.setBoolean(LiteWorkflowStoreService.CONF_COMPACT_INSTANCE_SERIALIZATION, true);
+        byte[] compact = WritableUtils.toByteArray(job);
+        assertTrue(compact.length < legacy.length);
+
+        // both formats are read, and hold the same state
+        LiteWorkflowInstance compactJob = WritableUtils.fromByteArray(compact, LiteWorkflowInstance.class);
+        LiteWorkflowInstance legacyJob = WritableUtils.fromByteArray(legacy, LiteWorkflowInstance.class);
+        assertEquals(job.getAllVars(), compactJob.getAllVars());
+        assertEquals(job.getAllVars(), legacyJob.getAllVars());
+        assertEquals("0000001-oozie-W", compactJob.getId());
+        assertEquals(WorkflowInstance.Status.RUNNING, compactJob.getStatus());
+        assertTrue(Arrays.equals(compact, WritableUtils.toByteArray(compactJob)));
+        assertTrue(Arrays.equals(compact, WritableUtils.toByteArray(legacyJob)));
+    }
+
     public void testJobPersistanceMoreThan64K() throws WorkflowException {
         LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>", new StartNodeDef(
                 TestControlNodeHandler.class, "one")).addNode(
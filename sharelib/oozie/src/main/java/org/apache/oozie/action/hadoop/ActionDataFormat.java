@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact single-record encoding of the action data the launcher hands back to the Oozie server.
+ * <p>
+ * The record is a magic number, a version byte, the entry count and then each key and value as a length-prefixed
+ * UTF-8 string. Unlike the {@link LauncherAM#ACTION_DATA_SEQUENCE_FILE} it carries no header, sync markers or
+ * class names, so it is written with a single create and read back with a single open.
+ */
+public final class ActionDataFormat {
+
+    static final int MAGIC = 0x4F414431;
+    static final byte VERSION = 1;
+
+    private ActionDataFormat() {
+    }
+
+    /**
+     * Writes the action data as one compact record.
+     * @param out the output to write to
+     * @param actionData the action data
+     * @throws IOException in case of IO error
+     */
+    public static void write(DataOutput out, Map<String, String> actionData) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(actionData.size());
+        for (Map.Entry<String, String> entry : actionData.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    /**
+     * Reads an action data record written by {@link #write(DataOutput, Map)}.
+     * @param in the input to read from
+     * @return the action data, in the order it was written
+     * @throws IOException if the record is truncated, or has an unknown magic number or version
+     */
+    public static Map<String, String> read(DataInput in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not an action data record, magic number: " + Integer.toHexString(magic));
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported action data version: " + version);
+        }
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid action data entry count: " + count);
+        }
+        Map<String, String> actionData = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            actionData.put(key, readString(in));
+        }
+        return actionData;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        }
+        else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < -1) {
+            throw new IOException("Invalid action data string length: " + length);
+        }
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
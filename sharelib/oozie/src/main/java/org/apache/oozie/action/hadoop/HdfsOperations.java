@@ -17,7 +17,9 @@
  */
 package org.apache.oozie.action.hadoop;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -46,7 +48,8 @@ public class HdfsOperations {
     }
 
     /**
-     * Creates a Sequence file which contains the output from an action and uploads it to HDFS.
+     * Uploads the output from an action to HDFS. Unless {@link LauncherAM#CONF_OOZIE_ACTION_DATA_COMPACT} is set to
+     * false, the data is written as a single {@link ActionDataFormat} record; otherwise a Sequence file is created.
      * @param launcherJobConf the configuration
      * @param actionDir the target directory on HDFS
      * @param actionData the data to upload
@@ -55,6 +58,10 @@ public class HdfsOperations {
      */
     public void uploadActionDataToHDFS(final Configuration launcherJobConf, final Path actionDir,
                                        final Map<String, String> actionData) throws IOException, InterruptedException {
+        if (launcherJobConf.getBoolean(LauncherAM.CONF_OOZIE_ACTION_DATA_COMPACT, true)) {
+            uploadCompactActionDataToHDFS(launcherJobConf, actionDir, actionData);
+            return;
+        }
         Path finalPath = new Path(actionDir, LauncherAM.ACTION_DATA_SEQUENCE_FILE);
         // upload into sequence file
         System.out.println("Oozie Launcher, uploading action data to HDFS sequence file: " + finalPath.toUri());
@@ -72,6 +79,17 @@ public class HdfsOperations {
         }
     }
 
+    private void uploadCompactActionDataToHDFS(final Configuration launcherJobConf, final Path actionDir,
+                                               final Map<String, String> actionData) throws IOException {
+        Path finalPath = new Path(actionDir, LauncherAM.ACTION_DATA_COMPACT_FILE);
+        System.out.println("Oozie Launcher, uploading action data to HDFS file: " + finalPath.toUri());
+
+        FileSystem fs = FileSystem.get(finalPath.toUri(), launcherJobConf);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fs.create(finalPath, true)))) {
+            ActionDataFormat.write(out, actionData);
+        }
+    }
+
     public boolean fileExists(final Path path, final Configuration launcherJobConf) throws IOException, InterruptedException {
         FileSystem fs = FileSystem.get(path.toUri(), launcherJobConf);
         return fs.exists(path);
@@ -79,6 +79,8 @@ public class LauncherAM {
     public static final String OOZIE_ACTION_DIR_PATH = ACTION_PREFIX + "dir.path";
     public static final String ACTION_PREPARE_XML = ACTION_PREFIX + "prepare.xml";
     public static final String ACTION_DATA_SEQUENCE_FILE = "action-data.seq"; // COMBO FILE
+    public static final String ACTION_DATA_COMPACT_FILE = "action-data.bin";
+    public static final String CONF_OOZIE_ACTION_DATA_COMPACT = "oozie.launcher.action.data.compact";
     public static final String ACTION_DATA_EXTERNAL_CHILD_IDS = "externalChildIDs";
     public static final String ACTION_DATA_OUTPUT_PROPS = "output.properties";
     public static final String ACTION_DATA_STATS = "stats.properties";
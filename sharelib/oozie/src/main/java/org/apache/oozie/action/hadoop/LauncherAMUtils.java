@@ -49,6 +49,7 @@ public class LauncherAMUtils {
     static final String ACTION_CONF_XML = "action.xml";
     static final String ACTION_PREPARE_XML = "oozie.action.prepare.xml";
     static final String ACTION_DATA_SEQUENCE_FILE = "action-data.seq"; // COMBO FILE
+    static final String ACTION_DATA_COMPACT_FILE = "action-data.bin";
     static final String ACTION_DATA_EXTERNAL_CHILD_IDS = "externalChildIDs";
     static final String ACTION_DATA_OUTPUT_PROPS = "output.properties";
     static final String ACTION_DATA_STATS = "stats.properties";
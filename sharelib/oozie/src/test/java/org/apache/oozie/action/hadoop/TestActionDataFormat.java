@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestActionDataFormat {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Map<String, String> actionData = new LinkedHashMap<>();
+        actionData.put(LauncherAM.ACTION_DATA_FINAL_STATUS, "SUCCEEDED");
+        actionData.put(LauncherAM.ACTION_DATA_OUTPUT_PROPS, "a=b\nc=é中");
+        actionData.put(LauncherAM.ACTION_DATA_STATS, "");
+        actionData.put(LauncherAM.ACTION_DATA_NEW_ID, null);
+
+        Map<String, String> read = ActionDataFormat.read(toInput(toBytes(actionData)));
+
+        assertEquals(actionData, read);
+        assertEquals(Arrays.asList(actionData.keySet().toArray()), Arrays.asList(read.keySet().toArray()));
+        assertNull(read.get(LauncherAM.ACTION_DATA_NEW_ID));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedRecord() throws Exception {
+        Map<String, String> actionData = new LinkedHashMap<>();
+        actionData.put(LauncherAM.ACTION_DATA_FINAL_STATUS, "SUCCEEDED");
+        byte[] bytes = toBytes(actionData);
+
+        ActionDataFormat.read(toInput(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownMagic() throws Exception {
+        ActionDataFormat.read(toInput(new byte[] {'S', 'E', 'Q', 6, 0, 0, 0, 0, 0}));
+    }
+
+    private static byte[] toBytes(Map<String, String> actionData) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ActionDataFormat.write(out, actionData);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream toInput(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
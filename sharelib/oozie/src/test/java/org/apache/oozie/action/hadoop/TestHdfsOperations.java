@@ -18,13 +18,18 @@
 package org.apache.oozie.action.hadoop;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.security.PrivilegedExceptionAction;
 import java.util.HashMap;
@@ -36,7 +41,9 @@ import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
@@ -47,6 +54,9 @@ import org.mockito.stubbing.Answer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TestHdfsOperations {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     @Mock
     private SequenceFileWriterFactory seqFileWriterFactoryMock;
 
@@ -82,6 +92,22 @@ public class TestHdfsOperations {
         assertEquals("testValue", valueCaptor.getValue().toString());
     }
 
+    @Test
+    public void testCompactActionDataUploadToHdfsSucceeds() throws Exception {
+        File actionDir = tmp.newFolder();
+        Configuration conf = new Configuration(false);
+        conf.setBoolean(LauncherAM.CONF_OOZIE_ACTION_DATA_COMPACT, true);
+
+        hdfsOperations.uploadActionDataToHDFS(conf, new Path(actionDir.toURI()), actionData);
+
+        File actionDataFile = new File(actionDir, LauncherAM.ACTION_DATA_COMPACT_FILE);
+        try (DataInputStream in = new DataInputStream(new FileInputStream(actionDataFile))) {
+            assertEquals(actionData, ActionDataFormat.read(in));
+        }
+        assertFalse(new File(actionDir, LauncherAM.ACTION_DATA_SEQUENCE_FILE).exists());
+        verifyZeroInteractions(seqFileWriterFactoryMock);
+    }
+
     @Test(expected = IOException.class)
     public void testActionDataUploadToHdfsFailsWhenAppendingToWriter() throws Exception {
         willThrow(new IOException()).given(writerMock).append(any(Text.class), any(Text.class));
@@ -99,6 +125,7 @@ public class TestHdfsOperations {
 
     @SuppressWarnings("unchecked")
     private void configureMocksForHappyPath() throws Exception {
+        given(configurationMock.getBoolean(LauncherAM.CONF_OOZIE_ACTION_DATA_COMPACT, true)).willReturn(false);
         given(seqFileWriterFactoryMock.createSequenceFileWriter(eq(configurationMock),
                 any(Path.class), eq(Text.class), eq(Text.class))).willReturn(writerMock);
     }
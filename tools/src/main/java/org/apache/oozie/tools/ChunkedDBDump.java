@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.tools;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.gson.Gson;
+import org.apache.oozie.BundleActionBean;
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.sla.SLARegistrationBean;
+import org.apache.oozie.sla.SLASummaryBean;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of a chunked dump of the Oozie database, written by {@link OozieDBExportCLI} and read by
+ * {@link OozieDBImportCLI} when they run in parallel mode.
+ * <p/>
+ * A chunked dump is a directory holding one gzipped JSON file per chunk of a table, a chunk being the rows whose
+ * ids are in a range, and a {@value #MANIFEST_JSON} file listing the chunks. The manifest is written last, a
+ * directory without it is not a complete dump.
+ */
+class ChunkedDBDump {
+
+    static final String MANIFEST_JSON = "manifest.json";
+    static final String IMPORT_STARTED = "import.started";
+    static final String IMPORT_DONE = "import.done";
+
+    /**
+     * The exported tables, in import order.
+     */
+    enum Table {
+        WF_JOBS(WorkflowJobBean.class, "ooziedb_wf", "id"),
+        WF_ACTIONS(WorkflowActionBean.class, "ooziedb_ac", "id"),
+        COORD_JOBS(CoordinatorJobBean.class, "ooziedb_cj", "id"),
+        COORD_ACTIONS(CoordinatorActionBean.class, "ooziedb_ca", "id"),
+        BUNDLE_JOBS(BundleJobBean.class, "ooziedb_bnj", "id"),
+        BUNDLE_ACTIONS(BundleActionBean.class, "ooziedb_bna", "bundleActionId"),
+        SLA_REGISTRATION(SLARegistrationBean.class, "ooziedb_slareg", "jobId"),
+        SLA_SUMMARY(SLASummaryBean.class, "ooziedb_slasum", "jobId");
+
+        private final Class<?> entityClass;
+        private final String filePrefix;
+        private final String idField;
+
+        Table(final Class<?> entityClass, final String filePrefix, final String idField) {
+            this.entityClass = entityClass;
+            this.filePrefix = filePrefix;
+            this.idField = idField;
+        }
+
+        Class<?> getEntityClass() {
+            return entityClass;
+        }
+
+        String getChunkFileName(final int index) {
+            return String.format("%s.%05d.json.gz", filePrefix, index);
+        }
+
+        /**
+         * Create a query on the rows of a chunk, ordered by id.
+         *
+         * @param entityManager the entity manager
+         * @param select what to select, the entity is {@code e}
+         * @param chunk the chunk
+         * @param after if not null, only select the rows with greater ids
+         * @return the query
+         */
+        Query createChunkQuery(final EntityManager entityManager, final String select, final Chunk chunk,
+                               final String after) {
+            final Query query = entityManager.createQuery(String.format("select %s from %s e%s order by e.%s", select,
+                    entityClass.getSimpleName(), getWhereClause(chunk, after), idField));
+            setParameters(query, chunk, after);
+            return query;
+        }
+
+        /**
+         * Create a query counting the rows of a chunk.
+         *
+         * @param entityManager the entity manager
+         * @param chunk the chunk
+         * @return the query
+         */
+        TypedQuery<Long> createChunkCountQuery(final EntityManager entityManager, final Chunk chunk) {
+            final TypedQuery<Long> query = entityManager.createQuery(String.format("select count(e) from %s e%s",
+                    entityClass.getSimpleName(), getWhereClause(chunk, null)), Long.class);
+            setParameters(query, chunk, null);
+            return query;
+        }
+
+        /**
+         * Create a query deleting the rows of a chunk.
+         *
+         * @param entityManager the entity manager
+         * @param chunk the chunk
+         * @return the query
+         */
+        Query createChunkDeleteQuery(final EntityManager entityManager, final Chunk chunk) {
+            final Query query = entityManager.createQuery(String.format("delete from %s e%s",
+                    entityClass.getSimpleName(), getWhereClause(chunk, null)));
+            setParameters(query, chunk, null);
+            return query;
+        }
+
+        private String getWhereClause(final Chunk chunk, final String after) {
+            final List<String> conditions = new ArrayList<>();
+            if (after != null) {
+                conditions.add("e." + idField + " > :after");
+            }
+            else if (chunk.from != null) {
+                conditions.add("e." + idField + " >= :from");
+            }
+            if (chunk.to != null) {
+                conditions.add("e." + idField + " < :to");
+            }
+            return conditions.isEmpty() ? "" : " where " + Joiner.on(" and ").join(conditions);
+        }
+
+        private void setParameters(final Query query, final Chunk chunk, final String after) {
+            if (after != null) {
+                query.setParameter("after", after);
+            }
+            else if (chunk.from != null) {
+                query.setParameter("from", chunk.from);
+            }
+            if (chunk.to != null) {
+                query.setParameter("to", chunk.to);
+            }
+        }
+
+        /**
+         * Find the first ids of the chunks of the table, the ids are read from the index by one query per chunk.
+         *
+         * @param entityManager the entity manager
+         * @param chunkSize number of rows per chunk
+         * @return the first id of the chunks but the first one, whose rows start at the first row of the table
+         */
+        List<String> findChunkBoundaries(final EntityManager entityManager, final int chunkSize) {
+            final List<String> boundaries = new ArrayList<>();
+            final Chunk next = new Chunk();
+            while (true) {
+                final Query query = createChunkQuery(entityManager, "e." + idField, next, null);
+                query.setFirstResult(chunkSize);
+                query.setMaxResults(1);
+                final List<?> ids = query.getResultList();
+                if (ids.isEmpty()) {
+                    return boundaries;
+                }
+                next.from = (String) ids.get(0);
+                boundaries.add(next.from);
+            }
+        }
+    }
+
+    /**
+     * A chunk of a table, the rows whose ids are in {@code [from, to)}, a null bound being unbounded.
+     */
+    static class Chunk {
+        String table;
+        String file;
+        String from;
+        String to;
+        long rows;
+
+        Table getTable() {
+            return Table.valueOf(table);
+        }
+    }
+
+    /**
+     * The manifest of a chunked dump.
+     */
+    static class Manifest {
+        String dbVersion;
+        List<Chunk> chunks = new ArrayList<>();
+
+        void write(final File dir) throws IOException {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, MANIFEST_JSON)),
+                    Charsets.UTF_8)) {
+                new Gson().toJson(this, writer);
+            }
+        }
+
+        static Manifest read(final File dir) throws IOException {
+            final File file = new File(dir, MANIFEST_JSON);
+            if (!file.exists()) {
+                throw new IOException(String.format("[%s] is not a complete chunked dump, [%s] is missing.", dir,
+                        MANIFEST_JSON));
+            }
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), Charsets.UTF_8)) {
+                return new Gson().fromJson(reader, Manifest.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.tools;
+
+import com.google.common.base.Charsets;
+import com.google.gson.Gson;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.tools.ChunkedDBDump.Chunk;
+import org.apache.oozie.tools.ChunkedDBDump.Manifest;
+import org.apache.oozie.tools.ChunkedDBDump.Table;
+
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Query;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.apache.oozie.tools.ChunkedDBDump.MANIFEST_JSON;
+
+/**
+ * Exports the Oozie database to a chunked dump, see {@link ChunkedDBDump}.
+ * <p/>
+ * The tables are split in chunks of ids ranges, the chunks are exported in parallel, each on its own connection, by
+ * pages read in id order.
+ */
+class ChunkedDBExporter {
+    private static final int PAGE_SIZE = 1000;
+
+    private final File dumpDir;
+    private final int threads;
+    private final int chunkSize;
+
+    ChunkedDBExporter(final File dumpDir, final int threads, final int chunkSize) {
+        this.dumpDir = dumpDir;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    void export() throws Exception {
+        checkState(dumpDir.isDirectory() || dumpDir.mkdirs(), String.format("Cannot create directory [%s].", dumpDir));
+        checkState(!new File(dumpDir, MANIFEST_JSON).exists(), String.format("[%s] already holds a dump.", dumpDir));
+
+        final Manifest manifest = new Manifest();
+        final List<Future<Chunk>> exportedChunks = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final EntityManager entityManager = getEntityManager();
+        try {
+            manifest.dbVersion = (String) entityManager
+                    .createNativeQuery("select data from OOZIE_SYS where name = 'db.version'")
+                    .getSingleResult();
+
+            for (final Table table : Table.values()) {
+                final List<String> boundaries = table.findChunkBoundaries(entityManager, chunkSize);
+                String from = null;
+                for (int i = 0; i <= boundaries.size(); i++) {
+                    final Chunk chunk = new Chunk();
+                    chunk.table = table.name();
+                    chunk.file = table.getChunkFileName(i);
+                    chunk.from = from;
+                    chunk.to = (i < boundaries.size()) ? boundaries.get(i) : null;
+                    from = chunk.to;
+                    exportedChunks.add(executor.submit(new ChunkExporter(chunk)));
+                }
+                System.out.println(String.format("%s split in %d chunk(s)", table.name(), boundaries.size() + 1));
+            }
+
+            for (final Future<Chunk> exportedChunk : exportedChunks) {
+                manifest.chunks.add(exportedChunk.get());
+            }
+        } finally {
+            executor.shutdownNow();
+            entityManager.close();
+        }
+
+        // the manifest is written last, it marks the dump complete
+        manifest.write(dumpDir);
+
+        final Map<String, Long> exportedRows = new LinkedHashMap<>();
+        for (final Chunk chunk : manifest.chunks) {
+            final Long rows = exportedRows.get(chunk.table);
+            exportedRows.put(chunk.table, (rows == null ? 0 : rows) + chunk.rows);
+        }
+        for (final Map.Entry<String, Long> entry : exportedRows.entrySet()) {
+            System.out.println(entry.getValue() + " rows exported from " + entry.getKey());
+        }
+    }
+
+    private static EntityManager getEntityManager() {
+        final EntityManager entityManager = Services.get().get(JPAService.class).getEntityManager();
+        entityManager.setFlushMode(FlushModeType.COMMIT);
+        return entityManager;
+    }
+
+    /**
+     * Exports a chunk to its gzipped JSON file, one row per line.
+     */
+    private class ChunkExporter implements Callable<Chunk> {
+        private final Chunk chunk;
+
+        private ChunkExporter(final Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public Chunk call() throws Exception {
+            final Table table = chunk.getTable();
+            final Gson gson = new Gson();
+            final EntityManager entityManager = getEntityManager();
+            final PersistenceUnitUtil persistenceUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(new File(dumpDir, chunk.file))), Charsets.UTF_8))) {
+                String after = null;
+                while (true) {
+                    final Query query = table.createChunkQuery(entityManager, "OBJECT(e)", chunk, after);
+                    query.setMaxResults(PAGE_SIZE);
+                    final List<?> page = query.getResultList();
+                    for (final Object row : page) {
+                        gson.toJson(row, writer);
+                        writer.newLine();
+                        chunk.rows++;
+                    }
+                    if (page.size() < PAGE_SIZE) {
+                        break;
+                    }
+                    after = (String) persistenceUtil.getIdentifier(page.get(page.size() - 1));
+                    entityManager.clear();
+                }
+            } finally {
+                entityManager.close();
+            }
+            return chunk;
+        }
+    }
+}
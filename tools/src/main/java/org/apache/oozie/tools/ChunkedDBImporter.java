@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.tools;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.tools.ChunkedDBDump.Chunk;
+import org.apache.oozie.tools.ChunkedDBDump.Manifest;
+import org.apache.oozie.tools.ChunkedDBDump.Table;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.FlushModeType;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.apache.oozie.tools.ChunkedDBDump.IMPORT_DONE;
+import static org.apache.oozie.tools.ChunkedDBDump.IMPORT_STARTED;
+
+/**
+ * Imports a chunked dump, see {@link ChunkedDBDump}, to the Oozie database.
+ * <p/>
+ * The chunks are imported in parallel, each on its own connection, committing every {@code commitSize} rows. The
+ * chunks are recorded in the {@value ChunkedDBDump#IMPORT_STARTED} file of the dump before their first commit and in
+ * the {@value ChunkedDBDump#IMPORT_DONE} file once imported, so that a failed import can be resumed: the started chunks
+ * not done have their partly imported rows deleted and are imported again.
+ * <p/>
+ * As the progress is kept in the dump, a resumed import checks it against the database: the done chunks must have all
+ * their rows in it, and the tables without any started chunk must be empty.
+ */
+class ChunkedDBImporter {
+    private final File dumpDir;
+    private final int threads;
+    private final int commitSize;
+    private final boolean resume;
+    private final boolean verbose;
+
+    ChunkedDBImporter(final File dumpDir, final int threads, final int commitSize, final boolean resume,
+                      final boolean verbose) {
+        this.dumpDir = dumpDir;
+        this.threads = threads;
+        this.commitSize = commitSize;
+        this.resume = resume;
+        this.verbose = verbose;
+    }
+
+    void importAll() throws Exception {
+        final Manifest manifest = Manifest.read(dumpDir);
+        final Set<String> startedChunks = readChunks(IMPORT_STARTED);
+        final Set<String> importedChunks = readChunks(IMPORT_DONE);
+        final List<Chunk> chunks = new ArrayList<>();
+
+        final EntityManager entityManager = getEntityManager();
+        try {
+            final String currentDBVersion = (String) entityManager
+                    .createNativeQuery("select data from OOZIE_SYS where name = 'db.version'")
+                    .getSingleResult();
+            checkState(currentDBVersion.equals(manifest.dbVersion),
+                    String.format("Oozie database version mismatch. [oozieDBVersion=%s;dumpDBVersion=%s]",
+                            currentDBVersion, manifest.dbVersion));
+            System.out.println("Loading to Oozie database version " + currentDBVersion);
+
+            if (!resume) {
+                checkState(startedChunks.isEmpty() && importedChunks.isEmpty(), String.format("The dump [%s] was "
+                        + "partly imported, use -resume to import the remaining chunks.", dumpDir));
+            }
+
+            final Set<Table> startedTables = EnumSet.noneOf(Table.class);
+            for (final Chunk chunk : manifest.chunks) {
+                if (startedChunks.contains(chunk.file) || importedChunks.contains(chunk.file)) {
+                    startedTables.add(chunk.getTable());
+                }
+            }
+            for (final Table table : Table.values()) {
+                if (!startedTables.contains(table)) {
+                    final long entityCount = entityManager.createQuery(String.format("SELECT COUNT(e) FROM %s e",
+                            table.getEntityClass().getSimpleName()), Long.class).getSingleResult();
+                    checkState(entityCount == 0, String.format("There are already [%d] entries in table [%s], "
+                            + "should be empty.", entityCount, table.name()));
+                }
+            }
+
+            for (final Chunk chunk : manifest.chunks) {
+                if (importedChunks.contains(chunk.file)) {
+                    final long rows = chunk.getTable().createChunkCountQuery(entityManager, chunk).getSingleResult();
+                    checkState(rows == chunk.rows, String.format("Chunk [%s] was imported but has %d row(s) in the "
+                            + "database, %d expected. Was the dump imported to another database?", chunk.file, rows,
+                            chunk.rows));
+                    System.out.println(String.format("Chunk [%s] already imported, skipping.", chunk.file));
+                }
+                else {
+                    chunks.add(chunk);
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+
+        final List<Future<Long>> importedRows = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (final Chunk chunk : chunks) {
+                importedRows.add(executor.submit(new ChunkImporter(chunk, startedChunks.contains(chunk.file))));
+            }
+
+            long rows = 0;
+            int failed = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                try {
+                    rows += importedRows.get(i).get();
+                } catch (final ExecutionException e) {
+                    failed++;
+                    System.err.println(String.format("Import failed from chunk [%s]. [e.message=%s]",
+                            chunks.get(i).file, e.getCause().getMessage()));
+                    if (verbose) {
+                        e.getCause().printStackTrace(System.err);
+                    }
+                }
+            }
+            System.out.println(String.format("%d row(s) imported from %d chunk(s).", rows, chunks.size() - failed));
+            checkState(failed == 0, String.format("%d chunk(s) failed to import, "
+                    + "import again with -resume to import them.", failed));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Set<String> readChunks(final String fileName) throws IOException {
+        final Set<String> chunks = Sets.newHashSet();
+        final File file = new File(dumpDir, fileName);
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), Charsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    chunks.add(line.trim());
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private synchronized void recordChunk(final String fileName, final Chunk chunk) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dumpDir, fileName), true),
+                Charsets.UTF_8)) {
+            writer.write(chunk.file + "\n");
+        }
+    }
+
+    private static EntityManager getEntityManager() {
+        final EntityManager entityManager = Services.get().get(JPAService.class).getEntityManager();
+        entityManager.setFlushMode(FlushModeType.COMMIT);
+        return entityManager;
+    }
+
+    /**
+     * Imports a chunk from its gzipped JSON file.
+     */
+    private class ChunkImporter implements Callable<Long> {
+        private final Chunk chunk;
+        private final boolean started;
+
+        private ChunkImporter(final Chunk chunk, final boolean started) {
+            this.chunk = chunk;
+            this.started = started;
+        }
+
+        @Override
+        public Long call() throws Exception {
+            final Table table = chunk.getTable();
+            final Gson gson = new Gson();
+            final EntityManager entityManager = getEntityManager();
+            final EntityTransaction transaction = entityManager.getTransaction();
+            long rows = 0;
+            try {
+                if (started) {
+                    // rows committed by a failed import of the chunk
+                    transaction.begin();
+                    final int deleted = table.createChunkDeleteQuery(entityManager, chunk).executeUpdate();
+                    transaction.commit();
+                    if (deleted > 0) {
+                        System.out.println(String.format("Deleted %d row(s) of partly imported chunk [%s].", deleted,
+                                chunk.file));
+                    }
+                }
+                else {
+                    recordChunk(IMPORT_STARTED, chunk);
+                }
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(new FileInputStream(new File(dumpDir, chunk.file))), Charsets.UTF_8))) {
+                    transaction.begin();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        entityManager.persist(gson.fromJson(line, table.getEntityClass()));
+                        rows++;
+                        if (rows % commitSize == 0) {
+                            transaction.commit();
+                            entityManager.clear();
+                            transaction.begin();
+                        }
+                    }
+                    transaction.commit();
+                }
+                checkState(rows == chunk.rows, String.format("Chunk [%s] has %d row(s), %d expected.", chunk.file,
+                        rows, chunk.rows));
+                recordChunk(IMPORT_DONE, chunk);
+                if (verbose) {
+                    System.out.println(String.format("%d row(s) imported from chunk [%s].", rows, chunk.file));
+                }
+                return rows;
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                entityManager.close();
+            }
+        }
+    }
+}
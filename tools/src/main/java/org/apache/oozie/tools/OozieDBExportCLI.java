@@ -19,6 +19,7 @@
 package org.apache.oozie.tools;
 
 import com.google.gson.Gson;
+import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.oozie.cli.CLIParser;
@@ -45,6 +46,7 @@ import java.util.zip.ZipOutputStream;
  * <ul>
  * <li>Exports the data from the Oozie database to a specified target zip file</li>
  * <li>This class uses the current oozie configuration in oozie-site.xml</li>
+ * <li>With <code>-parallel</code>, exports to a directory of chunks instead, see {@link ChunkedDBDump}</li>
  * </ul>
  * <p/>
  */
@@ -78,6 +80,9 @@ public class OozieDBExportCLI {
     };
     private static final String HELP_CMD = "help";
     private static final String EXPORT_CMD = "export";
+    private static final String OPTION_PARALLEL = "parallel";
+    private static final String OPTION_CHUNK_SIZE = "chunksize";
+    static final int DEFAULT_CHUNK_SIZE = 100000;
 
     public static void main(String[] args) {
 
@@ -85,7 +90,11 @@ public class OozieDBExportCLI {
         parser.addCommand(HELP_CMD, "", "display usage for all commands or specified command", new Options(), false);
         parser.addCommand(EXPORT_CMD, "",
                 "exports the contents of the Oozie database to the specified file",
-                new Options(), true);
+                new Options()
+                        .addOption(OPTION_PARALLEL, true, "exports to the specified directory, one gzipped file per "
+                                + "chunk of rows, using the given number of threads and connections")
+                        .addOption(OPTION_CHUNK_SIZE, true, "number of rows per chunk in parallel mode, "
+                                + "default " + DEFAULT_CHUNK_SIZE), true);
 
         try {
             CLIParser.Command command = parser.parse(args);
@@ -94,7 +103,15 @@ public class OozieDBExportCLI {
                 services.getConf().set(Services.CONF_SERVICE_CLASSES, JPAService.class.getName());
                 services.getConf().set(Services.CONF_SERVICE_EXT_CLASSES, "");
                 services.init();
-                queryAllDBTables(command.getCommandLine().getArgs()[0]);
+                final CommandLine commandLine = command.getCommandLine();
+                if (commandLine.hasOption(OPTION_PARALLEL)) {
+                    final int threads = Integer.parseInt(commandLine.getOptionValue(OPTION_PARALLEL));
+                    final int chunkSize = Integer.parseInt(commandLine.getOptionValue(OPTION_CHUNK_SIZE,
+                            Integer.toString(DEFAULT_CHUNK_SIZE)));
+                    new ChunkedDBExporter(new File(commandLine.getArgs()[0]), threads, chunkSize).export();
+                } else {
+                    queryAllDBTables(commandLine.getArgs()[0]);
+                }
             } else if (command.getName().equals(HELP_CMD)) {
                 parser.showHelp(command.getCommandLine());
             }
@@ -52,6 +52,7 @@ import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.Metamodel;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.sql.Connection;
@@ -83,6 +84,7 @@ import static org.apache.oozie.tools.OozieDBExportCLI.OOZIEDB_WF_JSON;
  *  <ul>
  *      <li>imports the data from json files created by {@link OozieDBExportCLI} the specified target zip file</li>
  *      <li>this class uses the current Oozie configuration in {oozie-site.xml}</li>
+ *      <li>imports a directory of chunks created by {@link OozieDBExportCLI} in parallel mode, see {@link ChunkedDBDump}</li>
  *      <li></li>
  *  </ul>
  * <p/>
@@ -99,6 +101,8 @@ public class OozieDBImportCLI {
     private static int IMPORT_BATCH_SIZE;
     private static final String OPTION_VERBOSE_SHORT = "v";
     private static final String OPTION_VERBOSE_LONG = "verbose";
+    private static final String OPTION_PARALLEL = "parallel";
+    private static final String OPTION_RESUME = "resume";
 
     private final EntityManager entityManager;
     private final ZipFile mainZipFile;
@@ -117,7 +121,11 @@ public class OozieDBImportCLI {
         parser.addCommand(HELP_CMD, "", "display usage for all commands or specified command", new Options(), false);
         parser.addCommand(IMPORT_CMD, "",
                 "imports the contents of the Oozie database from the specified file",
-                new Options().addOption(OPTION_VERBOSE_SHORT, OPTION_VERBOSE_LONG, false, "Enables verbose logging."), true);
+                new Options().addOption(OPTION_VERBOSE_SHORT, OPTION_VERBOSE_LONG, false, "Enables verbose logging.")
+                        .addOption(OPTION_PARALLEL, true, "Number of threads and connections importing a chunked dump "
+                                + "directory, default 1.")
+                        .addOption(OPTION_RESUME, false, "Resumes a failed import of a chunked dump directory."),
+                true);
         boolean verbose = false;
 
         try {
@@ -135,7 +143,14 @@ public class OozieDBImportCLI {
                 verbose = command.getCommandLine().hasOption(OPTION_VERBOSE_SHORT)
                         || command.getCommandLine().hasOption(OPTION_VERBOSE_LONG);
 
-                importAllDBTables(command.getCommandLine().getArgs()[0], verbose);
+                final File dump = new File(command.getCommandLine().getArgs()[0]);
+                if (dump.isDirectory()) {
+                    final int threads = Integer.parseInt(command.getCommandLine().getOptionValue(OPTION_PARALLEL, "1"));
+                    new ChunkedDBImporter(dump, threads, IMPORT_BATCH_SIZE,
+                            command.getCommandLine().hasOption(OPTION_RESUME), verbose).importAll();
+                } else {
+                    importAllDBTables(dump.getPath(), verbose);
+                }
             } else if (command.getName().equals(HELP_CMD)) {
                 parser.showHelp(command.getCommandLine());
             }
@@ -40,6 +40,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.Permission;
 import java.util.List;
 import java.util.zip.ZipFile;
@@ -155,6 +157,68 @@ public class TestDBLoadDump extends XTestCase {
         System.setProperty(OOZIE_DB_IMPORT_BATCH_SIZE_KEY, Integer.toString(DEFAULT_BATCH_SIZE));
     }
 
+    @Test
+    public void testParallelExportAndResumedImport() throws Exception {
+        importValidDataToDB();
+
+        final File dumpDir = new File(getTestCaseDir(), "chunkedDump");
+        OozieDBExportCLI.main(new String[]{"export", "-parallel", "2", "-chunksize", "2", dumpDir.getAbsolutePath()});
+
+        assertTrue("manifest should be written", new File(dumpDir, ChunkedDBDump.MANIFEST_JSON).exists());
+        assertTrue("3 workflow actions should be in 2 chunks", new File(dumpDir, "ooziedb_ac.00001.json.gz").exists());
+        assertFalse("3 workflow actions should be in 2 chunks", new File(dumpDir, "ooziedb_ac.00002.json.gz").exists());
+
+        deleteAll();
+        OozieDBImportCLI.main(new String[]{"import", "-parallel", "2", dumpDir.getAbsolutePath()});
+        assertEquals("One WorkflowJobBean should be inserted.", 1L, getCount(WorkflowJobBean.class));
+        assertEquals("Three WorkflowActionBeans should be inserted.", 3L, getCount(WorkflowActionBean.class));
+        assertEquals("Three CoordinatorActionBeans should be inserted.", 3L, getCount(CoordinatorActionBean.class));
+
+        // forget a chunk was imported, the resumed import replaces its rows
+        final File doneFile = new File(dumpDir, ChunkedDBDump.IMPORT_DONE);
+        final List<String> importedChunks = Files.readAllLines(doneFile.toPath(), StandardCharsets.UTF_8);
+        importedChunks.remove("ooziedb_ac.00001.json.gz");
+        Files.write(doneFile.toPath(), importedChunks, StandardCharsets.UTF_8);
+
+        OozieDBImportCLI.main(new String[]{"import", "-resume", dumpDir.getAbsolutePath()});
+        assertEquals("Three WorkflowActionBeans should be inserted.", 3L, getCount(WorkflowActionBean.class));
+        assertEquals("The WorkflowActionBean should have the right appPath.",
+                getFieldValue("executionPath", "0000003-160720041037822-oozie-oozi-W@aggregator").toString(), "/");
+    }
+
+    @Test
+    public void testResumedImportToAnotherDatabaseCausesPrematureExit() throws Exception {
+        importValidDataToDB();
+
+        final File dumpDir = new File(getTestCaseDir(), "chunkedDump");
+        OozieDBExportCLI.main(new String[]{"export", "-parallel", "2", "-chunksize", "2", dumpDir.getAbsolutePath()});
+        deleteAll();
+        OozieDBImportCLI.main(new String[]{"import", "-parallel", "2", dumpDir.getAbsolutePath()});
+
+        // the imported chunks are recorded in the dump, not in the now empty database
+        deleteAll();
+        boolean prematureExit = false;
+        try {
+            OozieDBImportCLI.main(new String[]{"import", "-resume", dumpDir.getAbsolutePath()});
+        } catch (final ExitException e) {
+            prematureExit = (e.status == 1);
+        }
+        assertTrue("resumed import should have been ended prematurely", prematureExit);
+        assertTableEmpty(WorkflowJobBean.class);
+        assertTableEmpty(WorkflowActionBean.class);
+    }
+
+    private void deleteAll() throws ServiceException {
+        final EntityManager entityManager = getEntityManager();
+        final EntityTransaction tx = entityManager.getTransaction();
+        tx.begin();
+        for (final ChunkedDBDump.Table table : ChunkedDBDump.Table.values()) {
+            entityManager.createQuery(String.format("DELETE FROM %s e", table.getEntityClass().getSimpleName()))
+                    .executeUpdate();
+        }
+        tx.commit();
+    }
+
     private EntityManager getEntityManager() throws ServiceException {
         Services services = Services.get();
 